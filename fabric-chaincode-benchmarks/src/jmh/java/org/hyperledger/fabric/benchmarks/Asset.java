@@ -0,0 +1,62 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.benchmarks;
+
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+/** A flat data type, with only primitive properties. */
+@DataType
+public final class Asset {
+    @Property
+    private String assetId;
+
+    @Property
+    private String color;
+
+    @Property
+    private int size;
+
+    @Property
+    private long appraisedValue;
+
+    public String getAssetId() {
+        return assetId;
+    }
+
+    public Asset setAssetId(final String assetId) {
+        this.assetId = assetId;
+        return this;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public Asset setColor(final String color) {
+        this.color = color;
+        return this;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public Asset setSize(final int size) {
+        this.size = size;
+        return this;
+    }
+
+    public long getAppraisedValue() {
+        return appraisedValue;
+    }
+
+    public Asset setAppraisedValue(final long appraisedValue) {
+        this.appraisedValue = appraisedValue;
+        return this;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.benchmarks;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.contract.ContractInterface;
+import org.hyperledger.fabric.contract.annotation.Contract;
+import org.hyperledger.fabric.contract.annotation.Default;
+import org.hyperledger.fabric.contract.annotation.Transaction;
+
+/**
+ * Contract found by the benchmarks' classpath scan.
+ *
+ * <p>The transactions do little more than return their arguments, so that a benchmark of a transaction measures the
+ * routing, deserialization of its arguments and serialization of its result.
+ */
+@Contract(name = "assets")
+@Default
+public final class AssetContract implements ContractInterface {
+
+    @Transaction
+    public Asset createAsset(final Context ctx, final Asset asset) {
+        return asset;
+    }
+
+    @Transaction
+    public OwnedAsset transferAsset(final Context ctx, final OwnedAsset ownedAsset, final Owner newOwner) {
+        return ownedAsset.setOwner(newOwner);
+    }
+
+    @Transaction
+    public Portfolio createPortfolio(final Context ctx, final Portfolio portfolio) {
+        return portfolio;
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public boolean assetExists(final Context ctx, final String assetId) {
+        return ctx.getStub().getState(assetId) != null;
+    }
+}
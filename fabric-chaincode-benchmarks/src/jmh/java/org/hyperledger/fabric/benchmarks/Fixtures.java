@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.hyperledger.fabric.contract.execution.JSONTransactionSerializer;
+import org.hyperledger.fabric.contract.metadata.MetadataBuilder;
+import org.hyperledger.fabric.contract.metadata.TypeSchema;
+import org.hyperledger.fabric.contract.routing.RoutingRegistry;
+import org.hyperledger.fabric.contract.routing.TypeRegistry;
+import org.hyperledger.fabric.contract.routing.impl.RoutingRegistryImpl;
+
+/**
+ * Set up shared by the benchmarks: sample assets, in each of the shapes that the contract layer handles differently,
+ * and the registration that the chaincode does when it starts.
+ */
+public final class Fixtures {
+    /** Number of assets in the sample portfolio. */
+    public static final int PORTFOLIO_SIZE = 20;
+
+    // held, so that the levels set are not lost if the loggers are garbage collected
+    private static final List<Logger> LOGGERS = List.of(
+            Logger.getLogger("org.hyperledger"),
+            Logger.getLogger("org.hyperledger.fabric.shim"),
+            Logger.getLogger("org.hyperledger.fabric.contract"));
+
+    private Fixtures() {}
+
+    /**
+     * @param index distinguishes the asset from others
+     * @return a flat asset
+     */
+    public static Asset asset(final int index) {
+        return new Asset()
+                .setAssetId("asset" + index)
+                .setColor("blue")
+                .setSize(index % 50)
+                .setAppraisedValue(1_000L * index);
+    }
+
+    /** @return a flat asset, used as a property of the other assets */
+    public static Owner owner() {
+        return new Owner().setOwnerId("owner-0042").setName("Alice").setMspId("Org1MSP");
+    }
+
+    /** @return a nested asset */
+    public static OwnedAsset ownedAsset() {
+        return new OwnedAsset().setAsset(asset(1)).setOwner(owner());
+    }
+
+    /** @return an asset holding an array of assets */
+    public static Portfolio portfolio() {
+        final Asset[] assets = new Asset[PORTFOLIO_SIZE];
+        for (int i = 0; i < assets.length; i++) {
+            assets[i] = asset(i);
+        }
+        return new Portfolio().setOwner(owner()).setAssets(assets);
+    }
+
+    /** @return an array of flat assets */
+    public static Asset[] assets() {
+        return portfolio().getAssets();
+    }
+
+    /**
+     * A sample of one of the shapes of value.
+     *
+     * @param shape <code>flat</code>, <code>nested</code>, <code>portfolio</code> (an asset with an array of assets) or
+     *     <code>array</code> (an array of assets)
+     * @return the sample value
+     */
+    public static Object sample(final String shape) {
+        switch (shape) {
+            case "flat":
+                return asset(1);
+            case "nested":
+                return ownedAsset();
+            case "portfolio":
+                return portfolio();
+            case "array":
+                return assets();
+            default:
+                throw new IllegalArgumentException("Unknown shape: " + shape);
+        }
+    }
+
+    /**
+     * Serialize a value as JSON, as the contract layer would return it.
+     *
+     * @param value the value
+     * @return JSON string
+     */
+    public static String toJson(final Object value) {
+        return new String(
+                new JSONTransactionSerializer().toBuffer(value, TypeSchema.typeConvert(value.getClass())),
+                StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Register the contracts and data types on the classpath, and build the metadata, as the chaincode does when it
+     * starts. The serializer and schema validation need the data types and metadata components to be registered.
+     *
+     * @return registry of the contracts found
+     */
+    public static RoutingRegistry registerContracts() {
+        final RoutingRegistry registry = new RoutingRegistryImpl();
+        final TypeRegistry typeRegistry = TypeRegistry.getRegistry();
+        registry.findAndSetContracts(typeRegistry);
+        MetadataBuilder.initialize(registry, typeRegistry, MetadataBuilder.Validation.NONE);
+        return registry;
+    }
+
+    /**
+     * Log only warnings, as with <code>CORE_CHAINCODE_LOGGING_LEVEL=WARNING</code>; otherwise the messages logged at
+     * INFO for each transaction are written to the console, and dominate what is measured.
+     */
+    public static void logWarningsOnly() {
+        LOGGERS.forEach(logger -> logger.setLevel(Level.WARNING));
+    }
+}
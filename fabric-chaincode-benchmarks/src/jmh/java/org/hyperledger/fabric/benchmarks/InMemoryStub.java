@@ -0,0 +1,293 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.benchmarks;
+
+import com.google.protobuf.ByteString;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.hyperledger.fabric.protos.msp.SerializedIdentity;
+import org.hyperledger.fabric.protos.peer.ChaincodeEvent;
+import org.hyperledger.fabric.protos.peer.SignedProposal;
+import org.hyperledger.fabric.shim.Chaincode;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyModification;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+
+/**
+ * A stub that does no I/O, so that benchmarks measure only the contract layer.
+ *
+ * <p>The arguments are encoded once, when the stub is created, and the world state is held in a map. The creator is
+ * a serialized identity with a test certificate. Anything that would need the peer, such as queries, is not supported.
+ */
+public final class InMemoryStub implements ChaincodeStub {
+    private static final String MSP_ID = "BenchmarkMSP";
+
+    // a test certificate, as the contract layer parses the client identity of every transaction
+    private static final String CERTIFICATE = "MIICXTCCAgSgAwIBAgIUeLy6uQnq8wwyElU/jCKRYz3tJiQwCgYIKoZIzj0EAwIw"
+            + "eTELMAkGA1UEBhMCVVMxEzARBgNVBAgTCkNhbGlmb3JuaWExFjAUBgNVBAcTDVNh"
+            + "biBGcmFuY2lzY28xGTAXBgNVBAoTEEludGVybmV0IFdpZGdldHMxDDAKBgNVBAsT"
+            + "A1dXVzEUMBIGA1UEAxMLZXhhbXBsZS5jb20wHhcNMTcwOTA4MDAxNTAwWhcNMTgw"
+            + "OTA4MDAxNTAwWjBdMQswCQYDVQQGEwJVUzEXMBUGA1UECBMOTm9ydGggQ2Fyb2xp"
+            + "bmExFDASBgNVBAoTC0h5cGVybGVkZ2VyMQ8wDQYDVQQLEwZGYWJyaWMxDjAMBgNV"
+            + "BAMTBWFkbWluMFkwEwYHKoZIzj0CAQYIKoZIzj0DAQcDQgAEFq/90YMuH4tWugHa"
+            + "oyZtt4Mbwgv6CkBSDfYulVO1CVInw1i/k16DocQ/KSDTeTfgJxrX1Ree1tjpaodG"
+            + "1wWyM6OBhTCBgjAOBgNVHQ8BAf8EBAMCB4AwDAYDVR0TAQH/BAIwADAdBgNVHQ4E"
+            + "FgQUhKs/VJ9IWJd+wer6sgsgtZmxZNwwHwYDVR0jBBgwFoAUIUd4i/sLTwYWvpVr"
+            + "TApzcT8zv/kwIgYDVR0RBBswGYIXQW5pbHMtTWFjQm9vay1Qcm8ubG9jYWwwCgYI"
+            + "KoZIzj0EAwIDRwAwRAIgCoXaCdU8ZiRKkai0QiXJM/GL5fysLnmG2oZ6XOIdwtsC"
+            + "IEmCsI8Mhrvx1doTbEOm7kmIrhQwUVDBNXCWX1t3kJVN";
+
+    private static final byte[] CREATOR = SerializedIdentity.newBuilder()
+            .setMspid(MSP_ID)
+            .setIdBytes(ByteString.copyFrom(Base64.getDecoder().decode(CERTIFICATE)))
+            .build()
+            .toByteArray();
+
+    private final List<String> stringArgs;
+    private final List<byte[]> args;
+    private final Map<String, byte[]> state = new HashMap<>();
+
+    /** @param args the function name, followed by its parameters */
+    public InMemoryStub(final String... args) {
+        this.stringArgs = List.of(args);
+        final List<byte[]> encoded = new ArrayList<>(args.length);
+        for (final String arg : args) {
+            encoded.add(arg.getBytes(StandardCharsets.UTF_8));
+        }
+        this.args = Collections.unmodifiableList(encoded);
+    }
+
+    @Override
+    public List<byte[]> getArgs() {
+        return args;
+    }
+
+    @Override
+    public List<String> getStringArgs() {
+        return stringArgs;
+    }
+
+    @Override
+    public String getFunction() {
+        return stringArgs.isEmpty() ? null : stringArgs.get(0);
+    }
+
+    @Override
+    public List<String> getParameters() {
+        return stringArgs.isEmpty() ? stringArgs : stringArgs.subList(1, stringArgs.size());
+    }
+
+    @Override
+    public String getTxId() {
+        return "benchmark-tx";
+    }
+
+    @Override
+    public String getChannelId() {
+        return "benchmark-channel";
+    }
+
+    @Override
+    public Chaincode.Response invokeChaincode(
+            final String chaincodeName, final List<byte[]> args, final String channel) {
+        throw new UnsupportedOperationException("invokeChaincode");
+    }
+
+    @Override
+    public byte[] getState(final String key) {
+        return state.get(key);
+    }
+
+    @Override
+    public byte[] getStateValidationParameter(final String key) {
+        return new byte[0];
+    }
+
+    @Override
+    public void putState(final String key, final byte[] value) {
+        state.put(key, value);
+    }
+
+    @Override
+    public void setStateValidationParameter(final String key, final byte[] value) {}
+
+    @Override
+    public void delState(final String key) {
+        state.remove(key);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByRange(final String startKey, final String endKey) {
+        throw new UnsupportedOperationException("getStateByRange");
+    }
+
+    @Override
+    public QueryResultsIteratorWithMetadata<KeyValue> getStateByRangeWithPagination(
+            final String startKey, final String endKey, final int pageSize, final String bookmark) {
+        throw new UnsupportedOperationException("getStateByRangeWithPagination");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByPartialCompositeKey(final String compositeKey) {
+        throw new UnsupportedOperationException("getStateByPartialCompositeKey");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByPartialCompositeKey(
+            final String objectType, final String... attributes) {
+        throw new UnsupportedOperationException("getStateByPartialCompositeKey");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByPartialCompositeKey(final CompositeKey compositeKey) {
+        throw new UnsupportedOperationException("getStateByPartialCompositeKey");
+    }
+
+    @Override
+    public QueryResultsIteratorWithMetadata<KeyValue> getStateByPartialCompositeKeyWithPagination(
+            final CompositeKey compositeKey, final int pageSize, final String bookmark) {
+        throw new UnsupportedOperationException("getStateByPartialCompositeKeyWithPagination");
+    }
+
+    @Override
+    public CompositeKey createCompositeKey(final String objectType, final String... attributes) {
+        return new CompositeKey(objectType, attributes);
+    }
+
+    @Override
+    public CompositeKey splitCompositeKey(final String compositeKey) {
+        return CompositeKey.parseCompositeKey(compositeKey);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getQueryResult(final String query) {
+        throw new UnsupportedOperationException("getQueryResult");
+    }
+
+    @Override
+    public QueryResultsIteratorWithMetadata<KeyValue> getQueryResultWithPagination(
+            final String query, final int pageSize, final String bookmark) {
+        throw new UnsupportedOperationException("getQueryResultWithPagination");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyModification> getHistoryForKey(final String key) {
+        throw new UnsupportedOperationException("getHistoryForKey");
+    }
+
+    @Override
+    public byte[] getPrivateData(final String collection, final String key) {
+        throw new UnsupportedOperationException("getPrivateData");
+    }
+
+    @Override
+    public byte[] getPrivateDataHash(final String collection, final String key) {
+        throw new UnsupportedOperationException("getPrivateDataHash");
+    }
+
+    @Override
+    public byte[] getPrivateDataValidationParameter(final String collection, final String key) {
+        throw new UnsupportedOperationException("getPrivateDataValidationParameter");
+    }
+
+    @Override
+    public void putPrivateData(final String collection, final String key, final byte[] value) {
+        throw new UnsupportedOperationException("putPrivateData");
+    }
+
+    @Override
+    public void setPrivateDataValidationParameter(final String collection, final String key, final byte[] value) {
+        throw new UnsupportedOperationException("setPrivateDataValidationParameter");
+    }
+
+    @Override
+    public void delPrivateData(final String collection, final String key) {
+        throw new UnsupportedOperationException("delPrivateData");
+    }
+
+    @Override
+    public void purgePrivateData(final String collection, final String key) {
+        throw new UnsupportedOperationException("purgePrivateData");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByRange(
+            final String collection, final String startKey, final String endKey) {
+        throw new UnsupportedOperationException("getPrivateDataByRange");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByPartialCompositeKey(
+            final String collection, final String compositeKey) {
+        throw new UnsupportedOperationException("getPrivateDataByPartialCompositeKey");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByPartialCompositeKey(
+            final String collection, final CompositeKey compositeKey) {
+        throw new UnsupportedOperationException("getPrivateDataByPartialCompositeKey");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByPartialCompositeKey(
+            final String collection, final String objectType, final String... attributes) {
+        throw new UnsupportedOperationException("getPrivateDataByPartialCompositeKey");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataQueryResult(final String collection, final String query) {
+        throw new UnsupportedOperationException("getPrivateDataQueryResult");
+    }
+
+    @Override
+    public void setEvent(final String name, final byte[] payload) {}
+
+    @Override
+    public ChaincodeEvent getEvent() {
+        return null;
+    }
+
+    @Override
+    public SignedProposal getSignedProposal() {
+        return null;
+    }
+
+    @Override
+    public Instant getTxTimestamp() {
+        return Instant.EPOCH;
+    }
+
+    @Override
+    public byte[] getCreator() {
+        // a copy, as the stub of the chaincode returns
+        return CREATOR.clone();
+    }
+
+    @Override
+    public Map<String, byte[]> getTransient() {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public byte[] getBinding() {
+        return new byte[0];
+    }
+
+    @Override
+    public String getMspId() {
+        return MSP_ID;
+    }
+}
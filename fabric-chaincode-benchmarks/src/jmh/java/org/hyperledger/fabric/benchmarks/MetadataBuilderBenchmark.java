@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.benchmarks;
+
+import com.google.protobuf.ByteString;
+import java.util.concurrent.TimeUnit;
+import org.hyperledger.fabric.contract.metadata.MetadataBuilder;
+import org.hyperledger.fabric.contract.routing.RoutingRegistry;
+import org.hyperledger.fabric.contract.routing.TypeRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building the metadata from the registered contracts and data types, validating it, and returning it to clients.
+ *
+ * <pre>
+ * ./gradlew :fabric-chaincode-benchmarks:jmh -Pjmh.includes=MetadataBuilderBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetadataBuilderBenchmark {
+    private RoutingRegistry registry;
+    private TypeRegistry typeRegistry;
+
+    @Setup
+    public void setup() {
+        Fixtures.logWarningsOnly();
+        registry = Fixtures.registerContracts();
+        typeRegistry = TypeRegistry.getRegistry();
+    }
+
+    @Benchmark
+    public String initialize() {
+        MetadataBuilder.initialize(registry, typeRegistry, MetadataBuilder.Validation.NONE);
+        return MetadataBuilder.getMetadata();
+    }
+
+    @Benchmark
+    public String validate() {
+        MetadataBuilder.validate();
+        return MetadataBuilder.getMetadata();
+    }
+
+    @Benchmark
+    public String getMetadata() {
+        return MetadataBuilder.getMetadata();
+    }
+
+    @Benchmark
+    public ByteString getMetadataBytes() {
+        return MetadataBuilder.getMetadataBytes();
+    }
+}
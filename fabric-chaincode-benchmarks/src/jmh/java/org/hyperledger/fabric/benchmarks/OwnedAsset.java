@@ -0,0 +1,38 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.benchmarks;
+
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+/** A nested data type, whose properties are other data types. */
+@DataType
+public final class OwnedAsset {
+    @Property
+    private Asset asset;
+
+    @Property
+    private Owner owner;
+
+    public Asset getAsset() {
+        return asset;
+    }
+
+    public OwnedAsset setAsset(final Asset asset) {
+        this.asset = asset;
+        return this;
+    }
+
+    public Owner getOwner() {
+        return owner;
+    }
+
+    public OwnedAsset setOwner(final Owner owner) {
+        this.owner = owner;
+        return this;
+    }
+}
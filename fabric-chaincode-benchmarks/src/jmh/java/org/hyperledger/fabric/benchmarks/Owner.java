@@ -0,0 +1,50 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.benchmarks;
+
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+/** A flat data type, nested in the other assets. */
+@DataType
+public final class Owner {
+    @Property
+    private String ownerId;
+
+    @Property
+    private String name;
+
+    @Property
+    private String mspId;
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public Owner setOwnerId(final String ownerId) {
+        this.ownerId = ownerId;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Owner setName(final String name) {
+        this.name = name;
+        return this;
+    }
+
+    public String getMspId() {
+        return mspId;
+    }
+
+    public Owner setMspId(final String mspId) {
+        this.mspId = mspId;
+        return this;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.benchmarks;
+
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+/** A data type holding an array of other data types. */
+@DataType
+public final class Portfolio {
+    @Property
+    private Owner owner;
+
+    @Property
+    private Asset[] assets;
+
+    public Owner getOwner() {
+        return owner;
+    }
+
+    public Portfolio setOwner(final Owner owner) {
+        this.owner = owner;
+        return this;
+    }
+
+    public Asset[] getAssets() {
+        return assets.clone();
+    }
+
+    public Portfolio setAssets(final Asset... assets) {
+        this.assets = assets.clone();
+        return this;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.hyperledger.fabric.contract.execution.InvocationRequest;
+import org.hyperledger.fabric.contract.execution.impl.ContractInvocationRequest;
+import org.hyperledger.fabric.contract.routing.RoutingRegistry;
+import org.hyperledger.fabric.contract.routing.TxFunction;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing the function name of a transaction into a {@link ContractInvocationRequest}, and finding its transaction
+ * function in the {@link RoutingRegistry}.
+ *
+ * <pre>
+ * ./gradlew :fabric-chaincode-benchmarks:jmh -Pjmh.includes=RoutingBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoutingBenchmark {
+    private RoutingRegistry registry;
+    private ChaincodeStub namespacedStub;
+    private ChaincodeStub defaultStub;
+    private InvocationRequest request;
+    private InvocationRequest unknownRequest;
+
+    @Setup
+    public void setup() {
+        Fixtures.logWarningsOnly();
+        registry = Fixtures.registerContracts();
+        final String asset = Fixtures.toJson(Fixtures.asset(1));
+        namespacedStub = new InMemoryStub("assets:createAsset", asset);
+        defaultStub = new InMemoryStub("createAsset", asset);
+        request = new ContractInvocationRequest(namespacedStub);
+        unknownRequest = new ContractInvocationRequest(new InMemoryStub("assets:deleteAsset", "asset1"));
+    }
+
+    @Benchmark
+    public InvocationRequest parseNamespacedRequest() {
+        return new ContractInvocationRequest(namespacedStub);
+    }
+
+    @Benchmark
+    public InvocationRequest parseDefaultRequest() {
+        return new ContractInvocationRequest(defaultStub);
+    }
+
+    @Benchmark
+    public TxFunction lookupRoute() {
+        return registry.containsRoute(request) ? registry.getTxFn(request) : null;
+    }
+
+    @Benchmark
+    public TxFunction lookupUnknownRoute() {
+        return registry.containsRoute(unknownRequest)
+                ? registry.getTxFn(unknownRequest)
+                : registry.getContract(unknownRequest.getNamespace()).getUnknownRoute();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.hyperledger.fabric.contract.execution.JSONTransactionSerializer;
+import org.hyperledger.fabric.contract.metadata.TypeSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Converting transaction arguments and results to and from JSON with the {@link JSONTransactionSerializer}, for each
+ * shape of data type.
+ *
+ * <pre>
+ * ./gradlew :fabric-chaincode-benchmarks:jmh -Pjmh.includes=SerializerBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializerBenchmark {
+    @Param({"flat", "nested", "portfolio", "array"})
+    private String shape;
+
+    private JSONTransactionSerializer serializer;
+    private TypeSchema schema;
+    private Object value;
+    private byte[] buffer;
+
+    @Setup
+    public void setup() {
+        Fixtures.logWarningsOnly();
+        Fixtures.registerContracts();
+        serializer = new JSONTransactionSerializer();
+        value = Fixtures.sample(shape);
+        schema = TypeSchema.typeConvert(value.getClass());
+        buffer = Fixtures.toJson(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] toBuffer() {
+        return serializer.toBuffer(value, schema);
+    }
+
+    @Benchmark
+    public Object fromBuffer() {
+        return serializer.fromBuffer(buffer, schema);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.hyperledger.fabric.contract.metadata.TypeSchema;
+import org.hyperledger.fabric.contract.routing.TypeRegistry;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Creating a {@link TypeSchema} from a class, finding the class of a schema, and validating a JSON object against the
+ * schema of each shape of data type, as is done for each argument that is a data type.
+ *
+ * <pre>
+ * ./gradlew :fabric-chaincode-benchmarks:jmh -Pjmh.includes=TypeSchemaBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TypeSchemaBenchmark {
+    @Param({"flat", "nested", "portfolio"})
+    private String shape;
+
+    private TypeRegistry typeRegistry;
+    private Class<?> type;
+    private TypeSchema schema;
+    private JSONObject json;
+
+    @Setup
+    public void setup() {
+        Fixtures.logWarningsOnly();
+        Fixtures.registerContracts();
+        typeRegistry = TypeRegistry.getRegistry();
+        final Object value = Fixtures.sample(shape);
+        type = value.getClass();
+        schema = TypeSchema.typeConvert(type);
+        json = new JSONObject(Fixtures.toJson(value));
+    }
+
+    @Benchmark
+    public TypeSchema typeConvert() {
+        return TypeSchema.typeConvert(type);
+    }
+
+    @Benchmark
+    public Class<?> getTypeClass() {
+        return schema.getTypeClass(typeRegistry);
+    }
+
+    @Benchmark
+    public TypeSchema validate() {
+        schema.validate(json);
+        return schema;
+    }
+}
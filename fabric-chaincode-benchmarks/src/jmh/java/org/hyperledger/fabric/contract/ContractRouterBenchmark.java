@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.contract;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.hyperledger.fabric.benchmarks.Fixtures;
+import org.hyperledger.fabric.benchmarks.InMemoryStub;
+import org.hyperledger.fabric.contract.metadata.MetadataBuilder;
+import org.hyperledger.fabric.shim.Chaincode.Response;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Invoking transactions through the {@link ContractRouter}, from the arguments on the stub to the response, for each
+ * shape of data type.
+ *
+ * <p>This is in the same package as the router, so that it can find the contracts without connecting to a peer.
+ *
+ * <pre>
+ * ./gradlew :fabric-chaincode-benchmarks:jmh -Pjmh.includes=ContractRouterBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContractRouterBenchmark {
+    private ContractRouter router;
+    private ChaincodeStub flatStub;
+    private ChaincodeStub nestedStub;
+    private ChaincodeStub portfolioStub;
+    private ChaincodeStub stringStub;
+    private ChaincodeStub metadataStub;
+
+    @Setup
+    public void setup() {
+        router = new ContractRouter(new String[] {"-a", "127.0.0.1:7052", "-i", "benchmark"});
+        router.findAllContracts();
+        MetadataBuilder.initialize(
+                router.getRoutingRegistry(), router.getTypeRegistry(), MetadataBuilder.Validation.NONE);
+        Fixtures.logWarningsOnly();
+
+        flatStub = new InMemoryStub("assets:createAsset", Fixtures.toJson(Fixtures.asset(1)));
+        nestedStub = new InMemoryStub(
+                "assets:transferAsset",
+                Fixtures.toJson(Fixtures.ownedAsset()),
+                Fixtures.toJson(Fixtures.owner()));
+        portfolioStub = new InMemoryStub("assets:createPortfolio", Fixtures.toJson(Fixtures.portfolio()));
+        stringStub = new InMemoryStub("assets:assetExists", "asset1");
+        metadataStub = new InMemoryStub("org.hyperledger.fabric:GetMetadata");
+
+        // a transaction that fails returns quickly, and would be measured in place of the one intended
+        for (final ChaincodeStub stub : List.of(flatStub, nestedStub, portfolioStub, stringStub, metadataStub)) {
+            final Response response = router.invoke(stub);
+            if (response.getStatus() != Response.Status.SUCCESS) {
+                throw new IllegalStateException(
+                        stub.getFunction() + " failed: " + response.getStatus() + " " + response.getMessage());
+            }
+        }
+    }
+
+    @Benchmark
+    public Response invokeFlat() {
+        return router.invoke(flatStub);
+    }
+
+    @Benchmark
+    public Response invokeNested() {
+        return router.invoke(nestedStub);
+    }
+
+    @Benchmark
+    public Response invokePortfolio() {
+        return router.invoke(portfolioStub);
+    }
+
+    @Benchmark
+    public Response invokeString() {
+        return router.invoke(stringStub);
+    }
+
+    @Benchmark
+    public Response getMetadata() {
+        return router.invoke(metadataStub);
+    }
+}
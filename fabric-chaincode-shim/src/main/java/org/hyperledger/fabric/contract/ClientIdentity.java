@@ -7,11 +7,13 @@ package org.hyperledger.fabric.contract;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import com.google.protobuf.ByteString;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -28,6 +30,9 @@ import org.json.JSONObject;
  * ClientIdentity represents information about the identity that submitted a transaction. Chaincodes can use this class
  * to obtain information about the submitting identity including a unique ID, the MSP (Membership Service Provider) ID,
  * and attributes. Such information is useful in enforcing access control by the chaincode.
+ *
+ * <p>A ClientIdentity is immutable, and the same instance may be returned for different transactions submitted by the
+ * same identity.
  */
 public final class ClientIdentity {
     private static final Logger LOGGER = Logger.getLogger(ContractRouter.class.getName());
@@ -48,8 +53,17 @@ public final class ClientIdentity {
      * @throws IOException
      */
     public ClientIdentity(final ChaincodeStub stub) throws CertificateException, IOException {
-        final byte[] signingId = stub.getCreator();
+        this(ByteString.copyFrom(stub.getCreator()));
+    }
 
+    /**
+     * Creates new ClientIdentity from the serialized identity of the transaction creator.
+     *
+     * @param signingId serialized identity
+     * @throws CertificateException
+     * @throws IOException
+     */
+    ClientIdentity(final ByteString signingId) throws CertificateException, IOException {
         // Create a Serialized Identity protobuf
         final SerializedIdentity si = SerializedIdentity.parseFrom(signingId);
         this.mspId = si.getMspid();
@@ -63,9 +77,9 @@ public final class ClientIdentity {
         // Get the extension where the identity attributes are stored
         final byte[] extensionValue = cert.getExtensionValue(FABRIC_CERT_ATTR_OID);
         if (extensionValue != null) {
-            this.attrs = parseAttributes(extensionValue);
+            this.attrs = Collections.unmodifiableMap(parseAttributes(extensionValue));
         } else {
-            this.attrs = new HashMap<>();
+            this.attrs = Collections.emptyMap();
         }
 
         // Populate identity
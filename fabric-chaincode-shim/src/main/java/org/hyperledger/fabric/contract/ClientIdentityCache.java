@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.contract;
+
+import com.google.protobuf.ByteString;
+import java.io.IOException;
+import java.security.cert.CertificateException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import org.hyperledger.fabric.Logger;
+import org.hyperledger.fabric.metrics.IdentityCacheMetricsCollector;
+import org.hyperledger.fabric.metrics.Metrics;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+
+/**
+ * Client identities keyed by the serialized identity of the transaction creator, so that the certificate of a client
+ * submitting many transactions is only parsed once.
+ *
+ * <p>The least recently used identity is removed once the cache is full. A {@link ClientIdentity} is immutable, so the
+ * same instance is safely shared by concurrent transactions.
+ */
+final class ClientIdentityCache implements IdentityCacheMetricsCollector {
+    private static final Logger LOGGER = Logger.getLogger(ClientIdentityCache.class.getName());
+
+    /** Maximum number of identities to keep; zero disables the cache. */
+    static final String CHAINCODE_IDENTITY_CACHE_SIZE = "CHAINCODE_IDENTITY_CACHE_SIZE";
+
+    private static final int DEFAULT_SIZE = 1000;
+
+    @SuppressWarnings("PMD.AvoidUsingVolatile")
+    private static volatile ClientIdentityCache instance = new ClientIdentityCache(DEFAULT_SIZE);
+
+    private final int maxSize;
+    private final Map<ByteString, ClientIdentity> identities;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    ClientIdentityCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.identities = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<ByteString, ClientIdentity> eldest) {
+                if (size() > ClientIdentityCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Replace the shared cache with one sized from the chaincode configuration.
+     *
+     * @param props chaincode configuration
+     */
+    static void configure(final Properties props) {
+        final int size = Integer.parseInt(
+                (String) props.getOrDefault(CHAINCODE_IDENTITY_CACHE_SIZE, String.valueOf(DEFAULT_SIZE)));
+        LOGGER.info(() -> "Client identity cache size [CHAINCODE_IDENTITY_CACHE_SIZE]" + size);
+
+        final ClientIdentityCache cache = new ClientIdentityCache(size);
+        instance = cache;
+        Metrics.getProvider().setIdentityCacheMetricsCollector(cache);
+    }
+
+    /** @return the cache shared by all transactions */
+    static ClientIdentityCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Identity of the creator of the transaction, parsed only if it is not already in the cache.
+     *
+     * @param stub transaction stub
+     * @return ClientIdentity
+     * @throws CertificateException
+     * @throws IOException
+     */
+    ClientIdentity get(final ChaincodeStub stub) throws CertificateException, IOException {
+        final ByteString creator = stub.getCreatorBytes();
+        if (maxSize <= 0 || creator == null) {
+            return new ClientIdentity(stub);
+        }
+
+        lock.lock();
+        try {
+            final ClientIdentity identity = identities.get(creator);
+            if (identity != null) {
+                hits.increment();
+                return identity;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // parse outside the lock so that other transactions are not held up; a concurrent miss for the same creator
+        // parses it too, and the last one is kept
+        misses.increment();
+        final ClientIdentity identity = new ClientIdentity(creator);
+        lock.lock();
+        try {
+            identities.put(creator, identity);
+        } finally {
+            lock.unlock();
+        }
+        return identity;
+    }
+
+    @Override
+    public long getIdentityCacheHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getIdentityCacheMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getIdentityCacheEvictionCount() {
+        return evictions.sum();
+    }
+}
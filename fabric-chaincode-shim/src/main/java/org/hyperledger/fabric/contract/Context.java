@@ -38,12 +38,15 @@ public class Context {
     /**
      * Creates new client identity and sets it as a property of the stub.
      *
+     * <p>Identities are cached across transactions, so a client submitting many transactions has its certificate parsed
+     * only once.
+     *
      * @param stub Instance of the {@link ChaincodeStub} to use
      */
     public Context(final ChaincodeStub stub) {
         this.stub = stub;
         try {
-            this.clientIdentity = new ClientIdentity(stub);
+            this.clientIdentity = ClientIdentityCache.getInstance().get(stub);
         } catch (CertificateException | JSONException | IOException e) {
             throw new ContractRuntimeException("Could not create new client identity", e);
         }
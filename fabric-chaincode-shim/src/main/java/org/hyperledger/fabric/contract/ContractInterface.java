@@ -37,6 +37,10 @@ import org.hyperledger.fabric.shim.ChaincodeStub;
  * storage. Nor should they use any ThreadLocal Storage. Ledger data is stored via the ledger api available via the
  * {@link Context}.
  *
+ * <p>By default a new instance of the contract is created for each transaction. Instances can instead be reused, per
+ * thread or for all transactions, with the <code>lifecycle</code> element of the
+ * {@linkplain org.hyperledger.fabric.contract.annotation.Contract} annotation.
+ *
  * <p>If information needs to be passed from {@link #beforeTransaction(Context)} to {@link #afterTransaction(Context,
  * Object)} or between separate transaction functions when called directly then a subclass of the {@link Context} should
  * be provided.
@@ -7,9 +7,15 @@
 package org.hyperledger.fabric.contract;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Properties;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.hyperledger.fabric.Logging;
+import org.hyperledger.fabric.contract.annotation.Contract;
 import org.hyperledger.fabric.contract.execution.ExecutionFactory;
 import org.hyperledger.fabric.contract.execution.ExecutionService;
 import org.hyperledger.fabric.contract.execution.InvocationRequest;
@@ -18,8 +24,10 @@ import org.hyperledger.fabric.contract.routing.ContractDefinition;
 import org.hyperledger.fabric.contract.routing.RoutingRegistry;
 import org.hyperledger.fabric.contract.routing.TxFunction;
 import org.hyperledger.fabric.contract.routing.TypeRegistry;
+import org.hyperledger.fabric.contract.routing.impl.ContractScanner;
 import org.hyperledger.fabric.contract.routing.impl.RoutingRegistryImpl;
 import org.hyperledger.fabric.contract.routing.impl.SerializerRegistryImpl;
+import org.hyperledger.fabric.contract.systemcontract.SystemContract;
 import org.hyperledger.fabric.metrics.Metrics;
 import org.hyperledger.fabric.shim.ChaincodeBase;
 import org.hyperledger.fabric.shim.ChaincodeServer;
@@ -37,6 +45,12 @@ import org.hyperledger.fabric.traces.Traces;
 public final class ContractRouter extends ChaincodeBase {
     private static final Logger LOGGER = Logger.getLogger(ContractRouter.class.getName());
 
+    /** Lifecycle of contracts that do not set one in their {@link Contract} annotation. */
+    static final String CHAINCODE_CONTRACT_LIFECYCLE = "CHAINCODE_CONTRACT_LIFECYCLE";
+
+    /** When the metadata is validated against the contract schema. */
+    static final String CHAINCODE_METADATA_VALIDATION = "CHAINCODE_METADATA_VALIDATION";
+
     private final RoutingRegistry registry;
     private final TypeRegistry typeRegistry;
 
@@ -44,6 +58,10 @@ public final class ContractRouter extends ChaincodeBase {
     // annotation (default is JSON)
     private final SerializerRegistryImpl serializers;
     private final ExecutionService executor;
+    private final MetadataBuilder.Validation metadataValidation;
+    private final Contract.Lifecycle defaultLifecycle;
+    // as TP_EXECUTOR=virtual, which runs each transaction on a new thread
+    private final boolean virtualThreads;
 
     /**
      * Take the arguments from the cli, and initiate processing of cli options and environment variables.
@@ -62,15 +80,20 @@ public final class ContractRouter extends ChaincodeBase {
         final Properties props = super.getChaincodeConfig();
         Metrics.initialize(props);
         Traces.initialize(props);
+        ClientIdentityCache.configure(props);
 
         LOGGER.fine("ContractRouter<init>");
-        registry = new RoutingRegistryImpl();
+        // one scanner, so that the classpath is scanned once for both contracts and serializers
+        final ContractScanner scanner = new ContractScanner(props);
+        defaultLifecycle = contractLifecycle(props);
+        virtualThreads = "virtual".equals(props.getOrDefault("TP_EXECUTOR", "platform"));
+        registry = new RoutingRegistryImpl(defaultLifecycle, scanner);
         typeRegistry = TypeRegistry.getRegistry();
 
         serializers = new SerializerRegistryImpl();
 
         try {
-            serializers.findAndSetContents();
+            serializers.findAndSetContents(scanner);
         } catch (InstantiationException | IllegalAccessException e) {
             final ContractRuntimeException cre = new ContractRuntimeException("Unable to locate Serializers", e);
             LOGGER.severe(() -> Logging.formatError(cre));
@@ -78,11 +101,68 @@ public final class ContractRouter extends ChaincodeBase {
         }
 
         executor = ExecutionFactory.getInstance().createExecutionService(serializers);
+        metadataValidation = metadataValidation(props);
+    }
+
+    private static Contract.Lifecycle contractLifecycle(final Properties props) {
+        final String value = (String) props.getOrDefault(CHAINCODE_CONTRACT_LIFECYCLE, "PER_CALL");
+        final Contract.Lifecycle lifecycle;
+        try {
+            lifecycle = Contract.Lifecycle.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (final IllegalArgumentException e) {
+            throw new ContractRuntimeException("Invalid " + CHAINCODE_CONTRACT_LIFECYCLE + ": " + value, e);
+        }
+        LOGGER.info(() -> "Contract lifecycle [CHAINCODE_CONTRACT_LIFECYCLE]" + lifecycle);
+        return lifecycle;
+    }
+
+    private static MetadataBuilder.Validation metadataValidation(final Properties props) {
+        final String value = (String) props.getOrDefault(CHAINCODE_METADATA_VALIDATION, "SYNC");
+        final MetadataBuilder.Validation validation;
+        try {
+            validation = MetadataBuilder.Validation.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (final IllegalArgumentException e) {
+            throw new ContractRuntimeException("Invalid " + CHAINCODE_METADATA_VALIDATION + ": " + value, e);
+        }
+        LOGGER.info(() -> "Metadata validation [CHAINCODE_METADATA_VALIDATION]" + validation);
+        return validation;
     }
 
     /** Locate all the contracts that are available on the classpath. */
     void findAllContracts() {
         registry.findAndSetContracts(this.typeRegistry);
+        Metrics.addFunctions(routedFunctions());
+        if (virtualThreads) {
+            warnPerThreadContracts();
+        }
+    }
+
+    // the function names that route to a transaction function, rather than to a contract's unknownTransaction
+    private List<String> routedFunctions() {
+        final List<String> functions = new ArrayList<>();
+        for (final ContractDefinition contract : new LinkedHashSet<>(registry.getAllDefinitions())) {
+            for (final TxFunction txFn : contract.getTxFunctions()) {
+                functions.add(contract.getName() + ":" + txFn.getName());
+                if (contract.isDefault()) {
+                    functions.add(txFn.getName());
+                    functions.add(InvocationRequest.DEFAULT_NAMESPACE + ":" + txFn.getName());
+                }
+            }
+        }
+        return functions;
+    }
+
+    // no thread runs more than one transaction, so a PER_THREAD contract is created for every transaction
+    private void warnPerThreadContracts() {
+        for (final ContractDefinition contract : new LinkedHashSet<>(registry.getAllDefinitions())) {
+            final Contract.Lifecycle declared = contract.getAnnotation().lifecycle();
+            final Contract.Lifecycle lifecycle = declared == Contract.Lifecycle.DEFAULT ? defaultLifecycle : declared;
+            if (lifecycle == Contract.Lifecycle.PER_THREAD) {
+                LOGGER.warning(() -> "Contract " + contract.getName() + " is PER_THREAD, but with TP_EXECUTOR=virtual"
+                        + " each transaction runs on a new thread and so creates a new instance; use SINGLETON to"
+                        + " reuse one instance, or PER_CALL");
+            }
+        }
     }
 
     /**
@@ -104,16 +184,27 @@ public final class ContractRouter extends ChaincodeBase {
 
     @SuppressWarnings("PMD.AvoidCatchingGenericException")
     private Response processRequest(final ChaincodeStub stub) {
-        LOGGER.info(() -> "Got invoke routing request");
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info("Got invoke routing request");
+        }
         try {
-            if (stub.getStringArgs().isEmpty()) {
+            if (stub.getFunction() == null) {
                 return ResponseUtils.newSuccessResponse();
             }
 
-            LOGGER.info(() -> "Got the invoke request for:" + stub.getFunction() + " " + stub.getParameters());
+            if (LOGGER.isLoggable(Level.INFO)) {
+                LOGGER.info("Got the invoke request for:" + stub.getFunction() + " " + stub.getParameters());
+            }
             final InvocationRequest request = ExecutionFactory.getInstance().createRequest(stub);
             final TxFunction txFn = getRouting(request);
-            LOGGER.info(() -> "Got routing:" + txFn.getRouting());
+            if (LOGGER.isLoggable(Level.INFO)) {
+                LOGGER.info("Got routing:" + txFn.getRouting());
+            }
+            if (isGetMetadata(txFn)) {
+                // the metadata does not change, so return the bytes rendered at startup
+                return Response.withPayloadBytes(
+                        Response.Status.SUCCESS.getCode(), null, MetadataBuilder.getMetadataBytes());
+            }
             return executor.executeRequest(txFn, request, stub);
         } catch (final Throwable throwable) {
             return ResponseUtils.newErrorResponse(throwable);
@@ -130,6 +221,11 @@ public final class ContractRouter extends ChaincodeBase {
         return processRequest(stub);
     }
 
+    private static boolean isGetMetadata(final TxFunction txFn) {
+        return txFn.getRouting().getContractClass() == SystemContract.class
+                && SystemContract.GET_METADATA.equals(txFn.getName());
+    }
+
     /**
      * Given the Invocation Request, return the routing object for this call.
      *
@@ -162,7 +258,7 @@ public final class ContractRouter extends ChaincodeBase {
 
         // Create the Metadata ahead of time rather than have to produce every
         // time
-        MetadataBuilder.initialize(cfc.getRoutingRegistry(), cfc.getTypeRegistry());
+        MetadataBuilder.initialize(cfc.getRoutingRegistry(), cfc.getTypeRegistry(), cfc.metadataValidation);
         LOGGER.info(() -> "Metadata follows:" + MetadataBuilder.debugString());
 
         // check if this should be running in client or server mode
@@ -194,7 +290,7 @@ public final class ContractRouter extends ChaincodeBase {
         findAllContracts();
         LOGGER.fine(() -> getRoutingRegistry().toString());
 
-        MetadataBuilder.initialize(getRoutingRegistry(), getTypeRegistry());
+        MetadataBuilder.initialize(getRoutingRegistry(), getTypeRegistry(), metadataValidation);
         LOGGER.info(() -> "Metadata follows:" + MetadataBuilder.debugString());
 
         chaincodeServer.start();
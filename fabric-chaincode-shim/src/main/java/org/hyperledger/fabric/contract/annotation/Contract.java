@@ -19,6 +19,21 @@ import java.lang.annotation.Target;
 @Target(ElementType.TYPE)
 public @interface Contract {
 
+    /** How instances of the contract class are created to run transaction functions. */
+    enum Lifecycle {
+        /** Use the lifecycle configured for the chaincode, which is PER_CALL unless set otherwise. */
+        DEFAULT,
+        /** A new instance is created for each transaction. */
+        PER_CALL,
+        /**
+         * Each thread running transactions creates an instance, and uses it for all its transactions. With
+         * <code>TP_EXECUTOR=virtual</code> every transaction has a thread of its own, so this is the same as PER_CALL.
+         */
+        PER_THREAD,
+        /** A single instance is used for all transactions, on all threads. */
+        SINGLETON
+    }
+
     /**
      * The Info object can be supplied to provide additional information about the contract.
      *
@@ -49,4 +64,28 @@ public @interface Contract {
      * @return Default serializer classname
      */
     String transactionSerializer() default "org.hyperledger.fabric.contract.execution.JSONTransactionSerializer";
+
+    /**
+     * Contract instance lifecycle.
+     *
+     * <dl>
+     *   <dt>DEFAULT
+     *   <dd>uses the lifecycle configured for the chaincode with <code>CHAINCODE_CONTRACT_LIFECYCLE</code>
+     *   <dt>PER_CALL
+     *   <dd>creates a new instance of the contract for each transaction
+     *   <dt>PER_THREAD
+     *   <dd>reuses one instance of the contract for all transactions run on the same thread; with the virtual thread
+     *       executor, <code>TP_EXECUTOR=virtual</code>, each transaction runs on a new thread and creates a new
+     *       instance, which is reported as a warning at startup
+     *   <dt>SINGLETON
+     *   <dd>reuses one instance of the contract for all transactions; the contract must be safe to call from
+     *       several threads at once
+     * </dl>
+     *
+     * <p>Reusing instances avoids the cost of the constructor for every transaction, but only suits contracts that
+     * keep no per-transaction state in their fields.
+     *
+     * @return Lifecycle, default is DEFAULT
+     */
+    Lifecycle lifecycle() default Lifecycle.DEFAULT;
 }
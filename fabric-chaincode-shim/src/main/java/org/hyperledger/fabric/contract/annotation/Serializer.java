@@ -30,4 +30,12 @@ public @interface Serializer {
 
     /** @return Target of the serializer */
     TARGET target() default Serializer.TARGET.ALL;
+
+    /**
+     * The media type of the data written by the serializer, such as <code>application/json</code>. It is given in the
+     * metadata of the contracts that use the serializer, so that clients know how to encode their arguments.
+     *
+     * @return Media type, or empty if it is not given in the metadata
+     */
+    String encoding() default "";
 }
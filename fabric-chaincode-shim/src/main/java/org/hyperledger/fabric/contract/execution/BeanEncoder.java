@@ -0,0 +1,516 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.contract.execution;
+
+import java.io.Closeable;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONPropertyIgnore;
+import org.json.JSONPropertyName;
+import org.json.JSONString;
+
+/**
+ * Writes objects as JSON in the same way as org.json converts beans, but with the getters of each class found once
+ * and called through method handles.
+ *
+ * <p>org.json keeps the properties of an object in a {@link java.util.HashMap}, so they are written in the iteration
+ * order of a HashMap with the same capacity and the same keys added in the same order. Values that could not be
+ * written exactly as org.json would write them, such as maps or non-finite numbers, make {@link #write} return false
+ * so that the caller can fall back to org.json.
+ *
+ * <p>Unlike org.json, only the getters of the properties written are called.
+ */
+@SuppressWarnings({
+    "PMD.GodClass",
+    "PMD.CyclomaticComplexity",
+    "PMD.CognitiveComplexity",
+    "PMD.AvoidLiteralsInIfCondition",
+    "PMD.ReturnEmptyCollectionRatherThanNull"
+})
+final class BeanEncoder {
+    // as java.util.HashMap, whose iteration order decides the order org.json writes the keys
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int TREEIFY_THRESHOLD = 8;
+    private static final int MIN_TREEIFY_CAPACITY = 64;
+
+    // nested objects deeper than this, including cycles, are left to org.json
+    private static final int MAX_DEPTH = 64;
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final Set<String> EXCLUDED_RECORD_METHOD_NAMES =
+            Set.of("get", "is", "set", "toString", "hashCode", "equals", "clone", "notify", "notifyAll", "wait");
+
+    private static final ClassValue<BeanEncoder> BEANS = new ClassValue<>() {
+        @Override
+        protected BeanEncoder computeValue(final Class<?> type) {
+            return forBean(type);
+        }
+    };
+
+    private static final BeanEncoder UNSUPPORTED = new BeanEncoder(new String[0], new MethodHandle[0], 0, false);
+
+    private final String[] keys;
+    private final MethodHandle[] getters;
+    private final int[] hashes;
+    private final int capacity;
+    private final boolean supported;
+    // order of the keys when all of them are present
+    private final int[] fullOrder;
+
+    private BeanEncoder(
+            final String[] keys, final MethodHandle[] getters, final int capacity, final boolean supported) {
+        this.keys = keys;
+        this.getters = getters;
+        this.capacity = capacity;
+        this.supported = supported;
+        this.hashes = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            final int h = keys[i].hashCode();
+            hashes[i] = h ^ h >>> 16;
+        }
+        final boolean[] all = new boolean[keys.length];
+        Arrays.fill(all, true);
+        this.fullOrder = order(all, keys.length);
+    }
+
+    /**
+     * Encoder for a data type, writing only the given properties as <code>new JSONObject(new JSONObject(value),
+     * names)</code> does.
+     *
+     * @param type data type class
+     * @param names property names, in the order given to org.json
+     * @return encoder
+     */
+    static BeanEncoder forDataType(final Class<?> type, final String[] names) {
+        final Map<String, Method> methods = beanMethods(type, Set.of(names));
+        if (methods == null) {
+            return UNSUPPORTED;
+        }
+
+        final MethodHandle[] getters = new MethodHandle[names.length];
+        for (int i = 0; i < names.length; i++) {
+            getters[i] = getter(methods.get(names[i]));
+        }
+        return new BeanEncoder(names.clone(), getters, names.length, true);
+    }
+
+    private static BeanEncoder forBean(final Class<?> type) {
+        final Map<String, Method> methods = beanMethods(type, null);
+        if (methods == null) {
+            return UNSUPPORTED;
+        }
+
+        final String[] keys = methods.keySet().toArray(new String[0]);
+        final MethodHandle[] getters = new MethodHandle[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            getters[i] = getter(methods.get(keys[i]));
+        }
+        return new BeanEncoder(keys, getters, DEFAULT_CAPACITY, true);
+    }
+
+    // the getter for each key in the order org.json finds them, or null if the same key comes from more than one
+    // method and one of them is wanted
+    private static Map<String, Method> beanMethods(final Class<?> type, final Set<String> wanted) {
+        final boolean record = isRecord(type);
+        final Method[] methods = type.getClassLoader() == null ? type.getDeclaredMethods() : type.getMethods();
+        final Map<String, Method> keyed = new LinkedHashMap<>();
+        for (final Method method : methods) {
+            if (!isValidMethod(method)) {
+                continue;
+            }
+            final String key = keyName(method, record);
+            if (key == null || key.isEmpty() || wanted != null && !wanted.contains(key)) {
+                continue;
+            }
+            if (keyed.put(key, method) != null) {
+                return null;
+            }
+        }
+        return keyed;
+    }
+
+    private static MethodHandle getter(final Method method) {
+        if (method == null) {
+            return null;
+        }
+        try {
+            return MethodHandles.publicLookup().unreflect(method).asType(GETTER_TYPE);
+        } catch (final IllegalAccessException e) {
+            // org.json cannot call it either, so the property is never written
+            return null;
+        }
+    }
+
+    /**
+     * Write a bean as JSON.
+     *
+     * @param bean object with getters
+     * @param out where to write
+     * @return false if the object cannot be written exactly as org.json would write it
+     */
+    boolean write(final Object bean, final Utf8JsonWriter out) {
+        return write(bean, out, 0);
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private boolean write(final Object bean, final Utf8JsonWriter out, final int depth) {
+        if (!supported) {
+            return false;
+        }
+
+        final Object[] values = new Object[keys.length];
+        final boolean[] present = new boolean[keys.length];
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (getters[i] == null) {
+                continue;
+            }
+            Object value;
+            try {
+                value = getters[i].invokeExact(bean);
+            } catch (final Throwable t) {
+                // org.json leaves out properties whose getter fails
+                continue;
+            }
+            if (value != null) {
+                if (value instanceof Closeable) {
+                    return false;
+                }
+                values[i] = value;
+                present[i] = true;
+                count++;
+            }
+        }
+
+        final int[] order = count == keys.length ? fullOrder : order(present, count);
+        if (order == null) {
+            return false;
+        }
+
+        out.writeAscii('{');
+        for (int i = 0; i < order.length; i++) {
+            if (i > 0) {
+                out.writeAscii(',');
+            }
+            final int index = order[i];
+            out.writeQuoted(keys[index]);
+            out.writeAscii(':');
+            if (!writeValue(values[index], out, depth)) {
+                return false;
+            }
+        }
+        out.writeAscii('}');
+        return true;
+    }
+
+    /**
+     * Write a value as org.json would after wrapping it.
+     *
+     * @param value value, which may be null
+     * @param out where to write
+     * @return false if the value cannot be written exactly as org.json would write it
+     */
+    static boolean writeValue(final Object value, final Utf8JsonWriter out) {
+        return writeValue(value, out, 0);
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private static boolean writeValue(final Object value, final Utf8JsonWriter out, final int depth) {
+        if (value == null || JSONObject.NULL.equals(value)) {
+            out.writeAscii("null");
+        } else if (value instanceof String) {
+            out.writeQuoted((String) value);
+        } else if (value instanceof Byte
+                || value instanceof Short
+                || value instanceof Integer
+                || value instanceof Long
+                || value instanceof BigInteger
+                || value instanceof BigDecimal) {
+            out.writeNumber((Number) value);
+        } else if (value instanceof Float || value instanceof Double) {
+            if (!Double.isFinite(((Number) value).doubleValue())) {
+                return false;
+            }
+            out.writeNumber((Number) value);
+        } else if (value instanceof Boolean) {
+            out.writeAscii(value.toString());
+        } else if (value instanceof Character) {
+            out.writeQuoted(value.toString());
+        } else if (value instanceof Enum) {
+            out.writeQuoted(((Enum<?>) value).name());
+        } else if (value instanceof JSONObject
+                || value instanceof JSONArray
+                || value instanceof JSONString
+                || value instanceof Map
+                || depth >= MAX_DEPTH) {
+            return false;
+        } else if (value instanceof Collection) {
+            out.writeAscii('[');
+            boolean first = true;
+            for (final Object element : (Collection<?>) value) {
+                if (!first) {
+                    out.writeAscii(',');
+                }
+                first = false;
+                if (!writeValue(element, out, depth + 1)) {
+                    return false;
+                }
+            }
+            out.writeAscii(']');
+        } else if (value.getClass().isArray()) {
+            out.writeAscii('[');
+            final int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                if (i > 0) {
+                    out.writeAscii(',');
+                }
+                if (!writeValue(Array.get(value, i), out, depth + 1)) {
+                    return false;
+                }
+            }
+            out.writeAscii(']');
+        } else if (isPlatformClass(value.getClass())) {
+            try {
+                out.writeQuoted(value.toString());
+            } catch (final RuntimeException e) {
+                return false;
+            }
+        } else {
+            return BEANS.get(value.getClass()).write(value, out, depth + 1);
+        }
+        return true;
+    }
+
+    /**
+     * @param type class of a value
+     * @return true if org.json converts values of the class to a JSON object by calling its getters
+     */
+    static boolean isBean(final Class<?> type) {
+        return !(type.isPrimitive()
+                || type.isArray()
+                || type.isEnum()
+                || CharSequence.class.isAssignableFrom(type)
+                || Number.class.isAssignableFrom(type)
+                || Boolean.class == type
+                || Character.class == type
+                || Collection.class.isAssignableFrom(type)
+                || Map.class.isAssignableFrom(type)
+                || JSONString.class.isAssignableFrom(type)
+                || isPlatformClass(type));
+    }
+
+    private static boolean isPlatformClass(final Class<?> type) {
+        final Package objectPackage = type.getPackage();
+        final String packageName = objectPackage == null ? "" : objectPackage.getName();
+        return packageName.startsWith("java.") || packageName.startsWith("javax.") || type.getClassLoader() == null;
+    }
+
+    // order in which a HashMap iterates over the keys present, or null if it would put some in a tree bin
+    @SuppressWarnings("PMD.AvoidArrayLoops")
+    private int[] order(final boolean[] present, final int count) {
+        int tableSize = tableSizeFor(capacity);
+        final int[] inserted = new int[count];
+        int size = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (!present[i]) {
+                continue;
+            }
+            int binCount = 0;
+            for (int j = 0; j < size; j++) {
+                if (((hashes[inserted[j]] ^ hashes[i]) & (tableSize - 1)) == 0) {
+                    binCount++;
+                }
+            }
+            if (binCount >= TREEIFY_THRESHOLD) {
+                if (tableSize >= MIN_TREEIFY_CAPACITY) {
+                    return null;
+                }
+                tableSize <<= 1;
+            }
+            inserted[size] = i;
+            size++;
+            if (size > (int) (tableSize * LOAD_FACTOR)) {
+                tableSize <<= 1;
+            }
+        }
+
+        // stable sort by bucket, as each bucket keeps its keys in the order they were added
+        final int mask = tableSize - 1;
+        for (int i = 1; i < size; i++) {
+            final int key = inserted[i];
+            final int bucket = hashes[key] & mask;
+            int j = i - 1;
+            while (j >= 0 && (hashes[inserted[j]] & mask) > bucket) {
+                inserted[j + 1] = inserted[j];
+                j--;
+            }
+            inserted[j + 1] = key;
+        }
+        return inserted;
+    }
+
+    private static int tableSizeFor(final int capacity) {
+        int n = 1;
+        while (n < capacity) {
+            n <<= 1;
+        }
+        return n;
+    }
+
+    private static boolean isValidMethod(final Method method) {
+        final int modifiers = method.getModifiers();
+        return Modifier.isPublic(modifiers)
+                && !Modifier.isStatic(modifiers)
+                && method.getParameterCount() == 0
+                && !method.isBridge()
+                && method.getReturnType() != Void.TYPE
+                && !"getClass".equals(method.getName())
+                && !"getDeclaringClass".equals(method.getName());
+    }
+
+    // the JSON key org.json uses for the value of a getter
+    private static String keyName(final Method method, final boolean record) {
+        final int ignoreDepth = annotationDepth(method, JSONPropertyIgnore.class);
+        if (ignoreDepth > 0) {
+            final int forcedNameDepth = annotationDepth(method, JSONPropertyName.class);
+            if (forcedNameDepth < 0 || ignoreDepth <= forcedNameDepth) {
+                return null;
+            }
+        }
+        final JSONPropertyName annotation = annotation(method, JSONPropertyName.class);
+        if (annotation != null && annotation.value() != null && !annotation.value().isEmpty()) {
+            return annotation.value();
+        }
+
+        final String name = method.getName();
+        String key;
+        if (name.startsWith("get") && name.length() > 3) {
+            key = name.substring(3);
+        } else if (name.startsWith("is") && name.length() > 2) {
+            key = name.substring(2);
+        } else {
+            return record && isRecordStyleAccessor(method) ? name : null;
+        }
+        if (key.isEmpty() || Character.isLowerCase(key.charAt(0))) {
+            return null;
+        }
+        if (key.length() == 1) {
+            key = key.toLowerCase(Locale.ROOT);
+        } else if (!Character.isUpperCase(key.charAt(1))) {
+            key = key.substring(0, 1).toLowerCase(Locale.ROOT) + key.substring(1);
+        }
+        return key;
+    }
+
+    private static boolean isRecordStyleAccessor(final Method method) {
+        final String name = method.getName();
+        if (name.isEmpty() || !Character.isLowerCase(name.charAt(0)) || EXCLUDED_RECORD_METHOD_NAMES.contains(name)) {
+            return false;
+        }
+        final Class<?> declaringClass = method.getDeclaringClass();
+        if (declaringClass == Object.class
+                || Enum.class.isAssignableFrom(declaringClass)
+                || Number.class.isAssignableFrom(declaringClass)) {
+            return false;
+        }
+        final String className = declaringClass.getName();
+        return !className.startsWith("java.") && !className.startsWith("javax.");
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    static boolean isRecord(final Class<?> type) {
+        // Class.isRecord is not available in all the Java versions supported
+        try {
+            return (Boolean) Class.class.getMethod("isRecord").invoke(type);
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    // as org.json, the depth in the class hierarchy at which the method has the annotation, or -1
+    private static int annotationDepth(final Method method, final Class<? extends Annotation> annotationClass) {
+        if (method.isAnnotationPresent(annotationClass)) {
+            return 1;
+        }
+
+        final Class<?> c = method.getDeclaringClass();
+        if (c.getSuperclass() == null) {
+            return -1;
+        }
+
+        for (final Class<?> i : c.getInterfaces()) {
+            final Method im = findMethod(i, method);
+            if (im != null) {
+                final int d = annotationDepth(im, annotationClass);
+                if (d > 0) {
+                    return d + 1;
+                }
+            }
+        }
+
+        if (Object.class.equals(c.getSuperclass())) {
+            return -1;
+        }
+
+        final Method sm = findMethod(c.getSuperclass(), method);
+        if (sm == null) {
+            return -1;
+        }
+        final int d = annotationDepth(sm, annotationClass);
+        return d > 0 ? d + 1 : -1;
+    }
+
+    // as org.json, the annotation on the method or the first one found in the class hierarchy
+    private static <A extends Annotation> A annotation(final Method method, final Class<A> annotationClass) {
+        if (method.isAnnotationPresent(annotationClass)) {
+            return method.getAnnotation(annotationClass);
+        }
+
+        final Class<?> c = method.getDeclaringClass();
+        if (c.getSuperclass() == null) {
+            return null;
+        }
+
+        for (final Class<?> i : c.getInterfaces()) {
+            final Method im = findMethod(i, method);
+            if (im != null) {
+                return annotation(im, annotationClass);
+            }
+        }
+
+        if (Object.class.equals(c.getSuperclass())) {
+            return null;
+        }
+
+        final Method sm = findMethod(c.getSuperclass(), method);
+        return sm == null ? null : annotation(sm, annotationClass);
+    }
+
+    private static Method findMethod(final Class<?> type, final Method method) {
+        try {
+            return type.getMethod(method.getName(), method.getParameterTypes());
+        } catch (final NoSuchMethodException | SecurityException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.contract.execution;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.hyperledger.fabric.contract.ContractRuntimeException;
+import org.hyperledger.fabric.contract.annotation.Serializer;
+import org.hyperledger.fabric.contract.metadata.TypeSchema;
+import org.hyperledger.fabric.contract.routing.DataTypeDefinition;
+import org.hyperledger.fabric.contract.routing.PropertyDefinition;
+import org.hyperledger.fabric.contract.routing.TypeRegistry;
+
+/**
+ * Compact binary serialisation, as CBOR (RFC 8949) with a deterministic encoding.
+ *
+ * <p>Strings are text strings, integers are CBOR integers, numbers are single or double precision floats according to
+ * their format, and arrays are CBOR arrays. Data types are maps from property names to values, with every property
+ * present and the keys in the order of their encoding, so that equal values always give the same bytes. Property
+ * values are read and written through their fields, and are not validated against the schema of the data type.
+ *
+ * <p>The encoding of a contract's transaction serializer is given in the contract metadata. To use it in a contract:
+ *
+ * <pre>
+ * &#64;Contract(transactionSerializer = "org.hyperledger.fabric.contract.execution.CBORTransactionSerializer")
+ * </pre>
+ */
+@Serializer(encoding = "application/cbor")
+@SuppressWarnings({"PMD.GodClass", "PMD.CyclomaticComplexity", "PMD.AvoidLiteralsInIfCondition"})
+public class CBORTransactionSerializer implements SerializerInterface {
+    private final TypeRegistry typeRegistry = TypeRegistry.getRegistry();
+    private final Map<DataTypeDefinition, Layout> layouts = new ConcurrentHashMap<>();
+
+    /**
+     * Convert the value supplied to a byte array, according to the TypeSchema.
+     *
+     * @param value
+     * @param ts
+     * @return Byte buffer
+     */
+    @Override
+    @SuppressWarnings("PMD.ReturnEmptyCollectionRatherThanNull")
+    public byte[] toBuffer(final Object value, final TypeSchema ts) {
+        if (value == null) {
+            return null;
+        }
+        final CborWriter out = new CborWriter();
+        write(value, ts, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Take the byte buffer and return the object as required.
+     *
+     * @param buffer Byte buffer from the wire
+     * @param ts TypeSchema representing the type
+     * @return Object created; arrays of primitives are created as such
+     */
+    @Override
+    public Object fromBuffer(final byte[] buffer, final TypeSchema ts) {
+        return fromBuffer(buffer, ts, null);
+    }
+
+    /**
+     * Take the byte buffer and return the object as required.
+     *
+     * @param buffer Byte buffer from the wire
+     * @param ts TypeSchema representing the type
+     * @param type Java type to create, or null to create the type of the schema
+     * @return Object created
+     */
+    Object fromBuffer(final byte[] buffer, final TypeSchema ts, final Class<?> type) {
+        final CborReader in = new CborReader(buffer);
+        final Object value = read(in, ts, type);
+        if (!in.isAtEnd()) {
+            throw in.malformed("data after the value");
+        }
+        return value;
+    }
+
+    private void write(final Object value, final TypeSchema ts, final CborWriter out) {
+        if (value == null) {
+            out.writeNull();
+            return;
+        }
+
+        final String type = ts.getType();
+        if (type == null) {
+            writeObject(value, layout(this.typeRegistry.getDataType(ts)), out);
+            return;
+        }
+        switch (type) {
+            case "array":
+                writeArray(value, ts.getItems(), out);
+                break;
+            case "string":
+                out.writeText(value.toString());
+                break;
+            case "integer":
+                out.writeLong(((Number) value).longValue());
+                break;
+            case "number":
+                if ("float".equals(ts.getFormat())) {
+                    out.writeFloat(((Number) value).floatValue());
+                } else {
+                    out.writeDouble(((Number) value).doubleValue());
+                }
+                break;
+            case "boolean":
+                out.writeBoolean((Boolean) value);
+                break;
+            default:
+                throw new ContractRuntimeException("Unable to convert type " + type + " to CBOR");
+        }
+    }
+
+    private void writeArray(final Object value, final TypeSchema items, final CborWriter out) {
+        if (value instanceof Collection) {
+            final Collection<?> collection = (Collection<?>) value;
+            out.writeHeader(CborWriter.MAJOR_ARRAY, collection.size());
+            for (final Object element : collection) {
+                write(element, items, out);
+            }
+        } else if (value.getClass().isArray()) {
+            final int length = Array.getLength(value);
+            out.writeHeader(CborWriter.MAJOR_ARRAY, length);
+            for (int i = 0; i < length; i++) {
+                write(Array.get(value, i), items, out);
+            }
+        } else {
+            throw new ContractRuntimeException("Unable to convert " + value.getClass() + " to a CBOR array");
+        }
+    }
+
+    private void writeObject(final Object value, final Layout layout, final CborWriter out) {
+        out.writeHeader(CborWriter.MAJOR_MAP, layout.keys.length);
+        try {
+            for (int i = 0; i < layout.keys.length; i++) {
+                out.writeRaw(layout.keys[i]);
+                write(layout.fields[i].get(value), layout.schemas[i], out);
+            }
+        } catch (final IllegalAccessException e) {
+            throw new ContractRuntimeException("Unable to convert object to CBOR", e);
+        }
+    }
+
+    private Object read(final CborReader in, final TypeSchema ts, final Class<?> javaType) {
+        if (in.readNull()) {
+            return null;
+        }
+
+        final String type = ts.getType();
+        if (type == null) {
+            return readObject(in, layout(this.typeRegistry.getDataType(ts)));
+        }
+        switch (type) {
+            case "array":
+                return readArray(in, ts.getItems(), javaType);
+            case "string":
+                final String text = in.readText();
+                if (!"uint16".equals(ts.getFormat())) {
+                    return text;
+                }
+                if (text.isEmpty()) {
+                    throw in.malformed("empty string for a character");
+                }
+                return text.charAt(0);
+            case "integer":
+                return readInteger(in, integerFormat(ts.getFormat(), javaType));
+            case "number":
+                final double number = in.readDouble();
+                return "float".equals(ts.getFormat()) ? (Object) (float) number : (Object) number;
+            case "boolean":
+                return in.readBoolean();
+            default:
+                throw new ContractRuntimeException("Unable to convert CBOR to type " + type);
+        }
+    }
+
+    // a schema without a format is read as the Java type it is for, or else as a long
+    private static String integerFormat(final String format, final Class<?> javaType) {
+        if (format != null) {
+            return format;
+        } else if (javaType == int.class || javaType == Integer.class) {
+            return "int32";
+        } else if (javaType == short.class || javaType == Short.class) {
+            return "int16";
+        } else if (javaType == byte.class || javaType == Byte.class) {
+            return "int8";
+        }
+        return "int64";
+    }
+
+    private static Object readInteger(final CborReader in, final String format) {
+        final long value = in.readLong();
+        switch (format) {
+            case "int32":
+                checkRange(in, value, Integer.MIN_VALUE, Integer.MAX_VALUE);
+                return (int) value;
+            case "int8":
+                checkRange(in, value, Byte.MIN_VALUE, Byte.MAX_VALUE);
+                return (byte) value;
+            case "int16":
+                checkRange(in, value, Short.MIN_VALUE, Short.MAX_VALUE);
+                return (short) value;
+            case "int64":
+                return value;
+            default:
+                throw new IllegalArgumentException("Unknown format for integer " + format);
+        }
+    }
+
+    private static void checkRange(final CborReader in, final long value, final long min, final long max) {
+        if (value < min || value > max) {
+            throw in.malformed("integer " + value + " out of range");
+        }
+    }
+
+    private Object readArray(final CborReader in, final TypeSchema items, final Class<?> javaType) {
+        final Class<?> componentType = javaType != null && javaType.isArray()
+                ? javaType.getComponentType()
+                : items.getTypeClass(this.typeRegistry);
+        final int length = in.readArrayLength();
+        final Object data = Array.newInstance(componentType, length);
+        for (int i = 0; i < length; i++) {
+            Array.set(data, i, read(in, items, componentType));
+        }
+        return data;
+    }
+
+    private Object readObject(final CborReader in, final Layout layout) {
+        final Object obj = layout.newInstance();
+        final int size = in.readMapLength();
+        if (size != layout.keys.length) {
+            throw new ContractRuntimeException("Unable to convert CBOR to object, expected "
+                    + layout.keys.length + " properties but found " + size);
+        }
+
+        final boolean[] seen = new boolean[size];
+        try {
+            for (int i = 0; i < size; i++) {
+                final String name = in.readText();
+                final Integer index = layout.indexes.get(name);
+                if (index == null || seen[index]) {
+                    throw new ContractRuntimeException("Unable to convert CBOR to object, unexpected property " + name);
+                }
+                seen[index] = true;
+                final Field field = layout.fields[index];
+                field.set(obj, read(in, layout.schemas[index], field.getType()));
+            }
+        } catch (IllegalArgumentException | IllegalAccessException e) {
+            throw new ContractRuntimeException("Unable to convert CBOR to object", e);
+        }
+        return obj;
+    }
+
+    private Layout layout(final DataTypeDefinition dtd) {
+        // found on first use, as serializers are created before the data types are registered
+        return layouts.computeIfAbsent(dtd, Layout::new);
+    }
+
+    /** The properties of a data type, in the order of their encoded keys. */
+    private static final class Layout {
+        private final Class<?> type;
+        private final Constructor<?> constructor;
+        private final byte[][] keys;
+        private final Field[] fields;
+        private final TypeSchema[] schemas;
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        @SuppressWarnings("PMD.AvoidAccessibilityAlteration")
+        Layout(final DataTypeDefinition dtd) {
+            this.type = dtd.getTypeClass();
+            this.constructor = noArgConstructor(type);
+
+            final Comparator<PropertyDefinition> keyOrder =
+                    Comparator.comparing(prop -> CborWriter.encodeText(prop.getName()), Arrays::compareUnsigned);
+            final PropertyDefinition[] properties = dtd.getProperties().values().stream()
+                    .sorted(keyOrder)
+                    .toArray(PropertyDefinition[]::new);
+            this.keys = new byte[properties.length][];
+            this.fields = new Field[properties.length];
+            this.schemas = new TypeSchema[properties.length];
+            for (int i = 0; i < properties.length; i++) {
+                keys[i] = CborWriter.encodeText(properties[i].getName());
+                fields[i] = properties[i].getField();
+                fields[i].setAccessible(true);
+                schemas[i] = properties[i].getSchema();
+                indexes.put(properties[i].getName(), i);
+            }
+        }
+
+        private static Constructor<?> noArgConstructor(final Class<?> type) {
+            try {
+                return type.getDeclaredConstructor();
+            } catch (final NoSuchMethodException e) {
+                return null;
+            }
+        }
+
+        Object newInstance() {
+            if (constructor == null) {
+                throw new ContractRuntimeException("Unable to create new instance of type " + type.getName()
+                        + ", as it has no constructor without arguments");
+            }
+            try {
+                return constructor.newInstance();
+            } catch (IllegalAccessException | InstantiationException | InvocationTargetException e) {
+                throw new ContractRuntimeException("Unable to create new instance of type", e);
+            }
+        }
+    }
+}
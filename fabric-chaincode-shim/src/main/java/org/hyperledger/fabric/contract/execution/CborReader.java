@@ -0,0 +1,188 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.contract.execution;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import org.hyperledger.fabric.contract.ContractRuntimeException;
+
+/**
+ * Reads the CBOR (RFC 8949) data items written by {@link CborWriter}.
+ *
+ * <p>Only definite lengths are accepted. Integers and lengths may be in any of their forms, and numbers in any of the
+ * float widths or as integers.
+ */
+@SuppressWarnings("PMD.AvoidLiteralsInIfCondition")
+final class CborReader {
+    private static final int HALF = 0xf9;
+
+    private final byte[] buffer;
+    private int position;
+
+    @SuppressWarnings("PMD.ArrayIsStoredDirectly")
+    CborReader(final byte[] buffer) {
+        this.buffer = buffer;
+    }
+
+    /** @return true if all the data items have been read */
+    boolean isAtEnd() {
+        return position == buffer.length;
+    }
+
+    /** @return true if the next data item is null, which is then read */
+    boolean readNull() {
+        if (peek() == CborWriter.NULL) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    /** @return integer */
+    long readLong() {
+        final int major = peek() >>> 5;
+        if (major == CborWriter.MAJOR_UNSIGNED) {
+            final long value = readArgument(major);
+            if (value < 0) {
+                throw malformed("integer out of range");
+            }
+            return value;
+        } else if (major == CborWriter.MAJOR_NEGATIVE) {
+            final long value = readArgument(major);
+            if (value < 0) {
+                throw malformed("integer out of range");
+            }
+            return -1 - value;
+        }
+        throw malformed("expected an integer");
+    }
+
+    /** @return number, from a float of any width or an integer */
+    double readDouble() {
+        final int initial = peek();
+        switch (initial) {
+            case HALF:
+                position++;
+                return halfToFloat((int) readBytes(2));
+            case CborWriter.FLOAT:
+                position++;
+                return Float.intBitsToFloat((int) readBytes(4));
+            case CborWriter.DOUBLE:
+                position++;
+                return Double.longBitsToDouble(readBytes(8));
+            default:
+                return readLong();
+        }
+    }
+
+    /** @return boolean */
+    boolean readBoolean() {
+        final int initial = next();
+        if (initial == CborWriter.TRUE) {
+            return true;
+        } else if (initial == CborWriter.FALSE) {
+            return false;
+        }
+        throw malformed("expected a boolean");
+    }
+
+    /** @return text string */
+    String readText() {
+        final int length = length(CborWriter.MAJOR_TEXT);
+        final String text = new String(buffer, position, length, UTF_8);
+        position += length;
+        return text;
+    }
+
+    /** @return number of items in the array that follows */
+    int readArrayLength() {
+        return length(CborWriter.MAJOR_ARRAY);
+    }
+
+    /** @return number of key and value pairs in the map that follows */
+    int readMapLength() {
+        return length(CborWriter.MAJOR_MAP);
+    }
+
+    private int length(final int major) {
+        if (peek() >>> 5 != major) {
+            throw malformed("expected major type " + major);
+        }
+        final long length = readArgument(major);
+        // every item takes at least a byte, so longer lengths cannot be right
+        if (length < 0 || length > buffer.length - position) {
+            throw malformed("length out of range");
+        }
+        return (int) length;
+    }
+
+    private long readArgument(final int major) {
+        final int additional = next() & 0x1f;
+        if (additional < 24) {
+            return additional;
+        }
+        switch (additional) {
+            case 24:
+                return readBytes(1);
+            case 25:
+                return readBytes(2);
+            case 26:
+                return readBytes(4);
+            case 27:
+                return readBytes(8);
+            default:
+                throw malformed("unsupported argument for major type " + major);
+        }
+    }
+
+    private long readBytes(final int length) {
+        if (position + length > buffer.length) {
+            throw malformed("unexpected end of data");
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value = value << 8 | buffer[position + i] & 0xff;
+        }
+        position += length;
+        return value;
+    }
+
+    private int peek() {
+        if (position >= buffer.length) {
+            throw malformed("unexpected end of data");
+        }
+        return buffer[position] & 0xff;
+    }
+
+    private int next() {
+        final int initial = peek();
+        position++;
+        return initial;
+    }
+
+    private static float halfToFloat(final int half) {
+        final int exponent = half >>> 10 & 0x1f;
+        final int mantissa = half & 0x3ff;
+        final float magnitude;
+        if (exponent == 0) {
+            magnitude = mantissa * 0x1p-24f;
+        } else if (exponent == 31) {
+            magnitude = mantissa == 0 ? Float.POSITIVE_INFINITY : Float.NaN;
+        } else {
+            magnitude = (mantissa + 1024) * (float) Math.pow(2, exponent - 25);
+        }
+        return (half & 0x8000) == 0 ? magnitude : -magnitude;
+    }
+
+    /**
+     * @param reason what is wrong
+     * @return exception to throw
+     */
+    ContractRuntimeException malformed(final String reason) {
+        return new ContractRuntimeException("Malformed CBOR at offset " + position + ": " + reason);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.contract.execution;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.Arrays;
+
+/**
+ * Writes CBOR (RFC 8949) data items, with the lengths and integers in their shortest form as required for deterministic
+ * encoding.
+ */
+@SuppressWarnings("PMD.AssignmentInOperand")
+final class CborWriter {
+    static final int MAJOR_UNSIGNED = 0;
+    static final int MAJOR_NEGATIVE = 1;
+    static final int MAJOR_TEXT = 3;
+    static final int MAJOR_ARRAY = 4;
+    static final int MAJOR_MAP = 5;
+
+    static final int FALSE = 0xf4;
+    static final int TRUE = 0xf5;
+    static final int NULL = 0xf6;
+    static final int FLOAT = 0xfa;
+    static final int DOUBLE = 0xfb;
+
+    private byte[] buffer = new byte[64];
+    private int count;
+
+    /** @return the bytes written */
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, count);
+    }
+
+    private void ensureCapacity(final int extra) {
+        if (count + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, count + extra));
+        }
+    }
+
+    /**
+     * Write the initial byte of a data item, and its argument in the shortest form.
+     *
+     * @param major major type
+     * @param argument unsigned argument
+     */
+    void writeHeader(final int major, final long argument) {
+        ensureCapacity(9);
+        final int type = major << 5;
+        if (argument >= 0 && argument < 24) {
+            buffer[count++] = (byte) (type | (int) argument);
+        } else if (argument >= 0 && argument <= 0xffL) {
+            buffer[count++] = (byte) (type | 24);
+            buffer[count++] = (byte) argument;
+        } else if (argument >= 0 && argument <= 0xffffL) {
+            buffer[count++] = (byte) (type | 25);
+            writeBytes(argument, 2);
+        } else if (argument >= 0 && argument <= 0xffffffffL) {
+            buffer[count++] = (byte) (type | 26);
+            writeBytes(argument, 4);
+        } else {
+            buffer[count++] = (byte) (type | 27);
+            writeBytes(argument, 8);
+        }
+    }
+
+    private void writeBytes(final long value, final int length) {
+        for (int shift = (length - 1) * 8; shift >= 0; shift -= 8) {
+            buffer[count++] = (byte) (value >>> shift);
+        }
+    }
+
+    /**
+     * @param value integer, written as an unsigned or negative integer
+     */
+    void writeLong(final long value) {
+        if (value >= 0) {
+            writeHeader(MAJOR_UNSIGNED, value);
+        } else {
+            writeHeader(MAJOR_NEGATIVE, -1 - value);
+        }
+    }
+
+    /** @param value single precision float */
+    void writeFloat(final float value) {
+        ensureCapacity(5);
+        buffer[count++] = (byte) FLOAT;
+        writeBytes(Float.floatToIntBits(value), 4);
+    }
+
+    /** @param value double precision float */
+    void writeDouble(final double value) {
+        ensureCapacity(9);
+        buffer[count++] = (byte) DOUBLE;
+        writeBytes(Double.doubleToLongBits(value), 8);
+    }
+
+    /** @param value boolean */
+    void writeBoolean(final boolean value) {
+        writeSimple(value ? TRUE : FALSE);
+    }
+
+    /** Write null. */
+    void writeNull() {
+        writeSimple(NULL);
+    }
+
+    private void writeSimple(final int value) {
+        ensureCapacity(1);
+        buffer[count++] = (byte) value;
+    }
+
+    /** @param value text string */
+    void writeText(final String value) {
+        final byte[] utf8 = value.getBytes(UTF_8);
+        writeHeader(MAJOR_TEXT, utf8.length);
+        writeRaw(utf8);
+    }
+
+    /**
+     * @param encoded data items already encoded
+     */
+    void writeRaw(final byte[] encoded) {
+        ensureCapacity(encoded.length);
+        System.arraycopy(encoded, 0, buffer, count, encoded.length);
+        count += encoded.length;
+    }
+
+    /**
+     * @param value text string
+     * @return the encoded text string data item
+     */
+    static byte[] encodeText(final String value) {
+        final CborWriter writer = new CborWriter();
+        writer.writeText(value);
+        return writer.toByteArray();
+    }
+}
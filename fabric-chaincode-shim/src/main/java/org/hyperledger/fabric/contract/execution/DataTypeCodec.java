@@ -0,0 +1,264 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.contract.execution;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.hyperledger.fabric.contract.ContractRuntimeException;
+import org.hyperledger.fabric.contract.routing.DataTypeDefinition;
+import org.hyperledger.fabric.contract.routing.PropertyDefinition;
+
+/**
+ * Reads and writes the properties of one data type, with the accessors and the way of creating instances found once.
+ *
+ * <p>Instances are created with a public no-argument constructor and their property fields set, as by {@link
+ * JSONTransactionSerializer}. Records are created with their canonical constructor, and other classes without a
+ * no-argument constructor with a public constructor whose parameter names, compiled with <code>-parameters</code>, are
+ * those of the properties.
+ */
+@SuppressWarnings({"PMD.GodClass", "PMD.ReturnEmptyCollectionRatherThanNull", "PMD.AvoidCatchingGenericException"})
+final class DataTypeCodec {
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType CREATE_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    private final BeanEncoder encoder;
+    private final PropertyDefinition[] properties;
+    private final MethodHandle noArgConstructor;
+    private final MethodHandle[] setters;
+    private final MethodHandle constructor;
+    // for each constructor parameter, the index of its property
+    private final int[] parameterProperties;
+
+    private DataTypeCodec(
+            final BeanEncoder encoder,
+            final PropertyDefinition[] properties,
+            final MethodHandle noArgConstructor,
+            final MethodHandle[] setters,
+            final MethodHandle constructor,
+            final int[] parameterProperties) {
+        this.encoder = encoder;
+        this.properties = properties;
+        this.noArgConstructor = noArgConstructor;
+        this.setters = setters;
+        this.constructor = constructor;
+        this.parameterProperties = parameterProperties;
+    }
+
+    /**
+     * @param dtd data type
+     * @return codec for the data type
+     */
+    static DataTypeCodec compile(final DataTypeDefinition dtd) {
+        final Class<?> type = dtd.getTypeClass();
+        final String[] names = dtd.getProperties().keySet().toArray(new String[0]);
+        final BeanEncoder encoder = BeanEncoder.isBean(type) ? BeanEncoder.forDataType(type, names) : null;
+        final PropertyDefinition[] properties = dtd.getProperties().values().toArray(new PropertyDefinition[0]);
+
+        final Constructor<?> noArg = BeanEncoder.isRecord(type) ? null : noArgConstructor(type);
+        if (noArg != null) {
+            return new DataTypeCodec(
+                    encoder, properties, publicConstructor(noArg, false), setters(properties), null, null);
+        }
+
+        final Constructor<?> withProperties = propertyConstructor(type, properties);
+        final int[] parameterProperties =
+                withProperties == null ? null : parameterProperties(type, withProperties, properties);
+        final MethodHandle constructor =
+                parameterProperties == null ? null : publicConstructor(withProperties, true);
+        return new DataTypeCodec(encoder, properties, null, null, constructor, parameterProperties);
+    }
+
+    /** @return the properties read from JSON, in the order used by {@link #newInstance} */
+    @SuppressWarnings("PMD.MethodReturnsInternalArray")
+    PropertyDefinition[] getProperties() {
+        return properties;
+    }
+
+    /**
+     * @param value instance of the data type
+     * @param out where to write
+     * @return false if the value must be written by org.json
+     */
+    boolean write(final Object value, final Utf8JsonWriter out) {
+        return encoder != null && encoder.write(value, out);
+    }
+
+    /** @return true if instances can be created by this codec rather than by the JSONTransactionSerializer */
+    boolean canCreate() {
+        return noArgConstructor != null || constructor != null;
+    }
+
+    /** @return true if the instance is created before the property values are read */
+    boolean isCreatedFirst() {
+        return noArgConstructor != null;
+    }
+
+    /**
+     * Create an instance with the no-argument constructor.
+     *
+     * @return new instance
+     */
+    Object newInstance() {
+        try {
+            return noArgConstructor.invokeExact();
+        } catch (final Throwable t) {
+            throw new ContractRuntimeException("Unable to to create new instance of type", t);
+        }
+    }
+
+    /**
+     * Set a property of an instance created with {@link #newInstance()}.
+     *
+     * @param instance instance
+     * @param index index of the property in {@link #getProperties()}
+     * @param value property value
+     * @throws IllegalAccessException if the field cannot be set
+     */
+    void set(final Object instance, final int index, final Object value) throws IllegalAccessException {
+        final MethodHandle setter = setters[index];
+        final Field field = properties[index].getField();
+        if (setter == null || value == null) {
+            field.set(instance, value);
+            return;
+        }
+        try {
+            setter.invokeExact(instance, value);
+        } catch (final ClassCastException e) {
+            // reflection may widen the value, or report the error as before
+            field.set(instance, value);
+        } catch (final Throwable t) {
+            throw new ContractRuntimeException("Unable to convert JSON to object", t);
+        }
+    }
+
+    /**
+     * Create an instance with a constructor taking the property values.
+     *
+     * @param values property values, in the order of {@link #getProperties()}
+     * @return new instance
+     */
+    Object newInstance(final Object[] values) {
+        final Object[] arguments = new Object[parameterProperties.length];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = values[parameterProperties[i]];
+        }
+        try {
+            return constructor.invokeExact(arguments);
+        } catch (final ClassCastException e) {
+            throw new ContractRuntimeException("Unable to convert JSON to object", e);
+        } catch (final Throwable t) {
+            throw new ContractRuntimeException("Unable to to create new instance of type", t);
+        }
+    }
+
+    private static Constructor<?> noArgConstructor(final Class<?> type) {
+        try {
+            return type.getDeclaredConstructor();
+        } catch (final NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    // the canonical constructor of a record, or the only public constructor whose parameter names are all properties
+    private static Constructor<?> propertyConstructor(final Class<?> type, final PropertyDefinition[] properties) {
+        if (BeanEncoder.isRecord(type)) {
+            final Class<?>[] componentTypes = Arrays.stream(type.getDeclaredFields())
+                    .filter(field -> !Modifier.isStatic(field.getModifiers()))
+                    .map(Field::getType)
+                    .toArray(Class<?>[]::new);
+            try {
+                return type.getDeclaredConstructor(componentTypes);
+            } catch (final NoSuchMethodException e) {
+                return null;
+            }
+        }
+
+        final List<Constructor<?>> candidates = new ArrayList<>();
+        for (final Constructor<?> constructor : type.getConstructors()) {
+            if (constructor.getParameterCount() == properties.length
+                    && Arrays.stream(constructor.getParameters()).allMatch(Parameter::isNamePresent)) {
+                candidates.add(constructor);
+            }
+        }
+        return candidates.size() == 1 ? candidates.get(0) : null;
+    }
+
+    // index of the property for each constructor parameter, or null if they do not match one to one
+    private static int[] parameterProperties(
+            final Class<?> type, final Constructor<?> constructor, final PropertyDefinition[] properties) {
+        final String[] names;
+        if (BeanEncoder.isRecord(type)) {
+            names = Arrays.stream(type.getDeclaredFields())
+                    .filter(field -> !Modifier.isStatic(field.getModifiers()))
+                    .map(Field::getName)
+                    .toArray(String[]::new);
+        } else {
+            names = Arrays.stream(constructor.getParameters()).map(Parameter::getName).toArray(String[]::new);
+        }
+        if (names.length != properties.length) {
+            return null;
+        }
+
+        final int[] indexes = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            indexes[i] = -1;
+            for (int p = 0; p < properties.length; p++) {
+                if (properties[p].getName().equals(names[i])
+                        && properties[p].getField().getType() == constructor.getParameterTypes()[i]) {
+                    indexes[i] = p;
+                }
+            }
+            if (indexes[i] < 0) {
+                return null;
+            }
+        }
+        return indexes;
+    }
+
+    private static MethodHandle publicConstructor(final Constructor<?> constructor, final boolean spread) {
+        if (!Modifier.isPublic(constructor.getModifiers())
+                || !Modifier.isPublic(constructor.getDeclaringClass().getModifiers())) {
+            return null;
+        }
+        try {
+            final MethodHandle handle = MethodHandles.publicLookup().unreflectConstructor(constructor);
+            return spread
+                    ? handle.asSpreader(Object[].class, constructor.getParameterCount())
+                            .asType(CREATE_TYPE)
+                    : handle.asType(MethodType.methodType(Object.class));
+        } catch (final IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static MethodHandle[] setters(final PropertyDefinition[] properties) {
+        final MethodHandle[] setters = new MethodHandle[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            setters[i] = setter(properties[i].getField());
+        }
+        return setters;
+    }
+
+    // null if the field can only be set through reflection, which then reports the error as before
+    @SuppressWarnings("PMD.AvoidAccessibilityAlteration")
+    private static MethodHandle setter(final Field field) {
+        try {
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectSetter(field).asType(SETTER_TYPE);
+        } catch (final IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,386 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.contract.execution;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import org.hyperledger.fabric.contract.ContractRuntimeException;
+import org.hyperledger.fabric.contract.metadata.TypeSchema;
+import org.hyperledger.fabric.contract.routing.DataTypeDefinition;
+import org.hyperledger.fabric.contract.routing.PropertyDefinition;
+import org.hyperledger.fabric.contract.routing.TypeRegistry;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Conversion from JSON for one TypeSchema, compiled once so that the schema and data types are not looked up on each
+ * call.
+ *
+ * <p>Values are converted as by {@link JSONTransactionSerializer#fromBuffer}, except that array elements and properties
+ * are converted from the values already parsed rather than from their string form, and that arrays of int, long and
+ * double are created as such when the Java type is known.
+ */
+@SuppressWarnings("PMD.ImplicitFunctionalInterface")
+interface JSONConverter {
+
+    /**
+     * @param data the whole of a buffer, as a string
+     * @return converted value
+     */
+    Object fromString(String data);
+
+    /**
+     * @param json value parsed from JSON
+     * @return the value converted as its string form would be
+     */
+    default Object fromJson(final Object json) {
+        return fromString(json.toString());
+    }
+
+    /**
+     * @param serializer serializer the conversion is compiled for
+     * @param ts TypeSchema representing the type
+     * @param type Java type to convert to, or null if not known
+     * @return converter
+     */
+    static JSONConverter compile(final JSONTransactionSerializer serializer, final TypeSchema ts, final Class<?> type) {
+        final String schemaType = ts.getType();
+        if (schemaType == null) {
+            return new ObjectConverter(serializer, ts);
+        }
+
+        final String format = ts.getFormat();
+        switch (schemaType) {
+            case "string":
+                return "uint16".equals(format) ? ScalarConverter.CHARACTER : ScalarConverter.STRING;
+            case "integer":
+                return compileInteger(serializer, ts, format);
+            case "number":
+                return "float".equals(format) ? ScalarConverter.FLOAT : ScalarConverter.DOUBLE;
+            case "boolean":
+                return ScalarConverter.BOOLEAN;
+            case "array":
+                return new ArrayConverter(serializer, ts, type);
+            default:
+                return new SerializerConverter(serializer, ts);
+        }
+    }
+
+    private static JSONConverter compileInteger(
+            final JSONTransactionSerializer serializer, final TypeSchema ts, final String format) {
+        if (format == null) {
+            return new SerializerConverter(serializer, ts);
+        }
+        switch (format) {
+            case "int32":
+                return ScalarConverter.INT32;
+            case "int8":
+                return ScalarConverter.INT8;
+            case "int16":
+                return ScalarConverter.INT16;
+            case "int64":
+                return ScalarConverter.INT64;
+            default:
+                // fails as before when called
+                return new SerializerConverter(serializer, ts);
+        }
+    }
+
+    /** Strings, numbers and booleans. */
+    enum ScalarConverter implements JSONConverter {
+        STRING {
+            @Override
+            public Object fromString(final String data) {
+                return data;
+            }
+        },
+        CHARACTER {
+            @Override
+            public Object fromString(final String data) {
+                return data.charAt(0);
+            }
+        },
+        INT8 {
+            @Override
+            public Object fromString(final String data) {
+                return Byte.parseByte(data);
+            }
+        },
+        INT16 {
+            @Override
+            public Object fromString(final String data) {
+                return Short.parseShort(data);
+            }
+        },
+        INT32 {
+            @Override
+            public Object fromString(final String data) {
+                return Integer.parseInt(data);
+            }
+
+            @Override
+            public Object fromJson(final Object json) {
+                return intValue(json);
+            }
+        },
+        INT64 {
+            @Override
+            public Object fromString(final String data) {
+                return Long.parseLong(data);
+            }
+
+            @Override
+            public Object fromJson(final Object json) {
+                return longValue(json);
+            }
+        },
+        FLOAT {
+            @Override
+            public Object fromString(final String data) {
+                return Float.parseFloat(data);
+            }
+        },
+        DOUBLE {
+            @Override
+            public Object fromString(final String data) {
+                return Double.parseDouble(data);
+            }
+
+            @Override
+            public Object fromJson(final Object json) {
+                return doubleValue(json);
+            }
+        },
+        BOOLEAN {
+            @Override
+            public Object fromString(final String data) {
+                return Boolean.parseBoolean(data);
+            }
+
+            @Override
+            public Object fromJson(final Object json) {
+                return json instanceof Boolean ? json : fromString(json.toString());
+            }
+        };
+
+        static int intValue(final Object json) {
+            return json instanceof Integer ? (Integer) json : Integer.parseInt(json.toString());
+        }
+
+        static long longValue(final Object json) {
+            return json instanceof Integer || json instanceof Long
+                    ? ((Number) json).longValue()
+                    : Long.parseLong(json.toString());
+        }
+
+        static double doubleValue(final Object json) {
+            if (json instanceof Double) {
+                return (Double) json;
+            }
+            return json instanceof Integer || json instanceof Long
+                    ? ((Number) json).doubleValue()
+                    : Double.parseDouble(json.toString());
+        }
+    }
+
+    /** Arrays, with the converter of their items compiled once. */
+    final class ArrayConverter implements JSONConverter {
+        private final Class<?> componentType;
+        private final JSONConverter items;
+
+        ArrayConverter(final JSONTransactionSerializer serializer, final TypeSchema ts, final Class<?> type) {
+            final TypeSchema itemSchema = ts.getItems();
+            if (type != null && type.isArray()) {
+                this.componentType = type.getComponentType();
+                this.items = compile(serializer, itemSchema, componentType);
+            } else {
+                // note here that the type has to be converted in the case of primitives
+                this.componentType =
+                        serializer.mapPrimitive(itemSchema.getTypeClass(TypeRegistry.getRegistry()));
+                this.items = compile(serializer, itemSchema, null);
+            }
+        }
+
+        @Override
+        public Object fromString(final String data) {
+            return fromJson(new JSONArray(data));
+        }
+
+        @Override
+        @SuppressWarnings("PMD.CyclomaticComplexity")
+        public Object fromJson(final Object json) {
+            final JSONArray array = json instanceof JSONArray ? (JSONArray) json : new JSONArray(json.toString());
+            if (componentType == int.class && items == ScalarConverter.INT32) {
+                return toIntArray(array);
+            } else if (componentType == long.class && items == ScalarConverter.INT64) {
+                return toLongArray(array);
+            } else if (componentType == double.class && items == ScalarConverter.DOUBLE) {
+                return toDoubleArray(array);
+            }
+
+            final int length = array.length();
+            final Object data = Array.newInstance(componentType, length);
+            if (componentType.isPrimitive()) {
+                for (int i = 0; i < length; i++) {
+                    Array.set(data, i, items.fromJson(array.get(i)));
+                }
+            } else {
+                final Object[] objects = (Object[]) data;
+                for (int i = 0; i < length; i++) {
+                    objects[i] = items.fromJson(array.get(i));
+                }
+            }
+            return data;
+        }
+
+        private static int[] toIntArray(final JSONArray array) {
+            final int[] data = new int[array.length()];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = ScalarConverter.intValue(array.get(i));
+            }
+            return data;
+        }
+
+        private static long[] toLongArray(final JSONArray array) {
+            final long[] data = new long[array.length()];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = ScalarConverter.longValue(array.get(i));
+            }
+            return data;
+        }
+
+        private static double[] toDoubleArray(final JSONArray array) {
+            final double[] data = new double[array.length()];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = ScalarConverter.doubleValue(array.get(i));
+            }
+            return data;
+        }
+    }
+
+    /**
+     * Data types, created with their no-argument constructor and their properties set.
+     *
+     * <p>The converters of the properties are compiled on first use, as a data type may have properties of its own
+     * type.
+     */
+    final class ObjectConverter implements JSONConverter {
+        private final JSONTransactionSerializer serializer;
+        private final TypeSchema ts;
+        private final DataTypeDefinition dtd;
+        private final Constructor<?> constructor;
+        private final NoSuchMethodException noConstructor;
+        // volatile, so that a thread seeing the array also sees the converters in it fully built and accessible
+        @SuppressWarnings("PMD.AvoidUsingVolatile")
+        private volatile PropertyConverter[] properties;
+
+        ObjectConverter(final JSONTransactionSerializer serializer, final TypeSchema ts) {
+            this.serializer = serializer;
+            this.ts = ts;
+            final String ref = ts.getRef();
+            this.dtd = TypeRegistry.getRegistry().getDataType(ref.substring(ref.lastIndexOf('/') + 1));
+
+            Constructor<?> noArgs = null;
+            NoSuchMethodException missing = null;
+            try {
+                noArgs = dtd.getTypeClass().getDeclaredConstructor();
+            } catch (final NoSuchMethodException e) {
+                missing = e;
+            }
+            this.constructor = noArgs;
+            this.noConstructor = missing;
+        }
+
+        @Override
+        public Object fromString(final String data) {
+            return fromJson(new JSONObject(data));
+        }
+
+        @Override
+        public Object fromJson(final Object json) {
+            if (constructor == null) {
+                throw new ContractRuntimeException("Unable to to create new instance of type", noConstructor);
+            }
+            final Object obj;
+            try {
+                obj = constructor.newInstance();
+            } catch (IllegalAccessException | InstantiationException | InvocationTargetException e1) {
+                throw new ContractRuntimeException("Unable to to create new instance of type", e1);
+            }
+
+            final JSONObject object = json instanceof JSONObject ? (JSONObject) json : new JSONObject(json.toString());
+            // request validation of the type may throw an exception if validation fails
+            ts.validate(object);
+            try {
+                for (final PropertyConverter property : properties()) {
+                    property.field.set(obj, property.converter.fromJson(object.get(property.name)));
+                }
+                return obj;
+            } catch (SecurityException | IllegalArgumentException | IllegalAccessException | JSONException e) {
+                throw new ContractRuntimeException("Unable to convert JSON to object", e);
+            }
+        }
+
+        @SuppressWarnings("PMD.AvoidAccessibilityAlteration")
+        private PropertyConverter[] properties() {
+            PropertyConverter[] compiled = properties;
+            if (compiled == null) {
+                compiled = dtd.getProperties().values().stream()
+                        .map(prop -> new PropertyConverter(
+                                prop, compile(serializer, prop.getSchema(), fieldType(prop))))
+                        .toArray(PropertyConverter[]::new);
+                for (final PropertyConverter property : compiled) {
+                    property.field.setAccessible(true);
+                }
+                // threads racing to build the array each build an equally good one
+                properties = compiled;
+            }
+            return compiled;
+        }
+
+        private static Class<?> fieldType(final PropertyDefinition prop) {
+            final Field field = prop.getField();
+            return field == null ? null : field.getType();
+        }
+    }
+
+    /** A property of a data type, and the converter of its value. */
+    final class PropertyConverter {
+        private final String name;
+        private final Field field;
+        private final JSONConverter converter;
+
+        PropertyConverter(final PropertyDefinition prop, final JSONConverter converter) {
+            this.name = prop.getName();
+            this.field = prop.getField();
+            this.converter = converter;
+        }
+    }
+
+    /** Anything else, converted by the serializer with the schema as before. */
+    final class SerializerConverter implements JSONConverter {
+        private final JSONTransactionSerializer serializer;
+        private final TypeSchema ts;
+
+        SerializerConverter(final JSONTransactionSerializer serializer, final TypeSchema ts) {
+            this.serializer = serializer;
+            this.ts = ts;
+        }
+
+        @Override
+        public Object fromString(final String data) {
+            try {
+                return serializer.convert(data, ts);
+            } catch (InstantiationException | IllegalAccessException e) {
+                throw new ContractRuntimeException(e);
+            }
+        }
+    }
+}
@@ -13,6 +13,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Map;
 import java.util.Set;
+import java.util.logging.Level;
 import org.hyperledger.fabric.Logger;
 import org.hyperledger.fabric.contract.ContractRuntimeException;
 import org.hyperledger.fabric.contract.annotation.Serializer;
@@ -25,7 +26,7 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 /** Used as the default serialisation for transmission from SDK to Contract. */
-@Serializer()
+@Serializer(encoding = "application/json")
 @SuppressWarnings({
     "PMD.GodClass",
     "PMD.AvoidLiteralsInIfCondition",
@@ -45,7 +46,8 @@ public class JSONTransactionSerializer implements SerializerInterface {
      */
     @Override
     public byte[] toBuffer(final Object value, final TypeSchema ts) {
-        LOGGER.debug(() -> "Schema to convert is " + ts);
+        // the message is only built if it is logged
+        LOGGER.log(Level.FINEST, "Schema to convert is {0}", ts);
         byte[] buffer = null;
         if (value != null) {
             final String type = ts.getType();
@@ -169,7 +171,7 @@ public class JSONTransactionSerializer implements SerializerInterface {
      * @param primitive class for the primitive
      * @return Class for the Object variant
      */
-    private Class<?> mapPrimitive(final Class<?> primitive) {
+    Class<?> mapPrimitive(final Class<?> primitive) {
         if (primitive.isArray()) {
             return mapArrayPrimitive(primitive);
         }
@@ -224,9 +226,10 @@ public class JSONTransactionSerializer implements SerializerInterface {
     }
 
     /** Internal method to do the conversion */
-    private Object convert(final String stringData, final TypeSchema ts)
+    Object convert(final String stringData, final TypeSchema ts)
             throws IllegalAccessException, InstantiationException {
-        LOGGER.debug(() -> "Schema to convert is " + ts);
+        // the message is only built if it is logged
+        LOGGER.log(Level.FINEST, "Schema to convert is {0}", ts);
 
         String type = ts.getType();
 
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.contract.execution;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Array;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.hyperledger.fabric.Logger;
+import org.hyperledger.fabric.contract.ContractRuntimeException;
+import org.hyperledger.fabric.contract.annotation.Serializer;
+import org.hyperledger.fabric.contract.metadata.TypeSchema;
+import org.hyperledger.fabric.contract.routing.DataTypeDefinition;
+import org.hyperledger.fabric.contract.routing.PropertyDefinition;
+import org.hyperledger.fabric.contract.routing.TypeRegistry;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+/**
+ * JSON serialisation that writes the same bytes as the {@link JSONTransactionSerializer}, without building the
+ * intermediate JSON objects and strings.
+ *
+ * <p>The getters, fields and constructors of each data type are found the first time the type is used, and are then
+ * called through method handles. Data types are written straight to UTF-8, and read from a single parse of the JSON.
+ * Records, and classes with a constructor taking all the properties, can also be read. Values that cannot be written
+ * exactly as before are handed to the JSONTransactionSerializer.
+ *
+ * <p>To use it in a contract:
+ *
+ * <pre>
+ * &#64;Contract(transactionSerializer = "org.hyperledger.fabric.contract.execution.StreamingJSONTransactionSerializer")
+ * </pre>
+ */
+@Serializer(encoding = "application/json")
+@SuppressWarnings({"PMD.AvoidDuplicateLiterals", "PMD.AvoidLiteralsInIfCondition"})
+public class StreamingJSONTransactionSerializer extends JSONTransactionSerializer {
+    private static final Logger LOGGER = Logger.getLogger(StreamingJSONTransactionSerializer.class.getName());
+
+    private final TypeRegistry typeRegistry = TypeRegistry.getRegistry();
+    private final Map<DataTypeDefinition, DataTypeCodec> codecs = new ConcurrentHashMap<>();
+
+    /**
+     * Convert the value supplied to a byte array, according to the TypeSchema.
+     *
+     * @param value
+     * @param ts
+     * @return Byte buffer
+     */
+    @Override
+    public byte[] toBuffer(final Object value, final TypeSchema ts) {
+        final String type = ts.getType();
+        if (value == null || type != null && !"array".equals(type)) {
+            return super.toBuffer(value, ts);
+        }
+
+        final Utf8JsonWriter out = new Utf8JsonWriter();
+        final boolean written = type == null ? writeObject(value, ts, out) : writeArray(value, ts, out);
+        if (!written) {
+            LOGGER.debug(() -> "Value written by JSONTransactionSerializer " + value.getClass());
+            return super.toBuffer(value, ts);
+        }
+        return out.toByteArray();
+    }
+
+    private boolean writeObject(final Object value, final TypeSchema ts, final Utf8JsonWriter out) {
+        return BeanEncoder.isBean(value.getClass()) && codec(typeRegistry.getDataType(ts)).write(value, out);
+    }
+
+    private boolean writeArray(final Object value, final TypeSchema ts, final Utf8JsonWriter out) {
+        if (!value.getClass().isArray()) {
+            return false;
+        }
+
+        final TypeSchema items = ts.getItems();
+        final String type = items.getType();
+        final int length = Array.getLength(value);
+        out.writeAscii('[');
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                out.writeAscii(',');
+            }
+            final Object element = Array.get(value, i);
+            final boolean written;
+            if (type == null) {
+                written = element != null && writeObject(element, items, out);
+            } else if ("array".equals(type)) {
+                written = element != null && writeArray(element, items, out);
+            } else {
+                written = BeanEncoder.writeValue(element, out);
+            }
+            if (!written) {
+                return false;
+            }
+        }
+        out.writeAscii(']');
+        return true;
+    }
+
+    /**
+     * Take the byte buffer and return the object as required.
+     *
+     * @param buffer Byte buffer from the wire
+     * @param ts TypeSchema representing the type
+     * @return Object created; relies on Java auto-boxing for primitives
+     */
+    @Override
+    public Object fromBuffer(final byte[] buffer, final TypeSchema ts) {
+        final String type = ts.getType();
+        if (type == null) {
+            return read(new JSONObject(tokener(buffer)), ts);
+        } else if ("array".equals(type)) {
+            return read(new JSONArray(tokener(buffer)), ts);
+        }
+        return super.fromBuffer(buffer, ts);
+    }
+
+    // parses the UTF-8 bytes as they are decoded, rather than from a string copy of the whole buffer
+    private static JSONTokener tokener(final byte[] buffer) {
+        return new JSONTokener(new ByteArrayInputStream(buffer));
+    }
+
+    // convert a value already parsed, as the JSONTransactionSerializer converts its string form
+    private Object read(final Object json, final TypeSchema ts) {
+        final String type = ts.getType();
+        if (type == null) {
+            final JSONObject object = json instanceof JSONObject ? (JSONObject) json : new JSONObject(json.toString());
+            return readObject(object, ts);
+        } else if ("array".equals(type)) {
+            final JSONArray array = json instanceof JSONArray ? (JSONArray) json : new JSONArray(json.toString());
+            return readArray(array, ts);
+        }
+
+        try {
+            return convert(json.toString(), ts);
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new ContractRuntimeException(e);
+        }
+    }
+
+    private Object readArray(final JSONArray array, final TypeSchema ts) {
+        final TypeSchema items = ts.getItems();
+
+        // note here that the type has to be converted in the case of primitives
+        final Object[] data =
+                (Object[]) Array.newInstance(mapPrimitive(items.getTypeClass(this.typeRegistry)), array.length());
+        for (int i = 0; i < data.length; i++) {
+            data[i] = read(array.get(i), items);
+        }
+        return data;
+    }
+
+    private Object readObject(final JSONObject json, final TypeSchema ts) {
+        final String ref = ts.getRef();
+        final String format = ref.substring(ref.lastIndexOf('/') + 1);
+        final DataTypeDefinition dtd = this.typeRegistry.getDataType(format);
+        final DataTypeCodec codec = codec(dtd);
+        if (!codec.canCreate()) {
+            return createComponentInstance(format, json.toString(), ts);
+        }
+
+        final Object obj = codec.isCreatedFirst() ? codec.newInstance() : null;
+        // request validation of the type may throw an exception if validation fails
+        ts.validate(json);
+
+        final PropertyDefinition[] properties = codec.getProperties();
+        final Object[] values = new Object[properties.length];
+        try {
+            for (int i = 0; i < properties.length; i++) {
+                values[i] = read(json.get(properties[i].getName()), properties[i].getSchema());
+                if (obj != null) {
+                    codec.set(obj, i, values[i]);
+                }
+            }
+        } catch (IllegalArgumentException | IllegalAccessException | JSONException e) {
+            throw new ContractRuntimeException("Unable to convert JSON to object", e);
+        }
+        return obj == null ? codec.newInstance(values) : obj;
+    }
+
+    private DataTypeCodec codec(final DataTypeDefinition dtd) {
+        // compiled on first use, as serializers are created before the data types are registered
+        return codecs.computeIfAbsent(dtd, DataTypeCodec::compile);
+    }
+}
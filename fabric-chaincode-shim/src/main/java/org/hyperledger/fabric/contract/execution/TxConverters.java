@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.contract.execution;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.lang.reflect.Parameter;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.hyperledger.fabric.contract.metadata.TypeSchema;
+import org.hyperledger.fabric.contract.routing.ParameterDefinition;
+import org.hyperledger.fabric.contract.routing.TypeRegistry;
+import org.json.JSONObject;
+
+/**
+ * The conversions of the arguments and return value of a transaction function, compiled once from its schemas.
+ *
+ * <p>With the {@link JSONTransactionSerializer}, each TypeSchema is compiled into a tree of converters, so that the
+ * schemas and data types are not looked up again on each call; arrays of int, long and double are filled without
+ * boxing. The {@link CBORTransactionSerializer} is told the Java type of each parameter, so that it creates arrays of
+ * the declared type. Other serializers, including subclasses that override the conversions, are called with the
+ * schemas as before.
+ */
+public final class TxConverters {
+    private final SerializerInterface serializer;
+    private final List<Function<byte[], Object>> parameters;
+    private final Function<Object, byte[]> returnValue;
+
+    /**
+     * @param serializer serializer of the transaction function
+     * @param params parameters of the transaction function, after the context
+     * @param returnSchema TypeSchema of the return type, or null if there is none
+     */
+    public TxConverters(
+            final SerializerInterface serializer,
+            final List<ParameterDefinition> params,
+            final TypeSchema returnSchema) {
+        this.serializer = serializer;
+        this.parameters = params.stream().map(this::compileFromBuffer).collect(Collectors.toList());
+        this.returnValue = returnSchema == null
+                ? value -> serializer.toBuffer(value, null)
+                : compileToBuffer(returnSchema);
+    }
+
+    /** @return the serializer the conversions are compiled for */
+    public SerializerInterface getSerializer() {
+        return serializer;
+    }
+
+    /**
+     * @param buffers arguments from the wire
+     * @return arguments for the transaction function, without the context
+     */
+    public Object[] fromBuffers(final List<byte[]> buffers) {
+        final Object[] args = new Object[parameters.size()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = parameters.get(i).apply(buffers.get(i));
+        }
+        return args;
+    }
+
+    /**
+     * @param value value returned by the transaction function
+     * @return buffer for the wire
+     */
+    public byte[] toBuffer(final Object value) {
+        return value == null ? null : returnValue.apply(value);
+    }
+
+    private Function<byte[], Object> compileFromBuffer(final ParameterDefinition param) {
+        final TypeSchema ts = param.getSchema();
+        final Parameter parameter = param.getParameter();
+        final Class<?> type = parameter == null ? null : parameter.getType();
+        if (isDeclaredBy(JSONTransactionSerializer.class, "fromBuffer", byte[].class, TypeSchema.class)) {
+            final JSONConverter converter = JSONConverter.compile((JSONTransactionSerializer) serializer, ts, type);
+            return buffer -> converter.fromString(new String(buffer, UTF_8));
+        } else if (isDeclaredBy(CBORTransactionSerializer.class, "fromBuffer", byte[].class, TypeSchema.class)) {
+            final CBORTransactionSerializer cbor = (CBORTransactionSerializer) serializer;
+            return buffer -> cbor.fromBuffer(buffer, ts, type);
+        }
+        return buffer -> serializer.fromBuffer(buffer, ts);
+    }
+
+    @SuppressWarnings("PMD.AvoidLiteralsInIfCondition")
+    private Function<Object, byte[]> compileToBuffer(final TypeSchema ts) {
+        final String type = ts.getType();
+        if (!isDeclaredBy(JSONTransactionSerializer.class, "toBuffer", Object.class, TypeSchema.class)
+                || "array".equals(type)
+                || "string".equals(type) && ts.getFormat() != null) {
+            return value -> serializer.toBuffer(value, ts);
+        } else if (type == null) {
+            final String[] propNames =
+                    TypeRegistry.getRegistry().getDataType(ts).getProperties().keySet().toArray(new String[0]);
+            return value -> new JSONObject(new JSONObject(value), propNames).toString().getBytes(UTF_8);
+        } else if ("string".equals(type)) {
+            return value -> ((String) value).getBytes(UTF_8);
+        }
+        return value -> value.toString().getBytes(UTF_8);
+    }
+
+    // true if the serializer's method is that of the given class, rather than overridden by a subclass
+    private boolean isDeclaredBy(final Class<?> declaringClass, final String name, final Class<?>... parameterTypes) {
+        try {
+            return serializer.getClass().getMethod(name, parameterTypes).getDeclaringClass() == declaringClass;
+        } catch (final NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
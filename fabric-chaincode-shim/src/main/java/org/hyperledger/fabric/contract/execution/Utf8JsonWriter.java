@@ -0,0 +1,202 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.contract.execution;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * Writes compact JSON straight to UTF-8 bytes.
+ *
+ * <p>Strings and numbers are written exactly as org.json writes them, so that the bytes are the same as those of
+ * <code>JSONObject.toString().getBytes(UTF_8)</code>.
+ */
+@SuppressWarnings({"PMD.AssignmentInOperand", "PMD.AvoidLiteralsInIfCondition"})
+final class Utf8JsonWriter {
+    // the numbers org.json writes without quotes
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("-?(?:0|[1-9]\\d*)(?:\\.\\d+)?(?:[eE][+-]?\\d+)?");
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(US_ASCII);
+
+    private byte[] buffer;
+    private int count;
+
+    Utf8JsonWriter() {
+        this(128);
+    }
+
+    Utf8JsonWriter(final int capacity) {
+        buffer = new byte[capacity];
+    }
+
+    /** @return the bytes written */
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, count);
+    }
+
+    /** @return number of bytes written */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Discard everything written after the given size.
+     *
+     * @param size size to go back to
+     */
+    void reset(final int size) {
+        count = size;
+    }
+
+    private void ensureCapacity(final int extra) {
+        if (count + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, count + extra));
+        }
+    }
+
+    /**
+     * Write a character in the ASCII range.
+     *
+     * @param c character
+     */
+    void writeAscii(final char c) {
+        ensureCapacity(1);
+        buffer[count++] = (byte) c;
+    }
+
+    /**
+     * Write characters in the ASCII range.
+     *
+     * @param s characters
+     */
+    void writeAscii(final String s) {
+        final int length = s.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            buffer[count++] = (byte) s.charAt(i);
+        }
+    }
+
+    /**
+     * Write a string as a quoted JSON string, escaped as by <code>JSONObject.quote</code>.
+     *
+     * @param s string
+     */
+    @SuppressWarnings({"PMD.CyclomaticComplexity", "PMD.AvoidReassigningLoopVariables"})
+    void writeQuoted(final String s) {
+        final int length = s.length();
+        ensureCapacity(length + 2);
+        buffer[count++] = '"';
+        char previous;
+        char c = 0;
+        for (int i = 0; i < length; i++) {
+            previous = c;
+            c = s.charAt(i);
+            switch (c) {
+                case '\\':
+                case '"':
+                    writeAscii('\\');
+                    writeAscii(c);
+                    break;
+                case '/':
+                    if (previous == '<') {
+                        writeAscii('\\');
+                    }
+                    writeAscii(c);
+                    break;
+                case '\b':
+                    writeAscii("\\b");
+                    break;
+                case '\t':
+                    writeAscii("\\t");
+                    break;
+                case '\n':
+                    writeAscii("\\n");
+                    break;
+                case '\f':
+                    writeAscii("\\f");
+                    break;
+                case '\r':
+                    writeAscii("\\r");
+                    break;
+                default:
+                    if (c < ' ' || c >= '\u0080' && c < '\u00a0' || c >= '\u2000' && c < '\u2100') {
+                        writeHex(c);
+                    } else if (c < '\u0080') {
+                        writeAscii(c);
+                    } else {
+                        i = writeUtf8(s, i, c);
+                    }
+                    break;
+            }
+        }
+        writeAscii('"');
+    }
+
+    private void writeHex(final char c) {
+        ensureCapacity(6);
+        buffer[count++] = '\\';
+        buffer[count++] = 'u';
+        buffer[count++] = HEX[c >> 12 & 0xf];
+        buffer[count++] = HEX[c >> 8 & 0xf];
+        buffer[count++] = HEX[c >> 4 & 0xf];
+        buffer[count++] = HEX[c & 0xf];
+    }
+
+    // encode a character outside the ASCII range, returning the index of the last character used
+    private int writeUtf8(final String s, final int index, final char c) {
+        ensureCapacity(4);
+        if (c < '\u0800') {
+            buffer[count++] = (byte) (0xc0 | c >> 6);
+            buffer[count++] = (byte) (0x80 | c & 0x3f);
+        } else if (Character.isSurrogate(c)) {
+            final int next = index + 1;
+            if (Character.isHighSurrogate(c) && next < s.length() && Character.isLowSurrogate(s.charAt(next))) {
+                final int codePoint = Character.toCodePoint(c, s.charAt(next));
+                buffer[count++] = (byte) (0xf0 | codePoint >> 18);
+                buffer[count++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+                buffer[count++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+                buffer[count++] = (byte) (0x80 | codePoint & 0x3f);
+                return next;
+            }
+            // unpaired surrogates are replaced, as by String.getBytes
+            buffer[count++] = '?';
+        } else {
+            buffer[count++] = (byte) (0xe0 | c >> 12);
+            buffer[count++] = (byte) (0x80 | c >> 6 & 0x3f);
+            buffer[count++] = (byte) (0x80 | c & 0x3f);
+        }
+        return index;
+    }
+
+    /**
+     * Write a finite number as by <code>JSONObject.numberToString</code>, quoted if it is not a valid JSON number.
+     *
+     * @param number number
+     */
+    void writeNumber(final Number number) {
+        String string = number.toString();
+        if (string.indexOf('.') > 0 && string.indexOf('e') < 0 && string.indexOf('E') < 0) {
+            int end = string.length();
+            while (string.charAt(end - 1) == '0') {
+                end--;
+            }
+            if (string.charAt(end - 1) == '.') {
+                end--;
+            }
+            string = string.substring(0, end);
+        }
+
+        if (NUMBER_PATTERN.matcher(string).matches()) {
+            writeAscii(string);
+        } else {
+            writeQuoted(string);
+        }
+    }
+}
@@ -6,9 +6,12 @@
 
 package org.hyperledger.fabric.contract.execution.impl;
 
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
 import java.lang.reflect.InvocationTargetException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.hyperledger.fabric.contract.Context;
 import org.hyperledger.fabric.contract.ContractInterface;
@@ -17,10 +20,11 @@ import org.hyperledger.fabric.contract.annotation.Serializer;
 import org.hyperledger.fabric.contract.execution.ExecutionService;
 import org.hyperledger.fabric.contract.execution.InvocationRequest;
 import org.hyperledger.fabric.contract.execution.SerializerInterface;
-import org.hyperledger.fabric.contract.metadata.TypeSchema;
-import org.hyperledger.fabric.contract.routing.ParameterDefinition;
+import org.hyperledger.fabric.contract.execution.TxConverters;
 import org.hyperledger.fabric.contract.routing.TxFunction;
 import org.hyperledger.fabric.contract.routing.impl.SerializerRegistryImpl;
+import org.hyperledger.fabric.contract.routing.impl.TxFunctionImpl;
+import org.hyperledger.fabric.metrics.Metrics;
 import org.hyperledger.fabric.shim.Chaincode;
 import org.hyperledger.fabric.shim.ChaincodeException;
 import org.hyperledger.fabric.shim.ChaincodeStub;
@@ -30,7 +34,14 @@ public class ContractExecutionService implements ExecutionService {
 
     private static final Logger LOGGER = Logger.getLogger(ContractExecutionService.class.getName());
 
+    // phases of the transaction recorded on its span, if it is being traced
+    private static final AttributeKey<Long> DESERIALIZATION_NS = AttributeKey.longKey("deserialization_ns");
+    private static final AttributeKey<Long> CONTRACT_EXECUTION_NS = AttributeKey.longKey("contract_execution_ns");
+    private static final AttributeKey<Long> SERIALIZATION_NS = AttributeKey.longKey("serialization_ns");
+
     private final SerializerRegistryImpl serializers;
+    // converters of the functions that do not hold their own, as TxFunctionImpl does
+    private final Map<TxFunction, TxConverters> converters = new ConcurrentHashMap<>();
 
     /** @param serializers */
     public ContractExecutionService(final SerializerRegistryImpl serializers) {
@@ -41,7 +52,9 @@ public class ContractExecutionService implements ExecutionService {
     @Override
     public Chaincode.Response executeRequest(
             final TxFunction txFn, final InvocationRequest req, final ChaincodeStub stub) {
-        LOGGER.fine(() -> "Routing Request" + txFn);
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Routing Request" + txFn);
+        }
         final TxFunction.Routing rd = txFn.getRouting();
         Chaincode.Response response;
 
@@ -49,17 +62,23 @@ public class ContractExecutionService implements ExecutionService {
             final ContractInterface contractObject = rd.getContractInstance();
             final Context context = contractObject.createContext(stub);
 
-            final List<Object> args = convertArgs(req.getArgs(), txFn);
-            args.add(0, context); // force context into 1st position, other elements move up
+            final Span span = Span.current();
+            final TxConverters converters = getConverters(txFn);
+            final long deserializationNanos = System.nanoTime();
+            final Object[] args = converters.fromBuffers(req.getArgs());
+            recordPhase(span, DESERIALIZATION_NS, deserializationNanos);
 
             contractObject.beforeTransaction(context);
-            final Object value = rd.getMethod().invoke(contractObject, args.toArray());
+            final Object value = invoke(rd, contractObject, context, args);
             contractObject.afterTransaction(context, value);
 
             if (value == null) {
                 response = ResponseUtils.newSuccessResponse();
             } else {
-                response = ResponseUtils.newSuccessResponse(convertReturn(value, txFn));
+                final long serializationNanos = System.nanoTime();
+                final byte[] payload = converters.toBuffer(value);
+                recordPhase(span, SERIALIZATION_NS, serializationNanos);
+                response = ResponseUtils.newSuccessResponse(payload);
             }
 
         } catch (IllegalAccessException | InstantiationException | NoSuchMethodException e) {
@@ -78,23 +97,45 @@ public class ContractExecutionService implements ExecutionService {
         return response;
     }
 
-    private byte[] convertReturn(final Object obj, final TxFunction txFn) {
-        final SerializerInterface serializer =
-                serializers.getSerializer(txFn.getRouting().getSerializerName(), Serializer.TARGET.TRANSACTION);
-        final TypeSchema ts = txFn.getReturnSchema();
-        return serializer.toBuffer(obj, ts);
+    /** Invoke the transaction function, recording the time it takes. */
+    private static Object invoke(
+            final TxFunction.Routing rd,
+            final ContractInterface contractObject,
+            final Context context,
+            final Object[] args)
+            throws IllegalAccessException, InvocationTargetException {
+        final long startNanos = System.nanoTime();
+        try {
+            return rd.invoke(contractObject, context, args);
+        } finally {
+            final long nanos = System.nanoTime() - startNanos;
+            Metrics.getTransactionMetrics().recordContractExecution(nanos);
+            final Span span = Span.current();
+            if (span.isRecording()) {
+                span.setAttribute(CONTRACT_EXECUTION_NS, nanos);
+            }
+        }
     }
 
-    private List<Object> convertArgs(final List<byte[]> stubArgs, final TxFunction txFn) {
+    private static void recordPhase(final Span span, final AttributeKey<Long> phase, final long startNanos) {
+        if (span.isRecording()) {
+            span.setAttribute(phase, System.nanoTime() - startNanos);
+        }
+    }
+
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    private TxConverters getConverters(final TxFunction txFn) {
         final SerializerInterface serializer =
                 serializers.getSerializer(txFn.getRouting().getSerializerName(), Serializer.TARGET.TRANSACTION);
-        final List<ParameterDefinition> schemaParams = txFn.getParamsList();
-        final List<Object> args = new ArrayList<>(stubArgs.size() + 1); // allow for context as the first argument
-        for (int i = 0; i < schemaParams.size(); i++) {
-            args.add(
-                    i,
-                    serializer.fromBuffer(stubArgs.get(i), schemaParams.get(i).getSchema()));
+        // the converters are compiled once for each function, rather than on each call
+        if (txFn instanceof TxFunctionImpl) {
+            return ((TxFunctionImpl) txFn).getConverters(serializer);
+        }
+        TxConverters current = converters.get(txFn);
+        if (current == null || current.getSerializer() != serializer) {
+            current = new TxConverters(serializer, txFn.getParamsList(), txFn.getReturnSchema());
+            converters.put(txFn, current);
         }
-        return args;
+        return current;
     }
 }
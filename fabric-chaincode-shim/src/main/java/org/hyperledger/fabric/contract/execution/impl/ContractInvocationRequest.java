@@ -6,9 +6,7 @@
 
 package org.hyperledger.fabric.contract.execution.impl;
 
-import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.regex.Pattern;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.hyperledger.fabric.contract.execution.InvocationRequest;
@@ -18,24 +16,26 @@ public final class ContractInvocationRequest implements InvocationRequest {
     @SuppressWarnings("PMD.ProperLogger") // PMD 7.12.0 gives a false positive here
     private static final Log LOGGER = LogFactory.getLog(ContractInvocationRequest.class);
 
-    private static final Pattern NS_REGEX = Pattern.compile(":");
+    // a single character separator, which String.split matches without compiling a Pattern or creating a Matcher
+    private static final String NS_SEPARATOR = ":";
 
+    private final ChaincodeStub context;
     private final String namespace;
     private final String method;
-    private final List<byte[]> args;
+    private List<byte[]> args;
 
     /** @param context */
     @SuppressWarnings("PMD.AvoidLiteralsInIfCondition")
     public ContractInvocationRequest(final ChaincodeStub context) {
-        List<byte[]> funcAndArgs = context.getArgs();
-        if (funcAndArgs.isEmpty()) {
+        this.context = context;
+        // the stub decodes the function name once, so it is not copied out of the arguments here
+        final String func = context.getFunction();
+        if (func == null) {
             throw new IllegalArgumentException("Missing function name");
         }
-
-        final String func = new String(funcAndArgs.get(0), StandardCharsets.UTF_8);
         LOGGER.debug(func);
 
-        final String[] funcParts = NS_REGEX.split(func);
+        final String[] funcParts = func.split(NS_SEPARATOR);
         if (funcParts.length == 2) {
             namespace = funcParts[0];
             method = funcParts[1];
@@ -44,9 +44,8 @@ public final class ContractInvocationRequest implements InvocationRequest {
             method = funcParts[0];
         }
 
-        args = funcAndArgs.subList(1, funcAndArgs.size());
         if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug(namespace + " " + method + " " + args);
+            LOGGER.debug(namespace + " " + method + " " + context.getParameters());
         }
     }
 
@@ -65,6 +64,11 @@ public final class ContractInvocationRequest implements InvocationRequest {
     /** */
     @Override
     public List<byte[]> getArgs() {
+        // copied from the stub only when the transaction function is called, as the serializers are given byte arrays
+        if (args == null) {
+            final List<byte[]> funcAndArgs = context.getArgs();
+            args = funcAndArgs.subList(1, funcAndArgs.size());
+        }
         return args;
     }
 
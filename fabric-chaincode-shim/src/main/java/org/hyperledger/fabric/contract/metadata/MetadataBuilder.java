@@ -5,6 +5,7 @@
  */
 package org.hyperledger.fabric.contract.metadata;
 
+import com.google.protobuf.ByteString;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
@@ -17,6 +18,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import org.everit.json.schema.Schema;
 import org.everit.json.schema.ValidationException;
@@ -26,6 +28,7 @@ import org.everit.json.schema.loader.internal.DefaultSchemaClient;
 import org.hyperledger.fabric.Logger;
 import org.hyperledger.fabric.contract.annotation.Contract;
 import org.hyperledger.fabric.contract.annotation.Info;
+import org.hyperledger.fabric.contract.annotation.Serializer;
 import org.hyperledger.fabric.contract.routing.ContractDefinition;
 import org.hyperledger.fabric.contract.routing.DataTypeDefinition;
 import org.hyperledger.fabric.contract.routing.RoutingRegistry;
@@ -56,6 +59,31 @@ public final class MetadataBuilder {
     // The schema client used to load any other referenced schemas
     private static SchemaClient schemaClient = new DefaultSchemaClient();
 
+    // The metadata as returned to clients, rendered once it is complete; null if
+    // it has changed since it was last rendered
+    @SuppressWarnings("PMD.AvoidUsingVolatile")
+    private static volatile Rendered rendered;
+
+    /** When the metadata is checked against the contract schema. */
+    public enum Validation {
+        /** Validate before the chaincode starts, failing to start if the metadata is not valid. */
+        SYNC,
+        /** Validate in the background, logging an error if the metadata is not valid. */
+        ASYNC,
+        /** Do not validate. */
+        NONE
+    }
+
+    private static final class Rendered {
+        private final String json;
+        private final ByteString bytes;
+
+        Rendered(final String json) {
+            this.json = json;
+            this.bytes = ByteString.copyFromUtf8(json);
+        }
+    }
+
     static final class MetadataMap<K, V> extends HashMap<K, V> {
         private static final long serialVersionUID = 1L;
 
@@ -110,17 +138,45 @@ public final class MetadataBuilder {
      * @param typeRegistry TypeRegistry
      */
     public static void initialize(final RoutingRegistry registry, final TypeRegistry typeRegistry) {
+        initialize(registry, typeRegistry, Validation.SYNC);
+    }
+
+    /**
+     * Setup the metadata from the found contracts, and render it ready to be returned to clients.
+     *
+     * @param registry RoutingRegistry
+     * @param typeRegistry TypeRegistry
+     * @param validation when to validate the metadata
+     * @throws ValidationException if validation is SYNC and the metadata is not valid
+     */
+    public static void initialize(
+            final RoutingRegistry registry, final TypeRegistry typeRegistry, final Validation validation) {
         final Collection<ContractDefinition> contractDefinitions = registry.getAllDefinitions();
         contractDefinitions.forEach(MetadataBuilder::addContract);
 
         final Collection<DataTypeDefinition> dataTypes = typeRegistry.getAllDataTypes();
         dataTypes.forEach(MetadataBuilder::addComponent);
+        render();
 
         // need to validate that the metadata that has been created is really valid
         // it should be as it's been created by code, but this is a valuable double
         // check
-        LOGGER.info("Validating schema created");
-        validate();
+        switch (validation) {
+            case SYNC:
+                LOGGER.info("Validating schema created");
+                validate();
+                break;
+            case ASYNC:
+                LOGGER.info("Validating schema created in the background");
+                CompletableFuture.runAsync(MetadataBuilder::validate).exceptionally(e -> {
+                    LOGGER.error(() -> "Metadata schema validation failed: " + e.getMessage());
+                    return null;
+                });
+                break;
+            default:
+                LOGGER.info("Metadata schema validation disabled");
+                break;
+        }
     }
 
     /**
@@ -141,6 +197,7 @@ public final class MetadataBuilder {
         component.put("properties", propertiesMap);
 
         componentMap.put(datatype.getSimpleName(), component);
+        changed();
     }
 
     /**
@@ -179,9 +236,14 @@ public final class MetadataBuilder {
         contract.put("name", key);
         contract.put("transactions", new ArrayList<>());
         contract.put("info", infoMap);
+        final String encoding = encoding(annotation.transactionSerializer());
+        if (!encoding.isEmpty()) {
+            contract.put("encoding", encoding);
+        }
 
         contractMap.put(key, contract);
         overallInfoMap.putAll(infoMap);
+        changed();
 
         final Collection<TxFunction> fns = contractDefinition.getTxFunctions();
         fns.forEach(txFn -> addTransaction(txFn, key));
@@ -189,6 +251,27 @@ public final class MetadataBuilder {
         return key;
     }
 
+    /**
+     * The encoding given by the serializer class, so that clients can tell how to encode the arguments.
+     *
+     * @param serializerName fully qualified classname of the serializer
+     * @return the media type, or empty if it is not known
+     */
+    private static String encoding(final String serializerName) {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null) {
+            loader = MetadataBuilder.class.getClassLoader();
+        }
+        try {
+            final Serializer serializer =
+                    Class.forName(serializerName, false, loader).getAnnotation(Serializer.class);
+            return serializer == null ? "" : serializer.encoding();
+        } catch (final ClassNotFoundException e) {
+            LOGGER.debug(() -> "Serializer class not found: " + serializerName);
+            return "";
+        }
+    }
+
     /**
      * Adds a new transaction function to the metadata for the given contract.
      *
@@ -228,6 +311,7 @@ public final class MetadataBuilder {
             transaction.put("name", txFunction.getName());
             txs.add(transaction);
         }
+        changed();
     }
 
     /**
@@ -236,7 +320,30 @@ public final class MetadataBuilder {
      * @return metadata as String
      */
     public static String getMetadata() {
-        return metadata().toString();
+        return render().json;
+    }
+
+    /**
+     * Returns the metadata as UTF-8 encoded compact JSON, rendered once rather than on each request.
+     *
+     * @return metadata as immutable bytes
+     */
+    public static ByteString getMetadataBytes() {
+        return render().bytes;
+    }
+
+    @SuppressWarnings("PMD.NullAssignment")
+    private static void changed() {
+        rendered = null;
+    }
+
+    private static Rendered render() {
+        Rendered current = rendered;
+        if (current == null) {
+            current = new Rendered(metadata().toString());
+            rendered = current;
+        }
+        return current;
     }
 
     /**
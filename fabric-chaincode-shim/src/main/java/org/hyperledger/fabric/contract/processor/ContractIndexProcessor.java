@@ -0,0 +1,178 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.contract.processor;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Writes an index of the contracts, data types and serializers in the classes being compiled.
+ *
+ * <p>The index lets the chaincode start without scanning every class on the classpath for annotations. The processor is
+ * registered as a service in the shim jar; with Gradle it must be added to the <code>annotationProcessor</code>
+ * configuration:
+ *
+ * <pre>
+ * dependencies {
+ *     annotationProcessor 'org.hyperledger.fabric-chaincode-java:fabric-chaincode-shim:VERSION'
+ * }
+ * </pre>
+ *
+ * <p>The classes in an indexed jar or directory are taken from its index, and only the jars and directories without an
+ * index are scanned. Setting <code>CHAINCODE_SCAN_UNINDEXED</code> to <code>false</code> skips that scan too, in which
+ * case every jar containing contracts, data types or serializers must be built with the processor.
+ *
+ * <p>Transaction functions are also checked to take a Context as their first parameter, which would otherwise only be
+ * reported when the chaincode starts.
+ */
+public final class ContractIndexProcessor extends AbstractProcessor {
+
+    /** Name of the index resource. */
+    public static final String INDEX_RESOURCE = "META-INF/hyperledger-fabric/contract-index";
+
+    /** Index line prefix for a class annotated with Contract. */
+    public static final String CONTRACT = "contract";
+
+    /** Index line prefix for a class annotated with DataType. */
+    public static final String DATA_TYPE = "datatype";
+
+    /** Index line prefix for a class annotated with Serializer. */
+    public static final String SERIALIZER = "serializer";
+
+    private static final String ANNOTATION_PACKAGE = "org.hyperledger.fabric.contract.annotation.";
+    private static final String CONTEXT_CLASS = "org.hyperledger.fabric.contract.Context";
+
+    // index lines, sorted so that the output does not depend on the order of compilation
+    private final Set<String> index = new TreeSet<>();
+    private final List<Element> originatingElements = new ArrayList<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Set.of(
+                ANNOTATION_PACKAGE + "Contract",
+                ANNOTATION_PACKAGE + "DataType",
+                ANNOTATION_PACKAGE + "Serializer",
+                ANNOTATION_PACKAGE + "Transaction",
+                ANNOTATION_PACKAGE + "Property");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        for (final TypeElement annotation : annotations) {
+            final String name = annotation.getQualifiedName().toString();
+            for (final Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                switch (name.substring(ANNOTATION_PACKAGE.length())) {
+                    case "Contract":
+                        addType(CONTRACT, element);
+                        break;
+                    case "DataType":
+                        addType(DATA_TYPE, element);
+                        break;
+                    case "Serializer":
+                        addType(SERIALIZER, element);
+                        break;
+                    case "Transaction":
+                        checkTransaction(element);
+                        break;
+                    default:
+                        checkProperty(element);
+                        break;
+                }
+            }
+        }
+
+        if (roundEnv.processingOver() && !index.isEmpty()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private void addType(final String kind, final Element element) {
+        if (element instanceof TypeElement) {
+            final TypeElement type = (TypeElement) element;
+            index.add(kind + ' ' + processingEnv.getElementUtils().getBinaryName(type));
+            originatingElements.add(type);
+        }
+    }
+
+    private void checkTransaction(final Element element) {
+        if (element.getKind() != ElementKind.METHOD) {
+            return;
+        }
+        final ExecutableElement method = (ExecutableElement) element;
+        final TypeElement context = processingEnv.getElementUtils().getTypeElement(CONTEXT_CLASS);
+        final boolean hasContext = !method.getParameters().isEmpty()
+                && context != null
+                && isAssignable(method.getParameters().get(0).asType(), context.asType());
+        if (!hasContext) {
+            report(Diagnostic.Kind.ERROR, "First argument of transaction function should be of type Context", element);
+        }
+    }
+
+    private boolean isAssignable(final TypeMirror type, final TypeMirror target) {
+        return processingEnv.getTypeUtils().isAssignable(type, target);
+    }
+
+    private void checkProperty(final Element element) {
+        if (element.getKind() != ElementKind.FIELD) {
+            return;
+        }
+        final TypeElement dataType = processingEnv.getElementUtils().getTypeElement(ANNOTATION_PACKAGE + "DataType");
+        final boolean inDataType = dataType != null
+                && element.getEnclosingElement().getAnnotationMirrors().stream()
+                        .anyMatch(mirror -> mirror.getAnnotationType().asElement().equals(dataType));
+        if (!inDataType) {
+            report(Diagnostic.Kind.WARNING, "Property has no effect outside a class annotated with DataType", element);
+        }
+    }
+
+    private void report(final Diagnostic.Kind kind, final String message, final Element element) {
+        processingEnv.getMessager().printMessage(kind, message, element);
+    }
+
+    private void writeIndex() {
+        try {
+            final FileObject resource = processingEnv
+                    .getFiler()
+                    .createResource(
+                            StandardLocation.CLASS_OUTPUT,
+                            "",
+                            INDEX_RESOURCE,
+                            originatingElements.toArray(new Element[0]));
+            try (Writer writer = new OutputStreamWriter(resource.openOutputStream(), UTF_8)) {
+                for (final String line : index) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+            }
+        } catch (final IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write contract index: " + e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+/**
+ * Annotation processor that indexes contracts at compile time.
+ *
+ * <p>When the processor index is present, the contract runtime loads the indexed classes at startup instead of scanning
+ * the classpath for annotated classes. See {@link org.hyperledger.fabric.contract.processor.ContractIndexProcessor}.
+ */
+package org.hyperledger.fabric.contract.processor;
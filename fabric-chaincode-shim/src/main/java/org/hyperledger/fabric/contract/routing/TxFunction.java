@@ -8,6 +8,7 @@ package org.hyperledger.fabric.contract.routing;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.List;
+import org.hyperledger.fabric.contract.Context;
 import org.hyperledger.fabric.contract.ContractInterface;
 import org.hyperledger.fabric.contract.metadata.TypeSchema;
 
@@ -46,6 +47,26 @@ public interface TxFunction {
          * @return a serializer name.
          */
         String getSerializerName();
+
+        /**
+         * Call the transaction function.
+         *
+         * <p>The default implementation calls {@link #getMethod()} reflectively.
+         *
+         * @param contract the contract instance.
+         * @param context the transaction context, passed as the first argument.
+         * @param args the remaining arguments.
+         * @return the value returned by the transaction function, or null if it has no return value.
+         * @throws IllegalAccessException if the method cannot be called.
+         * @throws InvocationTargetException wrapping any exception thrown by the transaction function.
+         */
+        default Object invoke(final ContractInterface contract, final Context context, final Object[] args)
+                throws IllegalAccessException, InvocationTargetException {
+            final Object[] allArgs = new Object[args.length + 1];
+            allArgs[0] = context;
+            System.arraycopy(args, 0, allArgs, 1, args.length);
+            return getMethod().invoke(contract, allArgs);
+        }
     }
 
     /** @return is this tx to be called when request fn is unknown */
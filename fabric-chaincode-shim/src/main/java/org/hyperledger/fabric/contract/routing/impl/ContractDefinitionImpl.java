@@ -32,9 +32,19 @@ public final class ContractDefinitionImpl implements ContractDefinition {
     private final Class<? extends ContractInterface> contractClz;
     private final Contract contractAnnotation;
     private final TxFunction unknownTx;
+    private final ContractInstanceProvider instances;
 
     /** @param cl */
     public ContractDefinitionImpl(final Class<? extends ContractInterface> cl) {
+        this(cl, Contract.Lifecycle.PER_CALL);
+    }
+
+    /**
+     * @param cl
+     * @param defaultLifecycle lifecycle of the contract instances, if not given by the contract annotation
+     */
+    public ContractDefinitionImpl(
+            final Class<? extends ContractInterface> cl, final Contract.Lifecycle defaultLifecycle) {
 
         final Contract annotation = cl.getAnnotation(Contract.class);
         LOGGER.debug(() -> "Class Contract Annotation: " + annotation);
@@ -50,6 +60,9 @@ public final class ContractDefinitionImpl implements ContractDefinition {
         isDefault = (cl.getAnnotation(Default.class) != null);
         contractAnnotation = cl.getAnnotation(Contract.class);
         contractClz = cl;
+        final Contract.Lifecycle declared = annotation.lifecycle();
+        final Contract.Lifecycle lifecycle = declared == Contract.Lifecycle.DEFAULT ? defaultLifecycle : declared;
+        instances = new ContractInstanceProvider(cl, lifecycle);
 
         try {
             final Method m = cl.getMethod("unknownTransaction", Context.class);
@@ -64,6 +77,12 @@ public final class ContractDefinitionImpl implements ContractDefinition {
 
         LOGGER.info(() -> "Found class: " + cl.getCanonicalName());
         LOGGER.debug(() -> "Namespace: " + this.name);
+        LOGGER.debug(() -> "Lifecycle: " + instances.getLifecycle());
+    }
+
+    /** @return supplier of the contract instances used to run transaction functions */
+    ContractInstanceProvider getInstanceProvider() {
+        return instances;
     }
 
     @Override
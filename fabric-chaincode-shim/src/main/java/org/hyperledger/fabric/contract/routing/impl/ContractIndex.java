@@ -0,0 +1,200 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.contract.routing.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.hyperledger.fabric.Logger;
+import org.hyperledger.fabric.contract.execution.CBORTransactionSerializer;
+import org.hyperledger.fabric.contract.execution.JSONTransactionSerializer;
+import org.hyperledger.fabric.contract.execution.StreamingJSONTransactionSerializer;
+import org.hyperledger.fabric.contract.processor.ContractIndexProcessor;
+import org.hyperledger.fabric.contract.systemcontract.SystemContract;
+
+/**
+ * Contracts, data types and serializers listed in the indexes written by {@link ContractIndexProcessor}, and those
+ * found by {@link ContractScanner} in the parts of the classpath without an index.
+ *
+ * <p>The contract and serializers provided by the shim itself are always included, as the shim is not built with the
+ * processor and may be outside the packages scanned.
+ */
+final class ContractIndex {
+    private static final Logger LOGGER = Logger.getLogger(ContractIndex.class);
+
+    private final List<Class<?>> contracts = new ArrayList<>();
+    private final List<Class<?>> dataTypes = new ArrayList<>();
+    private final List<Class<?>> serializers = new ArrayList<>();
+    // the jars and directories on the classpath that have an index, which need not be scanned
+    private final Set<String> indexedElements = new HashSet<>();
+
+    ContractIndex() {
+        contracts.add(SystemContract.class);
+        serializers.add(JSONTransactionSerializer.class);
+        serializers.add(StreamingJSONTransactionSerializer.class);
+        serializers.add(CBORTransactionSerializer.class);
+    }
+
+    /**
+     * Read all the indexes on the classpath.
+     *
+     * @return the classes listed, or null if there is no index and the classpath must be scanned
+     */
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    static ContractIndex load() {
+        final ClassLoader loader = classLoader();
+        final Set<String> lines = new LinkedHashSet<>();
+        final Set<String> elements = new HashSet<>();
+        try {
+            final Enumeration<URL> resources = loader.getResources(ContractIndexProcessor.INDEX_RESOURCE);
+            for (final URL url : Collections.list(resources)) {
+                LOGGER.debug(() -> "Reading contract index " + url);
+                elements.add(classpathElement(url));
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), UTF_8))) {
+                    reader.lines().map(String::trim).filter(line -> !line.isEmpty()).forEach(lines::add);
+                }
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Unable to read contract index", e);
+        }
+
+        if (lines.isEmpty()) {
+            LOGGER.debug("No contract index found");
+            return null;
+        }
+
+        final ContractIndex index = new ContractIndex();
+        index.indexedElements.addAll(elements);
+        for (final String line : lines) {
+            index.add(loader, line);
+        }
+        LOGGER.info(() -> "Using contract index: " + index.contracts.size() + " contracts, " + index.dataTypes.size()
+                + " data types, " + index.serializers.size() + " serializers");
+        return index;
+    }
+
+    /**
+     * The jar or directory holding an index resource, as the path ClassGraph gives for it.
+     *
+     * @param indexUrl URL of the index resource
+     * @return path of the classpath element
+     */
+    static String classpathElement(final URL indexUrl) {
+        String element = indexUrl.toString();
+        element = element.substring(0, element.length() - ContractIndexProcessor.INDEX_RESOURCE.length());
+        if (element.startsWith("jar:") && element.endsWith("!/")) {
+            element = element.substring("jar:".length(), element.length() - "!/".length());
+        }
+        if (element.startsWith("file:")) {
+            // a jar nested in another jar keeps the part after the outer jar's path
+            final int nested = element.indexOf("!/");
+            final String file = nested < 0 ? element : element.substring(0, nested);
+            final String rest = nested < 0 ? "" : element.substring(nested);
+            element = Paths.get(URI.create(file)).toString() + rest;
+        }
+        return normalize(element);
+    }
+
+    /**
+     * @param path path of a jar or directory on the classpath
+     * @return the path without any trailing separator, so that it can be compared with those indexed
+     */
+    static String normalize(final String path) {
+        return path.length() > 1 && (path.endsWith("/") || path.endsWith(File.separator))
+                ? path.substring(0, path.length() - 1)
+                : path;
+    }
+
+    private static ClassLoader classLoader() {
+        final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        return loader == null ? ContractIndex.class.getClassLoader() : loader;
+    }
+
+    private void add(final ClassLoader loader, final String line) {
+        final int separator = line.indexOf(' ');
+        if (separator < 0) {
+            LOGGER.warning(() -> "Ignoring contract index entry: " + line);
+            return;
+        }
+
+        final String kind = line.substring(0, separator);
+        final String className = line.substring(separator + 1).trim();
+        final Class<?> clazz;
+        try {
+            clazz = Class.forName(className, false, loader);
+        } catch (final ClassNotFoundException | LinkageError e) {
+            LOGGER.debug(() -> "Failed to load class: " + e);
+            return;
+        }
+
+        switch (kind) {
+            case ContractIndexProcessor.CONTRACT:
+                addContract(clazz);
+                break;
+            case ContractIndexProcessor.DATA_TYPE:
+                addDataType(clazz);
+                break;
+            case ContractIndexProcessor.SERIALIZER:
+                addSerializer(clazz);
+                break;
+            default:
+                LOGGER.warning(() -> "Ignoring contract index entry: " + line);
+                break;
+        }
+    }
+
+    void addContract(final Class<?> clazz) {
+        if (!contracts.contains(clazz)) {
+            contracts.add(clazz);
+        }
+    }
+
+    void addDataType(final Class<?> clazz) {
+        if (!dataTypes.contains(clazz)) {
+            dataTypes.add(clazz);
+        }
+    }
+
+    void addSerializer(final Class<?> clazz) {
+        if (!serializers.contains(clazz)) {
+            serializers.add(clazz);
+        }
+    }
+
+    /** @return classes annotated with Contract */
+    List<Class<?>> getContracts() {
+        return contracts;
+    }
+
+    /** @return classes annotated with DataType */
+    List<Class<?>> getDataTypes() {
+        return dataTypes;
+    }
+
+    /** @return classes annotated with Serializer */
+    List<Class<?>> getSerializers() {
+        return serializers;
+    }
+
+    /** @return paths of the classpath elements with an index, in the form of {@link #normalize(String)} */
+    Set<String> getIndexedElements() {
+        return indexedElements;
+    }
+}
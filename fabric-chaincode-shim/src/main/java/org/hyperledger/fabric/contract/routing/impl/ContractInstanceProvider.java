@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.contract.routing.impl;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.locks.ReentrantLock;
+import org.hyperledger.fabric.contract.ContractInterface;
+import org.hyperledger.fabric.contract.annotation.Contract;
+
+/**
+ * Supplies the contract instance used to run a transaction function, according to the lifecycle of the contract.
+ *
+ * <p>The no-argument constructor is looked up once. Instances that are reused are created when first needed, so a
+ * failing constructor fails the transaction as it would with a new instance per call.
+ */
+final class ContractInstanceProvider {
+
+    private final Class<? extends ContractInterface> clazz;
+    private final Contract.Lifecycle lifecycle;
+    @SuppressWarnings("PMD.AvoidUsingVolatile")
+    private volatile Constructor<? extends ContractInterface> constructor;
+
+    @SuppressWarnings("PMD.AvoidUsingVolatile")
+    private volatile ContractInterface singleton;
+
+    private final ReentrantLock singletonLock = new ReentrantLock();
+    private final ThreadLocal<ContractInterface> perThread = new ThreadLocal<>();
+
+    /**
+     * @param clazz contract class
+     * @param lifecycle lifecycle to use; DEFAULT is treated as PER_CALL
+     */
+    ContractInstanceProvider(final Class<? extends ContractInterface> clazz, final Contract.Lifecycle lifecycle) {
+        this.clazz = clazz;
+        this.lifecycle = lifecycle == Contract.Lifecycle.DEFAULT ? Contract.Lifecycle.PER_CALL : lifecycle;
+    }
+
+    Contract.Lifecycle getLifecycle() {
+        return lifecycle;
+    }
+
+    ContractInterface get()
+            throws IllegalAccessException, InstantiationException, InvocationTargetException, NoSuchMethodException {
+        switch (lifecycle) {
+            case SINGLETON:
+                return getSingleton();
+            case PER_THREAD:
+                return getPerThread();
+            default:
+                return newInstance();
+        }
+    }
+
+    private ContractInterface getPerThread()
+            throws IllegalAccessException, InstantiationException, InvocationTargetException, NoSuchMethodException {
+        ContractInterface instance = perThread.get();
+        if (instance == null) {
+            instance = newInstance();
+            perThread.set(instance);
+        }
+        return instance;
+    }
+
+    private ContractInterface getSingleton()
+            throws IllegalAccessException, InstantiationException, InvocationTargetException, NoSuchMethodException {
+        ContractInterface instance = singleton;
+        if (instance == null) {
+            singletonLock.lock();
+            try {
+                instance = singleton;
+                if (instance == null) {
+                    instance = newInstance();
+                    singleton = instance;
+                }
+            } finally {
+                singletonLock.unlock();
+            }
+        }
+        return instance;
+    }
+
+    private ContractInterface newInstance()
+            throws IllegalAccessException, InstantiationException, InvocationTargetException, NoSuchMethodException {
+        Constructor<? extends ContractInterface> ctor = constructor;
+        if (ctor == null) {
+            ctor = clazz.getDeclaredConstructor();
+            constructor = ctor;
+        }
+        return ctor.newInstance();
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.contract.routing.impl;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassInfo;
+import io.github.classgraph.ScanResult;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import org.hyperledger.fabric.Logger;
+import org.hyperledger.fabric.contract.annotation.Contract;
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Serializer;
+
+/**
+ * Finds the contracts, data types and serializers for both the routing and serializer registries, so that the
+ * classpath is scanned at most once.
+ *
+ * <p>The classes listed in compile-time contract indexes are used, and a single scan looks for all the annotations in
+ * the jars and directories without an index, limited to the packages and jars configured with
+ * <code>CHAINCODE_SCAN_PACKAGES</code> and <code>CHAINCODE_SCAN_JARS</code>. Setting
+ * <code>CHAINCODE_SCAN_UNINDEXED</code> to <code>false</code> uses the indexes alone, when every jar containing
+ * contracts is built with the index processor.
+ */
+public final class ContractScanner {
+    private static final Logger LOGGER = Logger.getLogger(ContractScanner.class);
+
+    /** Comma separated packages to scan, including their sub-packages; all packages if not set. */
+    public static final String CHAINCODE_SCAN_PACKAGES = "CHAINCODE_SCAN_PACKAGES";
+
+    /** Comma separated jar file names to scan, which may contain <code>*</code> wildcards; all jars if not set. */
+    public static final String CHAINCODE_SCAN_JARS = "CHAINCODE_SCAN_JARS";
+
+    /** Whether to scan the jars and directories without an index when there is one; default true. */
+    public static final String CHAINCODE_SCAN_UNINDEXED = "CHAINCODE_SCAN_UNINDEXED";
+
+    private final String[] packages;
+    private final String[] jars;
+    private final boolean scanUnindexed;
+    private final ReentrantLock lock = new ReentrantLock();
+    private ContractIndex classes;
+
+    /** Scanner for all packages and jars. */
+    public ContractScanner() {
+        this(new Properties());
+    }
+
+    /**
+     * Scanner limited to the packages and jars set in the chaincode configuration, or in the environment variables
+     * of the same name.
+     *
+     * @param props chaincode configuration
+     */
+    public ContractScanner(final Properties props) {
+        this.packages = acceptList(props, CHAINCODE_SCAN_PACKAGES);
+        this.jars = acceptList(props, CHAINCODE_SCAN_JARS);
+        this.scanUnindexed = Boolean.parseBoolean(props.getProperty(
+                CHAINCODE_SCAN_UNINDEXED, System.getenv().getOrDefault(CHAINCODE_SCAN_UNINDEXED, "true")));
+    }
+
+    private static String[] acceptList(final Properties props, final String key) {
+        final String value = props.getProperty(key, System.getenv().getOrDefault(key, ""));
+        final String[] list = Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(entry -> !entry.isEmpty())
+                .toArray(String[]::new);
+        if (list.length > 0) {
+            LOGGER.info(() -> "Contract scan [" + key + "]" + String.join(",", list));
+        }
+        return list;
+    }
+
+    /**
+     * Classes found in the contract indexes and by scanning; the first call finds them and later calls reuse them.
+     *
+     * @return contracts, data types and serializers
+     */
+    ContractIndex getClasses() {
+        lock.lock();
+        try {
+            if (classes == null) {
+                final long start = System.nanoTime();
+                final ContractIndex index = ContractIndex.load();
+                LOGGER.info(() -> "Contract index lookup took " + elapsedMillis(start) + "ms");
+                if (index == null) {
+                    classes = scan(new ContractIndex(), Collections.emptySet());
+                } else if (scanUnindexed) {
+                    classes = scan(index, index.getIndexedElements());
+                } else {
+                    LOGGER.info("Contract scan skipped [" + CHAINCODE_SCAN_UNINDEXED + "]: classes in jars without"
+                            + " a contract index are not found");
+                    classes = index;
+                }
+            }
+            return classes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add the classes found by scanning to those already found.
+     *
+     * @param found classes already found, which the scan adds to
+     * @param indexed classpath elements not to scan, as their classes are already found
+     * @return found
+     */
+    private ContractIndex scan(final ContractIndex found, final Set<String> indexed) {
+        final ClassGraph classGraph = new ClassGraph().enableClassInfo().enableAnnotationInfo();
+        if (!indexed.isEmpty()) {
+            classGraph.filterClasspathElements(path -> !indexed.contains(ContractIndex.normalize(path)));
+        }
+        if (packages.length > 0) {
+            classGraph.acceptPackages(packages);
+        }
+        if (jars.length > 0) {
+            classGraph.acceptJars(jars);
+        }
+
+        final long start = System.nanoTime();
+        try (ScanResult scanResult = classGraph.scan()) {
+            LOGGER.info(() -> "Classpath scanned in " + elapsedMillis(start) + "ms");
+
+            final long loadStart = System.nanoTime();
+            loadClasses(scanResult, Contract.class, found::addContract);
+            loadClasses(scanResult, DataType.class, found::addDataType);
+            loadClasses(scanResult, Serializer.class, found::addSerializer);
+            LOGGER.info(() -> "Annotated classes loaded in " + elapsedMillis(loadStart) + "ms");
+        }
+        return found;
+    }
+
+    private static void loadClasses(
+            final ScanResult scanResult, final Class<?> annotation, final Consumer<Class<?>> consumer) {
+        for (final ClassInfo classInfo : scanResult.getClassesWithAnnotation(annotation.getCanonicalName())) {
+            LOGGER.debug(() -> "Found " + annotation.getSimpleName() + " class: " + classInfo.getName());
+            try {
+                consumer.accept(classInfo.loadClass());
+                LOGGER.debug("Loaded class");
+            } catch (final IllegalArgumentException e) {
+                LOGGER.debug(() -> "Failed to load class: " + e);
+            }
+        }
+    }
+
+    static long elapsedMillis(final long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
@@ -5,9 +5,6 @@
  */
 package org.hyperledger.fabric.contract.routing.impl;
 
-import io.github.classgraph.ClassGraph;
-import io.github.classgraph.ClassInfo;
-import io.github.classgraph.ScanResult;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -39,6 +36,27 @@ public final class RoutingRegistryImpl implements RoutingRegistry {
     private static Logger logger = Logger.getLogger(RoutingRegistryImpl.class);
 
     private final Map<String, ContractDefinition> contracts = new HashMap<>();
+    private final Contract.Lifecycle defaultLifecycle;
+    private final ContractScanner scanner;
+
+    /** Create a registry whose contracts are instantiated for each transaction, unless they say otherwise. */
+    public RoutingRegistryImpl() {
+        this(Contract.Lifecycle.PER_CALL);
+    }
+
+    /** @param defaultLifecycle lifecycle of contracts that do not give one in their annotation */
+    public RoutingRegistryImpl(final Contract.Lifecycle defaultLifecycle) {
+        this(defaultLifecycle, new ContractScanner());
+    }
+
+    /**
+     * @param defaultLifecycle lifecycle of contracts that do not give one in their annotation
+     * @param scanner finds the contracts and data types, shared with the serializer registry
+     */
+    public RoutingRegistryImpl(final Contract.Lifecycle defaultLifecycle, final ContractScanner scanner) {
+        this.defaultLifecycle = defaultLifecycle;
+        this.scanner = scanner;
+    }
 
     /*
      * (non-Javadoc)
@@ -51,7 +69,7 @@ public final class RoutingRegistryImpl implements RoutingRegistry {
     public ContractDefinition addNewContract(final Class<ContractInterface> clz) {
         logger.debug(() -> "Adding new Contract Class " + clz.getCanonicalName());
         ContractDefinition contract;
-        contract = new ContractDefinitionImpl(clz);
+        contract = new ContractDefinitionImpl(clz, defaultLifecycle);
 
         // index this by the full qualified name
         contracts.put(contract.getName(), contract);
@@ -135,61 +153,50 @@ public final class RoutingRegistryImpl implements RoutingRegistry {
      * org.hyperledger.fabric.contract.routing.RoutingRegistry#findAndSetContracts()
      */
     @Override
-    @SuppressWarnings("unchecked")
     public void findAndSetContracts(final TypeRegistry typeRegistry) {
 
         // Find all classes that are valid contract or data type instances.
-        final ClassGraph classGraph = new ClassGraph().enableClassInfo().enableAnnotationInfo();
+        final ContractIndex classes = scanner.getClasses();
+        final long start = System.nanoTime();
         final List<Class<ContractInterface>> contractClasses = new ArrayList<>();
         final List<Class<?>> dataTypeClasses = new ArrayList<>();
-        try (ScanResult scanResult = classGraph.scan()) {
-            for (final ClassInfo classInfo : scanResult.getClassesWithAnnotation(Contract.class.getCanonicalName())) {
-                logger.debug(() -> "Found class with contract annotation: " + classInfo.getName());
-                try {
-                    final Class<?> contractClass = classInfo.loadClass();
-                    logger.debug("Loaded class");
-                    final Contract annotation = contractClass.getAnnotation(Contract.class);
-                    if (annotation == null) {
-                        // Since we check by name above, it makes sense to check it's actually
-                        // compatible,
-                        // and not some random class with the same name.
-                        logger.debug("Class does not have compatible contract annotation");
-                    } else if (ContractInterface.class.isAssignableFrom(contractClass)) {
-                        logger.debug("Class is assignable from ContractInterface");
-                        contractClasses.add((Class<ContractInterface>) contractClass);
-                    } else {
-                        logger.debug("Class is not assignable from ContractInterface");
-                    }
-                } catch (final IllegalArgumentException e) {
-                    logger.debug(() -> "Failed to load class: " + e);
-                }
-            }
-            for (final ClassInfo classInfo : scanResult.getClassesWithAnnotation(DataType.class.getCanonicalName())) {
-                logger.debug(() -> "Found class with data type annotation: " + classInfo.getName());
-                try {
-                    final Class<?> dataTypeClass = classInfo.loadClass();
-                    logger.debug("Loaded class");
-                    final DataType annotation = dataTypeClass.getAnnotation(DataType.class);
-                    if (annotation == null) {
-                        // Since we check by name above, it makes sense to check it's actually
-                        // compatible,
-                        // and not some random class with the same name.
-                        logger.debug("Class does not have compatible data type annotation");
-                    } else {
-                        logger.debug("Class has compatible data type annotation");
-                        dataTypeClasses.add(dataTypeClass);
-                    }
-                } catch (final IllegalArgumentException e) {
-                    logger.debug(() -> "Failed to load class: " + e);
-                }
-            }
-        }
+        classes.getContracts().forEach(contractClass -> addContractClass(contractClass, contractClasses));
+        classes.getDataTypes().forEach(dataTypeClass -> addDataTypeClass(dataTypeClass, dataTypeClasses));
 
         // store the contracts in the internal data structures
         addContracts(contractClasses);
 
         // now need to look for the data types have been set with the
         dataTypeClasses.forEach(typeRegistry::addDataType);
+        logger.info(() -> "Contracts and data types registered in " + ContractScanner.elapsedMillis(start) + "ms");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void addContractClass(
+            final Class<?> contractClass, final List<Class<ContractInterface>> contractClasses) {
+        final Contract annotation = contractClass.getAnnotation(Contract.class);
+        if (annotation == null) {
+            // Classes are found by annotation name, so check it's actually
+            // compatible, and not some random class with the same name.
+            logger.debug("Class does not have compatible contract annotation");
+        } else if (ContractInterface.class.isAssignableFrom(contractClass)) {
+            logger.debug("Class is assignable from ContractInterface");
+            contractClasses.add((Class<ContractInterface>) contractClass);
+        } else {
+            logger.debug("Class is not assignable from ContractInterface");
+        }
+    }
+
+    private static void addDataTypeClass(final Class<?> dataTypeClass, final List<Class<?>> dataTypeClasses) {
+        final DataType annotation = dataTypeClass.getAnnotation(DataType.class);
+        if (annotation == null) {
+            // Classes are found by annotation name, so check it's actually
+            // compatible, and not some random class with the same name.
+            logger.debug("Class does not have compatible data type annotation");
+        } else {
+            logger.debug("Class has compatible data type annotation");
+            dataTypeClasses.add(dataTypeClass);
+        }
     }
 
     private void addContracts(final List<Class<ContractInterface>> contractClasses) {
@@ -5,10 +5,8 @@
  */
 package org.hyperledger.fabric.contract.routing.impl;
 
-import io.github.classgraph.ClassGraph;
-import io.github.classgraph.ClassInfo;
-import io.github.classgraph.ScanResult;
 import java.lang.reflect.InvocationTargetException;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -25,10 +23,9 @@ import org.hyperledger.fabric.contract.execution.SerializerInterface;
 public class SerializerRegistryImpl {
     private static final Logger LOGGER = Logger.getLogger(SerializerRegistryImpl.class);
 
-    private static final Class<Serializer> ANNOTATION_CLASS = Serializer.class;
-
-    // Could index these by name and or type.
-    private final Map<String, SerializerInterface> contents = new HashMap<>();
+    // Indexed by target, then by name; looked up on each transaction, so without building a combined key
+    private final Map<Serializer.TARGET, Map<String, SerializerInterface>> contents =
+            new EnumMap<>(Serializer.TARGET.class);
 
     /**
      * Get a Serializer for the matching fully qualified classname, and the Target.
@@ -38,18 +35,17 @@ public class SerializerRegistryImpl {
      * @return Serializer instance
      */
     public SerializerInterface getSerializer(final String name, final Serializer.TARGET target) {
-        final String key = name + ":" + target;
-        return contents.get(key);
+        final Map<String, SerializerInterface> named = contents.get(target);
+        return named == null ? null : named.get(name);
     }
 
     private void add(final String name, final Serializer.TARGET target, final Class<?> clazz)
             throws InstantiationException, IllegalAccessException {
         LOGGER.debug(() -> "Adding new Class " + clazz.getCanonicalName() + " for " + target);
-        final String key = name + ":" + target;
         try {
             final SerializerInterface newObj =
                     (SerializerInterface) clazz.getDeclaredConstructor().newInstance();
-            this.contents.put(key, newObj);
+            this.contents.computeIfAbsent(target, t -> new HashMap<>()).put(name, newObj);
         } catch (InvocationTargetException | NoSuchMethodException e) {
             InstantiationException wrapper = new InstantiationException(
                     "Exception constructing " + clazz.getCanonicalName() + ": " + e.getMessage());
@@ -66,25 +62,33 @@ public class SerializerRegistryImpl {
      * @throws InstantiationException
      */
     public void findAndSetContents() throws InstantiationException, IllegalAccessException {
+        findAndSetContents(new ContractScanner());
+    }
 
-        final ClassGraph classGraph = new ClassGraph().enableClassInfo().enableAnnotationInfo();
+    /**
+     * Find all the serializers that have been defined.
+     *
+     * @param scanner finds the serializers, shared with the routing registry
+     * @throws IllegalAccessException
+     * @throws InstantiationException
+     */
+    public void findAndSetContents(final ContractScanner scanner)
+            throws InstantiationException, IllegalAccessException {
 
         // set to ensure that we don't scan the same class twice
         final Set<String> seenClass = new HashSet<>();
 
-        try (ScanResult scanResult = classGraph.scan()) {
-            for (final ClassInfo classInfo : scanResult.getClassesWithAnnotation(ANNOTATION_CLASS.getCanonicalName())) {
-                LOGGER.debug(() -> "Found class with contract annotation: " + classInfo.getName());
-
-                final Class<?> cls = classInfo.loadClass();
-                LOGGER.debug("Loaded class");
+        for (final Class<?> cls : scanner.getClasses().getSerializers()) {
+            addSerializerClass(cls, seenClass);
+        }
+    }
 
-                final String className = cls.getCanonicalName();
-                if (!seenClass.contains(className)) {
-                    seenClass.add(className);
-                    this.add(className, Serializer.TARGET.TRANSACTION, cls);
-                }
-            }
+    private void addSerializerClass(final Class<?> cls, final Set<String> seenClass)
+            throws InstantiationException, IllegalAccessException {
+        final String className = cls.getCanonicalName();
+        if (!seenClass.contains(className)) {
+            seenClass.add(className);
+            this.add(className, Serializer.TARGET.TRANSACTION, cls);
         }
     }
 }
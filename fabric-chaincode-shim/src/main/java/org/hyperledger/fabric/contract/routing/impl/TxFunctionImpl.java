@@ -5,6 +5,10 @@
  */
 package org.hyperledger.fabric.contract.routing.impl;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
@@ -15,8 +19,11 @@ import org.hyperledger.fabric.Logger;
 import org.hyperledger.fabric.contract.Context;
 import org.hyperledger.fabric.contract.ContractInterface;
 import org.hyperledger.fabric.contract.ContractRuntimeException;
+import org.hyperledger.fabric.contract.annotation.Contract;
 import org.hyperledger.fabric.contract.annotation.Property;
 import org.hyperledger.fabric.contract.annotation.Transaction;
+import org.hyperledger.fabric.contract.execution.SerializerInterface;
+import org.hyperledger.fabric.contract.execution.TxConverters;
 import org.hyperledger.fabric.contract.metadata.TypeSchema;
 import org.hyperledger.fabric.contract.routing.ContractDefinition;
 import org.hyperledger.fabric.contract.routing.ParameterDefinition;
@@ -25,6 +32,8 @@ import org.hyperledger.fabric.contract.routing.TxFunction;
 
 public final class TxFunctionImpl implements TxFunction {
     private static final Logger LOGGER = Logger.getLogger(TxFunctionImpl.class);
+    private static final MethodType INVOKER_TYPE =
+            MethodType.methodType(Object.class, ContractInterface.class, Context.class, Object[].class);
 
     private final Method method;
     private String name;
@@ -33,12 +42,18 @@ public final class TxFunctionImpl implements TxFunction {
     private TypeSchema returnSchema;
     private List<ParameterDefinition> paramsList;
     private boolean isUnknownTx;
+    // compiled on the first call, when all the data types are registered, and again if the schemas change
+    @SuppressWarnings("PMD.AvoidUsingVolatile")
+    private volatile TxConverters converters;
 
     public static final class RoutingImpl implements Routing {
 
         private final Method method;
         private final Class<? extends ContractInterface> clazz;
         private final String serializerName;
+        private final ContractInstanceProvider instances;
+        // (ContractInterface, Context, Object[])Object, or null to call the method reflectively
+        private final MethodHandle invoker;
 
         /**
          * @param method
@@ -48,6 +63,30 @@ public final class TxFunctionImpl implements TxFunction {
             this.method = method;
             this.clazz = contract.getContractImpl();
             this.serializerName = contract.getAnnotation().transactionSerializer();
+            // all the transaction functions of a contract share its instances
+            if (contract instanceof ContractDefinitionImpl) {
+                this.instances = ((ContractDefinitionImpl) contract).getInstanceProvider();
+            } else {
+                this.instances = new ContractInstanceProvider(clazz, Contract.Lifecycle.PER_CALL);
+            }
+            this.invoker = newInvoker(method);
+        }
+
+        /**
+         * Adapt the method to take the contract, the context, and an array of the remaining arguments, so that it can
+         * be called without copying the arguments.
+         */
+        private static MethodHandle newInvoker(final Method method) {
+            try {
+                return MethodHandles.publicLookup()
+                        .unreflect(method)
+                        .asSpreader(Object[].class, method.getParameterCount() - 1)
+                        .asType(INVOKER_TYPE);
+            } catch (IllegalAccessException | IllegalArgumentException | WrongMethodTypeException e) {
+                // not a method that can be adapted, such as one without a context parameter
+                LOGGER.debug(() -> "Calling " + method + " reflectively: " + e);
+                return null;
+            }
         }
 
         @Override
@@ -64,7 +103,21 @@ public final class TxFunctionImpl implements TxFunction {
         public ContractInterface getContractInstance()
                 throws IllegalAccessException, InstantiationException, InvocationTargetException,
                         NoSuchMethodException {
-            return clazz.getDeclaredConstructor().newInstance();
+            return instances.get();
+        }
+
+        @Override
+        @SuppressWarnings("PMD.AvoidCatchingGenericException")
+        public Object invoke(final ContractInterface contract, final Context context, final Object[] args)
+                throws IllegalAccessException, InvocationTargetException {
+            if (invoker == null) {
+                return Routing.super.invoke(contract, context, args);
+            }
+            try {
+                return invoker.invokeExact(contract, context, args);
+            } catch (final Throwable t) {
+                throw new InvocationTargetException(t);
+            }
         }
 
         @Override
@@ -186,8 +239,10 @@ public final class TxFunctionImpl implements TxFunction {
     }
 
     @Override
+    @SuppressWarnings("PMD.NullAssignment")
     public void setReturnSchema(final TypeSchema returnSchema) {
         this.returnSchema = returnSchema;
+        this.converters = null;
     }
 
     @Override
@@ -196,8 +251,10 @@ public final class TxFunctionImpl implements TxFunction {
     }
 
     /** @param paramsList */
+    @SuppressWarnings("PMD.NullAssignment")
     public void setParamsList(final List<ParameterDefinition> paramsList) {
         this.paramsList = paramsList;
+        this.converters = null;
     }
 
     @Override
@@ -206,8 +263,26 @@ public final class TxFunctionImpl implements TxFunction {
     }
 
     @Override
+    @SuppressWarnings("PMD.NullAssignment")
     public void setParameterDefinitions(final List<ParameterDefinition> list) {
         this.paramsList = list;
+        this.converters = null;
+    }
+
+    /**
+     * Conversions of the arguments and return value, compiled from the schemas once for the serializer.
+     *
+     * @param serializer serializer of the transaction function
+     * @return converters
+     */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    public TxConverters getConverters(final SerializerInterface serializer) {
+        TxConverters current = converters;
+        if (current == null || current.getSerializer() != serializer) {
+            current = new TxConverters(serializer, paramsList, returnSchema);
+            converters = current;
+        }
+        return current;
     }
 
     @Override
@@ -21,11 +21,14 @@ import org.hyperledger.fabric.contract.metadata.MetadataBuilder;
                         description = "Provides information about the contracts within this container"))
 public final class SystemContract implements ContractInterface {
 
+    /** Name of the transaction function that returns the metadata. */
+    public static final String GET_METADATA = "GetMetadata";
+
     /**
      * @param ctx
      * @return Metadata
      */
-    @Transaction(intent = Transaction.TYPE.EVALUATE, name = "GetMetadata")
+    @Transaction(intent = Transaction.TYPE.EVALUATE, name = GET_METADATA)
     public String getMetadata(final Context ctx) {
         return MetadataBuilder.getMetadata();
     }
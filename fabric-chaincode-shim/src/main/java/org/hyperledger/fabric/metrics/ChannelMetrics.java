@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.metrics;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.hyperledger.fabric.protos.peer.ChaincodeMessage;
+
+/**
+ * The transaction metrics of one channel.
+ *
+ * <p>Functions are looked up by the encoded first argument of the transaction, so that it is not decoded on each
+ * transaction. As the function names come from the clients, metrics are only kept separately for the functions added
+ * with {@link Metrics#addFunctions(Collection)}; transactions invoking any other function are recorded under
+ * {@value #UNKNOWN_FUNCTIONS}.
+ */
+public final class ChannelMetrics {
+    /** Function name under which any function not added is recorded. */
+    public static final String UNKNOWN_FUNCTIONS = "(unknown)";
+
+    private final String channelId;
+    private final Set<ByteString> knownFunctions;
+    private final Map<ByteString, FunctionMetrics> functions = new ConcurrentHashMap<>();
+    private final FunctionMetrics unknownFunctions;
+    private final AtomicReferenceArray<LedgerCallMetrics> ledgerCalls;
+    private final LongAdder rejections = new LongAdder();
+
+    ChannelMetrics(final String channelId, final Set<ByteString> knownFunctions) {
+        this.channelId = channelId;
+        this.knownFunctions = knownFunctions;
+        this.unknownFunctions = new FunctionMetrics(channelId, UNKNOWN_FUNCTIONS);
+        int maxType = 0;
+        for (final ChaincodeMessage.Type type : ChaincodeMessage.Type.values()) {
+            if (type != ChaincodeMessage.Type.UNRECOGNIZED) {
+                maxType = Math.max(maxType, type.getNumber());
+            }
+        }
+        this.ledgerCalls = new AtomicReferenceArray<>(maxType + 1);
+    }
+
+    /**
+     * Metrics of the transactions invoking a function, created on first use.
+     *
+     * @param function encoded name of the function
+     * @return FunctionMetrics, shared by all the functions not added with {@link Metrics#addFunctions(Collection)}
+     */
+    public FunctionMetrics function(final ByteString function) {
+        final FunctionMetrics metrics = functions.get(function);
+        if (metrics != null) {
+            return metrics;
+        }
+        if (!knownFunctions.contains(function)) {
+            return unknownFunctions;
+        }
+        // copied, as the argument may be a view of the whole message
+        final ByteString key = ByteString.copyFrom(function.toByteArray());
+        return functions.computeIfAbsent(key, f -> new FunctionMetrics(channelId, f.toStringUtf8()));
+    }
+
+    /**
+     * Record a request to the peer.
+     *
+     * @param type type of the request message
+     * @param nanos time from the request being sent to the response being received
+     * @param success false if the peer responded with an error
+     */
+    public void recordLedgerCall(final ChaincodeMessage.Type type, final long nanos, final boolean success) {
+        final int index = type.getNumber();
+        LedgerCallMetrics metrics = ledgerCalls.get(index);
+        if (metrics == null) {
+            ledgerCalls.compareAndSet(index, null, new LedgerCallMetrics(channelId, type.name()));
+            metrics = ledgerCalls.get(index);
+        }
+        metrics.record(nanos, success);
+    }
+
+    /** Record a transaction that was rejected, as there was no room to queue it. */
+    public void recordRejection() {
+        rejections.increment();
+    }
+
+    /** @return channel ID */
+    public String getChannelId() {
+        return channelId;
+    }
+
+    /** @return metrics of each function invoked */
+    public Collection<FunctionMetrics> getFunctionMetrics() {
+        final List<FunctionMetrics> result = new ArrayList<>(functions.values());
+        if (unknownFunctions.getTotal().getCount() > 0) {
+            result.add(unknownFunctions);
+        }
+        return result;
+    }
+
+    /** @return metrics of each type of request sent to the peer */
+    public Collection<LedgerCallMetrics> getLedgerCallMetrics() {
+        final List<LedgerCallMetrics> result = new ArrayList<>();
+        for (int i = 0; i < ledgerCalls.length(); i++) {
+            final LedgerCallMetrics metrics = ledgerCalls.get(i);
+            if (metrics != null) {
+                result.add(metrics);
+            }
+        }
+        return result;
+    }
+
+    /** @return transactions rejected, as there was no room to queue them */
+    public long getRejectionCount() {
+        return rejections.sum();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of the transactions invoking one function on one channel.
+ *
+ * <p>The time of a transaction is split into its wait in the queue for a thread, its execution by the chaincode, and
+ * its total from the message arriving to the response being sent. For contract chaincode, the time spent in the
+ * transaction function itself is also recorded, so that the time taken by the contract can be told apart from that of
+ * the chaincode shim; the time spent waiting for the peer is in the {@link LedgerCallMetrics}.
+ */
+public final class FunctionMetrics {
+    private final String channelId;
+    private final String function;
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram execution = new LatencyHistogram();
+    private final LatencyHistogram contractExecution = new LatencyHistogram();
+    private final LatencyHistogram total = new LatencyHistogram();
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    FunctionMetrics(final String channelId, final String function) {
+        this.channelId = channelId;
+        this.function = function;
+    }
+
+    /**
+     * Record a completed transaction.
+     *
+     * @param queueWaitNanos time from the message arriving to the transaction starting
+     * @param executionNanos time taken by the chaincode
+     * @param totalNanos time from the message arriving to the response being sent
+     * @param success false if the transaction failed
+     */
+    public void record(
+            final long queueWaitNanos, final long executionNanos, final long totalNanos, final boolean success) {
+        queueWait.record(queueWaitNanos);
+        execution.record(executionNanos);
+        total.record(totalNanos);
+        if (success) {
+            successes.increment();
+        } else {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Record the time spent in a contract's transaction function.
+     *
+     * @param nanos time taken by the transaction function
+     */
+    public void recordContractExecution(final long nanos) {
+        contractExecution.record(nanos);
+    }
+
+    /** @return channel the transactions were on */
+    public String getChannelId() {
+        return channelId;
+    }
+
+    /** @return function name, as the first argument of the transactions */
+    public String getFunction() {
+        return function;
+    }
+
+    /** @return time from the message arriving to the transaction starting */
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+
+    /** @return time taken by the chaincode */
+    public LatencyHistogram getExecution() {
+        return execution;
+    }
+
+    /** @return time spent in the transaction function of a contract; empty for other chaincode */
+    public LatencyHistogram getContractExecution() {
+        return contractExecution;
+    }
+
+    /** @return time from the message arriving to the response being sent */
+    public LatencyHistogram getTotal() {
+        return total;
+    }
+
+    /** @return transactions that succeeded */
+    public long getSuccessCount() {
+        return successes.sum();
+    }
+
+    /** @return transactions that failed */
+    public long getErrorCount() {
+        return errors.sum();
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.metrics;
+
+/**
+ * Collect metrics relating to the client identity cache.
+ *
+ * <p>Client identities parsed from the transaction creator are kept, so that transactions from the same client do not
+ * parse the same certificate again. The counts are totals since the chaincode started.
+ */
+public interface IdentityCacheMetricsCollector {
+
+    /**
+     * Identities found in the cache.
+     *
+     * @return long &gt;= 0
+     */
+    long getIdentityCacheHitCount();
+
+    /**
+     * Identities that had to be parsed.
+     *
+     * @return long &gt;= 0
+     */
+    long getIdentityCacheMissCount();
+
+    /**
+     * Identities removed from the cache to make room for others.
+     *
+     * @return long &gt;= 0
+     */
+    long getIdentityCacheEvictionCount();
+}
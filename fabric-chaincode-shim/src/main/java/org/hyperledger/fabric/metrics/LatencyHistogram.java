@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies in nanoseconds, in the style of an HDR histogram.
+ *
+ * <p>Values are counted in log-linear buckets: each power of two is split into 32 buckets, so that any percentile is
+ * reported to within about 3% of the value recorded. The buckets cover the whole range of a long, and are allocated
+ * when the histogram is created; recording a value does not allocate and takes no locks, so it can be done on every
+ * transaction. The counts are totals since the histogram was created.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // values below this are counted exactly, one bucket per value
+    private static final int LINEAR_BUCKETS = SUB_BUCKETS << 1;
+    private static final int BUCKETS = LINEAR_BUCKETS + (Long.SIZE - 2 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a latency.
+     *
+     * @param nanos latency in nanoseconds; negative values are recorded as zero
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(nanos, 0);
+        counts.incrementAndGet(bucket(value));
+        count.increment();
+        total.add(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Number of latencies recorded.
+     *
+     * @return long &gt;= 0
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Sum of the latencies recorded.
+     *
+     * @return nanoseconds
+     */
+    public long getTotalNanos() {
+        return total.sum();
+    }
+
+    /**
+     * Highest latency recorded.
+     *
+     * @return nanoseconds, or 0 if none have been recorded
+     */
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    /**
+     * Mean of the latencies recorded.
+     *
+     * @return nanoseconds, or 0 if none have been recorded
+     */
+    public long getMeanNanos() {
+        final long n = getCount();
+        return n == 0 ? 0 : getTotalNanos() / n;
+    }
+
+    /**
+     * Latency at or below which the given percentage of the latencies recorded fall. While values are being recorded
+     * this is an approximation, as the buckets are read one at a time.
+     *
+     * @param percentile between 0 and 100, such as 99.9
+     * @return nanoseconds, or 0 if none have been recorded
+     */
+    public long getValueAtPercentile(final double percentile) {
+        final long n = getCount();
+        if (n == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValue(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    static int bucket(final long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        final int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        final int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestValue(final int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        final int shift = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        final long top = SUB_BUCKETS + (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+}
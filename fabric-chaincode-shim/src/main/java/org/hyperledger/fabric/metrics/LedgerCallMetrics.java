@@ -0,0 +1,60 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Round trips of one type of request to the peer, such as GET_STATE, from the transactions on one channel.
+ *
+ * <p>The round trip is from the request being sent to the response being taken by the transaction, so includes the
+ * time the message waits to be written to the stream.
+ */
+public final class LedgerCallMetrics {
+    private final String channelId;
+    private final String type;
+    private final LatencyHistogram roundTrip = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+
+    LedgerCallMetrics(final String channelId, final String type) {
+        this.channelId = channelId;
+        this.type = type;
+    }
+
+    /**
+     * Record a request to the peer.
+     *
+     * @param nanos time from the request being sent to the response being received
+     * @param success false if the peer responded with an error
+     */
+    public void record(final long nanos, final boolean success) {
+        roundTrip.record(nanos);
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    /** @return channel the requests were on */
+    public String getChannelId() {
+        return channelId;
+    }
+
+    /** @return type of the requests, such as GET_STATE */
+    public String getType() {
+        return type;
+    }
+
+    /** @return time from the request being sent to the response being received */
+    public LatencyHistogram getRoundTrip() {
+        return roundTrip;
+    }
+
+    /** @return requests to which the peer responded with an error */
+    public long getErrorCount() {
+        return errors.sum();
+    }
+}
@@ -5,7 +5,11 @@
  */
 package org.hyperledger.fabric.metrics;
 
+import com.google.protobuf.ByteString;
+import java.util.Collection;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 import org.hyperledger.fabric.metrics.impl.DefaultProvider;
 import org.hyperledger.fabric.metrics.impl.NullProvider;
@@ -25,6 +29,11 @@ public final class Metrics {
 
     private static MetricsProvider provider;
 
+    private static TransactionMetrics transactionMetrics = TransactionMetrics.disabled();
+
+    // kept across initializations, as functions can be added before or after metrics are initialized
+    private static final Set<ByteString> KNOWN_FUNCTIONS = ConcurrentHashMap.newKeySet();
+
     private Metrics() {}
 
     /**
@@ -56,6 +65,10 @@ public final class Metrics {
         }
 
         provider.initialize(props);
+        transactionMetrics = provider instanceof NullProvider
+                ? TransactionMetrics.disabled()
+                : new TransactionMetrics(true, KNOWN_FUNCTIONS);
+        provider.setTransactionMetricsCollector(transactionMetrics);
         return provider;
     }
 
@@ -66,4 +79,28 @@ public final class Metrics {
         }
         return provider;
     }
+
+    /**
+     * The transaction metrics to record into; nothing is recorded unless metrics are enabled.
+     *
+     * @return TransactionMetrics
+     */
+    public static TransactionMetrics getTransactionMetrics() {
+        return transactionMetrics;
+    }
+
+    /**
+     * Add functions whose transactions are recorded separately.
+     *
+     * <p>The function of a transaction is named by the client, so the transactions invoking any function not added are
+     * recorded together, rather than keeping metrics for every name sent. The contract router adds the functions that
+     * route to a transaction function; other chaincode can add the functions it implements.
+     *
+     * @param functions names of the functions, as the first argument of the transactions
+     */
+    public static void addFunctions(final Collection<String> functions) {
+        for (final String function : functions) {
+            KNOWN_FUNCTIONS.add(ByteString.copyFromUtf8(function));
+        }
+    }
 }
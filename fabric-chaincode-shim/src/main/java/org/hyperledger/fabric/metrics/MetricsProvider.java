@@ -19,7 +19,10 @@ import java.util.Properties;
  * <p>This is the effective call sequence.
  *
  * <p>MyMetricsProvider mmp = new MyMetricsProvider() mmp.initialize(props_from_environment); // short while later....
- * mmp.setTaskMetricsCollector(taskService);
+ * mmp.setTaskMetricsCollector(taskService); mmp.setStreamMetricsCollector(streamService);
+ * mmp.setStateCacheMetricsCollector(cacheService); // only if the state cache is enabled
+ * mmp.setIdentityCacheMetricsCollector(identityCache); // only for contract chaincode
+ * mmp.setTransactionMetricsCollector(transactionMetrics); // straight after initialize
  */
 public interface MetricsProvider {
 
@@ -41,4 +44,45 @@ public interface MetricsProvider {
     default void setTaskMetricsCollector(final TaskMetricsCollector taskService) {
         // Do nothing by default
     }
+
+    /**
+     * Pass a reference to the service writing messages to the peer for information gathering. This is related to how
+     * quickly the ledger calls and transaction responses are being sent.
+     *
+     * @param streamService
+     */
+    default void setStreamMetricsCollector(final StreamMetricsCollector streamService) {
+        // Do nothing by default
+    }
+
+    /**
+     * Pass a reference to the state cache counts for information gathering. This shows how many ledger reads are being
+     * answered without a request to the peer.
+     *
+     * @param cacheService
+     */
+    default void setStateCacheMetricsCollector(final StateCacheMetricsCollector cacheService) {
+        // Do nothing by default
+    }
+
+    /**
+     * Pass a reference to the client identity cache counts for information gathering. This shows how often the
+     * submitting identity of a transaction has to be parsed.
+     *
+     * @param identityCache
+     */
+    default void setIdentityCacheMetricsCollector(final IdentityCacheMetricsCollector identityCache) {
+        // Do nothing by default
+    }
+
+    /**
+     * Pass a reference to the transaction metrics for information gathering. This has the latencies of each
+     * transaction function and each type of ledger call, per channel, so that it can be seen whether time is being
+     * spent waiting for the peer or in the chaincode.
+     *
+     * @param transactionMetrics
+     */
+    default void setTransactionMetricsCollector(final TransactionMetricsCollector transactionMetrics) {
+        // Do nothing by default
+    }
 }
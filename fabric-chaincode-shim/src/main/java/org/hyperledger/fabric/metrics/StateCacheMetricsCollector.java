@@ -0,0 +1,29 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.metrics;
+
+/**
+ * Collect metrics relating to the per-transaction state cache.
+ *
+ * <p>When enabled, repeated reads of a key within one transaction are answered from the cache rather than the peer.
+ * The counts are totals across all transactions.
+ */
+public interface StateCacheMetricsCollector {
+
+    /**
+     * Reads answered from the cache.
+     *
+     * @return long &gt;= 0
+     */
+    long getStateCacheHitCount();
+
+    /**
+     * Reads that had to be sent to the peer.
+     *
+     * @return long &gt;= 0
+     */
+    long getStateCacheMissCount();
+}
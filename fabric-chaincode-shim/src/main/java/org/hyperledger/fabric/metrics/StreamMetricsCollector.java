@@ -0,0 +1,36 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.metrics;
+
+/**
+ * Collect metrics relating to the messages sent to the peer.
+ *
+ * <p>All messages to the peer (ledger requests from the transaction tasks, and their final responses) are queued and
+ * written to the gRPC stream by a single writer. This interface abstracts the information available from that queue.
+ */
+public interface StreamMetricsCollector {
+
+    /**
+     * Messages waiting to be written to the stream.
+     *
+     * @return int &gt;= 0
+     */
+    int getOutboundQueueCount();
+
+    /**
+     * Total number of messages written to the stream.
+     *
+     * @return long &gt;= 0
+     */
+    long getOutboundMessageCount();
+
+    /**
+     * Total time, in nanoseconds, that the written messages spent waiting in the queue.
+     *
+     * @return long &gt;= 0
+     */
+    long getOutboundDrainTimeNanos();
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.metrics;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the latencies and outcomes of transactions, per channel.
+ *
+ * <p>The chaincode records into this as transactions are handled; the {@link MetricsProvider} reads it as a
+ * {@link TransactionMetricsCollector}. When metrics are disabled nothing is recorded, and the recording methods return
+ * straight away.
+ */
+public final class TransactionMetrics implements TransactionMetricsCollector {
+    private static final TransactionMetrics DISABLED = new TransactionMetrics(false, Collections.emptySet());
+
+    private final boolean enabled;
+    private final Set<ByteString> knownFunctions;
+    private final Map<String, ChannelMetrics> channels = new ConcurrentHashMap<>();
+    // the function of the transaction running on each thread, for the phases recorded by the contract layer
+    private final ThreadLocal<FunctionMetrics> current = new ThreadLocal<>();
+
+    /**
+     * @param enabled false if nothing is to be recorded
+     * @param knownFunctions encoded names of the functions whose metrics are kept separately
+     */
+    TransactionMetrics(final boolean enabled, final Set<ByteString> knownFunctions) {
+        this.enabled = enabled;
+        this.knownFunctions = knownFunctions;
+    }
+
+    /** @return TransactionMetrics that records nothing */
+    static TransactionMetrics disabled() {
+        return DISABLED;
+    }
+
+    /** @return true if metrics are being recorded */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Metrics of a channel, created on first use.
+     *
+     * @param channelId channel ID
+     * @return ChannelMetrics
+     */
+    public ChannelMetrics channel(final String channelId) {
+        final ChannelMetrics metrics = channels.get(channelId);
+        return metrics != null
+                ? metrics
+                : channels.computeIfAbsent(channelId, id -> new ChannelMetrics(id, knownFunctions));
+    }
+
+    /**
+     * Set the function of the transaction running on the current thread.
+     *
+     * @param function FunctionMetrics of the transaction, or null once it has completed
+     */
+    public void setCurrentFunction(final FunctionMetrics function) {
+        if (function == null) {
+            current.remove();
+        } else {
+            current.set(function);
+        }
+    }
+
+    /**
+     * Record the time spent in a contract's transaction function, for the transaction running on the current thread.
+     *
+     * @param nanos time taken by the transaction function
+     */
+    public void recordContractExecution(final long nanos) {
+        if (enabled) {
+            final FunctionMetrics function = current.get();
+            if (function != null) {
+                function.recordContractExecution(nanos);
+            }
+        }
+    }
+
+    @Override
+    public Collection<ChannelMetrics> getChannelMetrics() {
+        return new ArrayList<>(channels.values());
+    }
+}
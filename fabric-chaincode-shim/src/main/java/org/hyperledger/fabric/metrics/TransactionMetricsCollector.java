@@ -0,0 +1,26 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.metrics;
+
+import java.util.Collection;
+
+/**
+ * Collect metrics relating to the transactions, and the requests they make to the peer.
+ *
+ * <p>Latencies are kept in {@link LatencyHistogram}s for each transaction function and each type of request to the
+ * peer, per channel. The histograms and counts are totals since the chaincode started.
+ */
+@SuppressWarnings("PMD.ImplicitFunctionalInterface")
+public interface TransactionMetricsCollector {
+
+    /**
+     * Metrics of each channel that has had transactions.
+     *
+     * @return ChannelMetrics of each channel
+     */
+    Collection<ChannelMetrics> getChannelMetrics();
+}
@@ -8,17 +8,35 @@ package org.hyperledger.fabric.metrics.impl;
 import java.util.Properties;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.hyperledger.fabric.Logging;
+import org.hyperledger.fabric.metrics.ChannelMetrics;
+import org.hyperledger.fabric.metrics.FunctionMetrics;
+import org.hyperledger.fabric.metrics.IdentityCacheMetricsCollector;
+import org.hyperledger.fabric.metrics.LatencyHistogram;
+import org.hyperledger.fabric.metrics.LedgerCallMetrics;
 import org.hyperledger.fabric.metrics.MetricsProvider;
+import org.hyperledger.fabric.metrics.StateCacheMetricsCollector;
+import org.hyperledger.fabric.metrics.StreamMetricsCollector;
 import org.hyperledger.fabric.metrics.TaskMetricsCollector;
+import org.hyperledger.fabric.metrics.TransactionMetricsCollector;
 
-/** Simple default provider that logs to the org.hyperledger.Performance logger the basic metrics. */
+/**
+ * Simple default provider that logs to the org.hyperledger.Performance logger the basic metrics.
+ *
+ * <p>Following the basic metrics, the latencies of each transaction function and each type of request to the peer are
+ * logged one per line.
+ */
 public final class DefaultProvider implements MetricsProvider {
     private static final Logger PERFLOGGER = Logger.getLogger(Logging.PERFLOGGER);
     private static final int TIME_INTERVAL = 5000;
 
     private TaskMetricsCollector taskService;
+    private StreamMetricsCollector streamService;
+    private StateCacheMetricsCollector cacheService;
+    private IdentityCacheMetricsCollector identityCache;
+    private TransactionMetricsCollector transactionMetrics;
 
     /** */
     public DefaultProvider() {
@@ -30,6 +48,26 @@ public final class DefaultProvider implements MetricsProvider {
         this.taskService = taskService;
     }
 
+    @Override
+    public void setStreamMetricsCollector(final StreamMetricsCollector streamService) {
+        this.streamService = streamService;
+    }
+
+    @Override
+    public void setStateCacheMetricsCollector(final StateCacheMetricsCollector cacheService) {
+        this.cacheService = cacheService;
+    }
+
+    @Override
+    public void setIdentityCacheMetricsCollector(final IdentityCacheMetricsCollector identityCache) {
+        this.identityCache = identityCache;
+    }
+
+    @Override
+    public void setTransactionMetricsCollector(final TransactionMetricsCollector transactionMetrics) {
+        this.transactionMetrics = transactionMetrics;
+    }
+
     @Override
     public void initialize(final Properties props) {
         final Timer metricTimer = new Timer(true);
@@ -59,7 +97,107 @@ public final class DefaultProvider implements MetricsProvider {
                     + String.format(" \"current_task_count\":%d ", taskService.getCurrentTaskCount())
                     + ','
                     + String.format(" \"current_queue_depth\":%d ", taskService.getCurrentQueueCount())
+                    + streamMetrics()
+                    + cacheMetrics()
+                    + identityCacheMetrics()
                     + '}';
         });
+        logTransactionMetrics();
+    }
+
+    private void logTransactionMetrics() {
+        if (transactionMetrics == null || !PERFLOGGER.isLoggable(Level.INFO)) {
+            return;
+        }
+        for (final ChannelMetrics channel : transactionMetrics.getChannelMetrics()) {
+            for (final FunctionMetrics function : channel.getFunctionMetrics()) {
+                PERFLOGGER.info(() -> functionMetrics(function));
+            }
+            for (final LedgerCallMetrics ledgerCall : channel.getLedgerCallMetrics()) {
+                PERFLOGGER.info(() -> ledgerCallMetrics(ledgerCall));
+            }
+            if (channel.getRejectionCount() > 0) {
+                PERFLOGGER.info(() -> String.format(
+                        "{ \"channel\":\"%s\" , \"rejections\":%d }",
+                        channel.getChannelId(), channel.getRejectionCount()));
+            }
+        }
+    }
+
+    private static String functionMetrics(final FunctionMetrics function) {
+        return '{'
+                + String.format(" \"channel\":\"%s\" ", function.getChannelId())
+                + ','
+                + String.format(" \"function\":\"%s\" ", function.getFunction())
+                + ','
+                + String.format(" \"successes\":%d ", function.getSuccessCount())
+                + ','
+                + String.format(" \"errors\":%d ", function.getErrorCount())
+                + latencies("queue_wait", function.getQueueWait())
+                + latencies("execution", function.getExecution())
+                + latencies("contract_execution", function.getContractExecution())
+                + latencies("total", function.getTotal())
+                + '}';
+    }
+
+    private static String ledgerCallMetrics(final LedgerCallMetrics ledgerCall) {
+        return '{'
+                + String.format(" \"channel\":\"%s\" ", ledgerCall.getChannelId())
+                + ','
+                + String.format(" \"ledger_call\":\"%s\" ", ledgerCall.getType())
+                + ','
+                + String.format(" \"count\":%d ", ledgerCall.getRoundTrip().getCount())
+                + ','
+                + String.format(" \"errors\":%d ", ledgerCall.getErrorCount())
+                + latencies("round_trip", ledgerCall.getRoundTrip())
+                + '}';
+    }
+
+    private static String latencies(final String name, final LatencyHistogram histogram) {
+        if (histogram.getCount() == 0) {
+            return "";
+        }
+        return ','
+                + String.format(
+                        " \"%s_ns\":{ \"p50\":%d , \"p99\":%d , \"p999\":%d , \"max\":%d } ",
+                        name,
+                        histogram.getValueAtPercentile(50),
+                        histogram.getValueAtPercentile(99),
+                        histogram.getValueAtPercentile(99.9),
+                        histogram.getMaxNanos());
+    }
+
+    private String streamMetrics() {
+        if (streamService == null) {
+            return "";
+        }
+        final long messages = streamService.getOutboundMessageCount();
+        final long averageDrainNanos = messages == 0 ? 0 : streamService.getOutboundDrainTimeNanos() / messages;
+        return ','
+                + String.format(" \"outbound_queue_depth\":%d ", streamService.getOutboundQueueCount())
+                + ','
+                + String.format(" \"outbound_drain_latency_ns\":%d ", averageDrainNanos);
+    }
+
+    private String cacheMetrics() {
+        if (cacheService == null) {
+            return "";
+        }
+        return ','
+                + String.format(" \"state_cache_hits\":%d ", cacheService.getStateCacheHitCount())
+                + ','
+                + String.format(" \"state_cache_misses\":%d ", cacheService.getStateCacheMissCount());
+    }
+
+    private String identityCacheMetrics() {
+        if (identityCache == null) {
+            return "";
+        }
+        return ','
+                + String.format(" \"identity_cache_hits\":%d ", identityCache.getIdentityCacheHitCount())
+                + ','
+                + String.format(" \"identity_cache_misses\":%d ", identityCache.getIdentityCacheMissCount())
+                + ','
+                + String.format(" \"identity_cache_evictions\":%d ", identityCache.getIdentityCacheEvictionCount());
     }
 }
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.metrics.impl;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
+import io.opentelemetry.sdk.autoconfigure.AutoConfiguredOpenTelemetrySdk;
+import io.opentelemetry.semconv.ServiceAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import org.hyperledger.fabric.metrics.ChannelMetrics;
+import org.hyperledger.fabric.metrics.FunctionMetrics;
+import org.hyperledger.fabric.metrics.LatencyHistogram;
+import org.hyperledger.fabric.metrics.LedgerCallMetrics;
+import org.hyperledger.fabric.metrics.MetricsProvider;
+import org.hyperledger.fabric.metrics.TaskMetricsCollector;
+import org.hyperledger.fabric.metrics.TransactionMetricsCollector;
+
+/**
+ * Exports the metrics through OpenTelemetry, configured in the same way as the OpenTelemetry traces provider.
+ *
+ * <p>The latency histograms are exported as gauges of their percentiles, with the channel, function or type of ledger
+ * call, phase and quantile as attributes; the counts of transactions, errors and rejections are exported as counters.
+ * All are read from the collectors when the metrics are exported, so nothing is done per transaction.
+ */
+public final class OpenTelemetryMetricsProvider implements MetricsProvider {
+
+    private static final String CORE_CHAINCODE_ID_NAME = "CORE_CHAINCODE_ID_NAME";
+
+    private static final AttributeKey<String> CHANNEL = AttributeKey.stringKey("channel");
+    private static final AttributeKey<String> FUNCTION = AttributeKey.stringKey("function");
+    private static final AttributeKey<String> LEDGER_CALL = AttributeKey.stringKey("ledger_call");
+    private static final AttributeKey<String> PHASE = AttributeKey.stringKey("phase");
+    private static final AttributeKey<String> QUANTILE = AttributeKey.stringKey("quantile");
+    private static final AttributeKey<String> OUTCOME = AttributeKey.stringKey("outcome");
+
+    private static final String[] QUANTILES = {"0.5", "0.99", "0.999", "1"};
+    private static final double[] PERCENTILES = {50, 99, 99.9, 100};
+
+    private TaskMetricsCollector taskService;
+    private TransactionMetricsCollector transactionMetrics;
+
+    @Override
+    public void setTaskMetricsCollector(final TaskMetricsCollector taskService) {
+        this.taskService = taskService;
+    }
+
+    @Override
+    public void setTransactionMetricsCollector(final TransactionMetricsCollector transactionMetrics) {
+        this.transactionMetrics = transactionMetrics;
+    }
+
+    @Override
+    public void initialize(final Properties props) {
+        final String serviceName = props.getProperty(CORE_CHAINCODE_ID_NAME, "unknown");
+        props.setProperty(ServiceAttributes.SERVICE_NAME.getKey(), serviceName);
+
+        final OpenTelemetry openTelemetry = AutoConfiguredOpenTelemetrySdk.builder()
+                .addPropertiesSupplier(() -> getOpenTelemetryProperties(props))
+                .build()
+                .getOpenTelemetrySdk();
+
+        registerInstruments(openTelemetry.getMeterProvider().get("org.hyperledger.metrics"));
+    }
+
+    private Map<String, String> getOpenTelemetryProperties(final Properties props) {
+        final Map<String, String> results = new HashMap<>(System.getenv());
+
+        final Properties systemProps = System.getProperties();
+        systemProps.stringPropertyNames().forEach(key -> results.put(key, systemProps.getProperty(key)));
+
+        props.stringPropertyNames().forEach(key -> results.put(key, props.getProperty(key)));
+
+        return results;
+    }
+
+    void registerInstruments(final Meter meter) {
+        meter.gaugeBuilder("chaincode.tasks.active")
+                .setDescription("Transactions being executed")
+                .ofLongs()
+                .buildWithCallback(m -> {
+                    if (taskService != null) {
+                        m.record(taskService.getActiveCount());
+                    }
+                });
+        meter.gaugeBuilder("chaincode.tasks.queued")
+                .setDescription("Transactions waiting for a thread")
+                .ofLongs()
+                .buildWithCallback(m -> {
+                    if (taskService != null) {
+                        m.record(taskService.getCurrentQueueCount());
+                    }
+                });
+
+        meter.counterBuilder("chaincode.transactions")
+                .setDescription("Transactions completed")
+                .buildWithCallback(this::recordTransactionCounts);
+        meter.counterBuilder("chaincode.transactions.rejected")
+                .setDescription("Transactions rejected, as there was no room to queue them")
+                .buildWithCallback(this::recordRejections);
+        meter.gaugeBuilder("chaincode.transaction.duration")
+                .setDescription("Percentiles of the time taken by transactions, in each phase")
+                .setUnit("ns")
+                .ofLongs()
+                .buildWithCallback(this::recordTransactionLatencies);
+
+        meter.counterBuilder("chaincode.ledger.calls")
+                .setDescription("Requests made to the peer")
+                .buildWithCallback(this::recordLedgerCallCounts);
+        meter.gaugeBuilder("chaincode.ledger.call.duration")
+                .setDescription("Percentiles of the round trip of requests made to the peer")
+                .setUnit("ns")
+                .ofLongs()
+                .buildWithCallback(this::recordLedgerCallLatencies);
+    }
+
+    private void recordTransactionCounts(final ObservableLongMeasurement measurement) {
+        if (transactionMetrics == null) {
+            return;
+        }
+        for (final ChannelMetrics channel : transactionMetrics.getChannelMetrics()) {
+            for (final FunctionMetrics function : channel.getFunctionMetrics()) {
+                final Attributes attributes = functionAttributes(function);
+                measurement.record(
+                        function.getSuccessCount(),
+                        attributes.toBuilder().put(OUTCOME, "success").build());
+                measurement.record(
+                        function.getErrorCount(),
+                        attributes.toBuilder().put(OUTCOME, "error").build());
+            }
+        }
+    }
+
+    private void recordRejections(final ObservableLongMeasurement measurement) {
+        if (transactionMetrics == null) {
+            return;
+        }
+        for (final ChannelMetrics channel : transactionMetrics.getChannelMetrics()) {
+            measurement.record(channel.getRejectionCount(), Attributes.of(CHANNEL, channel.getChannelId()));
+        }
+    }
+
+    private void recordTransactionLatencies(final ObservableLongMeasurement measurement) {
+        if (transactionMetrics == null) {
+            return;
+        }
+        for (final ChannelMetrics channel : transactionMetrics.getChannelMetrics()) {
+            for (final FunctionMetrics function : channel.getFunctionMetrics()) {
+                final Attributes attributes = functionAttributes(function);
+                recordPercentiles(measurement, attributes, "queue_wait", function.getQueueWait());
+                recordPercentiles(measurement, attributes, "execution", function.getExecution());
+                recordPercentiles(measurement, attributes, "contract_execution", function.getContractExecution());
+                recordPercentiles(measurement, attributes, "total", function.getTotal());
+            }
+        }
+    }
+
+    private void recordLedgerCallCounts(final ObservableLongMeasurement measurement) {
+        if (transactionMetrics == null) {
+            return;
+        }
+        for (final ChannelMetrics channel : transactionMetrics.getChannelMetrics()) {
+            for (final LedgerCallMetrics ledgerCall : channel.getLedgerCallMetrics()) {
+                final Attributes attributes = ledgerCallAttributes(ledgerCall);
+                final long errors = ledgerCall.getErrorCount();
+                measurement.record(
+                        ledgerCall.getRoundTrip().getCount() - errors,
+                        attributes.toBuilder().put(OUTCOME, "success").build());
+                measurement.record(errors, attributes.toBuilder().put(OUTCOME, "error").build());
+            }
+        }
+    }
+
+    private void recordLedgerCallLatencies(final ObservableLongMeasurement measurement) {
+        if (transactionMetrics == null) {
+            return;
+        }
+        for (final ChannelMetrics channel : transactionMetrics.getChannelMetrics()) {
+            for (final LedgerCallMetrics ledgerCall : channel.getLedgerCallMetrics()) {
+                recordPercentiles(
+                        measurement, ledgerCallAttributes(ledgerCall), "round_trip", ledgerCall.getRoundTrip());
+            }
+        }
+    }
+
+    private static void recordPercentiles(
+            final ObservableLongMeasurement measurement,
+            final Attributes attributes,
+            final String phase,
+            final LatencyHistogram histogram) {
+        if (histogram.getCount() == 0) {
+            return;
+        }
+        for (int i = 0; i < QUANTILES.length; i++) {
+            measurement.record(
+                    histogram.getValueAtPercentile(PERCENTILES[i]),
+                    attributes.toBuilder()
+                            .put(PHASE, phase)
+                            .put(QUANTILE, QUANTILES[i])
+                            .build());
+        }
+    }
+
+    private static Attributes functionAttributes(final FunctionMetrics function) {
+        return Attributes.of(CHANNEL, function.getChannelId(), FUNCTION, function.getFunction());
+    }
+
+    private static Attributes ledgerCallAttributes(final LedgerCallMetrics ledgerCall) {
+        return Attributes.of(CHANNEL, ledgerCall.getChannelId(), LEDGER_CALL, ledgerCall.getType());
+    }
+}
@@ -13,6 +13,12 @@
  * <p>Note a 'task' is a message from the Peer to the Chaincode - this message is either a new transaction, or a
  * response from a stub API, eg getState(). Query apis may return more than one response.
  *
+ * <p>When metrics are enabled, the latencies of transactions are also recorded in {@link
+ * org.hyperledger.fabric.metrics.LatencyHistogram}s, per channel: for each transaction function, the time waiting for a
+ * thread, executing, in the contract's transaction function, and in total; and for each type of request to the peer,
+ * such as GET_STATE, the round trip. Comparing the two shows whether the latency is in the chaincode or the peer. These
+ * are passed to the provider as a {@link org.hyperledger.fabric.metrics.TransactionMetricsCollector}.
+ *
  * <p>To enable metrics, add a <code>CHAINCODE_METRICS_ENABLED=true</code> setting to the <code>config.props</code>
  * chaincode configuration file. See the <a href="../../../../index.html">Overview</a> for details of how to configure
  * chaincode.
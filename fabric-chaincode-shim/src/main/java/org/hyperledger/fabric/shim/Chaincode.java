@@ -8,6 +8,8 @@ package org.hyperledger.fabric.shim;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -38,6 +40,7 @@ public interface Chaincode {
         private final int statusCode;
         private final String message;
         private final byte[] payload;
+        private final ByteString payloadBytes;
 
         /**
          * Constructor.
@@ -46,11 +49,8 @@ public interface Chaincode {
          * @param message a response message.
          * @param payload a response payload.
          */
-        @SuppressWarnings("PMD.ArrayIsStoredDirectly")
         public Response(final Status status, final String message, final byte[] payload) {
-            this.statusCode = status.getCode();
-            this.message = message;
-            this.payload = payload;
+            this(status.getCode(), message, payload);
         }
 
         /**
@@ -65,6 +65,26 @@ public interface Chaincode {
             this.statusCode = statusCode;
             this.message = message;
             this.payload = payload;
+            this.payloadBytes = null;
+        }
+
+        private Response(final int statusCode, final String message, final ByteString payloadBytes) {
+            this.statusCode = statusCode;
+            this.message = message;
+            this.payload = null;
+            this.payloadBytes = payloadBytes;
+        }
+
+        /**
+         * Create a response whose payload is a <code>ByteString</code>, which is sent to the peer without being copied.
+         *
+         * @param statusCode a status code.
+         * @param message a response message.
+         * @param payload a response payload.
+         * @return the response.
+         */
+        public static Response withPayloadBytes(final int statusCode, final String message, final ByteString payload) {
+            return new Response(statusCode, message, payload);
         }
 
         /**
@@ -105,15 +125,36 @@ public interface Chaincode {
          */
         @SuppressWarnings("PMD.MethodReturnsInternalArray")
         public byte[] getPayload() {
+            if (payloadBytes != null) {
+                return payloadBytes.toByteArray();
+            }
             return payload;
         }
 
+        /**
+         * Get the response payload as a <code>ByteString</code>.
+         *
+         * <p>For a response created with a byte array, the array is wrapped rather than copied, so must not be changed
+         * after the response is created.
+         *
+         * @return payload, or null if there is no payload.
+         */
+        public ByteString getPayloadBytes() {
+            if (payload != null) {
+                return UnsafeByteOperations.unsafeWrap(payload);
+            }
+            return payloadBytes;
+        }
+
         /**
          * Get the response payload as a UTF-8 string.
          *
          * @return a string.
          */
         public String getStringPayload() {
+            if (payloadBytes != null) {
+                return payloadBytes.toStringUtf8();
+            }
             return (payload == null) ? null : new String(payload, UTF_8);
         }
 
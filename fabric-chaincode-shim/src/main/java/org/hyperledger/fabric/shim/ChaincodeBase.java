@@ -15,6 +15,8 @@ import io.grpc.netty.shaded.io.grpc.netty.GrpcSslContexts;
 import io.grpc.netty.shaded.io.grpc.netty.NegotiationType;
 import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
 import io.grpc.netty.shaded.io.netty.handler.ssl.SslContext;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
 import io.grpc.stub.StreamObserver;
 import java.io.ByteArrayInputStream;
 import java.io.File;
@@ -192,7 +194,13 @@ public abstract class ChaincodeBase implements Chaincode {
         // has stopped in the peer or the network comms, so also shutdown
         final StreamObserver<ChaincodeMessage> requestObserver = chaincodeSupportClient
                 .getStub()
-                .register(new StreamObserver<>() {
+                .register(new ClientResponseObserver<ChaincodeMessage, ChaincodeMessage>() {
+                    @Override
+                    public void beforeStart(final ClientCallStreamObserver<ChaincodeMessage> requestStream) {
+                        // only chance to set up flow control on the messages going to the peer
+                        chaincodeSupportClient.beforeStart(requestStream);
+                    }
+
                     @Override
                     public void onNext(final ChaincodeMessage chaincodeMessage) {
                         // message off to the ITM...
@@ -9,10 +9,12 @@ package org.hyperledger.fabric.shim;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.stream.Collectors.toList;
 
+import com.google.protobuf.ByteString;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import org.hyperledger.fabric.protos.peer.ChaincodeEvent;
 import org.hyperledger.fabric.protos.peer.SignedProposal;
 import org.hyperledger.fabric.shim.Chaincode.Response;
@@ -50,7 +52,7 @@ public interface ChaincodeStub {
      *
      * <p>The bytes of the first argument are decoded as a UTF-8 string.
      *
-     * @return the function name
+     * @return the function name, or null if there are no arguments
      */
     String getFunction();
 
@@ -120,6 +122,35 @@ public interface ChaincodeStub {
      */
     byte[] getState(String key);
 
+    /**
+     * Returns the value of the specified <code>key</code> from the ledger, without copying it.
+     *
+     * <p>This is the same as {@link #getState(String)}, but the value is returned as the immutable
+     * <code>ByteString</code> received from the peer. Use {@link ByteString#asReadOnlyByteBuffer()} for a
+     * <code>ByteBuffer</code> view of it.
+     *
+     * @param key name of the value
+     * @return value the value read from the ledger
+     */
+    default ByteString getStateBytes(final String key) {
+        return ByteString.copyFrom(getState(key));
+    }
+
+    /**
+     * Returns the values of the specified <code>keys</code> from the ledger.
+     *
+     * <p>Where the peer supports it, the keys are read with a single request rather than one request per key. As with
+     * {@link #getState(String)}, data modified by PutState that has not been committed is not considered, unless the
+     * state cache is enabled with <code>CHAINCODE_STATE_CACHE_ENABLED</code>. With the cache, a key already written or
+     * deleted by this transaction returns the value written, or an empty value once deleted.
+     *
+     * @param keys names of the values
+     * @return values read from the ledger, in the same order as the keys; a key that does not exist has an empty value
+     */
+    default List<byte[]> getStates(final List<String> keys) {
+        return keys.stream().map(this::getState).collect(toList());
+    }
+
     /**
      * retrieves the key-level endorsement policy for <code>key</code>. Note that this will introduce a read dependency
      * on <code>key</code> in the transaction's readset.
@@ -142,6 +173,21 @@ public interface ChaincodeStub {
      */
     void putState(String key, byte[] value);
 
+    /**
+     * Puts the specified <code>key</code> and <code>value</code> into the transaction's writeset as a data-write
+     * proposal, without copying the value.
+     *
+     * <p>This is the same as {@link #putState(String, byte[])}; as a <code>ByteString</code> is immutable it can be
+     * sent as it is. Data already in a <code>ByteBuffer</code> can be wrapped without a copy using
+     * <code>UnsafeByteOperations.unsafeWrap</code>, provided the buffer is not changed afterwards.
+     *
+     * @param key name of the value
+     * @param value the value to write to the ledger
+     */
+    default void putStateBytes(final String key, final ByteString value) {
+        putState(key, value.toByteArray());
+    }
+
     /**
      * Sets the key-level endorsement policy for <code>key</code>.
      *
@@ -238,6 +284,34 @@ public interface ChaincodeStub {
      */
     QueryResultsIterator<KeyValue> getStateByPartialCompositeKey(CompositeKey compositeKey);
 
+    /**
+     * Returns all existing keys, and their values, that are prefixed by the specified partial {@link CompositeKey} and
+     * whose next attribute is between the start and end attributes, both inclusive.
+     *
+     * <p>Attributes are compared in the UTF-8 byte order of the ledger, so for a range of numbers or times the
+     * attributes should be encoded with one of the {@link org.hyperledger.fabric.shim.ledger.SortableAttributes}, both
+     * in the keys written and in the range:
+     *
+     * <pre>
+     * stub.getStateByCompositeKeyRange(new CompositeKey("payment", owner), DECIMAL.encode(min), DECIMAL.encode(max));
+     * </pre>
+     *
+     * <p>The default implementation filters the results of {@link #getStateByPartialCompositeKey(CompositeKey)}, so
+     * that it works wherever that does; the chaincode's own stub asks the peer for just the range.
+     *
+     * <p>Call close() on the returned {@link QueryResultsIterator#close()} object when done.
+     *
+     * @param compositeKey partial composite key
+     * @param startAttribute lowest next attribute, or null for no lower bound
+     * @param endAttribute highest next attribute, or null for no upper bound
+     * @return an {@link Iterable} of {@link KeyValue}
+     */
+    default QueryResultsIterator<KeyValue> getStateByCompositeKeyRange(
+            final CompositeKey compositeKey, final String startAttribute, final String endAttribute) {
+        return new CompositeKeyRangeIterator(
+                getStateByPartialCompositeKey(compositeKey), compositeKey, startAttribute, endAttribute);
+    }
+
     /**
      * Queries the state in the ledger based on a given partial composite key. This function returns an iterator which
      * can be used to iterate over the composite keys whose prefix matches the given partial composite key.
@@ -342,6 +416,39 @@ public interface ChaincodeStub {
      */
     byte[] getPrivateData(String collection, String key);
 
+    /**
+     * Returns the value of the specified <code>key</code> from the specified <code>collection</code>, without copying
+     * it.
+     *
+     * <p>This is the same as {@link #getPrivateData(String, String)}, but the value is returned as the immutable
+     * <code>ByteString</code> received from the peer.
+     *
+     * @param collection name of the collection
+     * @param key name of the value
+     * @return value the value read from the collection
+     */
+    default ByteString getPrivateDataBytes(final String collection, final String key) {
+        return ByteString.copyFrom(getPrivateData(collection, key));
+    }
+
+    /**
+     * Returns the values of the specified <code>keys</code> from the specified <code>collection</code>.
+     *
+     * <p>Where the peer supports it, the keys are read with a single request rather than one request per key. As with
+     * {@link #getPrivateData(String, String)}, data modified by putPrivateData that has not been committed is not
+     * considered, unless the state cache is enabled with <code>CHAINCODE_STATE_CACHE_ENABLED</code>. With the cache, a
+     * key already written, deleted or purged by this transaction returns the value written, or an empty value once
+     * deleted or purged.
+     *
+     * @param collection name of the collection
+     * @param keys names of the values
+     * @return values read from the collection, in the same order as the keys; a key that does not exist has an empty
+     *     value
+     */
+    default List<byte[]> getPrivateDataMultiple(final String collection, final List<String> keys) {
+        return keys.stream().map(key -> getPrivateData(collection, key)).collect(toList());
+    }
+
     /**
      * @param collection name of the collection
      * @param key name of the value
@@ -375,6 +482,21 @@ public interface ChaincodeStub {
      */
     void putPrivateData(String collection, String key, byte[] value);
 
+    /**
+     * Puts the specified <code>key</code> and <code>value</code> into the transaction's private writeset, without
+     * copying the value.
+     *
+     * <p>This is the same as {@link #putPrivateData(String, String, byte[])}; as a <code>ByteString</code> is
+     * immutable it can be sent as it is.
+     *
+     * @param collection name of the collection
+     * @param key name of the value
+     * @param value the value to write to the ledger
+     */
+    default void putPrivateDataBytes(final String collection, final String key, final ByteString value) {
+        putPrivateData(collection, key, value.toByteArray());
+    }
+
     /**
      * Sets the key-level endorsement policy for the private data specified by <code>key</code>.
      *
@@ -514,6 +636,18 @@ public interface ChaincodeStub {
      */
     void setEvent(String name, byte[] payload);
 
+    /**
+     * Allows the chaincode to propose an event on the transaction proposal response, without copying the payload.
+     *
+     * <p>This is the same as {@link #setEvent(String, byte[])}.
+     *
+     * @param name Name of event. Cannot be null or empty string.
+     * @param payload Optional event payload.
+     */
+    default void setEventBytes(final String name, final ByteString payload) {
+        setEvent(name, payload == null ? null : payload.toByteArray());
+    }
+
     /**
      * Invoke another chaincode using the same transaction context.
      *
@@ -646,6 +780,16 @@ public interface ChaincodeStub {
      */
     byte[] getCreator();
 
+    /**
+     * Returns the identity of the agent (or user) submitting the transaction, without copying it.
+     *
+     * @return the creator field of the proposal's signature header, or null if there is no proposal.
+     */
+    default ByteString getCreatorBytes() {
+        final byte[] creator = getCreator();
+        return creator == null ? null : ByteString.copyFrom(creator);
+    }
+
     /**
      * Returns the transient map associated with the current transaction.
      *
@@ -653,6 +797,16 @@ public interface ChaincodeStub {
      */
     Map<String, byte[]> getTransient();
 
+    /**
+     * Returns the transient map associated with the current transaction, without copying the values.
+     *
+     * @return unmodifiable map of transient field
+     */
+    default Map<String, ByteString> getTransientBytes() {
+        return getTransient().entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, e -> ByteString.copyFrom(e.getValue())));
+    }
+
     /**
      * Returns the transaction binding.
      *
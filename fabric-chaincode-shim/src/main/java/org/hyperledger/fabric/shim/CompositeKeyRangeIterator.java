@@ -0,0 +1,104 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.shim;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+
+/**
+ * The results of a partial composite key query whose next attribute is within a range, for
+ * {@link ChaincodeStub#getStateByCompositeKeyRange(CompositeKey, String, String)} on stubs that do not query the range
+ * directly.
+ *
+ * <p>The ledger returns the keys in order of their next attribute, so iteration stops at the first key past the end of
+ * the range.
+ */
+final class CompositeKeyRangeIterator implements QueryResultsIterator<KeyValue> {
+    private final QueryResultsIterator<KeyValue> results;
+    private final int attributeIndex;
+    private final String startAttribute;
+    private final String endAttribute;
+
+    /**
+     * @param results keys prefixed by the partial composite key
+     * @param compositeKey partial composite key
+     * @param startAttribute lowest next attribute, or null for no lower bound
+     * @param endAttribute highest next attribute, or null for no upper bound
+     */
+    CompositeKeyRangeIterator(
+            final QueryResultsIterator<KeyValue> results,
+            final CompositeKey compositeKey,
+            final String startAttribute,
+            final String endAttribute) {
+        this.results = results;
+        this.attributeIndex = compositeKey.getAttributes().size();
+        this.startAttribute = startAttribute;
+        this.endAttribute = endAttribute;
+    }
+
+    @Override
+    public Iterator<KeyValue> iterator() {
+        final Iterator<KeyValue> keys = results.iterator();
+        return new Iterator<>() {
+            private KeyValue next;
+            private boolean ended;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && !ended && keys.hasNext()) {
+                    final KeyValue kv = keys.next();
+                    final List<String> attributes = CompositeKey.parseCompositeKey(kv.getKey()).getAttributes();
+                    if (attributes.size() <= attributeIndex) {
+                        continue;
+                    }
+                    final String attribute = attributes.get(attributeIndex);
+                    if (endAttribute != null && compare(attribute, endAttribute) > 0) {
+                        ended = true;
+                    } else if (startAttribute == null || compare(attribute, startAttribute) >= 0) {
+                        next = kv;
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            @SuppressWarnings("PMD.NullAssignment")
+            public KeyValue next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final KeyValue result = next;
+                next = null;
+                return result;
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        results.close();
+    }
+
+    /** Compare in code point order, which is the UTF-8 byte order of the keys in the ledger. */
+    static int compare(final String a, final String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            final int ca = a.codePointAt(i);
+            final int cb = b.codePointAt(j);
+            if (ca != cb) {
+                return Integer.compare(ca, cb);
+            }
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+}
@@ -11,28 +11,35 @@ import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.RESPONSE;
 
 import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
+import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.StatusCode;
-import java.security.NoSuchAlgorithmException;
+import io.opentelemetry.context.Scope;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.hyperledger.fabric.Logging;
 import org.hyperledger.fabric.contract.ContractRuntimeException;
+import org.hyperledger.fabric.metrics.ChannelMetrics;
+import org.hyperledger.fabric.metrics.FunctionMetrics;
+import org.hyperledger.fabric.metrics.Metrics;
+import org.hyperledger.fabric.metrics.TransactionMetrics;
 import org.hyperledger.fabric.protos.peer.ChaincodeMessage;
 import org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type;
 import org.hyperledger.fabric.shim.Chaincode;
-import org.hyperledger.fabric.shim.ChaincodeStub;
 import org.hyperledger.fabric.traces.Traces;
 
 /** A 'Callable' implementation the has the job of invoking the chaincode, and matching the response and requests. */
-@SuppressWarnings("PMD.MoreThanOneLogger")
+@SuppressWarnings({"PMD.MoreThanOneLogger", "PMD.GodClass"})
 public class ChaincodeInvocationTask implements Callable<ChaincodeMessage> {
 
     private static final Logger LOGGER = Logger.getLogger(ChaincodeInvocationTask.class.getName());
     private static final Logger PERFLOGGER = Logger.getLogger(Logging.PERFLOGGER);
+    private static final AttributeKey<Long> QUEUE_WAIT_NS = AttributeKey.longKey("queue_wait_ns");
 
     private final String key;
     private final Type type;
@@ -46,8 +53,22 @@ public class ChaincodeInvocationTask implements Callable<ChaincodeMessage> {
     // Usual case should be the main thread is waiting for something to come back
     private final BlockingQueue<ChaincodeMessage> postbox = new ArrayBlockingQueue<>(2, true);
 
+    // A request sent by invokeLater(), whose response has not yet been taken from the postbox
+    private PendingResponse pendingResponse;
+
     private final ChaincodeMessage message;
     private final Chaincode chaincode;
+    private final PeerCapabilities peerCapabilities;
+    private final StubOptions stubOptions;
+
+    // when the message arrived, and where its latencies are recorded, or null if metrics are disabled
+    private final long receivedNanos = System.nanoTime();
+    private final ChannelMetrics channelMetrics;
+    private FunctionMetrics functionMetrics;
+    // encoded name of the function, once the message has been decoded
+    private ByteString functionBytes = ByteString.EMPTY;
+    // span of the transaction, if traces are enabled, for its requests to the peer to be traced
+    private Span span;
 
     /**
      * @param message The incoming message that has triggered this task into execution
@@ -60,6 +81,24 @@ public class ChaincodeInvocationTask implements Callable<ChaincodeMessage> {
             final Type type,
             final Consumer<ChaincodeMessage> outgoingMessage,
             final Chaincode chaincode) {
+        this(message, type, outgoingMessage, chaincode, PeerCapabilities.NONE, StubOptions.DEFAULT);
+    }
+
+    /**
+     * @param message The incoming message that has triggered this task into execution
+     * @param type Is this init or invoke? (v2 Fabric deprecates init)
+     * @param outgoingMessage The Consumer functional interface to send any requests for ledger state
+     * @param chaincode A instance of the end users chaincode
+     * @param peerCapabilities Optional protocol features supported by the peer
+     * @param stubOptions Optional behaviour of the ChaincodeStub
+     */
+    ChaincodeInvocationTask(
+            final ChaincodeMessage message,
+            final Type type,
+            final Consumer<ChaincodeMessage> outgoingMessage,
+            final Chaincode chaincode,
+            final PeerCapabilities peerCapabilities,
+            final StubOptions stubOptions) {
 
         this.key = message.getChannelId() + message.getTxid();
         this.type = type;
@@ -67,18 +106,26 @@ public class ChaincodeInvocationTask implements Callable<ChaincodeMessage> {
         this.txId = message.getTxid();
         this.chaincode = chaincode;
         this.message = message;
+        this.peerCapabilities = peerCapabilities;
+        this.stubOptions = stubOptions;
+
+        final TransactionMetrics metrics = Metrics.getTransactionMetrics();
+        this.channelMetrics = metrics.isEnabled() ? metrics.channel(message.getChannelId()) : null;
     }
 
     /** Main method to power the invocation of the chaincode. */
     @Override
-    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    @SuppressWarnings({"PMD.AvoidCatchingGenericException", "PMD.UseTryWithResources"})
     public ChaincodeMessage call() {
         ChaincodeMessage finalResponseMessage;
+        final long startNanos = System.nanoTime();
+        long executionNanos = 0;
+        boolean success = false;
 
-        Span span = null;
+        Scope scope = null;
         try {
             try {
-                PERFLOGGER.fine(() -> "> task:start TX::" + this.txId);
+                perfLog("> task:start TX::");
 
                 // A key interface for the chaincode's invoke() method implementation
                 // is the 'ChaincodeStub' interface. An instance of this is created
@@ -86,23 +133,28 @@ public class ChaincodeInvocationTask implements Callable<ChaincodeMessage> {
                 //
                 // This needs to be passed the message triggering the invoke, as well
                 // as the interface to be used for sending any requests to the peer
-                final ChaincodeStub stub = new InvocationStubImpl(message, this);
+                final InvocationStubImpl stub = new InvocationStubImpl(message, this);
+                functionBytes = stub.getFunctionBytes();
+                InvocationEvents.taskStarted(message, functionBytes, startNanos - receivedNanos);
+                startFunctionMetrics();
 
-                span = Traces.getProvider().createSpan(stub);
+                scope = startSpan(stub, startNanos);
                 // result is what will be sent to the peer as a response to this invocation
                 final Chaincode.Response result;
 
-                PERFLOGGER.fine(() -> "> task:invoke TX::" + this.txId);
+                perfLog("> task:invoke TX::");
 
                 // Call chaincode's invoke
                 // Note in Fabric v2, there won't be any INIT
+                final long invokeNanos = System.nanoTime();
                 if (this.type == Type.INIT) {
                     result = chaincode.init(stub);
                 } else {
                     result = chaincode.invoke(stub);
                 }
+                executionNanos = System.nanoTime() - invokeNanos;
 
-                PERFLOGGER.fine(() -> "< task:invoke TX::" + this.txId);
+                perfLog("< task:invoke TX::");
 
                 if (result.getStatus().getCode() >= Chaincode.Response.Status.INTERNAL_SERVER_ERROR.getCode()) {
                     // Send ERROR with entire result.Message as payload
@@ -115,14 +167,21 @@ public class ChaincodeInvocationTask implements Callable<ChaincodeMessage> {
                         span.setStatus(StatusCode.ERROR, result.getMessage());
                     }
                 } else {
+                    // Any writes held back must reach the peer before the transaction completes
+                    stub.flushWrites();
+
                     // Send COMPLETED with entire result as payload
-                    LOGGER.fine(
-                            () -> String.format("[%-8.8s] Invoke succeeded. Sending %s", message.getTxid(), COMPLETED));
+                    if (LOGGER.isLoggable(Level.FINE)) {
+                        LOGGER.fine(String.format(
+                                "[%-8.8s] Invoke succeeded. Sending %s", message.getTxid(), COMPLETED));
+                    }
                     finalResponseMessage = ChaincodeMessageFactory.newCompletedEventMessage(
                             message.getChannelId(), message.getTxid(), result, stub.getEvent());
+                    success = true;
                 }
+                stub.releaseProposal();
 
-            } catch (InvalidProtocolBufferException | NoSuchAlgorithmException | RuntimeException e) {
+            } catch (InvalidProtocolBufferException | RuntimeException e) {
                 LOGGER.severe(
                         () -> String.format("[%-8.8s] Invoke failed. Sending %s: %s", message.getTxid(), ERROR, e));
                 finalResponseMessage =
@@ -132,10 +191,19 @@ public class ChaincodeInvocationTask implements Callable<ChaincodeMessage> {
                 }
             }
 
+            // a response still to come would otherwise arrive after this task has gone
+            discardPendingResponse();
+
             // send the final response message to the peer
             outgoingMessageConsumer.accept(finalResponseMessage);
-            PERFLOGGER.fine(() -> "< task:end TX::" + this.txId);
+            InvocationEvents.taskCompleted(
+                    finalResponseMessage, functionBytes, System.nanoTime() - startNanos, success);
+            perfLog("< task:end TX::");
         } finally {
+            recordFunctionMetrics(startNanos, executionNanos, success);
+            if (scope != null) {
+                scope.close();
+            }
             if (span != null) {
                 span.end();
             }
@@ -144,6 +212,16 @@ public class ChaincodeInvocationTask implements Callable<ChaincodeMessage> {
         return null;
     }
 
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private void discardPendingResponse() {
+        try {
+            awaitPendingResponse();
+        } catch (final RuntimeException e) {
+            LOGGER.warning(() -> String.format("[%-8.8s] Unable to receive outstanding response", txId)
+                    + Logging.formatError(e));
+        }
+    }
+
     /**
      * Identifier of this task, channel id and transaction id.
      *
@@ -153,6 +231,24 @@ public class ChaincodeInvocationTask implements Callable<ChaincodeMessage> {
         return this.key;
     }
 
+    /**
+     * Optional protocol features that can be used by this task's ledger requests.
+     *
+     * @return PeerCapabilities
+     */
+    PeerCapabilities getPeerCapabilities() {
+        return this.peerCapabilities;
+    }
+
+    /**
+     * Optional behaviour of the ChaincodeStub used by this task.
+     *
+     * @return StubOptions
+     */
+    StubOptions getStubOptions() {
+        return this.stubOptions;
+    }
+
     /**
      * Use the Key as to determine equality.
      *
@@ -204,26 +300,132 @@ public class ChaincodeInvocationTask implements Callable<ChaincodeMessage> {
      * @return ByteString to be parsed by the caller
      */
     protected ByteString invoke(final ChaincodeMessage message) {
+        final long sentNanos = send(message);
+        final ChaincodeMessage response = takeResponse();
+        recordLedgerCall(message, sentNanos, response);
+        return handleResponse(response);
+    }
+
+    /**
+     * Send the chaincode message to the peer, without waiting for the response.
+     *
+     * <p>The peer only handles one request at a time for a transaction, and the responses are not otherwise matched to
+     * the requests. So only one request can be outstanding; sending any further request first waits for the response to
+     * this one, and holds it until it is asked for.
+     *
+     * @param message The chaincode message from the peer
+     * @return Supplier of the response, waiting for it if needed
+     */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    Supplier<ByteString> invokeLater(final ChaincodeMessage message) {
+        final long sentNanos = send(message);
+        final PendingResponse pending = new PendingResponse(message, sentNanos);
+        this.pendingResponse = pending;
+        return () -> {
+            if (pendingResponse == pending) {
+                awaitPendingResponse();
+            }
+            return handleResponse(pending.response);
+        };
+    }
 
-        // send the message
-        LOGGER.fine(() -> "Task Sending message to the peer " + message.getTxid());
+    /**
+     * Start the span of the transaction, if traces are enabled, and make it current so that the contract layer can
+     * record its phases against it.
+     *
+     * @return Scope to close once the transaction has completed, or null if there is no span
+     */
+    private Scope startSpan(final InvocationStubImpl stub, final long startNanos) {
+        span = Traces.getProvider().createSpan(stub);
+        if (span == null) {
+            return null;
+        }
+        span.setAttribute(QUEUE_WAIT_NS, startNanos - receivedNanos);
+        return span.makeCurrent();
+    }
+
+    /** Look up the metrics of the function invoked, for it and the contract layer to record into. */
+    private void startFunctionMetrics() {
+        if (channelMetrics != null) {
+            functionMetrics = channelMetrics.function(functionBytes);
+            Metrics.getTransactionMetrics().setCurrentFunction(functionMetrics);
+        }
+    }
+
+    private void recordFunctionMetrics(final long startNanos, final long executionNanos, final boolean success) {
+        if (channelMetrics == null) {
+            return;
+        }
+        Metrics.getTransactionMetrics().setCurrentFunction(null);
+        // a transaction whose stub could not be created has no function name
+        final FunctionMetrics function =
+                functionMetrics != null ? functionMetrics : channelMetrics.function(functionBytes);
+        final long endNanos = System.nanoTime();
+        function.record(startNanos - receivedNanos, executionNanos, endNanos - receivedNanos, success);
+    }
+
+    /** Log a step of the transaction to the performance logger, without creating the message unless it is logged. */
+    private void perfLog(final String step) {
+        if (PERFLOGGER.isLoggable(Level.FINE)) {
+            PERFLOGGER.fine(step + this.txId);
+        }
+    }
+
+    /** @return when the message was sent */
+    private long send(final ChaincodeMessage message) {
+        awaitPendingResponse();
+
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Task Sending message to the peer " + message.getTxid());
+        }
+        InvocationEvents.stubRequestSent(message, functionBytes);
+        final long sentNanos = System.nanoTime();
         outgoingMessageConsumer.accept(message);
+        return sentNanos;
+    }
+
+    private void recordLedgerCall(
+            final ChaincodeMessage request, final long sentNanos, final ChaincodeMessage response) {
+        final long nanos = System.nanoTime() - sentNanos;
+        InvocationEvents.responseReceived(request, response, functionBytes, nanos);
+        final boolean success = response.getType() == RESPONSE;
+        if (channelMetrics != null) {
+            channelMetrics.recordLedgerCall(request.getType(), nanos, success);
+        }
+        if (span != null) {
+            Traces.getProvider().recordLedgerCall(span, request.getType().name(), nanos, success);
+        }
+    }
 
-        // wait for response
-        ChaincodeMessage response;
+    /** If there is a request still outstanding, wait for its response so that another request can be sent. */
+    @SuppressWarnings("PMD.NullAssignment")
+    private void awaitPendingResponse() {
+        if (pendingResponse != null) {
+            final PendingResponse pending = pendingResponse;
+            pendingResponse = null;
+            pending.response = takeResponse();
+            recordLedgerCall(pending.request, pending.sentNanos, pending.response);
+        }
+    }
+
+    private ChaincodeMessage takeResponse() {
         try {
-            PERFLOGGER.fine(() -> "> task:answer TX::" + message.getTxid());
-            response = postbox.take();
-            PERFLOGGER.fine(() -> "< task:answer TX::" + message.getTxid());
+            perfLog("> task:answer TX::");
+            final ChaincodeMessage response = postbox.take();
+            perfLog("< task:answer TX::");
+            return response;
         } catch (final InterruptedException e) {
             LOGGER.severe(() -> "Interrupted exchanging messages ");
             throw new ContractRuntimeException(String.format("[%-8.8s]InterruptedException received.", txId), e);
         }
+    }
 
-        // handle response
+    private ByteString handleResponse(final ChaincodeMessage response) {
         switch (response.getType()) {
             case RESPONSE:
-                LOGGER.fine(() -> String.format("[%-8.8s] Successful response received.", txId));
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.fine(String.format("[%-8.8s] Successful response received.", txId));
+                }
                 return response.getPayload();
             case ERROR:
                 LOGGER.severe(() -> String.format("[%-8.8s] Unsuccessful response received.", txId));
@@ -237,4 +439,15 @@ public class ChaincodeInvocationTask implements Callable<ChaincodeMessage> {
                         txId, response.getType(), RESPONSE, ERROR));
         }
     }
+
+    private static final class PendingResponse {
+        private final ChaincodeMessage request;
+        private final long sentNanos;
+        private ChaincodeMessage response;
+
+        PendingResponse(final ChaincodeMessage request, final long sentNanos) {
+            this.request = request;
+            this.sentNanos = sentNanos;
+        }
+    }
 }
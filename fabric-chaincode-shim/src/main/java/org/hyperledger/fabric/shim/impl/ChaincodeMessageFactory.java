@@ -11,14 +11,17 @@ import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.ERROR;
 import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.GET_PRIVATE_DATA_HASH;
 import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.GET_STATE;
 import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.GET_STATE_METADATA;
+import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.GET_STATE_MULTIPLE;
 import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.INVOKE_CHAINCODE;
 import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.PUT_STATE;
 import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.PUT_STATE_METADATA;
 import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.REGISTER;
+import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.WRITE_BATCH_STATE;
 
 import com.google.protobuf.ByteString;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.List;
 import org.hyperledger.fabric.protos.peer.ChaincodeEvent;
 import org.hyperledger.fabric.protos.peer.ChaincodeID;
 import org.hyperledger.fabric.protos.peer.ChaincodeMessage;
@@ -26,11 +29,14 @@ import org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type;
 import org.hyperledger.fabric.protos.peer.DelState;
 import org.hyperledger.fabric.protos.peer.GetState;
 import org.hyperledger.fabric.protos.peer.GetStateMetadata;
+import org.hyperledger.fabric.protos.peer.GetStateMultiple;
 import org.hyperledger.fabric.protos.peer.PutState;
 import org.hyperledger.fabric.protos.peer.PutStateMetadata;
 import org.hyperledger.fabric.protos.peer.Response;
 import org.hyperledger.fabric.protos.peer.Response.Builder;
 import org.hyperledger.fabric.protos.peer.StateMetadata;
+import org.hyperledger.fabric.protos.peer.WriteBatchState;
+import org.hyperledger.fabric.protos.peer.WriteRecord;
 import org.hyperledger.fabric.shim.Chaincode;
 
 public final class ChaincodeMessageFactory {
@@ -63,6 +69,19 @@ public final class ChaincodeMessageFactory {
                         .toByteString());
     }
 
+    static ChaincodeMessage newGetStateMultipleEventMessage(
+            final String channelId, final String txId, final String collection, final List<String> keys) {
+        return newEventMessage(
+                GET_STATE_MULTIPLE,
+                channelId,
+                txId,
+                GetStateMultiple.newBuilder()
+                        .setCollection(collection)
+                        .addAllKeys(keys)
+                        .build()
+                        .toByteString());
+    }
+
     static ChaincodeMessage newGetStateMetadataEventMessage(
             final String channelId, final String txId, final String collection, final String key) {
         return newEventMessage(
@@ -142,6 +161,83 @@ public final class ChaincodeMessageFactory {
                         .toByteString());
     }
 
+    static WriteRecord newPutStateRecord(final String collection, final String key, final ByteString value) {
+        return WriteRecord.newBuilder()
+                .setType(WriteRecord.Type.PUT_STATE)
+                .setCollection(collection)
+                .setKey(key)
+                .setValue(value)
+                .build();
+    }
+
+    static WriteRecord newPutStateMetadataRecord(
+            final String collection, final String key, final String metakey, final ByteString value) {
+        return WriteRecord.newBuilder()
+                .setType(WriteRecord.Type.PUT_STATE_METADATA)
+                .setCollection(collection)
+                .setKey(key)
+                .setMetadata(StateMetadata.newBuilder()
+                        .setMetakey(metakey)
+                        .setValue(value)
+                        .build())
+                .build();
+    }
+
+    static WriteRecord newDeleteStateRecord(final String collection, final String key) {
+        return WriteRecord.newBuilder()
+                .setType(WriteRecord.Type.DEL_STATE)
+                .setCollection(collection)
+                .setKey(key)
+                .build();
+    }
+
+    static WriteRecord newPurgeStateRecord(final String collection, final String key) {
+        return WriteRecord.newBuilder()
+                .setType(WriteRecord.Type.PURGE_PRIVATE_DATA)
+                .setCollection(collection)
+                .setKey(key)
+                .build();
+    }
+
+    /**
+     * The individual message for a single write.
+     *
+     * @param channelId channel
+     * @param txId transaction
+     * @param record the write
+     * @return PUT_STATE, PUT_STATE_METADATA, DEL_STATE or PURGE_PRIVATE_DATA message
+     */
+    static ChaincodeMessage newWriteEventMessage(final String channelId, final String txId, final WriteRecord record) {
+        switch (record.getType()) {
+            case PUT_STATE:
+                return newPutStateEventMessage(
+                        channelId, txId, record.getCollection(), record.getKey(), record.getValue());
+            case PUT_STATE_METADATA:
+                return newPutStateMetadataEventMessage(
+                        channelId,
+                        txId,
+                        record.getCollection(),
+                        record.getKey(),
+                        record.getMetadata().getMetakey(),
+                        record.getMetadata().getValue());
+            case DEL_STATE:
+                return newDeleteStateEventMessage(channelId, txId, record.getCollection(), record.getKey());
+            case PURGE_PRIVATE_DATA:
+                return newPurgeStateEventMessage(channelId, txId, record.getCollection(), record.getKey());
+            default:
+                throw new IllegalArgumentException("Unexpected write record type: " + record.getType());
+        }
+    }
+
+    static ChaincodeMessage newWriteBatchStateEventMessage(
+            final String channelId, final String txId, final List<WriteRecord> records) {
+        return newEventMessage(
+                WRITE_BATCH_STATE,
+                channelId,
+                txId,
+                WriteBatchState.newBuilder().addAllRec(records).build().toByteString());
+    }
+
     static ChaincodeMessage newErrorEventMessage(final String channelId, final String txId, final Throwable throwable) {
         return newErrorEventMessage(channelId, txId, printStackTrace(throwable));
     }
@@ -201,8 +297,9 @@ public final class ChaincodeMessageFactory {
         if (response.getMessage() != null) {
             builder.setMessage(response.getMessage());
         }
-        if (response.getPayload() != null) {
-            builder.setPayload(ByteString.copyFrom(response.getPayload()));
+        final ByteString payload = response.getPayloadBytes();
+        if (payload != null) {
+            builder.setPayload(payload);
         }
         return builder.build();
     }
@@ -8,13 +8,11 @@ package org.hyperledger.fabric.shim.impl;
 import io.grpc.ClientInterceptor;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantLock;
-import java.util.function.Consumer;
-import java.util.logging.Logger;
-import org.hyperledger.fabric.Logging;
+import org.hyperledger.fabric.metrics.Metrics;
 import org.hyperledger.fabric.protos.peer.ChaincodeMessage;
 import org.hyperledger.fabric.protos.peer.ChaincodeSupportGrpc;
 import org.hyperledger.fabric.protos.peer.ChaincodeSupportGrpc.ChaincodeSupportStub;
@@ -22,9 +20,9 @@ import org.hyperledger.fabric.traces.Traces;
 
 public class ChaincodeSupportClient {
     private static final int DEFAULT_TIMEOUT = 5;
-    private static final Logger PERFLOGGER = Logger.getLogger(Logging.PERFLOGGER);
     private final ManagedChannel channel;
     private final ChaincodeSupportStub stub;
+    private OutboundMessageWriter startingWriter;
 
     /** @param channelBuilder */
     public ChaincodeSupportClient(final ManagedChannelBuilder<?> channelBuilder) {
@@ -53,11 +51,24 @@ public class ChaincodeSupportClient {
         }
     }
 
+    /**
+     * Called from ClientResponseObserver.beforeStart, this is the only point at which outbound flow control can be set
+     * up for the stream to the peer.
+     *
+     * @param requestStream the stream to the peer, which will subsequently be passed to start()
+     */
+    public void beforeStart(final ClientCallStreamObserver<ChaincodeMessage> requestStream) {
+        final OutboundMessageWriter writer = new OutboundMessageWriter(requestStream, true);
+        requestStream.setOnReadyHandler(writer::onReady);
+        this.startingWriter = writer;
+    }
+
     /**
      * @param itm
      * @param requestObserver
      * @throws IOException verify parameters error
      */
+    @SuppressWarnings("PMD.NullAssignment")
     public void start(final InvocationTaskManager itm, final StreamObserver<ChaincodeMessage> requestObserver)
             throws IOException {
         if (requestObserver == null) {
@@ -68,30 +79,30 @@ public class ChaincodeSupportClient {
         }
 
         // Consumer function for response messages (those going back to the peer)
-        // gRPC streams need to be accessed by one thread at a time, so
-        // use a lock to protect this.
+        // gRPC streams need to be accessed by one thread at a time, so messages
+        // are queued and written out by a single writer.
         //
-        // Previous implementations used a dedicated thread for this. However this extra
-        // thread is not really required. The main thread executing the transaction will
-        // not be
-        // held up for long, nor can any one transaction invoke more that one stub api
-        // at a time.
-        // create a lock, with fair property
-        final ReentrantLock lock = new ReentrantLock(true);
-        final Consumer<ChaincodeMessage> consumer = t -> {
-            lock.lock();
-            PERFLOGGER.fine(() -> "> sendToPeer TX::" + t.getTxid());
-            requestObserver.onNext(t);
-            PERFLOGGER.fine(() -> "< sendToPeer TX::" + t.getTxid());
-            lock.unlock();
-        };
+        // Previous implementations used a dedicated thread for this, and then a lock.
+        // Neither is really required. The thread that finds the queue idle writes
+        // out everything queued, so threads executing transactions are not held up
+        // waiting for each other.
+        final OutboundMessageWriter writer;
+        if (startingWriter != null && startingWriter.isFor(requestObserver)) {
+            writer = startingWriter;
+        } else {
+            writer = new OutboundMessageWriter(requestObserver, false);
+        }
+        startingWriter = null;
+        Metrics.getProvider().setStreamMetricsCollector(writer);
+        // a task waiting for the response to a message that could not be sent is given an error instead
+        writer.setSendFailureHandler(itm::sendFailed);
 
         // Pass a Consumer interface back to the the task manager. This is for tasks to
         // use to respond back to the peer.
         //
         // NOTE the register() - very important - as this triggers the ITM to send the
         // first message to the peer; otherwise the both sides will sit there waiting
-        itm.setResponseConsumer(consumer);
+        itm.setResponseConsumer(writer);
         itm.register();
     }
 
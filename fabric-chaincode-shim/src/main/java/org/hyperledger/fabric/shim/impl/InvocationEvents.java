@@ -0,0 +1,220 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.shim.impl;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.hyperledger.fabric.protos.peer.ChaincodeInput;
+import org.hyperledger.fabric.protos.peer.ChaincodeMessage;
+
+/**
+ * Java Flight Recorder events for the lifecycle of each transaction, and the requests it makes to the peer.
+ *
+ * <p>Unlike the performance logger, these are cheap enough to leave on: when an event is not enabled in the recording
+ * nothing is allocated or decoded, and when it is, no messages are formatted. Record them with, for example, <code>
+ * -XX:StartFlightRecording</code>; they are in the "Hyperledger Fabric" category.
+ */
+final class InvocationEvents {
+    private static final String NAME_PREFIX = "org.hyperledger.fabric.chaincode.";
+    private static final String CATEGORY = "Hyperledger Fabric";
+
+    private InvocationEvents() {}
+
+    @StackTrace(false)
+    @Category({CATEGORY, "Chaincode"})
+    abstract static class TransactionEvent extends Event {
+        // not private, as the fields of a superclass are only recorded if its subclasses can see them
+        @Label("Transaction ID")
+        String txId;
+
+        @Label("Channel")
+        String channelId;
+
+        @Label("Function")
+        String function;
+
+        @Label("Message Type")
+        String messageType;
+
+        @Label("Payload Size")
+        @DataAmount
+        long payloadSize;
+
+        final void set(final ChaincodeMessage message, final String function) {
+            this.txId = message.getTxid();
+            this.channelId = message.getChannelId();
+            this.function = function;
+            this.messageType = message.getType().name();
+            this.payloadSize = message.getPayload().size();
+        }
+    }
+
+    @Name(NAME_PREFIX + "TaskQueued")
+    @Label("Task Queued")
+    @Description("A transaction from the peer was queued for a thread")
+    static final class TaskQueued extends TransactionEvent {}
+
+    @Name(NAME_PREFIX + "TaskRejected")
+    @Label("Task Rejected")
+    @Description("A transaction from the peer was rejected, as there was no room to queue it")
+    static final class TaskRejected extends TransactionEvent {}
+
+    @Name(NAME_PREFIX + "TaskStarted")
+    @Label("Task Started")
+    @Description("A transaction started executing")
+    static final class TaskStarted extends TransactionEvent {
+        @Label("Queue Wait")
+        @Timespan(Timespan.NANOSECONDS)
+        private long queueWait;
+    }
+
+    @Name(NAME_PREFIX + "TaskCompleted")
+    @Label("Task Completed")
+    @Description("A transaction sent its response to the peer")
+    static final class TaskCompleted extends TransactionEvent {
+        @Label("Execution Time")
+        @Timespan(Timespan.NANOSECONDS)
+        private long executionTime;
+
+        @Label("Succeeded")
+        private boolean success;
+    }
+
+    @Name(NAME_PREFIX + "StubRequestSent")
+    @Label("Stub Request Sent")
+    @Description("A transaction sent a request, such as GET_STATE, to the peer")
+    static final class StubRequestSent extends TransactionEvent {}
+
+    @Name(NAME_PREFIX + "ResponseReceived")
+    @Label("Response Received")
+    @Description("A transaction received the response to its request to the peer")
+    static final class ResponseReceived extends TransactionEvent {
+        @Label("Request Type")
+        private String requestType;
+
+        @Label("Round Trip")
+        @Timespan(Timespan.NANOSECONDS)
+        private long roundTrip;
+    }
+
+    /**
+     * A transaction has been queued.
+     *
+     * @param message the transaction's message from the peer
+     */
+    static void taskQueued(final ChaincodeMessage message) {
+        final TaskQueued event = new TaskQueued();
+        if (event.isEnabled()) {
+            event.set(message, functionName(message));
+            event.commit();
+        }
+    }
+
+    /**
+     * A transaction has been rejected.
+     *
+     * @param message the transaction's message from the peer
+     */
+    static void taskRejected(final ChaincodeMessage message) {
+        final TaskRejected event = new TaskRejected();
+        if (event.isEnabled()) {
+            event.set(message, functionName(message));
+            event.commit();
+        }
+    }
+
+    /**
+     * A transaction has started.
+     *
+     * @param message the transaction's message from the peer
+     * @param function encoded name of the function, or empty if not known
+     * @param queueWaitNanos time from the message arriving to now
+     */
+    static void taskStarted(final ChaincodeMessage message, final ByteString function, final long queueWaitNanos) {
+        final TaskStarted event = new TaskStarted();
+        if (event.isEnabled()) {
+            event.set(message, function.toStringUtf8());
+            event.queueWait = queueWaitNanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * A transaction has sent its response.
+     *
+     * @param response the response sent to the peer
+     * @param function encoded name of the function, or empty if not known
+     * @param executionNanos time from the transaction starting to now
+     * @param success false if the transaction failed
+     */
+    static void taskCompleted(
+            final ChaincodeMessage response,
+            final ByteString function,
+            final long executionNanos,
+            final boolean success) {
+        final TaskCompleted event = new TaskCompleted();
+        if (event.isEnabled()) {
+            event.set(response, function.toStringUtf8());
+            event.executionTime = executionNanos;
+            event.success = success;
+            event.commit();
+        }
+    }
+
+    /**
+     * A transaction has sent a request to the peer.
+     *
+     * @param request the request
+     * @param function encoded name of the transaction's function, or empty if not known
+     */
+    static void stubRequestSent(final ChaincodeMessage request, final ByteString function) {
+        final StubRequestSent event = new StubRequestSent();
+        if (event.isEnabled()) {
+            event.set(request, function.toStringUtf8());
+            event.commit();
+        }
+    }
+
+    /**
+     * A transaction has received the response to a request.
+     *
+     * @param request the request
+     * @param response the response from the peer
+     * @param function encoded name of the transaction's function, or empty if not known
+     * @param roundTripNanos time from the request being sent to now
+     */
+    static void responseReceived(
+            final ChaincodeMessage request,
+            final ChaincodeMessage response,
+            final ByteString function,
+            final long roundTripNanos) {
+        final ResponseReceived event = new ResponseReceived();
+        if (event.isEnabled()) {
+            event.set(response, function.toStringUtf8());
+            event.requestType = request.getType().name();
+            event.roundTrip = roundTripNanos;
+            event.commit();
+        }
+    }
+
+    /** @return the function named by the first argument of a transaction, or empty if it has none */
+    private static String functionName(final ChaincodeMessage message) {
+        try {
+            final ChaincodeInput input = ChaincodeInput.parseFrom(message.getPayload());
+            return input.getArgsCount() == 0 ? "" : input.getArgs(0).toStringUtf8();
+        } catch (final InvalidProtocolBufferException e) {
+            return "";
+        }
+    }
+}
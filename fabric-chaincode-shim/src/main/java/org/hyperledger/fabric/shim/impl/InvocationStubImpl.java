@@ -22,12 +22,14 @@ import java.nio.ByteOrder;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import org.hyperledger.fabric.protos.common.ChannelHeader;
@@ -44,6 +46,7 @@ import org.hyperledger.fabric.protos.peer.ChaincodeSpec;
 import org.hyperledger.fabric.protos.peer.GetQueryResult;
 import org.hyperledger.fabric.protos.peer.GetState;
 import org.hyperledger.fabric.protos.peer.GetStateByRange;
+import org.hyperledger.fabric.protos.peer.GetStateMultipleResult;
 import org.hyperledger.fabric.protos.peer.MetaDataKeys;
 import org.hyperledger.fabric.protos.peer.Proposal;
 import org.hyperledger.fabric.protos.peer.QueryMetadata;
@@ -51,6 +54,7 @@ import org.hyperledger.fabric.protos.peer.QueryResultBytes;
 import org.hyperledger.fabric.protos.peer.Response;
 import org.hyperledger.fabric.protos.peer.SignedProposal;
 import org.hyperledger.fabric.protos.peer.StateMetadataResult;
+import org.hyperledger.fabric.protos.peer.WriteRecord;
 import org.hyperledger.fabric.shim.Chaincode;
 import org.hyperledger.fabric.shim.ChaincodeStub;
 import org.hyperledger.fabric.shim.ledger.CompositeKey;
@@ -59,15 +63,16 @@ import org.hyperledger.fabric.shim.ledger.KeyValue;
 import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
 import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
 
-@SuppressWarnings({"PMD.CyclomaticComplexity", "PMD.GodClass"})
+@SuppressWarnings({"PMD.CyclomaticComplexity", "PMD.GodClass", "PMD.ExcessivePublicCount"})
 class InvocationStubImpl implements ChaincodeStub {
 
     private static final String UNSPECIFIED_START_KEY = new String(Character.toChars(0x000001));
     private static final String UNSPECIFIED_END_KEY = "";
+    private static final CompositeKey UNSPECIFIED_COMPOSITE_KEY = new CompositeKey(UNSPECIFIED_START_KEY);
     private static final Logger LOGGER = Logger.getLogger(InvocationStubImpl.class.getName());
 
-    private static final String MAX_UNICODE_RUNE = "\udbff\udfff";
     private static final String CORE_PEER_LOCALMSPID = "CORE_PEER_LOCALMSPID";
+    private static final String UNMARSHALLING_ERROR = "[%-8.8s] unmarshalling error";
 
     private static final Function<QueryResultBytes, org.hyperledger.fabric.protos.ledger.queryresult.KeyModification>
             QUERY_RESULT_BYTES_TO_KEY_MODIFICATION = queryResultBytes -> {
@@ -90,46 +95,63 @@ class InvocationStubImpl implements ChaincodeStub {
     private final String txId;
     private final ChaincodeInvocationTask handler;
     private final List<ByteString> args;
-    private final SignedProposal signedProposal;
+    // arguments decoded as strings on first use; never given out, as callers may change the lists they are given
+    private List<String> stringArgs;
+    // released when the transaction completes
+    private SignedProposal signedProposal;
     private final Instant txTimestamp;
-    private final ByteString creator;
-    private final Map<String, ByteString> transientMap;
-    private final byte[] binding;
+    private final long epoch;
+    // parts of the proposal that are decoded on first use; each encoded form is released once decoded
+    private final boolean hasProposal;
+    private ByteString encodedSignatureHeader;
+    private SignatureHeader signatureHeader;
+    private ByteString encodedProposalPayload;
+    private Map<String, ByteString> transientMap;
+    private byte[] binding;
+    private final PeerCapabilities peerCapabilities;
+    // writes held back until the transaction function completes, or null if they are sent immediately
+    private final WriteBatch writeBatch;
+    // values read and written by this transaction, or null if every read goes to the peer
+    private final StateCache stateCache;
     private ChaincodeEvent event;
 
     /**
+     * Only the parts of the proposal needed to validate it are decoded here; the signature header, transient data and
+     * binding are decoded when first used.
+     *
      * @param message
      * @param handler
      * @throws InvalidProtocolBufferException
      */
     InvocationStubImpl(final ChaincodeMessage message, final ChaincodeInvocationTask handler)
-            throws InvalidProtocolBufferException, NoSuchAlgorithmException {
+            throws InvalidProtocolBufferException {
         this.channelId = message.getChannelId();
         this.txId = message.getTxid();
         this.handler = handler;
+        this.peerCapabilities = Objects.requireNonNullElse(handler.getPeerCapabilities(), PeerCapabilities.NONE);
+        final StubOptions options = Objects.requireNonNullElse(handler.getStubOptions(), StubOptions.DEFAULT);
+        this.writeBatch = options.isBufferWrites() ? new WriteBatch() : null;
+        this.stateCache = options.isStateCache() ? new StateCache(options.getCacheStats()) : null;
         final ChaincodeInput input = ChaincodeInput.parseFrom(message.getPayload());
 
         this.args = Collections.unmodifiableList(input.getArgsList());
         this.signedProposal = message.getProposal();
-        if (this.signedProposal.getProposalBytes().isEmpty()) {
-            this.creator = null;
-            this.txTimestamp = null;
-            this.transientMap = Collections.emptyMap();
-            this.binding = null;
-        } else {
+        this.hasProposal = !this.signedProposal.getProposalBytes().isEmpty();
+        if (this.hasProposal) {
             final Proposal proposal = Proposal.parseFrom(signedProposal.getProposalBytes());
             final Header header = Header.parseFrom(proposal.getHeader());
             final ChannelHeader channelHeader = ChannelHeader.parseFrom(header.getChannelHeader());
             validateProposalType(channelHeader);
-            final SignatureHeader signatureHeader = SignatureHeader.parseFrom(header.getSignatureHeader());
-            final ChaincodeProposalPayload chaincodeProposalPayload =
-                    ChaincodeProposalPayload.parseFrom(proposal.getPayload());
             final Timestamp timestamp = channelHeader.getTimestamp();
 
             this.txTimestamp = Instant.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos());
-            this.creator = signatureHeader.getCreator();
-            this.transientMap = chaincodeProposalPayload.getTransientMapMap();
-            this.binding = computeBinding(channelHeader, signatureHeader);
+            this.epoch = channelHeader.getEpoch();
+            this.encodedSignatureHeader = header.getSignatureHeader();
+            this.encodedProposalPayload = proposal.getPayload();
+        } else {
+            this.txTimestamp = null;
+            this.epoch = 0;
+            this.transientMap = Collections.emptyMap();
         }
     }
 
@@ -142,13 +164,44 @@ class InvocationStubImpl implements ChaincodeStub {
         return true;
     }
 
-    private byte[] computeBinding(final ChannelHeader channelHeader, final SignatureHeader signatureHeader)
-            throws NoSuchAlgorithmException {
-        final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+    @SuppressWarnings("PMD.NullAssignment")
+    private SignatureHeader decodeSignatureHeader() {
+        if (signatureHeader == null && hasProposal) {
+            try {
+                signatureHeader = SignatureHeader.parseFrom(encodedSignatureHeader);
+            } catch (final InvalidProtocolBufferException e) {
+                LOGGER.severe(() -> String.format(UNMARSHALLING_ERROR, txId));
+                throw new UncheckedIOException("Error unmarshalling SignatureHeader.", e);
+            }
+            encodedSignatureHeader = null;
+        }
+        return signatureHeader;
+    }
+
+    @SuppressWarnings("PMD.NullAssignment")
+    private Map<String, ByteString> decodeTransientMap() {
+        if (transientMap == null) {
+            try {
+                transientMap = ChaincodeProposalPayload.parseFrom(encodedProposalPayload).getTransientMapMap();
+            } catch (final InvalidProtocolBufferException e) {
+                LOGGER.severe(() -> String.format(UNMARSHALLING_ERROR, txId));
+                throw new UncheckedIOException("Error unmarshalling ChaincodeProposalPayload.", e);
+            }
+            encodedProposalPayload = null;
+        }
+        return transientMap;
+    }
+
+    private byte[] computeBinding(final SignatureHeader signatureHeader) {
+        final MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
         messageDigest.update(signatureHeader.getNonce().asReadOnlyByteBuffer());
-        messageDigest.update(this.creator.asReadOnlyByteBuffer());
-        final ByteBuffer epochBytes =
-                ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(channelHeader.getEpoch());
+        messageDigest.update(signatureHeader.getCreator().asReadOnlyByteBuffer());
+        final ByteBuffer epochBytes = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(epoch);
         epochBytes.flip();
         messageDigest.update(epochBytes);
         return messageDigest.digest();
@@ -167,33 +220,63 @@ class InvocationStubImpl implements ChaincodeStub {
 
     @Override
     public List<byte[]> getArgs() {
-        return args.stream().map(ByteString::toByteArray).collect(toList());
+        final List<byte[]> byteArgs = new ArrayList<>(args.size());
+        for (final ByteString arg : args) {
+            byteArgs.add(arg.toByteArray());
+        }
+        return byteArgs;
     }
 
     @Override
     public List<String> getStringArgs() {
-        return args.stream().map(ByteString::toStringUtf8).collect(toList());
+        return new ArrayList<>(decodedArgs());
+    }
+
+    /** The arguments decoded once, however many times they are asked for; callers are given copies. */
+    private List<String> decodedArgs() {
+        if (stringArgs == null) {
+            final List<String> decoded = new ArrayList<>(args.size());
+            for (final ByteString arg : args) {
+                decoded.add(arg.toStringUtf8());
+            }
+            stringArgs = Collections.unmodifiableList(decoded);
+        }
+        return stringArgs;
     }
 
     @Override
     public String getFunction() {
-        return getStringArgs().isEmpty() ? null : getStringArgs().get(0);
+        return args.isEmpty() ? null : decodedArgs().get(0);
+    }
+
+    /**
+     * The function name, without decoding it.
+     *
+     * @return first argument, or empty if there are no arguments
+     */
+    ByteString getFunctionBytes() {
+        return args.isEmpty() ? ByteString.EMPTY : args.get(0);
     }
 
     @Override
     public List<String> getParameters() {
-        return getStringArgs().stream().skip(1).collect(toList());
+        return args.isEmpty() ? new ArrayList<>() : new ArrayList<>(decodedArgs().subList(1, args.size()));
     }
 
     @Override
     public void setEvent(final String name, final byte[] payload) {
+        setEventBytes(name, payload == null ? null : ByteString.copyFrom(payload));
+    }
+
+    @Override
+    public void setEventBytes(final String name, final ByteString payload) {
         if (null == name || isEmptyString(name)) {
             throw new IllegalArgumentException("event name can not be nil string");
         }
         if (payload != null) {
             this.event = ChaincodeEvent.newBuilder()
                     .setEventName(name)
-                    .setPayload(ByteString.copyFrom(payload))
+                    .setPayload(payload)
                     .build();
         } else {
             this.event = ChaincodeEvent.newBuilder().setEventName(name).build();
@@ -217,9 +300,73 @@ class InvocationStubImpl implements ChaincodeStub {
 
     @Override
     public byte[] getState(final String key) {
-        return this.handler
-                .invoke(ChaincodeMessageFactory.newGetStateEventMessage(channelId, txId, "", key))
-                .toByteArray();
+        return readState("", key).toByteArray();
+    }
+
+    @Override
+    public ByteString getStateBytes(final String key) {
+        return readState("", key);
+    }
+
+    private ByteString readState(final String collection, final String key) {
+        final Supplier<ByteString> reader = () ->
+                handler.invoke(ChaincodeMessageFactory.newGetStateEventMessage(channelId, txId, collection, key));
+        return stateCache == null ? reader.get() : stateCache.get(collection, key, reader);
+    }
+
+    @Override
+    public List<byte[]> getStates(final List<String> keys) {
+        return toByteArrays(readMultipleStates("", keys));
+    }
+
+    private static List<byte[]> toByteArrays(final List<ByteString> values) {
+        return values.stream().map(ByteString::toByteArray).collect(toList());
+    }
+
+    private List<ByteString> readMultipleStates(final String collection, final List<String> keys) {
+        if (stateCache == null) {
+            return getMultipleStates(collection, keys);
+        }
+        return stateCache.getAll(collection, keys, missing -> getMultipleStates(collection, missing));
+    }
+
+    /**
+     * Read several keys, using GET_STATE_MULTIPLE if the peer supports it.
+     *
+     * <p>Otherwise they are read one at a time; the peer only allows one outstanding request per transaction, so the
+     * individual requests cannot be pipelined.
+     */
+    private List<ByteString> getMultipleStates(final String collection, final List<String> keys) {
+        final List<ByteString> values = new ArrayList<>(keys.size());
+        if (!peerCapabilities.isGetMultipleKeys()) {
+            for (final String key : keys) {
+                final ChaincodeMessage request =
+                        ChaincodeMessageFactory.newGetStateEventMessage(channelId, txId, collection, key);
+                values.add(handler.invoke(request));
+            }
+            return values;
+        }
+
+        final int maxKeys = peerCapabilities.getMaxGetMultipleKeys();
+        final int batchSize = maxKeys > 0 ? maxKeys : Math.max(keys.size(), 1);
+        for (int start = 0; start < keys.size(); start += batchSize) {
+            final List<String> batch = keys.subList(start, Math.min(keys.size(), start + batchSize));
+            final ByteString payload = handler.invoke(
+                    ChaincodeMessageFactory.newGetStateMultipleEventMessage(channelId, txId, collection, batch));
+            try {
+                final GetStateMultipleResult result = GetStateMultipleResult.parseFrom(payload);
+                if (result.getValuesCount() != batch.size()) {
+                    throw new IllegalStateException(String.format(
+                            "Expected %d values from the peer, received %d",
+                            batch.size(), result.getValuesCount()));
+                }
+                values.addAll(result.getValuesList());
+            } catch (final InvalidProtocolBufferException e) {
+                LOGGER.severe(() -> String.format(UNMARSHALLING_ERROR, txId));
+                throw new UncheckedIOException("Error unmarshalling GetStateMultipleResult.", e);
+            }
+        }
+        return values;
     }
 
     @Override
@@ -241,7 +388,7 @@ class InvocationStubImpl implements ChaincodeStub {
                         .toByteArray();
             }
         } catch (final InvalidProtocolBufferException e) {
-            LOGGER.severe(() -> String.format("[%-8.8s] unmarshalling error", txId));
+            LOGGER.severe(() -> String.format(UNMARSHALLING_ERROR, txId));
             throw new UncheckedIOException("Error unmarshalling StateMetadataResult.", e);
         }
 
@@ -250,23 +397,67 @@ class InvocationStubImpl implements ChaincodeStub {
 
     @Override
     public void putState(final String key, final byte[] value) {
+        putStateBytes(key, ByteString.copyFrom(value));
+    }
+
+    @Override
+    public void putStateBytes(final String key, final ByteString value) {
         validateKey(key);
-        this.handler.invoke(
-                ChaincodeMessageFactory.newPutStateEventMessage(channelId, txId, "", key, ByteString.copyFrom(value)));
+        write(ChaincodeMessageFactory.newPutStateRecord("", key, value));
     }
 
     @Override
     public void setStateValidationParameter(final String key, final byte[] value) {
         validateKey(key);
-        final ChaincodeMessage msg = ChaincodeMessageFactory.newPutStateMetadataEventMessage(
-                channelId, txId, "", key, MetaDataKeys.VALIDATION_PARAMETER.toString(), ByteString.copyFrom(value));
-        this.handler.invoke(msg);
+        write(ChaincodeMessageFactory.newPutStateMetadataRecord(
+                "", key, MetaDataKeys.VALIDATION_PARAMETER.toString(), ByteString.copyFrom(value)));
     }
 
     @Override
     public void delState(final String key) {
-        final ChaincodeMessage msg = ChaincodeMessageFactory.newDeleteStateEventMessage(channelId, txId, "", key);
-        this.handler.invoke(msg);
+        write(ChaincodeMessageFactory.newDeleteStateRecord("", key));
+    }
+
+    /**
+     * Send a write to the peer, or hold it back if writes are being batched.
+     *
+     * @param record the write
+     */
+    private void write(final WriteRecord record) {
+        if (writeBatch == null) {
+            this.handler.invoke(ChaincodeMessageFactory.newWriteEventMessage(channelId, txId, record));
+        } else {
+            writeBatch.add(record);
+        }
+        if (stateCache != null) {
+            stateCache.written(record);
+        }
+    }
+
+    /**
+     * Send any writes that have been held back. This must be done before the transaction is completed.
+     *
+     * <p>If the peer supports it the writes are sent in WRITE_BATCH_STATE requests, otherwise one at a time.
+     */
+    void flushWrites() {
+        if (writeBatch == null || writeBatch.isEmpty()) {
+            return;
+        }
+
+        final List<WriteRecord> records = writeBatch.drain();
+        LOGGER.fine(() -> String.format("[%-8.8s] Sending %d buffered writes", txId, records.size()));
+        if (!peerCapabilities.isWriteBatch()) {
+            records.forEach(record ->
+                    handler.invoke(ChaincodeMessageFactory.newWriteEventMessage(channelId, txId, record)));
+            return;
+        }
+
+        final int maxRecords = peerCapabilities.getMaxWriteBatch();
+        final int batchSize = maxRecords > 0 ? maxRecords : records.size();
+        for (int start = 0; start < records.size(); start += batchSize) {
+            final List<WriteRecord> batch = records.subList(start, Math.min(records.size(), start + batchSize));
+            handler.invoke(ChaincodeMessageFactory.newWriteBatchStateEventMessage(channelId, txId, batch));
+        }
     }
 
     @Override
@@ -370,28 +561,29 @@ class InvocationStubImpl implements ChaincodeStub {
     @Override
     public QueryResultsIterator<KeyValue> getStateByPartialCompositeKey(final CompositeKey compositeKey) {
 
-        String cKeyAsString;
+        final CompositeKey prefix = compositeKey == null ? UNSPECIFIED_COMPOSITE_KEY : compositeKey;
 
-        if (compositeKey == null) {
-            cKeyAsString = new CompositeKey(UNSPECIFIED_START_KEY).toString();
-        } else {
-            cKeyAsString = compositeKey.toString();
-        }
+        return executeGetStateByRange("", prefix.getRangeStartKey(), prefix.getRangeEndKey());
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByCompositeKeyRange(
+            final CompositeKey compositeKey, final String startAttribute, final String endAttribute) {
 
-        return executeGetStateByRange("", cKeyAsString, cKeyAsString + MAX_UNICODE_RUNE);
+        final String start = startAttribute == null
+                ? compositeKey.getRangeStartKey()
+                : compositeKey.getRangeStartKey(startAttribute);
+        final String end =
+                endAttribute == null ? compositeKey.getRangeEndKey() : compositeKey.getRangeEndKey(endAttribute);
+
+        return executeGetStateByRange("", start, end);
     }
 
     @Override
     public QueryResultsIteratorWithMetadata<KeyValue> getStateByPartialCompositeKeyWithPagination(
             final CompositeKey compositeKey, final int pageSize, final String bookmark) {
 
-        String cKeyAsString;
-
-        if (compositeKey == null) {
-            cKeyAsString = new CompositeKey(UNSPECIFIED_START_KEY).toString();
-        } else {
-            cKeyAsString = compositeKey.toString();
-        }
+        final CompositeKey prefix = compositeKey == null ? UNSPECIFIED_COMPOSITE_KEY : compositeKey;
 
         final QueryMetadata queryMetadata = QueryMetadata.newBuilder()
                 .setBookmark(bookmark)
@@ -399,7 +591,7 @@ class InvocationStubImpl implements ChaincodeStub {
                 .build();
 
         return executeGetStateByRangeWithMetadata(
-                "", cKeyAsString, cKeyAsString + MAX_UNICODE_RUNE, queryMetadata.toByteString());
+                "", prefix.getRangeStartKey(), prefix.getRangeEndKey(), queryMetadata.toByteString());
     }
 
     @Override
@@ -474,9 +666,19 @@ class InvocationStubImpl implements ChaincodeStub {
     @Override
     public byte[] getPrivateData(final String collection, final String key) {
         validateCollection(collection);
-        return this.handler
-                .invoke(ChaincodeMessageFactory.newGetStateEventMessage(channelId, txId, collection, key))
-                .toByteArray();
+        return readState(collection, key).toByteArray();
+    }
+
+    @Override
+    public ByteString getPrivateDataBytes(final String collection, final String key) {
+        validateCollection(collection);
+        return readState(collection, key);
+    }
+
+    @Override
+    public List<byte[]> getPrivateDataMultiple(final String collection, final List<String> keys) {
+        validateCollection(collection);
+        return toByteArrays(readMultipleStates(collection, keys));
     }
 
     @Override
@@ -515,7 +717,7 @@ class InvocationStubImpl implements ChaincodeStub {
                         .toByteArray();
             }
         } catch (final InvalidProtocolBufferException e) {
-            LOGGER.severe(() -> String.format("[%-8.8s] unmarshalling error", txId));
+            LOGGER.severe(() -> String.format(UNMARSHALLING_ERROR, txId));
             throw new UncheckedIOException("Error unmarshalling StateMetadataResult.", e);
         }
 
@@ -524,40 +726,34 @@ class InvocationStubImpl implements ChaincodeStub {
 
     @Override
     public void putPrivateData(final String collection, final String key, final byte[] value) {
+        putPrivateDataBytes(collection, key, ByteString.copyFrom(value));
+    }
+
+    @Override
+    public void putPrivateDataBytes(final String collection, final String key, final ByteString value) {
         validateKey(key);
         validateCollection(collection);
-        this.handler.invoke(ChaincodeMessageFactory.newPutStateEventMessage(
-                channelId, txId, collection, key, ByteString.copyFrom(value)));
+        write(ChaincodeMessageFactory.newPutStateRecord(collection, key, value));
     }
 
     @Override
     public void setPrivateDataValidationParameter(final String collection, final String key, final byte[] value) {
         validateKey(key);
         validateCollection(collection);
-        final ChaincodeMessage msg = ChaincodeMessageFactory.newPutStateMetadataEventMessage(
-                channelId,
-                txId,
-                collection,
-                key,
-                MetaDataKeys.VALIDATION_PARAMETER.toString(),
-                ByteString.copyFrom(value));
-        this.handler.invoke(msg);
+        write(ChaincodeMessageFactory.newPutStateMetadataRecord(
+                collection, key, MetaDataKeys.VALIDATION_PARAMETER.toString(), ByteString.copyFrom(value)));
     }
 
     @Override
     public void delPrivateData(final String collection, final String key) {
         validateCollection(collection);
-        final ChaincodeMessage msg =
-                ChaincodeMessageFactory.newDeleteStateEventMessage(channelId, txId, collection, key);
-        this.handler.invoke(msg);
+        write(ChaincodeMessageFactory.newDeleteStateRecord(collection, key));
     }
 
     @Override
     public void purgePrivateData(final String collection, final String key) {
         validateCollection(collection);
-        final ChaincodeMessage msg =
-                ChaincodeMessageFactory.newPurgeStateEventMessage(channelId, txId, collection, key);
-        this.handler.invoke(msg);
+        write(ChaincodeMessageFactory.newPurgeStateRecord(collection, key));
     }
 
     @Override
@@ -598,14 +794,9 @@ class InvocationStubImpl implements ChaincodeStub {
     @Override
     public QueryResultsIterator<KeyValue> getPrivateDataByPartialCompositeKey(
             final String collection, final CompositeKey compositeKey) {
-        String cKeyAsString;
-        if (compositeKey == null) {
-            cKeyAsString = new CompositeKey(UNSPECIFIED_START_KEY).toString();
-        } else {
-            cKeyAsString = compositeKey.toString();
-        }
+        final CompositeKey prefix = compositeKey == null ? UNSPECIFIED_COMPOSITE_KEY : compositeKey;
 
-        return executeGetStateByRange(collection, cKeyAsString, cKeyAsString + MAX_UNICODE_RUNE);
+        return executeGetStateByRange(collection, prefix.getRangeStartKey(), prefix.getRangeEndKey());
     }
 
     @Override
@@ -685,6 +876,15 @@ class InvocationStubImpl implements ChaincodeStub {
         return signedProposal;
     }
 
+    /**
+     * Drop the reference to the signed proposal once the transaction has completed, so that a stub kept by the
+     * chaincode does not keep the whole encoded proposal.
+     */
+    @SuppressWarnings("PMD.NullAssignment")
+    void releaseProposal() {
+        signedProposal = null;
+    }
+
     @Override
     public Instant getTxTimestamp() {
         return txTimestamp;
@@ -693,21 +893,36 @@ class InvocationStubImpl implements ChaincodeStub {
     @Override
     @SuppressWarnings("PMD.ReturnEmptyCollectionRatherThanNull")
     public byte[] getCreator() {
+        final ByteString creator = getCreatorBytes();
         if (creator == null) {
             return null;
         }
         return creator.toByteArray();
     }
 
+    @Override
+    public ByteString getCreatorBytes() {
+        final SignatureHeader header = decodeSignatureHeader();
+        return header == null ? null : header.getCreator();
+    }
+
     @Override
     public Map<String, byte[]> getTransient() {
-        return transientMap.entrySet().stream()
+        return decodeTransientMap().entrySet().stream()
                 .collect(Collectors.toMap(Map.Entry::getKey, x -> x.getValue().toByteArray()));
     }
 
+    @Override
+    public Map<String, ByteString> getTransientBytes() {
+        return decodeTransientMap();
+    }
+
     @Override
     @SuppressWarnings("PMD.MethodReturnsInternalArray")
     public byte[] getBinding() {
+        if (binding == null && hasProposal) {
+            binding = computeBinding(decodeSignatureHeader());
+        }
         return this.binding;
     }
 
@@ -12,10 +12,9 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
-import org.hyperledger.fabric.metrics.TaskMetricsCollector;
 
-/** */
-public final class InvocationTaskExecutor extends ThreadPoolExecutor implements TaskMetricsCollector {
+/** Fixed size thread pool; the default executor for transaction tasks. */
+public final class InvocationTaskExecutor extends ThreadPoolExecutor implements InvocationTaskExecutorService {
     private static Logger logger = Logger.getLogger(InvocationTaskExecutor.class.getName());
 
     private final AtomicInteger count = new AtomicInteger();
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.shim.impl;
+
+import java.util.Properties;
+
+/**
+ * Interface to be implemented to supply a custom executor for running transaction tasks.
+ *
+ * <p>Set the <code>TP_EXECUTOR</code> property in <code>config.props</code> to the fully qualified name of the
+ * implementing class. An instance of this will be created via the no-argument constructor.
+ *
+ * <p>Note that rejected tasks must result in a <code>RejectedExecutionException</code>; tasks must never be run on the
+ * calling thread, as that is the gRPC thread that delivers the responses to the ledger calls of other tasks.
+ */
+@FunctionalInterface
+public interface InvocationTaskExecutorFactory {
+
+    /**
+     * Create the executor for transaction tasks.
+     *
+     * @param props the configuration of the chaincode
+     * @return InvocationTaskExecutorService
+     */
+    InvocationTaskExecutorService createExecutor(Properties props);
+}
@@ -0,0 +1,17 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.shim.impl;
+
+import java.util.concurrent.ExecutorService;
+import org.hyperledger.fabric.metrics.TaskMetricsCollector;
+
+/**
+ * The executor that each transaction task is run on.
+ *
+ * <p>As well as being a standard ExecutorService, it must report the task and queue counts so that these can be passed
+ * on to the metrics provider.
+ */
+public interface InvocationTaskExecutorService extends ExecutorService, TaskMetricsCollector {}
@@ -5,6 +5,8 @@
  */
 package org.hyperledger.fabric.shim.impl;
 
+import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.COMPLETED;
+import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.ERROR;
 import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.READY;
 import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.REGISTERED;
 
@@ -22,9 +24,11 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.hyperledger.fabric.Logging;
 import org.hyperledger.fabric.metrics.Metrics;
+import org.hyperledger.fabric.metrics.TransactionMetrics;
 import org.hyperledger.fabric.protos.peer.ChaincodeID;
 import org.hyperledger.fabric.protos.peer.ChaincodeMessage;
 import org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type;
@@ -46,24 +50,32 @@ public final class InvocationTaskManager {
 
     // Keeping a map here of the tasks that are currently ongoing, and the key
     //
-    // Key = txid + channleid
+    // Key = channelid, then txid; a response is matched to its task without building a combined key
     // One task = one transaction invocation
-    private final Map<String, ChaincodeInvocationTask> innvocationTasks = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, ChaincodeInvocationTask>> innvocationTasks = new ConcurrentHashMap<>();
 
     // Way to send back the events and data that make up the requests
     private Consumer<ChaincodeMessage> outgoingMessage;
 
+    // Optional protocol features, advertised by the peer in REGISTERED
+    @SuppressWarnings("PMD.AvoidUsingVolatile")
+    private volatile PeerCapabilities peerCapabilities = PeerCapabilities.NONE;
+
+    // Optional stub behaviour, from the chaincode configuration
+    private final StubOptions stubOptions;
+
     // references to the chaincode, and the chaincode id
     private final ChaincodeBase chaincode;
     private final ChaincodeID chaincodeId;
 
+    // Executor selection; 'platform' (default) for the thread pool, 'virtual' for a virtual thread
+    // per task, or the classname of an InvocationTaskExecutorFactory
+    private static final String TP_EXECUTOR = "TP_EXECUTOR";
+    private static final String PLATFORM_EXECUTOR = "platform";
+    private static final String VIRTUAL_EXECUTOR = "virtual";
+
     // Thread Pool creation and settings
-    private final int queueSize;
-    private final int maximumPoolSize;
-    private final int corePoolSize;
-    private final long keepAliveTime;
     private static final TimeUnit UNIT = TimeUnit.MILLISECONDS;
-    private final BlockingQueue<Runnable> workQueue;
 
     // Minor customization of the ThreadFactory to give a more recognizable name to the threads
     private final ThreadFactory threadFactory = new ThreadFactory() {
@@ -86,7 +98,7 @@ public final class InvocationTaskManager {
     // waiting for a response it will block the whole chaincode.
     private final RejectedExecutionHandler handler = new ThreadPoolExecutor.AbortPolicy();
 
-    private final InvocationTaskExecutor taskService;
+    private final InvocationTaskExecutorService taskService;
 
     /**
      * Get an instance of the Invocation Task Manager.
@@ -117,21 +129,53 @@ public final class InvocationTaskManager {
 
         // setup the thread pool here
         final Properties props = chaincode.getChaincodeConfig();
-        queueSize = Integer.parseInt((String) props.getOrDefault("TP_QUEUE_SIZE", "5000"));
-        maximumPoolSize = Integer.parseInt((String) props.getOrDefault("TP_MAX_POOL_SIZE", "5"));
-        corePoolSize = Integer.parseInt((String) props.getOrDefault("TP_CORE_POOL_SIZE", "5"));
-        keepAliveTime = Long.parseLong((String) props.getOrDefault("TP_KEEP_ALIVE_MS", "5000"));
+        taskService = createTaskService(props);
+        stubOptions = StubOptions.fromProperties(props);
+
+        Metrics.getProvider().setTaskMetricsCollector(taskService);
+    }
+
+    /**
+     * Create the executor that the transaction tasks will run on, as selected by the TP_EXECUTOR property.
+     *
+     * @param props chaincode configuration
+     * @return InvocationTaskExecutorService
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private InvocationTaskExecutorService createTaskService(final Properties props) {
+        final int queueSize = Integer.parseInt((String) props.getOrDefault("TP_QUEUE_SIZE", "5000"));
+        final String executor = (String) props.getOrDefault(TP_EXECUTOR, PLATFORM_EXECUTOR);
+        LOGGER.info(() -> "Executor [TP_EXECUTOR]" + executor);
+
+        if (VIRTUAL_EXECUTOR.equals(executor)) {
+            // one virtual thread per task; the queue size limits the tasks in flight
+            LOGGER.info(() -> "Maximum Tasks [TP_QUEUE_SIZE]" + queueSize);
+            return new VirtualThreadTaskExecutor(queueSize);
+        }
+
+        if (!PLATFORM_EXECUTOR.equals(executor)) {
+            try {
+                @SuppressWarnings("unchecked") // it must be this type otherwise an error
+                final Class<InvocationTaskExecutorFactory> clazz =
+                        (Class<InvocationTaskExecutorFactory>) Class.forName(executor);
+                return clazz.getConstructor().newInstance().createExecutor(props);
+            } catch (Exception e) {
+                throw new IllegalStateException("Unable to create task executor " + executor, e);
+            }
+        }
+
+        final int maximumPoolSize = Integer.parseInt((String) props.getOrDefault("TP_MAX_POOL_SIZE", "5"));
+        final int corePoolSize = Integer.parseInt((String) props.getOrDefault("TP_CORE_POOL_SIZE", "5"));
+        final long keepAliveTime = Long.parseLong((String) props.getOrDefault("TP_KEEP_ALIVE_MS", "5000"));
 
         LOGGER.info(() -> "Max Pool Size [TP_MAX_POOL_SIZE]" + maximumPoolSize);
-        LOGGER.info(() -> "Queue Size [TP_CORE_POOL_SIZE]" + queueSize);
-        LOGGER.info(() -> "Core Pool Size [TP_QUEUE_SIZE]" + corePoolSize);
+        LOGGER.info(() -> "Queue Size [TP_QUEUE_SIZE]" + queueSize);
+        LOGGER.info(() -> "Core Pool Size [TP_CORE_POOL_SIZE]" + corePoolSize);
         LOGGER.info(() -> "Keep Alive Time [TP_KEEP_ALIVE_MS]" + keepAliveTime);
 
-        workQueue = new LinkedBlockingQueue<>(queueSize);
-        taskService = new InvocationTaskExecutor(
+        final BlockingQueue<Runnable> workQueue = new LinkedBlockingQueue<>(queueSize);
+        return new InvocationTaskExecutor(
                 corePoolSize, maximumPoolSize, keepAliveTime, UNIT, workQueue, threadFactory, handler);
-
-        Metrics.getProvider().setTaskMetricsCollector(taskService);
     }
 
     /**
@@ -164,6 +208,8 @@ public final class InvocationTaskManager {
         switch (chaincode.getState()) {
             case CREATED:
                 if (msgType == REGISTERED) {
+                    peerCapabilities = PeerCapabilities.fromRegistered(chaincodeMessage);
+                    LOGGER.info(() -> "Peer capabilities " + peerCapabilities);
                     chaincode.setState(ChaincodeBase.CCState.ESTABLISHED);
                     LOGGER.fine(() -> String.format(
                             "[%-8.8s] Received REGISTERED: moving to established state", chaincodeMessage.getTxid()));
@@ -216,21 +262,59 @@ public final class InvocationTaskManager {
      */
     private void sendToTask(final ChaincodeMessage message) {
         try {
-            PERFLOGGER.fine(() -> "> sendToTask TX::" + message.getTxid());
+            if (PERFLOGGER.isLoggable(Level.FINE)) {
+                PERFLOGGER.fine("> sendToTask TX::" + message.getTxid());
+            }
 
-            final String key = message.getChannelId() + message.getTxid();
-            final ChaincodeInvocationTask task = this.innvocationTasks.get(key);
+            final ChaincodeInvocationTask task = findTask(message);
             if (task == null) {
-                sendFailure(message, new InterruptedException("Task map missing entry: " + key));
+                sendFailure(
+                        message,
+                        new InterruptedException(
+                                "Task map missing entry: " + message.getChannelId() + message.getTxid()));
             } else {
                 task.postMessage(message);
-                PERFLOGGER.fine(() -> "< sendToTask TX::" + message.getTxid());
+                if (PERFLOGGER.isLoggable(Level.FINE)) {
+                    PERFLOGGER.fine("< sendToTask TX::" + message.getTxid());
+                }
             }
         } catch (final InterruptedException e) {
             sendFailure(message, e);
         }
     }
 
+    private ChaincodeInvocationTask findTask(final ChaincodeMessage message) {
+        final Map<String, ChaincodeInvocationTask> channelTasks = this.innvocationTasks.get(message.getChannelId());
+        return channelTasks == null ? null : channelTasks.get(message.getTxid());
+    }
+
+    /**
+     * A message from a task could not be written to the peer, so no response will come. The task is given an ERROR
+     * in place of the response, so that the transaction fails rather than waiting for ever.
+     *
+     * @param message ChaincodeMessage that was not sent
+     * @param e the failure
+     */
+    void sendFailed(final ChaincodeMessage message, final RuntimeException e) {
+        final Type msgType = message.getType();
+        if (msgType == COMPLETED || msgType == ERROR) {
+            // the final message of a transaction; the task is not waiting for a response
+            return;
+        }
+        final ChaincodeInvocationTask task = findTask(message);
+        if (task == null) {
+            return;
+        }
+        try {
+            task.postMessage(ChaincodeMessageFactory.newErrorEventMessage(
+                    message.getChannelId(),
+                    message.getTxid(),
+                    String.format("Failed to send %s to peer: %s", msgType, e.getMessage())));
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private void sendFailure(final ChaincodeMessage message, final InterruptedException e) {
         LOGGER.severe(() -> "Failed to send response to the task task " + message.getTxid() + Logging.formatError(e));
 
@@ -247,15 +331,23 @@ public final class InvocationTaskManager {
      * @throws InterruptedException
      */
     private void newTask(final ChaincodeMessage message, final Type type) {
-        String txid = message.getTxid();
-        final ChaincodeInvocationTask task =
-                new ChaincodeInvocationTask(message, type, this.outgoingMessage, this.chaincode);
+        final String txid = message.getTxid();
+        final ChaincodeInvocationTask task = new ChaincodeInvocationTask(
+                message, type, this.outgoingMessage, this.chaincode, peerCapabilities, stubOptions);
 
-        PERFLOGGER.fine(() -> "> newTask:created TX::" + txid);
+        if (PERFLOGGER.isLoggable(Level.FINE)) {
+            PERFLOGGER.fine("> newTask:created TX::" + txid);
+        }
 
-        this.innvocationTasks.put(task.getTxKey(), task);
+        final Map<String, ChaincodeInvocationTask> channelTasks =
+                this.innvocationTasks.computeIfAbsent(message.getChannelId(), c -> new ConcurrentHashMap<>());
+        channelTasks.put(txid, task);
+        // followed by a TaskRejected event if there is no room for it
+        InvocationEvents.taskQueued(message);
         try {
-            PERFLOGGER.fine(() -> "> newTask:submitting TX::" + txid);
+            if (PERFLOGGER.isLoggable(Level.FINE)) {
+                PERFLOGGER.fine("> newTask:submitting TX::" + txid);
+            }
 
             // submit the task to run, with the taskService providing the
             // threading support.
@@ -270,11 +362,15 @@ public final class InvocationTaskManager {
             // it is important to wait for it however, as we need to remove it from the task
             // list
             response.thenRun(() -> {
-                innvocationTasks.remove(task.getTxKey());
-                PERFLOGGER.fine(() -> "< newTask:completed TX::" + txid);
+                channelTasks.remove(txid);
+                if (PERFLOGGER.isLoggable(Level.FINE)) {
+                    PERFLOGGER.fine("< newTask:completed TX::" + txid);
+                }
             });
 
-            PERFLOGGER.fine(() -> "< newTask:submitted TX::" + txid);
+            if (PERFLOGGER.isLoggable(Level.FINE)) {
+                PERFLOGGER.fine("< newTask:submitted TX::" + txid);
+            }
 
         } catch (final RejectedExecutionException e) {
             LOGGER.warning(() -> "Failed to submit task " + txid + Logging.formatError(e));
@@ -282,6 +378,13 @@ public final class InvocationTaskManager {
             // thread for processing, and there's no space left in the queue to hold
             // it pending
 
+            channelTasks.remove(txid);
+            InvocationEvents.taskRejected(message);
+            final TransactionMetrics metrics = Metrics.getTransactionMetrics();
+            if (metrics.isEnabled()) {
+                metrics.channel(message.getChannelId()).recordRejection();
+            }
+
             final ChaincodeMessage m = ChaincodeMessageFactory.newErrorEventMessage(
                     message.getChannelId(), txid, "Failed to submit task for processing");
             this.outgoingMessage.accept(m);
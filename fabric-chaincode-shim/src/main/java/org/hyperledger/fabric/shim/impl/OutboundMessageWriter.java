@@ -0,0 +1,185 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.shim.impl;
+
+import io.grpc.stub.CallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import org.hyperledger.fabric.Logging;
+import org.hyperledger.fabric.metrics.StreamMetricsCollector;
+import org.hyperledger.fabric.protos.peer.ChaincodeMessage;
+
+/**
+ * Writes the messages going to the peer onto the gRPC stream.
+ *
+ * <p>gRPC streams need to be accessed by one thread at a time. Rather than have every task thread take a lock around
+ * the stream, messages are put on a lock-free queue. Whichever thread finds the queue idle becomes the single writer
+ * and drains it, including anything other threads add meanwhile. Writing a burst back-to-back from one thread lets the
+ * transport coalesce the flushes.
+ *
+ * <p>If the stream supports flow control the writer stops when the stream is not ready, and carries on from the
+ * stream's on-ready callback.
+ */
+@SuppressWarnings("PMD.MoreThanOneLogger")
+final class OutboundMessageWriter implements Consumer<ChaincodeMessage>, StreamMetricsCollector {
+    private static final Logger LOGGER = Logger.getLogger(OutboundMessageWriter.class.getName());
+    private static final Logger PERFLOGGER = Logger.getLogger(Logging.PERFLOGGER);
+
+    private final StreamObserver<ChaincodeMessage> observer;
+    private final CallStreamObserver<ChaincodeMessage> flowControl;
+
+    private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+    // count of drain requests; the thread that moves this from zero is the writer
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private final AtomicInteger queueCount = new AtomicInteger();
+    private final AtomicLong messageCount = new AtomicLong();
+    private final AtomicLong drainTimeNanos = new AtomicLong();
+
+    // told of each message that could not be written, as the sender would otherwise wait for a response
+    @SuppressWarnings("PMD.AvoidUsingVolatile")
+    private volatile BiConsumer<ChaincodeMessage, RuntimeException> sendFailureHandler = (message, e) -> {};
+
+    private static final class Pending {
+        private final ChaincodeMessage message;
+        private final long queuedNanos;
+
+        Pending(final ChaincodeMessage message, final long queuedNanos) {
+            this.message = message;
+            this.queuedNanos = queuedNanos;
+        }
+    }
+
+    /**
+     * @param observer the stream to the peer
+     * @param onReadyRegistered true if the caller has already arranged for {@link #onReady()} to be called by the
+     *     stream
+     */
+    OutboundMessageWriter(final StreamObserver<ChaincodeMessage> observer, final boolean onReadyRegistered) {
+        this.observer = observer;
+        this.flowControl = onReadyRegistered || registerOnReady(observer, this::onReady)
+                ? (CallStreamObserver<ChaincodeMessage>) observer
+                : null;
+        LOGGER.fine(() -> "Outbound flow control " + (flowControl == null ? "disabled" : "enabled"));
+    }
+
+    /**
+     * The on-ready handler can only be set before the call has started; for a server stream that is whilst the
+     * service method is running, for a client stream it must be from ClientResponseObserver.beforeStart.
+     */
+    private static boolean registerOnReady(final StreamObserver<ChaincodeMessage> observer, final Runnable onReady) {
+        if (!(observer instanceof CallStreamObserver)) {
+            return false;
+        }
+        try {
+            ((CallStreamObserver<ChaincodeMessage>) observer).setOnReadyHandler(onReady);
+            return true;
+        } catch (final IllegalStateException e) {
+            LOGGER.fine(() -> "Unable to set on-ready handler: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Queue a message to be sent to the peer.
+     *
+     * @param message ChaincodeMessage
+     */
+    @Override
+    public void accept(final ChaincodeMessage message) {
+        queueCount.incrementAndGet();
+        queue.offer(new Pending(message, System.nanoTime()));
+        drain();
+    }
+
+    /**
+     * Set what to do with a message that could not be written to the stream. The message may have been queued by
+     * another thread, so the failure cannot be thrown to the sender.
+     *
+     * @param sendFailureHandler given the message and the failure
+     */
+    void setSendFailureHandler(final BiConsumer<ChaincodeMessage, RuntimeException> sendFailureHandler) {
+        this.sendFailureHandler = sendFailureHandler;
+    }
+
+    /** The stream has become ready to accept more messages. */
+    void onReady() {
+        drain();
+    }
+
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    boolean isFor(final StreamObserver<ChaincodeMessage> stream) {
+        return observer == stream;
+    }
+
+    boolean isFlowControlled() {
+        return flowControl != null;
+    }
+
+    private boolean isReady() {
+        return flowControl == null || flowControl.isReady();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            // another thread is writing, and will pick up this message
+            return;
+        }
+
+        int missed = 1;
+        do {
+            while (isReady()) {
+                final Pending next = queue.poll();
+                if (next == null) {
+                    break;
+                }
+                write(next);
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private void write(final Pending pending) {
+        queueCount.decrementAndGet();
+        final ChaincodeMessage message = pending.message;
+        drainTimeNanos.addAndGet(System.nanoTime() - pending.queuedNanos);
+        messageCount.incrementAndGet();
+
+        PERFLOGGER.fine(() -> "> sendToPeer TX::" + message.getTxid());
+        try {
+            observer.onNext(message);
+        } catch (final RuntimeException e) {
+            // must not stop the writer; the stream's onError will shut things down if it has failed
+            LOGGER.severe(() -> String.format(
+                            "[%-8.8s] Failed to send %s to peer", message.getTxid(), message.getType())
+                    + Logging.formatError(e));
+            sendFailureHandler.accept(message, e);
+        }
+        PERFLOGGER.fine(() -> "< sendToPeer TX::" + message.getTxid());
+    }
+
+    @Override
+    public int getOutboundQueueCount() {
+        return queueCount.get();
+    }
+
+    @Override
+    public long getOutboundMessageCount() {
+        return messageCount.get();
+    }
+
+    @Override
+    public long getOutboundDrainTimeNanos() {
+        return drainTimeNanos.get();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.shim.impl;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.util.logging.Logger;
+import org.hyperledger.fabric.Logging;
+import org.hyperledger.fabric.protos.peer.ChaincodeAdditionalParams;
+import org.hyperledger.fabric.protos.peer.ChaincodeMessage;
+
+/**
+ * Optional protocol features that the peer has said it supports.
+ *
+ * <p>These are sent as the payload of the REGISTERED message; older peers send an empty payload, in which case none of
+ * the features are used.
+ */
+final class PeerCapabilities {
+    private static final Logger LOGGER = Logger.getLogger(PeerCapabilities.class.getName());
+
+    /** Capabilities of a peer that supports none of the optional features. */
+    static final PeerCapabilities NONE = new PeerCapabilities(false, 0, false, 0);
+
+    private final boolean getMultipleKeys;
+    private final int maxGetMultipleKeys;
+    private final boolean writeBatch;
+    private final int maxWriteBatch;
+
+    PeerCapabilities(
+            final boolean getMultipleKeys,
+            final int maxGetMultipleKeys,
+            final boolean writeBatch,
+            final int maxWriteBatch) {
+        this.getMultipleKeys = getMultipleKeys;
+        this.maxGetMultipleKeys = maxGetMultipleKeys;
+        this.writeBatch = writeBatch;
+        this.maxWriteBatch = maxWriteBatch;
+    }
+
+    /**
+     * Read the capabilities from the REGISTERED message.
+     *
+     * @param registered REGISTERED message from the peer
+     * @return PeerCapabilities
+     */
+    static PeerCapabilities fromRegistered(final ChaincodeMessage registered) {
+        if (registered.getPayload().isEmpty()) {
+            return NONE;
+        }
+
+        try {
+            final ChaincodeAdditionalParams params = ChaincodeAdditionalParams.parseFrom(registered.getPayload());
+            return new PeerCapabilities(
+                    params.getUseGetMultipleKeys(),
+                    params.getMaxSizeGetMultipleKeys(),
+                    params.getUseWriteBatch(),
+                    params.getMaxSizeWriteBatch());
+        } catch (final InvalidProtocolBufferException e) {
+            LOGGER.warning(() -> "Unable to read peer capabilities, optional features will not be used"
+                    + Logging.formatError(e));
+            return NONE;
+        }
+    }
+
+    /**
+     * Can multiple keys be read with a single GET_STATE_MULTIPLE request.
+     *
+     * @return true if supported
+     */
+    boolean isGetMultipleKeys() {
+        return getMultipleKeys;
+    }
+
+    /**
+     * Maximum number of keys in one GET_STATE_MULTIPLE request.
+     *
+     * @return number of keys, or zero if there is no limit
+     */
+    int getMaxGetMultipleKeys() {
+        return maxGetMultipleKeys;
+    }
+
+    /**
+     * Can writes be sent with a single WRITE_BATCH_STATE request.
+     *
+     * @return true if supported
+     */
+    boolean isWriteBatch() {
+        return writeBatch;
+    }
+
+    /**
+     * Maximum number of writes in one WRITE_BATCH_STATE request.
+     *
+     * @return number of writes, or zero if there is no limit
+     */
+    int getMaxWriteBatch() {
+        return maxWriteBatch;
+    }
+
+    @Override
+    public String toString() {
+        return "PeerCapabilities[getMultipleKeys=" + getMultipleKeys + ", maxGetMultipleKeys=" + maxGetMultipleKeys
+                + ", writeBatch=" + writeBatch + ", maxWriteBatch=" + maxWriteBatch + ']';
+    }
+}
@@ -14,8 +14,11 @@ import com.google.protobuf.InvalidProtocolBufferException;
 import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import org.hyperledger.fabric.protos.peer.ChaincodeMessage;
 import org.hyperledger.fabric.protos.peer.QueryResponse;
 import org.hyperledger.fabric.protos.peer.QueryResultBytes;
@@ -31,6 +34,9 @@ import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
  *
  * <p>public interface QueryResultsIterator<T> extends Iterable<T>, AutoCloseable
  *
+ * <p>If a query prefetch threshold is configured, the next page of results is requested once that many or fewer
+ * results remain unread in the current page, so that it can arrive whilst they are being processed.
+ *
  * @param <T>
  */
 class QueryResultsIteratorImpl<T> implements QueryResultsIterator<T> {
@@ -38,9 +44,13 @@ class QueryResultsIteratorImpl<T> implements QueryResultsIterator<T> {
     private final ChaincodeInvocationTask handler;
     private final String channelId;
     private final String txId;
-    private Iterator<QueryResultBytes> currentIterator;
+    private List<QueryResultBytes> currentPage;
+    private int position;
     private QueryResponse currentQueryResponse;
     private final Function<QueryResultBytes, T> mapper;
+    private final int prefetchThreshold;
+    // next page, requested but not yet used
+    private Supplier<ByteString> nextPage;
 
     QueryResultsIteratorImpl(
             final ChaincodeInvocationTask handler,
@@ -54,8 +64,11 @@ class QueryResultsIteratorImpl<T> implements QueryResultsIterator<T> {
             this.channelId = channelId;
             this.txId = txId;
             this.currentQueryResponse = QueryResponse.parseFrom(responseBuffer);
-            this.currentIterator = currentQueryResponse.getResultsList().iterator();
+            this.currentPage = currentQueryResponse.getResultsList();
             this.mapper = mapper;
+            final StubOptions options = handler == null ? null : handler.getStubOptions();
+            this.prefetchThreshold =
+                    Objects.requireNonNullElse(options, StubOptions.DEFAULT).getQueryPrefetchThreshold();
         } catch (final InvalidProtocolBufferException e) {
             throw new UncheckedIOException(e);
         }
@@ -67,15 +80,16 @@ class QueryResultsIteratorImpl<T> implements QueryResultsIterator<T> {
 
             @Override
             public boolean hasNext() {
-                return currentIterator.hasNext() || currentQueryResponse.getHasMore();
+                return position < currentPage.size() || currentQueryResponse.getHasMore();
             }
 
             @Override
+            @SuppressWarnings("PMD.NullAssignment")
             public T next() {
 
                 // return next fetched result, if any
-                if (currentIterator.hasNext()) {
-                    return mapper.apply(currentIterator.next());
+                if (position < currentPage.size()) {
+                    return nextResult();
                 }
 
                 // throw exception if there are no more expected results
@@ -83,30 +97,49 @@ class QueryResultsIteratorImpl<T> implements QueryResultsIterator<T> {
                     throw new NoSuchElementException();
                 }
 
-                // get more results from peer
-
-                final ByteString requestPayload = QueryStateNext.newBuilder()
-                        .setId(currentQueryResponse.getId())
-                        .build()
-                        .toByteString();
-                final ChaincodeMessage requestNextMessage =
-                        ChaincodeMessageFactory.newEventMessage(QUERY_STATE_NEXT, channelId, txId, requestPayload);
-
-                final ByteString responseMessage = QueryResultsIteratorImpl.this.handler.invoke(requestNextMessage);
+                // get more results from peer, unless already requested
+                final ByteString responseMessage =
+                        nextPage != null ? nextPage.get() : handler.invoke(newQueryStateNextMessage());
+                nextPage = null;
                 try {
                     currentQueryResponse = QueryResponse.parseFrom(responseMessage);
                 } catch (final InvalidProtocolBufferException e) {
                     throw new UncheckedIOException(e);
                 }
-                currentIterator = currentQueryResponse.getResultsList().iterator();
+                currentPage = currentQueryResponse.getResultsList();
+                position = 0;
 
                 // return next fetched result
-                return mapper.apply(currentIterator.next());
+                if (currentPage.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                return nextResult();
             }
         };
     }
 
+    private T nextResult() {
+        final QueryResultBytes result = currentPage.get(position);
+        position++;
+        if (prefetchThreshold > 0
+                && nextPage == null
+                && currentQueryResponse.getHasMore()
+                && currentPage.size() - position <= prefetchThreshold) {
+            nextPage = handler.invokeLater(newQueryStateNextMessage());
+        }
+        return mapper.apply(result);
+    }
+
+    private ChaincodeMessage newQueryStateNextMessage() {
+        final ByteString requestPayload = QueryStateNext.newBuilder()
+                .setId(currentQueryResponse.getId())
+                .build()
+                .toByteString();
+        return ChaincodeMessageFactory.newEventMessage(QUERY_STATE_NEXT, channelId, txId, requestPayload);
+    }
+
     @Override
+    @SuppressWarnings("PMD.NullAssignment")
     public void close() {
 
         final ByteString requestPayload = QueryStateClose.newBuilder()
@@ -114,11 +147,15 @@ class QueryResultsIteratorImpl<T> implements QueryResultsIterator<T> {
                 .build()
                 .toByteString();
 
+        // any page still to arrive is no longer needed; the handler receives it before sending the close
+        nextPage = null;
+
         final ChaincodeMessage requestNextMessage =
                 ChaincodeMessageFactory.newEventMessage(QUERY_STATE_CLOSE, channelId, txId, requestPayload);
         this.handler.invoke(requestNextMessage);
 
-        this.currentIterator = Collections.emptyIterator();
+        this.currentPage = Collections.emptyList();
+        this.position = 0;
         this.currentQueryResponse = QueryResponse.newBuilder().setHasMore(false).build();
     }
 }
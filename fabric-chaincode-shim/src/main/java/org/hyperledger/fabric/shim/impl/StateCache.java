@@ -0,0 +1,146 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.shim.impl;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.hyperledger.fabric.protos.peer.WriteRecord;
+
+/**
+ * The values of the keys read and written by one transaction, for world state and each private data collection.
+ *
+ * <p>The first read of a key always goes to the peer, so that the key is in the transaction's read set exactly as
+ * without the cache. Later reads of the key are answered here. A key written by the transaction reads back as the
+ * value written, or as empty once deleted.
+ */
+final class StateCache {
+
+    private final StateCacheStats stats;
+    // latest value known for each key, either read from the peer or written by the transaction
+    private final Map<CacheKey, ByteString> values = new HashMap<>();
+    // keys that have been read from the peer
+    private final Set<CacheKey> read = new HashSet<>();
+
+    private static final class CacheKey {
+        private final String collection;
+        private final String key;
+
+        CacheKey(final String collection, final String key) {
+            this.collection = collection;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof CacheKey)) {
+                return false;
+            }
+            final CacheKey that = (CacheKey) other;
+            return key.equals(that.key) && collection.equals(that.collection);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(collection, key);
+        }
+    }
+
+    StateCache(final StateCacheStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Value of a key, read from the peer if this is the first read of the key.
+     *
+     * @param collection collection name, empty for world state
+     * @param key key
+     * @param reader reads the value from the peer
+     * @return value
+     */
+    ByteString get(final String collection, final String key, final Supplier<ByteString> reader) {
+        final CacheKey cacheKey = new CacheKey(collection, key);
+        if (read.contains(cacheKey)) {
+            stats.hit();
+            return values.get(cacheKey);
+        }
+
+        stats.miss();
+        return loaded(cacheKey, reader.get());
+    }
+
+    /**
+     * Values of several keys, with a single call to read those not already read from the peer.
+     *
+     * @param collection collection name, empty for world state
+     * @param keys keys
+     * @param reader reads the values of the given keys from the peer, in order
+     * @return values in the same order as the keys
+     */
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    List<ByteString> getAll(
+            final String collection, final List<String> keys, final Function<List<String>, List<ByteString>> reader) {
+        final Set<String> missing = new LinkedHashSet<>();
+        for (final String key : keys) {
+            if (!read.contains(new CacheKey(collection, key))) {
+                missing.add(key);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            final List<String> toRead = new ArrayList<>(missing);
+            final List<ByteString> peerValues = reader.apply(toRead);
+            for (int i = 0; i < toRead.size(); i++) {
+                loaded(new CacheKey(collection, toRead.get(i)), peerValues.get(i));
+            }
+        }
+
+        final List<ByteString> result = new ArrayList<>(keys.size());
+        for (final String key : keys) {
+            if (missing.remove(key)) {
+                stats.miss();
+            } else {
+                stats.hit();
+            }
+            result.add(values.get(new CacheKey(collection, key)));
+        }
+        return result;
+    }
+
+    private ByteString loaded(final CacheKey cacheKey, final ByteString peerValue) {
+        read.add(cacheKey);
+        // a value already written by this transaction takes precedence over the ledger
+        return values.computeIfAbsent(cacheKey, k -> peerValue);
+    }
+
+    /**
+     * Record a write made by the transaction.
+     *
+     * @param record the write
+     */
+    void written(final WriteRecord record) {
+        switch (record.getType()) {
+            case PUT_STATE:
+                values.put(new CacheKey(record.getCollection(), record.getKey()), record.getValue());
+                break;
+            case DEL_STATE:
+            case PURGE_PRIVATE_DATA:
+                values.put(new CacheKey(record.getCollection(), record.getKey()), ByteString.EMPTY);
+                break;
+            default:
+                // metadata does not change the value
+                break;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.shim.impl;
+
+import java.util.concurrent.atomic.LongAdder;
+import org.hyperledger.fabric.metrics.StateCacheMetricsCollector;
+
+/** Hit and miss counts, shared by the state caches of all transactions. */
+final class StateCacheStats implements StateCacheMetricsCollector {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    void hit() {
+        hits.increment();
+    }
+
+    void miss() {
+        misses.increment();
+    }
+
+    @Override
+    public long getStateCacheHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getStateCacheMissCount() {
+        return misses.sum();
+    }
+}
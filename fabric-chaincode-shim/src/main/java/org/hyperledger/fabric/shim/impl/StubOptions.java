@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.shim.impl;
+
+import java.util.Properties;
+import java.util.logging.Logger;
+import org.hyperledger.fabric.metrics.Metrics;
+
+/** Optional behaviour of the ChaincodeStub, as configured in <code>config.props</code>. */
+final class StubOptions {
+    private static final Logger LOGGER = Logger.getLogger(StubOptions.class.getName());
+
+    // Hold back ledger writes until the end of each transaction
+    private static final String CHAINCODE_WRITE_BATCH_ENABLED = "CHAINCODE_WRITE_BATCH_ENABLED";
+    // Answer repeated reads within a transaction from a cache
+    private static final String CHAINCODE_STATE_CACHE_ENABLED = "CHAINCODE_STATE_CACHE_ENABLED";
+    // Request the next page of query results when this many or fewer remain in the current page
+    private static final String CHAINCODE_QUERY_PREFETCH_THRESHOLD = "CHAINCODE_QUERY_PREFETCH_THRESHOLD";
+
+    /** Options with everything turned off. */
+    static final StubOptions DEFAULT = new StubOptions(false, null);
+
+    private final boolean bufferWrites;
+    private final StateCacheStats cacheStats;
+    private final int queryPrefetchThreshold;
+
+    /**
+     * @param bufferWrites hold back writes to the ledger until the transaction function has completed
+     * @param cacheStats counts for the state cache, or null if there is no cache
+     */
+    StubOptions(final boolean bufferWrites, final StateCacheStats cacheStats) {
+        this(bufferWrites, cacheStats, 0);
+    }
+
+    /**
+     * @param bufferWrites hold back writes to the ledger until the transaction function has completed
+     * @param cacheStats counts for the state cache, or null if there is no cache
+     * @param queryPrefetchThreshold remaining query results at which the next page is requested, or zero for none
+     */
+    StubOptions(final boolean bufferWrites, final StateCacheStats cacheStats, final int queryPrefetchThreshold) {
+        if (queryPrefetchThreshold < 0) {
+            throw new IllegalArgumentException("queryPrefetchThreshold must not be negative");
+        }
+        this.bufferWrites = bufferWrites;
+        this.cacheStats = cacheStats;
+        this.queryPrefetchThreshold = queryPrefetchThreshold;
+    }
+
+    /**
+     * Read the options from the chaincode configuration.
+     *
+     * @param props chaincode configuration
+     * @return StubOptions
+     */
+    static StubOptions fromProperties(final Properties props) {
+        final boolean bufferWrites = Boolean.parseBoolean((String) props.get(CHAINCODE_WRITE_BATCH_ENABLED));
+        final boolean stateCache = Boolean.parseBoolean((String) props.get(CHAINCODE_STATE_CACHE_ENABLED));
+        LOGGER.info(() -> "Write batching [CHAINCODE_WRITE_BATCH_ENABLED]" + bufferWrites);
+        final int prefetchThreshold =
+                Integer.parseInt((String) props.getOrDefault(CHAINCODE_QUERY_PREFETCH_THRESHOLD, "0"));
+        LOGGER.info(() -> "State cache [CHAINCODE_STATE_CACHE_ENABLED]" + stateCache);
+        LOGGER.info(() -> "Query prefetch threshold [CHAINCODE_QUERY_PREFETCH_THRESHOLD]" + prefetchThreshold);
+
+        if (!stateCache) {
+            return new StubOptions(bufferWrites, null, prefetchThreshold);
+        }
+        final StateCacheStats stats = new StateCacheStats();
+        Metrics.getProvider().setStateCacheMetricsCollector(stats);
+        return new StubOptions(bufferWrites, stats, prefetchThreshold);
+    }
+
+    boolean isBufferWrites() {
+        return bufferWrites;
+    }
+
+    boolean isStateCache() {
+        return cacheStats != null;
+    }
+
+    StateCacheStats getCacheStats() {
+        return cacheStats;
+    }
+
+    boolean isQueryPrefetch() {
+        return queryPrefetchThreshold > 0;
+    }
+
+    int getQueryPrefetchThreshold() {
+        return queryPrefetchThreshold;
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.shim.impl;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Executor that starts a new virtual thread for every transaction task.
+ *
+ * <p>Tasks spend most of their time blocked waiting for the peer to answer ledger calls; with a virtual thread per task
+ * that wait no longer ties up a platform thread, so there is no pool to size. The number of tasks in flight (waiting
+ * to be scheduled, or running) is still capped, and tasks over the limit are rejected in the same way as when the
+ * thread pool queue is full.
+ *
+ * <p>Virtual threads need Java 21 or later; this is resolved reflectively so the shim still runs on earlier versions
+ * when this executor is not selected.
+ */
+public final class VirtualThreadTaskExecutor extends AbstractExecutorService implements InvocationTaskExecutorService {
+    private static final Logger LOGGER = Logger.getLogger(VirtualThreadTaskExecutor.class.getName());
+
+    private final ThreadFactory factory;
+    private final int maximumTasks;
+
+    // tasks accepted, and not yet finished
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // threads started, and not yet running the task
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger largest = new AtomicInteger();
+
+    private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean shutdown = new AtomicBoolean();
+    private final CountDownLatch terminated = new CountDownLatch(1);
+
+    /**
+     * @param maximumTasks maximum number of tasks that can be in flight at once
+     * @throws IllegalStateException if virtual threads are not supported by this JVM
+     */
+    public VirtualThreadTaskExecutor(final int maximumTasks) {
+        this(maximumTasks, newVirtualThreadFactory("fabric-txinvoke:"));
+    }
+
+    VirtualThreadTaskExecutor(final int maximumTasks, final ThreadFactory factory) {
+        super();
+        if (maximumTasks <= 0) {
+            throw new IllegalArgumentException("maximumTasks must be greater than zero");
+        }
+        this.maximumTasks = maximumTasks;
+        this.factory = factory;
+        LOGGER.info(() -> "Virtual thread executor created, maximum tasks " + maximumTasks);
+    }
+
+    /**
+     * Thread.ofVirtual().name(prefix, 1).factory() - without needing to compile against Java 21.
+     *
+     * @param prefix thread name prefix
+     * @return ThreadFactory creating virtual threads
+     */
+    static ThreadFactory newVirtualThreadFactory(final String prefix) {
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (final ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads are not available, Java 21 or later is required", e);
+        }
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        Objects.requireNonNull(command, "command cannot be null");
+
+        if (inFlight.incrementAndGet() > maximumTasks) {
+            inFlight.decrementAndGet();
+            throw new RejectedExecutionException("Maximum number of tasks in flight reached: " + maximumTasks);
+        }
+        // checked after reserving the slot, so that shutdown() either sees this task or the task sees the shutdown
+        if (shutdown.get()) {
+            taskFinished();
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+
+        queued.incrementAndGet();
+        final Thread thread = factory.newThread(() -> runTask(command));
+        if (thread == null) {
+            queued.decrementAndGet();
+            taskFinished();
+            throw new RejectedExecutionException("Unable to create thread for task");
+        }
+        threads.add(thread);
+        thread.start();
+    }
+
+    private void runTask(final Runnable command) {
+        queued.decrementAndGet();
+        largest.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+            command.run();
+        } finally {
+            running.decrementAndGet();
+            threads.remove(Thread.currentThread());
+            taskFinished();
+        }
+    }
+
+    private void taskFinished() {
+        if (inFlight.decrementAndGet() == 0 && shutdown.get()) {
+            terminated.countDown();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown.set(true);
+        if (inFlight.get() == 0) {
+            terminated.countDown();
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        threads.forEach(Thread::interrupt);
+        // every accepted task already has its own thread, so there is never anything waiting to be returned
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown.get();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    @Override
+    public int getCurrentTaskCount() {
+        return running.get();
+    }
+
+    @Override
+    public int getCurrentQueueCount() {
+        return queued.get();
+    }
+
+    @Override
+    public int getActiveCount() {
+        return running.get();
+    }
+
+    @Override
+    public int getPoolSize() {
+        return threads.size();
+    }
+
+    @Override
+    public int getCorePoolSize() {
+        return 0;
+    }
+
+    @Override
+    public int getLargestPoolSize() {
+        return largest.get();
+    }
+
+    @Override
+    public int getMaximumPoolSize() {
+        return maximumTasks;
+    }
+}
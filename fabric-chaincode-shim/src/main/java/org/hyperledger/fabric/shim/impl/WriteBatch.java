@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.shim.impl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.hyperledger.fabric.protos.peer.WriteRecord;
+
+/**
+ * The writes made by one transaction, held back so that they can be sent to the peer together when the transaction
+ * function completes.
+ *
+ * <p>The peer only needs the final write set, so a later write to a key replaces an earlier one; in particular a put
+ * followed by a delete leaves just the delete. Metadata writes and purges are kept separately from the value written
+ * to a key. Records are kept in the order of their most recent write.
+ */
+final class WriteBatch {
+
+    private final Map<WriteSlot, WriteRecord> writes = new LinkedHashMap<>();
+
+    /** Identifies what a write record replaces. */
+    private static final class WriteSlot {
+        private final String collection;
+        private final String key;
+        private final WriteRecord.Type type;
+        private final String metakey;
+
+        WriteSlot(final WriteRecord record) {
+            this.collection = record.getCollection();
+            this.key = record.getKey();
+            // puts and deletes both set the value of the key
+            this.type = record.getType() == WriteRecord.Type.DEL_STATE ? WriteRecord.Type.PUT_STATE : record.getType();
+            this.metakey = record.hasMetadata() ? record.getMetadata().getMetakey() : "";
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof WriteSlot)) {
+                return false;
+            }
+            final WriteSlot that = (WriteSlot) other;
+            return type == that.type
+                    && key.equals(that.key)
+                    && collection.equals(that.collection)
+                    && metakey.equals(that.metakey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(collection, key, type, metakey);
+        }
+    }
+
+    /**
+     * Add a write, replacing any earlier write to the same key.
+     *
+     * @param record the write
+     */
+    void add(final WriteRecord record) {
+        final WriteSlot slot = new WriteSlot(record);
+        // remove first so that the record moves to the end
+        writes.remove(slot);
+        writes.put(slot, record);
+    }
+
+    boolean isEmpty() {
+        return writes.isEmpty();
+    }
+
+    int size() {
+        return writes.size();
+    }
+
+    /**
+     * Take all the writes, leaving the batch empty.
+     *
+     * @return writes in order
+     */
+    List<WriteRecord> drain() {
+        final List<WriteRecord> records = new ArrayList<>(writes.values());
+        writes.clear();
+        return records;
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.shim.ledger;
+
+/**
+ * Converts typed values to and from {@link CompositeKey} attributes.
+ *
+ * <p>See {@link SortableAttributes} for codecs whose attributes sort in the same order as their values.
+ *
+ * @param <T> type of the values
+ */
+public interface AttributeCodec<T> {
+
+    /**
+     * @param value value to encode
+     * @return attribute for a composite key
+     */
+    String encode(T value);
+
+    /**
+     * @param attribute attribute of a composite key, as returned by {@link #encode(Object)}
+     * @return value decoded
+     * @throws IllegalArgumentException if the attribute was not encoded by this codec
+     */
+    T decode(String attribute);
+}
@@ -6,21 +6,20 @@
 
 package org.hyperledger.fabric.shim.ledger;
 
-import static java.util.stream.Collectors.joining;
-
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class CompositeKey {
 
-    private static final String DELIMITER = new String(Character.toChars(Character.MIN_CODE_POINT));
+    private static final char DELIMITER_CHAR = (char) Character.MIN_CODE_POINT;
+    private static final String DELIMITER = String.valueOf(DELIMITER_CHAR);
 
     private static final String INVALID_SEGMENT_CHAR = new String(Character.toChars(Character.MAX_CODE_POINT));
-    private static final String INVALID_SEGMENT_PATTERN = String.format("(?:%s|%s)", INVALID_SEGMENT_CHAR, DELIMITER);
+    private static final char INVALID_HIGH_SURROGATE = INVALID_SEGMENT_CHAR.charAt(0);
+    private static final char INVALID_LOW_SURROGATE = INVALID_SEGMENT_CHAR.charAt(1);
 
     /** */
     public static final String NAMESPACE = DELIMITER;
@@ -48,6 +47,22 @@ public class CompositeKey {
         this.key = generateCompositeKeyString(objectType, attributes);
     }
 
+    private CompositeKey(final String objectType, final List<String> attributes, final String key) {
+        this.objectType = objectType;
+        this.attributes = attributes;
+        this.key = key;
+    }
+
+    /**
+     * Start building a composite key, adding its attributes one at a time.
+     *
+     * @param objectType
+     * @return Builder for a composite key of the given object type
+     */
+    public static Builder builder(final String objectType) {
+        return new Builder(objectType);
+    }
+
     /** @return object type */
     public String getObjectType() {
         return objectType;
@@ -64,6 +79,50 @@ public class CompositeKey {
         return key;
     }
 
+    /**
+     * Start of the range of keys that have this composite key as a prefix, as used by
+     * {@link org.hyperledger.fabric.shim.ChaincodeStub#getStateByPartialCompositeKey(CompositeKey)}.
+     *
+     * @return start key, inclusive
+     */
+    public String getRangeStartKey() {
+        return key;
+    }
+
+    /**
+     * End of the range of keys that have this composite key as a prefix. No valid attribute contains U+10FFFF, so in
+     * the UTF-8 byte order of the ledger it sorts after all of them.
+     *
+     * @return end key, exclusive
+     */
+    public String getRangeEndKey() {
+        return key + INVALID_SEGMENT_CHAR;
+    }
+
+    /**
+     * Start of the range of keys that have this composite key as a prefix and a next attribute of at least the one
+     * given, such as an attribute encoded by one of the {@link SortableAttributes}.
+     *
+     * @param attribute lowest next attribute
+     * @return start key, inclusive
+     */
+    public String getRangeStartKey(final String attribute) {
+        validateCompositeKeySegment(attribute);
+        return key + attribute;
+    }
+
+    /**
+     * End of the range of keys that have this composite key as a prefix and a next attribute of at most the one given,
+     * whatever attributes follow it.
+     *
+     * @param attribute highest next attribute
+     * @return end key, exclusive
+     */
+    public String getRangeEndKey(final String attribute) {
+        validateCompositeKeySegment(attribute);
+        return key + attribute + DELIMITER + INVALID_SEGMENT_CHAR;
+    }
+
     /**
      * @param compositeKey
      * @return Composite Key
@@ -75,9 +134,21 @@ public class CompositeKey {
         if (!compositeKey.startsWith(NAMESPACE)) {
             throw CompositeKeyFormatException.forInputString(compositeKey, compositeKey, 0);
         }
-        // relying on the fact that NAMESPACE == DELIMETER
-        final String[] segments = compositeKey.split(DELIMITER, 0);
-        return new CompositeKey(segments[1], Arrays.stream(segments).skip(2).toArray(String[]::new));
+        // relying on the fact that NAMESPACE == DELIMETER, and dropping trailing empty segments as String.split did
+        final List<String> segments = new ArrayList<>();
+        int start = NAMESPACE.length();
+        for (int end = compositeKey.indexOf(DELIMITER_CHAR, start);
+                end >= 0;
+                end = compositeKey.indexOf(DELIMITER_CHAR, start)) {
+            segments.add(compositeKey.substring(start, end));
+            start = end + 1;
+        }
+        segments.add(compositeKey.substring(start));
+        int size = segments.size();
+        while (size > 1 && segments.get(size - 1).isEmpty()) {
+            size--;
+        }
+        return new CompositeKey(segments.get(0), segments.subList(1, size));
     }
 
     /**
@@ -96,7 +167,7 @@ public class CompositeKey {
         }
     }
 
-    private String generateCompositeKeyString(final String objectType, final List<String> attributes) {
+    private static String generateCompositeKeyString(final String objectType, final List<String> attributes) {
 
         // object type must be a valid composite key segment
         validateCompositeKeySegment(objectType);
@@ -104,17 +175,84 @@ public class CompositeKey {
         if (attributes == null || attributes.isEmpty()) {
             return NAMESPACE + objectType + DELIMITER;
         }
+
         // the attributes must be valid composite key segments
-        attributes.forEach(this::validateCompositeKeySegment);
+        int length = objectType.length() + 2;
+        for (final String attribute : attributes) {
+            validateCompositeKeySegment(attribute);
+            length += attribute.length() + 1;
+        }
 
         // return NAMESPACE + objectType + DELIMITER + (attribute + DELIMITER)*
-        return attributes.stream().collect(joining(DELIMITER, NAMESPACE + objectType + DELIMITER, DELIMITER));
+        final StringBuilder builder = new StringBuilder(length);
+        builder.append(NAMESPACE).append(objectType).append(DELIMITER_CHAR);
+        for (final String attribute : attributes) {
+            builder.append(attribute).append(DELIMITER_CHAR);
+        }
+        return builder.toString();
     }
 
-    private void validateCompositeKeySegment(final String segment) {
-        final Matcher matcher = Pattern.compile(INVALID_SEGMENT_PATTERN).matcher(segment);
-        if (matcher.find()) {
-            throw CompositeKeyFormatException.forInputString(segment, matcher.group(), matcher.start());
+    private static void validateCompositeKeySegment(final String segment) {
+        final int length = segment.length();
+        for (int i = 0; i < length; i++) {
+            final char c = segment.charAt(i);
+            if (c == DELIMITER_CHAR) {
+                throw CompositeKeyFormatException.forInputString(segment, DELIMITER, i);
+            } else if (c == INVALID_HIGH_SURROGATE
+                    && i + 1 < length
+                    && segment.charAt(i + 1) == INVALID_LOW_SURROGATE) {
+                throw CompositeKeyFormatException.forInputString(segment, INVALID_SEGMENT_CHAR, i);
+            }
+        }
+    }
+
+    /**
+     * Builds composite keys one attribute at a time, validating each as it is added. A builder can carry on after
+     * {@link #build()}, so that keys sharing a prefix, such as those for successive partial key queries, reuse the work
+     * already done.
+     */
+    public static final class Builder {
+        private final String objectType;
+        private final List<String> attributes = new ArrayList<>();
+        @SuppressWarnings("PMD.AvoidStringBufferField")
+        private final StringBuilder key;
+
+        private Builder(final String objectType) {
+            Objects.requireNonNull(objectType, "objectType cannot be null");
+            validateCompositeKeySegment(objectType);
+            this.objectType = objectType;
+            this.key = new StringBuilder(objectType.length() + 32)
+                    .append(NAMESPACE)
+                    .append(objectType)
+                    .append(DELIMITER_CHAR);
+        }
+
+        /**
+         * @param attribute
+         * @return this builder
+         */
+        public Builder attribute(final String attribute) {
+            validateCompositeKeySegment(attribute);
+            attributes.add(attribute);
+            key.append(attribute).append(DELIMITER_CHAR);
+            return this;
+        }
+
+        /**
+         * @param attributes
+         * @return this builder
+         */
+        public Builder attributes(final String... attributes) {
+            for (final String attribute : attributes) {
+                attribute(attribute);
+            }
+            return this;
+        }
+
+        /** @return Composite Key of the object type and the attributes added so far */
+        public CompositeKey build() {
+            return new CompositeKey(
+                    objectType, Collections.unmodifiableList(new ArrayList<>(attributes)), key.toString());
         }
     }
 }
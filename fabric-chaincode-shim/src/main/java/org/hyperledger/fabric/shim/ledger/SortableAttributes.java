@@ -0,0 +1,212 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.shim.ledger;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * Codecs for composite key attributes that sort in the same order as their values, so that a range of values can be
+ * read with {@link org.hyperledger.fabric.shim.ChaincodeStub#getStateByCompositeKeyRange(CompositeKey, String,
+ * String)} rather than a rich query.
+ *
+ * <p>Integers, longs and instants are encoded as fixed width hexadecimal, with the sign bit flipped so that negative
+ * values come first. Big decimals are encoded as a sign, an exponent and their significant digits, so are of variable
+ * length; values that are equal but of different scale, such as 1.0 and 1.00, have the same encoding. The descending
+ * codecs sort in the reverse order of the values.
+ *
+ * <pre>
+ * CompositeKey key = stub.createCompositeKey("payment", SortableAttributes.DECIMAL.encode(amount), id);
+ * </pre>
+ */
+@SuppressWarnings({"PMD.GodClass", "PMD.CyclomaticComplexity"})
+public final class SortableAttributes {
+    /** Integers, in ascending order. */
+    public static final AttributeCodec<Integer> INT = new Codec<>(
+            value -> hex(value ^ Integer.MIN_VALUE, 8), attribute -> decodeInt(attribute) ^ Integer.MIN_VALUE);
+
+    /** Integers, in descending order. */
+    public static final AttributeCodec<Integer> INT_DESCENDING = new Codec<>(
+            value -> hex(~value ^ Integer.MIN_VALUE, 8), attribute -> ~(decodeInt(attribute) ^ Integer.MIN_VALUE));
+
+    /** Longs, in ascending order. */
+    public static final AttributeCodec<Long> LONG = new Codec<>(
+            value -> hex(value ^ Long.MIN_VALUE, 16), attribute -> decodeLong(attribute) ^ Long.MIN_VALUE);
+
+    /** Longs, in descending order. */
+    public static final AttributeCodec<Long> LONG_DESCENDING = new Codec<>(
+            value -> hex(~value ^ Long.MIN_VALUE, 16), attribute -> ~(decodeLong(attribute) ^ Long.MIN_VALUE));
+
+    /** Instants, to the nanosecond, in ascending order. */
+    public static final AttributeCodec<Instant> INSTANT =
+            new Codec<>(value -> encodeInstant(value, false), attribute -> decodeInstant(attribute, false));
+
+    /** Instants, to the nanosecond, in descending order. */
+    public static final AttributeCodec<Instant> INSTANT_DESCENDING =
+            new Codec<>(value -> encodeInstant(value, true), attribute -> decodeInstant(attribute, true));
+
+    /** Big decimals, in ascending order. */
+    public static final AttributeCodec<BigDecimal> DECIMAL =
+            new Codec<>(SortableAttributes::encodeDecimal, SortableAttributes::decodeDecimal);
+
+    /** Big decimals, in descending order. */
+    public static final AttributeCodec<BigDecimal> DECIMAL_DESCENDING =
+            new Codec<>(value -> encodeDecimal(value.negate()), attribute -> decodeDecimal(attribute).negate());
+
+    private static final int MAX_NANOS = 999_999_999;
+
+    // decimal signs, and the terminator of negative decimals, which sorts after the complemented digits
+    private static final char NEGATIVE = '0';
+    private static final char ZERO = '1';
+    private static final char POSITIVE = '2';
+    private static final char NEGATIVE_END = '~';
+
+    private SortableAttributes() {}
+
+    private static String hex(final long value, final int digits) {
+        final char[] chars = new char[digits];
+        for (int i = digits - 1; i >= 0; i--) {
+            chars[i] = Character.forDigit((int) (value >>> ((digits - 1 - i) * 4)) & 0xf, 16);
+        }
+        return new String(chars);
+    }
+
+    private static long parseHex(final String attribute, final int start, final int digits) {
+        if (attribute.length() < start + digits) {
+            throw invalid(attribute);
+        }
+        long value = 0;
+        for (int i = start; i < start + digits; i++) {
+            final char c = attribute.charAt(i);
+            final int digit = c >= '0' && c <= '9' ? c - '0' : c - 'a' + 10;
+            if (digit < 0 || digit > 15) {
+                throw invalid(attribute);
+            }
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+
+    private static int decodeInt(final String attribute) {
+        checkLength(attribute, 8);
+        return (int) parseHex(attribute, 0, 8);
+    }
+
+    private static long decodeLong(final String attribute) {
+        checkLength(attribute, 16);
+        return parseHex(attribute, 0, 16);
+    }
+
+    private static String encodeInstant(final Instant value, final boolean descending) {
+        final long seconds = descending ? ~value.getEpochSecond() : value.getEpochSecond();
+        final int nanos = descending ? MAX_NANOS - value.getNano() : value.getNano();
+        return hex(seconds ^ Long.MIN_VALUE, 16) + hex(nanos, 8);
+    }
+
+    private static Instant decodeInstant(final String attribute, final boolean descending) {
+        checkLength(attribute, 24);
+        final long seconds = parseHex(attribute, 0, 16) ^ Long.MIN_VALUE;
+        final long nanos = parseHex(attribute, 16, 8);
+        if (nanos > MAX_NANOS) {
+            throw invalid(attribute);
+        }
+        return descending
+                ? Instant.ofEpochSecond(~seconds, MAX_NANOS - nanos)
+                : Instant.ofEpochSecond(seconds, nanos);
+    }
+
+    // the value is 0.digits * 10^exponent, with no trailing zeros in the digits; for negative values the exponent and
+    // digits are complemented so that larger magnitudes come first
+    private static String encodeDecimal(final BigDecimal value) {
+        final int signum = value.signum();
+        if (signum == 0) {
+            return String.valueOf(ZERO);
+        }
+
+        final BigDecimal stripped = value.stripTrailingZeros();
+        final String digits = stripped.unscaledValue().abs().toString();
+        final int exponent = Math.toIntExact((long) digits.length() - stripped.scale());
+
+        final StringBuilder builder = new StringBuilder(digits.length() + 10);
+        if (signum > 0) {
+            builder.append(POSITIVE).append(hex(exponent ^ Integer.MIN_VALUE, 8)).append(digits);
+        } else {
+            builder.append(NEGATIVE).append(hex(~exponent ^ Integer.MIN_VALUE, 8));
+            for (int i = 0; i < digits.length(); i++) {
+                builder.append((char) ('9' - digits.charAt(i) + '0'));
+            }
+            builder.append(NEGATIVE_END);
+        }
+        return builder.toString();
+    }
+
+    private static BigDecimal decodeDecimal(final String attribute) {
+        if (attribute.length() == 1 && attribute.charAt(0) == ZERO) {
+            return BigDecimal.ZERO;
+        }
+
+        final boolean negative = !attribute.isEmpty() && attribute.charAt(0) == NEGATIVE;
+        final int end = negative ? attribute.length() - 1 : attribute.length();
+        if (negative ? attribute.charAt(end) != NEGATIVE_END : attribute.isEmpty() || attribute.charAt(0) != POSITIVE) {
+            throw invalid(attribute);
+        }
+        final int flipped = (int) parseHex(attribute, 1, 8) ^ Integer.MIN_VALUE;
+        final int exponent = negative ? ~flipped : flipped;
+
+        final String digits = decodeDigits(attribute, 9, end, negative);
+        final BigDecimal magnitude =
+                new BigDecimal(new BigInteger(digits), Math.toIntExact((long) digits.length() - exponent));
+        return negative ? magnitude.negate() : magnitude;
+    }
+
+    private static String decodeDigits(final String attribute, final int start, final int end, final boolean negative) {
+        final char[] digits = new char[Math.max(end - start, 0)];
+        for (int i = 0; i < digits.length; i++) {
+            final char c = attribute.charAt(start + i);
+            if (c < '0' || c > '9') {
+                throw invalid(attribute);
+            }
+            digits[i] = negative ? (char) ('9' - c + '0') : c;
+        }
+        if (digits.length == 0 || digits[0] == '0' || digits[digits.length - 1] == '0') {
+            throw invalid(attribute);
+        }
+        return new String(digits);
+    }
+
+    private static void checkLength(final String attribute, final int length) {
+        if (attribute.length() != length) {
+            throw invalid(attribute);
+        }
+    }
+
+    private static IllegalArgumentException invalid(final String attribute) {
+        return new IllegalArgumentException("Attribute is not a sortable encoding: " + attribute);
+    }
+
+    private static final class Codec<T> implements AttributeCodec<T> {
+        private final Function<T, String> encoder;
+        private final Function<String, T> decoder;
+
+        Codec(final Function<T, String> encoder, final Function<String, T> decoder) {
+            this.encoder = encoder;
+            this.decoder = decoder;
+        }
+
+        @Override
+        public String encode(final T value) {
+            return encoder.apply(value);
+        }
+
+        @Override
+        public T decode(final String attribute) {
+            return decoder.apply(attribute);
+        }
+    }
+}
@@ -45,6 +45,19 @@ public interface TracesProvider {
         return null;
     }
 
+    /**
+     * Records a request made to the peer by a transaction, once its response has arrived. The provider may record it as
+     * a child span or an event of the transaction's span, or not at all.
+     *
+     * @param span the span of the transaction, as returned by {@link #createSpan(ChaincodeStub)}
+     * @param type type of the request, such as GET_STATE
+     * @param nanos time from the request being sent to the response arriving, which is now
+     * @param success false if the peer responded with an error
+     */
+    default void recordLedgerCall(Span span, String type, long nanos, boolean success) {
+        // Do nothing by default
+    }
+
     /**
      * Creates an interceptor of gRPC messages that can be injected in processing incoming messages to extract trace
      * information.
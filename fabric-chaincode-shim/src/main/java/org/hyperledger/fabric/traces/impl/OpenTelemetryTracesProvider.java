@@ -7,27 +7,57 @@ package org.hyperledger.fabric.traces.impl;
 
 import io.grpc.ClientInterceptor;
 import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
 import io.opentelemetry.api.trace.Tracer;
 import io.opentelemetry.context.Context;
 import io.opentelemetry.instrumentation.grpc.v1_6.GrpcTelemetry;
 import io.opentelemetry.sdk.autoconfigure.AutoConfiguredOpenTelemetrySdk;
 import io.opentelemetry.semconv.ServiceAttributes;
+import java.time.Instant;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import org.hyperledger.fabric.shim.ChaincodeStub;
 import org.hyperledger.fabric.traces.TracesProvider;
 
+/**
+ * Traces each transaction as a span, through OpenTelemetry.
+ *
+ * <p>The requests a transaction makes to the peer can also be traced, by setting <code>CHAINCODE_TRACES_LEDGER_CALLS
+ * </code> to <code>spans</code>, for a child span of each, or <code>events</code>, for an event on the transaction's
+ * span; by default they are not traced. <code>CHAINCODE_TRACES_LEDGER_CALLS_RATIO</code>, between 0 and 1, sets the
+ * fraction of the sampled transactions whose requests are traced. The choice is made from the trace ID, so either all
+ * or none of the requests of a transaction are traced.
+ */
 public final class OpenTelemetryTracesProvider implements TracesProvider {
 
     private static final String TX_ID = "transaction_id";
     private static final String CHANNEL_ID = "channel_id";
     private static final String CORE_CHAINCODE_ID_NAME = "CORE_CHAINCODE_ID_NAME";
+    private static final String CHAINCODE_TRACES_LEDGER_CALLS = "CHAINCODE_TRACES_LEDGER_CALLS";
+    private static final String CHAINCODE_TRACES_LEDGER_CALLS_RATIO = "CHAINCODE_TRACES_LEDGER_CALLS_RATIO";
+
+    private static final AttributeKey<String> LEDGER_CALL = AttributeKey.stringKey("ledger_call");
+    private static final AttributeKey<Long> DURATION_NS = AttributeKey.longKey("duration_ns");
+    private static final AttributeKey<Boolean> SUCCESS = AttributeKey.booleanKey("success");
+
+    private enum LedgerCalls {
+        NONE,
+        EVENTS,
+        SPANS
+    }
 
     private Tracer tracer;
     private GrpcTelemetry grpcTracer;
+    private LedgerCalls ledgerCalls = LedgerCalls.NONE;
+    // requests are traced if the random part of the trace ID is below this
+    private long ledgerCallsBound = Long.MAX_VALUE;
 
     @Override
     public void initialize(final Properties props) {
@@ -41,6 +71,16 @@ public final class OpenTelemetryTracesProvider implements TracesProvider {
 
         tracer = openTelemetry.getTracerProvider().get("org.hyperledger.traces");
         grpcTracer = GrpcTelemetry.create(openTelemetry);
+
+        final String ledgerCallsSetting = props.getProperty(CHAINCODE_TRACES_LEDGER_CALLS, "none");
+        try {
+            ledgerCalls = LedgerCalls.valueOf(ledgerCallsSetting.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                    CHAINCODE_TRACES_LEDGER_CALLS + " must be none, events or spans: " + ledgerCallsSetting, e);
+        }
+        final double ratio = Double.parseDouble(props.getProperty(CHAINCODE_TRACES_LEDGER_CALLS_RATIO, "1"));
+        ledgerCallsBound = ratio >= 1 ? Long.MAX_VALUE : (long) (Math.max(ratio, 0) * Long.MAX_VALUE);
     }
 
     private Map<String, String> getOpenTelemetryProperties(final Properties props) {
@@ -65,6 +105,45 @@ public final class OpenTelemetryTracesProvider implements TracesProvider {
                 .startSpan();
     }
 
+    @Override
+    public void recordLedgerCall(final Span span, final String type, final long nanos, final boolean success) {
+        if (ledgerCalls == LedgerCalls.NONE || !span.isRecording() || !isLedgerCallSampled(span)) {
+            return;
+        }
+        final Instant now = Instant.now();
+        final long endEpochNanos = TimeUnit.SECONDS.toNanos(now.getEpochSecond()) + now.getNano();
+        final long startEpochNanos = endEpochNanos - nanos;
+
+        if (ledgerCalls == LedgerCalls.EVENTS) {
+            span.addEvent(
+                    type,
+                    Attributes.of(DURATION_NS, nanos, SUCCESS, success),
+                    startEpochNanos,
+                    TimeUnit.NANOSECONDS);
+            return;
+        }
+
+        final Span ledgerCallSpan = tracer.spanBuilder(type)
+                .setSpanKind(SpanKind.CLIENT)
+                .setParent(Context.current().with(span))
+                .setStartTimestamp(startEpochNanos, TimeUnit.NANOSECONDS)
+                .setAttribute(LEDGER_CALL, type)
+                .startSpan();
+        if (!success) {
+            ledgerCallSpan.setStatus(StatusCode.ERROR);
+        }
+        ledgerCallSpan.end(endEpochNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private boolean isLedgerCallSampled(final Span span) {
+        if (ledgerCallsBound == Long.MAX_VALUE) {
+            return true;
+        }
+        // the low half of the trace ID is random, as used by the trace ID ratio sampler
+        final String traceId = span.getSpanContext().getTraceId();
+        return (Long.parseUnsignedLong(traceId, 16, 32, 16) >>> 1) < ledgerCallsBound;
+    }
+
     @Override
     public ClientInterceptor createInterceptor() {
         return grpcTracer.createClientInterceptor();
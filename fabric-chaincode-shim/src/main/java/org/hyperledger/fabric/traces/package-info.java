@@ -42,5 +42,16 @@
  * OTEL_EXPORTER_OTLP_ENDPOINT=otelcollector:4317
  * OTEL_EXPORTER_OTLP_INSECURE=true
  * </pre>
+ *
+ * <p>The span of each transaction has attributes for the time it waited for a thread and, for contracts, the time
+ * spent deserializing the arguments, in the transaction function, and serializing the result. The requests the
+ * transaction makes to the peer, such as GET_STATE, can be traced as child spans or as events on its span:
+ *
+ * <pre>
+ * CHAINCODE_TRACES_LEDGER_CALLS=spans
+ * CHAINCODE_TRACES_LEDGER_CALLS_RATIO=0.1
+ * </pre>
+ *
+ * The ratio is the fraction of sampled transactions whose requests are traced; it defaults to 1.
  */
 package org.hyperledger.fabric.traces;
@@ -74,7 +74,7 @@ public final class ChaincodeStubNaiveImpl implements ChaincodeStub {
 
     @Override
     public String getFunction() {
-        return args.get(0);
+        return args.isEmpty() ? null : args.get(0);
     }
 
     @Override
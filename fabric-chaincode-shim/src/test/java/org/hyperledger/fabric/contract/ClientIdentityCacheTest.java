@@ -0,0 +1,62 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.contract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.fabric.TestUtil;
+import org.junit.jupiter.api.Test;
+
+final class ClientIdentityCacheTest {
+
+    private static ChaincodeStubNaiveImpl stubWithCertificate(final String certificate) {
+        final ChaincodeStubNaiveImpl stub = new ChaincodeStubNaiveImpl();
+        stub.setCertificate(certificate);
+        return stub;
+    }
+
+    @Test
+    void sameCreatorReturnsSameIdentity() throws Exception {
+        final ClientIdentityCache cache = new ClientIdentityCache(10);
+
+        final ClientIdentity first = cache.get(new ChaincodeStubNaiveImpl());
+        final ClientIdentity second = cache.get(new ChaincodeStubNaiveImpl());
+
+        assertThat(second).isSameAs(first);
+        assertThat(cache.getIdentityCacheMissCount()).isEqualTo(1);
+        assertThat(cache.getIdentityCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void leastRecentlyUsedEvicted() throws Exception {
+        final ClientIdentityCache cache = new ClientIdentityCache(2);
+
+        final ClientIdentity attrs = cache.get(stubWithCertificate(TestUtil.CERT_WITH_ATTRS));
+        cache.get(stubWithCertificate(TestUtil.CERT_WITH_DNS));
+        assertThat(cache.get(stubWithCertificate(TestUtil.CERT_WITH_ATTRS))).isSameAs(attrs);
+
+        // evicts CERT_WITH_DNS, which was used least recently
+        cache.get(stubWithCertificate(TestUtil.CERT_MULTIPLE_ATTRIBUTES));
+        assertThat(cache.getIdentityCacheEvictionCount()).isEqualTo(1);
+        assertThat(cache.get(stubWithCertificate(TestUtil.CERT_WITH_ATTRS))).isSameAs(attrs);
+
+        cache.get(stubWithCertificate(TestUtil.CERT_WITH_DNS));
+        assertThat(cache.getIdentityCacheMissCount()).isEqualTo(4);
+        assertThat(cache.getIdentityCacheEvictionCount()).isEqualTo(2);
+    }
+
+    @Test
+    void disabled() throws Exception {
+        final ClientIdentityCache cache = new ClientIdentityCache(0);
+
+        final ClientIdentity first = cache.get(new ChaincodeStubNaiveImpl());
+        final ClientIdentity second = cache.get(new ChaincodeStubNaiveImpl());
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getId()).isEqualTo(first.getId());
+        assertThat(cache.getIdentityCacheHitCount()).isZero();
+    }
+}
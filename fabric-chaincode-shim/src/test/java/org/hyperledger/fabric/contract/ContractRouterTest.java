@@ -13,14 +13,19 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 
+import com.google.protobuf.ByteString;
 import contract.SampleContract;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Properties;
 import org.hyperledger.fabric.contract.annotation.Contract;
 import org.hyperledger.fabric.contract.execution.ExecutionFactory;
 import org.hyperledger.fabric.contract.execution.InvocationRequest;
+import org.hyperledger.fabric.contract.metadata.MetadataBuilder;
+import org.hyperledger.fabric.metrics.ChannelMetrics;
+import org.hyperledger.fabric.metrics.Metrics;
 import org.hyperledger.fabric.shim.Chaincode;
 import org.hyperledger.fabric.shim.ChaincodeServer;
 import org.hyperledger.fabric.shim.ChaincodeServerProperties;
@@ -57,6 +62,34 @@ final class ContractRouterTest {
         assertThat(request.getArgs(), is(contains(s.getArgs().get(1))));
     }
 
+    @Test
+    void testMetricsKeptForRoutedFunctions() {
+        final ContractRouter r = new ContractRouter(new String[] {"-a", "127.0.0.1:7052", "-i", "testId"});
+        r.findAllContracts();
+
+        final Properties props = new Properties();
+        props.setProperty("CHAINCODE_METRICS_ENABLED", "true");
+        props.setProperty(
+                "CHAINCODE_METRICS_PROVIDER", "org.hyperledger.fabric.metrics.impl.OpenTelemetryMetricsProvider");
+        props.setProperty("otel.metrics.exporter", "none");
+        props.setProperty("otel.traces.exporter", "none");
+        props.setProperty("otel.logs.exporter", "none");
+        try {
+            Metrics.initialize(props);
+            final ChannelMetrics channel = Metrics.getTransactionMetrics().channel("mychannel");
+
+            assertThat(
+                    channel.function(ByteString.copyFromUtf8("samplecontract:t1")).getFunction(),
+                    is("samplecontract:t1"));
+            assertThat(channel.function(ByteString.copyFromUtf8("t1")).getFunction(), is("t1"));
+            assertThat(
+                    channel.function(ByteString.copyFromUtf8("samplecontract:nosuch")).getFunction(),
+                    is(ChannelMetrics.UNKNOWN_FUNCTIONS));
+        } finally {
+            Metrics.initialize(new Properties());
+        }
+    }
+
     @Test
     void testInit() {
         final ContractRouter r = new ContractRouter(new String[] {"-a", "127.0.0.1:7052", "-i", "testId"});
@@ -84,6 +117,22 @@ final class ContractRouterTest {
         assertThat(SampleContract.getT1Invoked(), is(1));
     }
 
+    @Test
+    void testInvokeGetMetadata() {
+        final ContractRouter r = new ContractRouter(new String[] {"-a", "127.0.0.1:7052", "-i", "testId"});
+        r.findAllContracts();
+        final ChaincodeStub s = new ChaincodeStubNaiveImpl();
+
+        final List<String> args = new ArrayList<>();
+        args.add("org.hyperledger.fabric:GetMetadata");
+        ((ChaincodeStubNaiveImpl) s).setStringArgs(args);
+
+        final Chaincode.Response response = r.invoke(s);
+        assertThat(response.getStatus(), is(Chaincode.Response.Status.SUCCESS));
+        assertThat(response.getPayloadBytes(), is(MetadataBuilder.getMetadataBytes()));
+        assertThat(response.getStringPayload(), is(equalTo(MetadataBuilder.getMetadata())));
+    }
+
     /** Test invoking two transaction functions in a contract via fully qualified name */
     @Test
     void testInvokeTwoTxnsThatExist() {
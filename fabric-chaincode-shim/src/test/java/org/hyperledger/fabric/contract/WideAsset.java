@@ -0,0 +1,160 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.contract;
+
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+/** Data type with enough properties for the JSON object to be resized. */
+@DataType()
+public final class WideAsset {
+    @Property
+    private String name;
+
+    @Property
+    private String owner;
+
+    @Property
+    private String colour;
+
+    @Property
+    private String description;
+
+    @Property
+    private Integer size;
+
+    @Property
+    private long appraisedValue;
+
+    @Property
+    private String status;
+
+    @Property
+    private String createdBy;
+
+    @Property
+    private String updatedBy;
+
+    @Property
+    private String[] tags = new String[0];
+
+    @Property
+    private MyType detail;
+
+    @Property
+    private String notes;
+
+    @Property
+    private String region;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(final String value) {
+        this.name = value;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(final String value) {
+        this.owner = value;
+    }
+
+    public String getColour() {
+        return colour;
+    }
+
+    public void setColour(final String value) {
+        this.colour = value;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(final String value) {
+        this.description = value;
+    }
+
+    public Integer getSize() {
+        return size;
+    }
+
+    public void setSize(final Integer value) {
+        this.size = value;
+    }
+
+    public long getAppraisedValue() {
+        return appraisedValue;
+    }
+
+    public void setAppraisedValue(final long value) {
+        this.appraisedValue = value;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(final String value) {
+        this.status = value;
+    }
+
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    public void setCreatedBy(final String value) {
+        this.createdBy = value;
+    }
+
+    public String getUpdatedBy() {
+        return updatedBy;
+    }
+
+    public void setUpdatedBy(final String value) {
+        this.updatedBy = value;
+    }
+
+    public String[] getTags() {
+        return tags.clone();
+    }
+
+    public void setTags(final String[] value) {
+        this.tags = value.clone();
+    }
+
+    public MyType getDetail() {
+        return detail;
+    }
+
+    public void setDetail(final MyType value) {
+        this.detail = value;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(final String value) {
+        this.notes = value;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(final String value) {
+        this.region = value;
+    }
+
+    public String getUnlisted() {
+        return "not a property";
+    }
+}
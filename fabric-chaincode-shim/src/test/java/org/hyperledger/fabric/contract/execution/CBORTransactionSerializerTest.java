@@ -0,0 +1,155 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.contract.execution;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import org.hyperledger.fabric.contract.AllTypesAsset;
+import org.hyperledger.fabric.contract.ContractRuntimeException;
+import org.hyperledger.fabric.contract.MyType;
+import org.hyperledger.fabric.contract.metadata.MetadataBuilder;
+import org.hyperledger.fabric.contract.metadata.TypeSchema;
+import org.hyperledger.fabric.contract.routing.TypeRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+final class CBORTransactionSerializerTest {
+    private final CBORTransactionSerializer serializer = new CBORTransactionSerializer();
+
+    @BeforeEach
+    void registerTypes() {
+        final TypeRegistry tr = TypeRegistry.getRegistry();
+        tr.addDataType(MyType.class);
+        tr.addDataType(AllTypesAsset.class);
+        MetadataBuilder.addComponent(tr.getDataType("MyType"));
+        MetadataBuilder.addComponent(tr.getDataType("AllTypesAsset"));
+    }
+
+    private static byte[] hex(final String hex) {
+        final byte[] bytes = new BigInteger("01" + hex, 16).toByteArray();
+        return Arrays.copyOfRange(bytes, 1, bytes.length);
+    }
+
+    private void assertEncoding(final Object value, final Class<?> type, final String hex) {
+        final TypeSchema ts = TypeSchema.typeConvert(type);
+        assertThat(serializer.toBuffer(value, ts)).isEqualTo(hex(hex));
+        assertThat(serializer.fromBuffer(hex(hex), ts)).usingRecursiveComparison().isEqualTo(value);
+    }
+
+    @Test
+    void encodings() {
+        // examples from RFC 8949 appendix A
+        assertEncoding(0, Integer.class, "00");
+        assertEncoding(23, Integer.class, "17");
+        assertEncoding(24, Integer.class, "1818");
+        assertEncoding(1000, Integer.class, "1903e8");
+        assertEncoding(1_000_000, Integer.class, "1a000f4240");
+        assertEncoding(1_000_000_000_000L, Long.class, "1b000000e8d4a51000");
+        assertEncoding(-1, Integer.class, "20");
+        assertEncoding(-1000, Integer.class, "3903e7");
+        assertEncoding(Long.MIN_VALUE, Long.class, "3b7fffffffffffffff");
+        assertEncoding((byte) -100, Byte.class, "3863");
+        assertEncoding((short) 500, Short.class, "1901f4");
+        assertEncoding(1.1, Double.class, "fb3ff199999999999a");
+        assertEncoding(100_000.0f, Float.class, "fa47c35000");
+        assertEncoding(true, Boolean.class, "f5");
+        assertEncoding("IETF", String.class, "6449455446");
+        assertEncoding("ü", String.class, "62c3bc");
+        assertEncoding('a', Character.class, "6161");
+        assertEncoding(new int[] {1, 2, 3}, int[].class, "83010203");
+        assertEncoding(new String[][] {{"a"}, {}}, String[][].class, "8281616180");
+        assertEncoding(new MyType().setValue("hello"), MyType.class, "a16576616c75656568656c6c6f");
+    }
+
+    @Test
+    void nullValues() {
+        final TypeSchema ts = TypeSchema.typeConvert(MyType.class);
+
+        assertThat(serializer.toBuffer(null, ts)).isNull();
+        assertThat(serializer.toBuffer(new MyType(), ts)).isEqualTo(hex("a16576616c7565f6"));
+        assertThat(((MyType) serializer.fromBuffer(hex("a16576616c7565f6"), ts)).getValue())
+                .isNull();
+    }
+
+    @Test
+    void dataTypes() {
+        final TypeSchema ts = TypeSchema.typeConvert(AllTypesAsset.class);
+        final AllTypesAsset asset = new AllTypesAsset();
+
+        final byte[] bytes = serializer.toBuffer(asset, ts);
+
+        assertThat(serializer.fromBuffer(bytes, ts)).isEqualTo(asset);
+        assertThat(serializer.toBuffer(serializer.fromBuffer(bytes, ts), ts)).isEqualTo(bytes);
+
+        // keys in the order of their encoding, shorter keys first
+        final String text = new String(bytes, ISO_8859_1);
+        final List<String> keys = List.of(
+                "theInt",
+                "theByte",
+                "theChar",
+                "theLong",
+                "theFloat",
+                "theShort",
+                "theDouble",
+                "theString",
+                "theBoolean",
+                "theCustomObject");
+        for (int i = 1; i < keys.size(); i++) {
+            assertThat(text.indexOf(keys.get(i))).isGreaterThan(text.indexOf(keys.get(i - 1)));
+        }
+    }
+
+    @Test
+    void javaTypes() {
+        final TypeSchema ts = TypeSchema.typeConvert(long[].class);
+        final byte[] bytes = serializer.toBuffer(new long[] {42L, -1L}, ts);
+
+        assertThat(serializer.fromBuffer(bytes, ts)).isEqualTo(new long[] {42L, -1L});
+        assertThat(serializer.fromBuffer(bytes, ts, Long[].class)).isEqualTo(new Long[] {42L, -1L});
+    }
+
+    @Test
+    void integerWithoutFormat() {
+        final TypeSchema ts = new TypeSchema();
+        ts.put("type", "integer");
+        final byte[] bytes = hex("182a");
+
+        assertThat(serializer.fromBuffer(bytes, ts)).isEqualTo(42L);
+        assertThat(serializer.fromBuffer(bytes, ts, int.class)).isEqualTo(42);
+        assertThat(serializer.fromBuffer(bytes, ts, Short.class)).isEqualTo((short) 42);
+    }
+
+    @Test
+    void malformed() {
+        final TypeSchema ints = TypeSchema.typeConvert(int.class);
+        final TypeSchema types = TypeSchema.typeConvert(MyType.class);
+
+        assertThatThrownBy(() -> serializer.fromBuffer(hex("1a"), ints))
+                .isInstanceOf(ContractRuntimeException.class)
+                .hasMessage("Malformed CBOR at offset 1: unexpected end of data");
+        assertThatThrownBy(() -> serializer.fromBuffer(hex("0000"), ints))
+                .hasMessage("Malformed CBOR at offset 1: data after the value");
+        assertThatThrownBy(() -> serializer.fromBuffer(hex("1b0000000100000000"), ints))
+                .hasMessage("Malformed CBOR at offset 9: integer 4294967296 out of range");
+        assertThatThrownBy(() -> serializer.fromBuffer(hex("6161"), ints))
+                .hasMessage("Malformed CBOR at offset 0: expected an integer");
+        assertThatThrownBy(() -> serializer.fromBuffer(hex("7f"), TypeSchema.typeConvert(String.class)))
+                .hasMessage("Malformed CBOR at offset 1: unsupported argument for major type 3");
+        assertThatThrownBy(() -> serializer.fromBuffer(hex("60"), TypeSchema.typeConvert(char.class)))
+                .isInstanceOf(ContractRuntimeException.class)
+                .hasMessage("Malformed CBOR at offset 1: empty string for a character");
+        assertThatThrownBy(() -> serializer.fromBuffer(hex("a0"), types))
+                .hasMessage("Unable to convert CBOR to object, expected 1 properties but found 0");
+        assertThatThrownBy(() -> serializer.fromBuffer(hex("a1617801"), types))
+                .hasMessage("Unable to convert CBOR to object, unexpected property x");
+    }
+}
@@ -6,14 +6,22 @@
 
 package org.hyperledger.fabric.contract.execution;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import contract.SampleContract;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
@@ -54,10 +62,12 @@ final class ContractExecutionServiceTest {
         when(routing.getMethod())
                 .thenReturn(SampleContract.class.getMethod("noReturn", new Class<?>[] {Context.class}));
         when(routing.getContractInstance()).thenReturn(contract);
+        when(routing.invoke(any(), any(), any())).thenCallRealMethod();
         when(serializerRegistry.getSerializer(any(), any())).thenReturn(jts);
         ces.executeRequest(txFn, req, stub);
 
         verify(contract).beforeTransaction(any());
+        verify(routing).invoke(any(), any(), any());
     }
 
     @Test()
@@ -114,6 +124,7 @@ final class ContractExecutionServiceTest {
         when(txFn.getReturnSchema()).thenReturn(ts);
         when(routing.getMethod()).thenReturn(method);
         when(routing.getContractInstance()).thenReturn(contract);
+        when(routing.invoke(any(), any(), any())).thenCallRealMethod();
 
         String defaultSerializerName = defaultSerializer.getClass().getCanonicalName();
         String customSerializerName = "customSerializer";
@@ -130,7 +141,76 @@ final class ContractExecutionServiceTest {
                 .thenReturn(customSerializer);
         executionService.executeRequest(txFn, req, stub);
 
-        verify(defaultSerializer).fromBuffer(arg, ts);
+        // the JSONTransactionSerializer conversions are compiled rather than calling fromBuffer
+        verify((SampleContract) contract).t1(any(), eq("asdf"));
         verify(customSerializer).fromBuffer(arg, ts);
     }
+
+    @Test()
+    void convertersCompiledOnce() throws Exception {
+        JSONTransactionSerializer serializer = new JSONTransactionSerializer();
+        SerializerRegistryImpl serializerRegistry = spy(new SerializerRegistryImpl());
+        ContractExecutionService ces = new ContractExecutionService(serializerRegistry);
+
+        TxFunction txFn = mock(TxFunction.class);
+        InvocationRequest req = mock(InvocationRequest.class);
+        TxFunction.Routing routing = mock(TxFunction.Routing.class);
+
+        TypeSchema ts = TypeSchema.typeConvert(String.class);
+        Method method = SampleContract.class.getMethod("t1", Context.class, String.class);
+        ParameterDefinition pd = new ParameterDefinitionImpl("arg1", String.class, ts, method.getParameters()[1]);
+        SampleContract contract = spy(new SampleContract());
+
+        when(req.getArgs()).thenReturn(Collections.singletonList("asdf".getBytes()));
+        when(txFn.getRouting()).thenReturn(routing);
+        when(txFn.getParamsList()).thenReturn(Collections.singletonList(pd));
+        when(txFn.getReturnSchema()).thenReturn(ts);
+        when(routing.getMethod()).thenReturn(method);
+        when(routing.getContractInstance()).thenReturn(contract);
+        when(routing.invoke(any(), any(), any())).thenCallRealMethod();
+        when(serializerRegistry.getSerializer(any(), any())).thenReturn(serializer);
+
+        ces.executeRequest(txFn, req, new ChaincodeStubNaiveImpl());
+        ces.executeRequest(txFn, req, new ChaincodeStubNaiveImpl());
+
+        verify(contract, times(2)).t1(any(), eq("asdf"));
+        verify(txFn, times(1)).getParamsList();
+    }
+
+    @Test()
+    void tracesPhases() throws Exception {
+        JSONTransactionSerializer serializer = new JSONTransactionSerializer();
+        SerializerRegistryImpl serializerRegistry = spy(new SerializerRegistryImpl());
+        ContractExecutionService ces = new ContractExecutionService(serializerRegistry);
+
+        TxFunction txFn = mock(TxFunction.class);
+        InvocationRequest req = mock(InvocationRequest.class);
+        TxFunction.Routing routing = mock(TxFunction.Routing.class);
+
+        TypeSchema ts = TypeSchema.typeConvert(String.class);
+        Method method = SampleContract.class.getMethod("t1", Context.class, String.class);
+        ParameterDefinition pd = new ParameterDefinitionImpl("arg1", String.class, ts, method.getParameters()[1]);
+
+        when(req.getArgs()).thenReturn(Collections.singletonList("asdf".getBytes()));
+        when(txFn.getRouting()).thenReturn(routing);
+        when(txFn.getParamsList()).thenReturn(Collections.singletonList(pd));
+        when(txFn.getReturnSchema()).thenReturn(ts);
+        when(routing.getMethod()).thenReturn(method);
+        when(routing.getContractInstance()).thenReturn(new SampleContract());
+        when(routing.invoke(any(), any(), any())).thenCallRealMethod();
+        when(serializerRegistry.getSerializer(any(), any())).thenReturn(serializer);
+
+        try (SdkTracerProvider tracerProvider = SdkTracerProvider.builder().build()) {
+            Span span = tracerProvider.get("test").spanBuilder("t1").startSpan();
+            try (Scope ignored = span.makeCurrent()) {
+                ces.executeRequest(txFn, req, new ChaincodeStubNaiveImpl());
+            }
+            span.end();
+
+            ReadableSpan readable = (ReadableSpan) span;
+            assertThat(readable.getAttribute(AttributeKey.longKey("deserialization_ns"))).isNotNull();
+            assertThat(readable.getAttribute(AttributeKey.longKey("contract_execution_ns"))).isNotNull();
+            assertThat(readable.getAttribute(AttributeKey.longKey("serialization_ns"))).isNotNull();
+        }
+    }
 }
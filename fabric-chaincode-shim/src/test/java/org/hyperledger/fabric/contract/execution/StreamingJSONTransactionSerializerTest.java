@@ -0,0 +1,284 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.contract.execution;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import org.hyperledger.fabric.contract.AllTypesAsset;
+import org.hyperledger.fabric.contract.MyType;
+import org.hyperledger.fabric.contract.WideAsset;
+import org.hyperledger.fabric.contract.metadata.MetadataBuilder;
+import org.hyperledger.fabric.contract.metadata.TypeSchema;
+import org.hyperledger.fabric.contract.routing.TypeRegistry;
+import org.json.JSONException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+final class StreamingJSONTransactionSerializerTest {
+    private final JSONTransactionSerializer json = new JSONTransactionSerializer();
+    private final StreamingJSONTransactionSerializer streaming = new StreamingJSONTransactionSerializer();
+
+    @TempDir
+    Path classes;
+
+    @BeforeEach
+    void registerTypes() {
+        final TypeRegistry tr = TypeRegistry.getRegistry();
+        tr.addDataType(MyType.class);
+        tr.addDataType(AllTypesAsset.class);
+        tr.addDataType(WideAsset.class);
+        MetadataBuilder.addComponent(tr.getDataType("MyType"));
+        MetadataBuilder.addComponent(tr.getDataType("AllTypesAsset"));
+        MetadataBuilder.addComponent(tr.getDataType("WideAsset"));
+    }
+
+    private static JavaFileObject source(final String className, final String code) {
+        return new SimpleJavaFileObject(
+                URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension),
+                JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    /** Compile data types, with their parameter names, and register them. */
+    private URLClassLoader compile(final List<JavaFileObject> sources) throws IOException, ClassNotFoundException {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final List<String> options = List.of(
+                "-parameters",
+                "-proc:none",
+                "-d",
+                classes.toString(),
+                "-classpath",
+                System.getProperty("java.class.path"));
+        assertThat(compiler.getTask(null, null, null, options, null, sources).call()).isTrue();
+
+        final URLClassLoader loader =
+                new URLClassLoader(new URL[] {classes.toUri().toURL()}, getClass().getClassLoader());
+        final TypeRegistry tr = TypeRegistry.getRegistry();
+        for (final JavaFileObject source : sources) {
+            final String name = source.getName();
+            final Class<?> type = loader.loadClass(
+                    name.substring(1, name.length() - JavaFileObject.Kind.SOURCE.extension.length()).replace('/', '.'));
+            tr.addDataType(type);
+            MetadataBuilder.addComponent(tr.getDataType(type.getSimpleName()));
+        }
+        return loader;
+    }
+
+    // a data type with the given properties and a property of its own type, which org.json writes as a plain bean
+    private static String wideSource(final String className, final List<String> properties) {
+        final StringBuilder code = new StringBuilder(200 * properties.size());
+        code.append("package generated;\n")
+                .append("import org.hyperledger.fabric.contract.annotation.*;\n")
+                .append("@DataType public class ").append(className).append(" {\n");
+        for (final String property : properties) {
+            code.append("  @Property private String ").append(property).append(";\n");
+            appendAccessors(code, "String", property);
+        }
+        code.append("  @Property private ").append(className).append(" nested;\n");
+        appendAccessors(code, className, "nested");
+        return code.append("}\n").toString();
+    }
+
+    private static void appendAccessors(final StringBuilder code, final String type, final String property) {
+        final String suffix = capitalise(property);
+        code.append("  public ").append(type).append(" get").append(suffix).append("() { return ")
+                .append(property).append("; }\n")
+                .append("  public void set").append(suffix).append("(").append(type).append(" value) { ")
+                .append(property).append(" = value; }\n");
+    }
+
+    private static String capitalise(final String property) {
+        return property.substring(0, 1).toUpperCase(Locale.ROOT) + property.substring(1);
+    }
+
+    private void assertSameBytes(final Object value, final Class<?> type) {
+        final TypeSchema ts = TypeSchema.typeConvert(type);
+        assertThat(streaming.toBuffer(value, ts)).isEqualTo(json.toBuffer(value, ts));
+    }
+
+    @Test
+    void sameBytesAsJSONTransactionSerializer() {
+        assertSameBytes(new MyType(), MyType.class);
+        assertSameBytes(new MyType().setValue("</tag> \"quoted\" \\ \u00e9 \ud83d\ude00 \u0001  "), MyType.class);
+        assertSameBytes(new AllTypesAsset(), AllTypesAsset.class);
+        assertSameBytes(new MyType[] {new MyType().setValue("hello"), new MyType()}, MyType[].class);
+        assertSameBytes(new int[] {42, 83}, int[].class);
+        assertSameBytes(new double[] {42.5, 83.0, 1e-20}, double[].class);
+        assertSameBytes(new char[] {'a', '"'}, char[].class);
+        assertSameBytes(new String[][] {{"a", "b"}, {}}, String[][].class);
+        assertSameBytes("hello world", String.class);
+        assertSameBytes(42, Integer.class);
+    }
+
+    @Test
+    void propertyOrder() {
+        final Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            final WideAsset wide = new WideAsset();
+            wide.setName(random.nextBoolean() ? "name" + i : null);
+            wide.setOwner(random.nextBoolean() ? "owner" : null);
+            wide.setColour(random.nextBoolean() ? "blue" : null);
+            wide.setDescription(random.nextBoolean() ? "description" : null);
+            wide.setSize(random.nextBoolean() ? random.nextInt() : null);
+            wide.setAppraisedValue(random.nextLong());
+            wide.setStatus(random.nextBoolean() ? "status" : null);
+            wide.setCreatedBy(random.nextBoolean() ? "creator" : null);
+            wide.setUpdatedBy(random.nextBoolean() ? "updater" : null);
+            wide.setTags(random.nextBoolean() ? new String[] {"x", null} : new String[0]);
+            wide.setDetail(random.nextBoolean() ? new MyType().setValue("detail") : null);
+            wide.setNotes(random.nextBoolean() ? "notes" : null);
+            wide.setRegion(random.nextBoolean() ? "region" : null);
+
+            assertSameBytes(wide, WideAsset.class);
+        }
+    }
+
+    @Test
+    void propertyCounts() throws ReflectiveOperationException, IOException {
+        // org.json's key order depends on the number of keys and their hashes, so try many of each
+        final Random random = new Random(42);
+        final List<String> properties = new ArrayList<>();
+        final List<JavaFileObject> sources = new ArrayList<>();
+        for (int count = 1; count <= 60; count++) {
+            properties.add("p" + Long.toString(random.nextLong() & Long.MAX_VALUE, 36));
+            sources.add(source("generated.Wide" + count, wideSource("Wide" + count, properties)));
+        }
+
+        try (URLClassLoader loader = compile(sources)) {
+            for (int count = 1; count <= 60; count++) {
+                final Class<?> type = loader.loadClass("generated.Wide" + count);
+                for (int i = 0; i < 20; i++) {
+                    final Object wide = newWide(type, properties.subList(0, count), random);
+                    type.getMethod("setNested", type).invoke(wide, newWide(type, properties.subList(0, count), random));
+
+                    assertSameBytes(wide, type);
+                }
+            }
+        }
+    }
+
+    // instance with a random selection of the properties set
+    private static Object newWide(final Class<?> type, final List<String> properties, final Random random)
+            throws ReflectiveOperationException {
+        final Object wide = type.getConstructor().newInstance();
+        for (final String property : properties) {
+            if (random.nextInt(4) > 0) {
+                final Method setter = type.getMethod("set" + capitalise(property), String.class);
+                setter.invoke(wide, property + random.nextInt());
+            }
+        }
+        return wide;
+    }
+
+    @Test
+    void fromBufferConstructor() throws ReflectiveOperationException, IOException {
+        final String code = "package generated;\n"
+                + "import org.hyperledger.fabric.contract.annotation.*;\n"
+                + "@DataType public class Constructed {\n"
+                + "  @Property private final String id;\n"
+                + "  @Property private final int size;\n"
+                + "  public Constructed(String id, int size) { this.id = id; this.size = size; }\n"
+                + "  public String getId() { return id; }\n"
+                + "  public int getSize() { return size; }\n"
+                + "}\n";
+
+        try (URLClassLoader loader = compile(List.of(source("generated.Constructed", code)))) {
+            final Class<?> type = loader.loadClass("generated.Constructed");
+            final TypeSchema ts = TypeSchema.typeConvert(type);
+
+            final Object returned = streaming.fromBuffer("{\"size\":42,\"id\":\"asset1\"}".getBytes(UTF_8), ts);
+
+            assertThat(type.getMethod("getId").invoke(returned)).isEqualTo("asset1");
+            assertThat(type.getMethod("getSize").invoke(returned)).isEqualTo(42);
+            assertThat(streaming.toBuffer(returned, ts)).isEqualTo(json.toBuffer(returned, ts));
+        }
+    }
+
+    @Test
+    void fromBufferRecord() throws ReflectiveOperationException, IOException {
+        assumeTrue(Runtime.version().feature() >= 16, "records need Java 16");
+        final String code = "package generated;\n"
+                + "import org.hyperledger.fabric.contract.annotation.*;\n"
+                + "@DataType public record Point(@Property String label, @Property int x, @Property int y) {}\n";
+
+        try (URLClassLoader loader = compile(List.of(source("generated.Point", code)))) {
+            final Class<?> type = loader.loadClass("generated.Point");
+            final TypeSchema ts = TypeSchema.typeConvert(type);
+
+            final Object returned = streaming.fromBuffer("{\"x\":1,\"y\":-2,\"label\":\"a\"}".getBytes(UTF_8), ts);
+
+            assertThat(returned).hasToString("Point[label=a, x=1, y=-2]");
+            assertThat(streaming.toBuffer(returned, ts)).isEqualTo(json.toBuffer(returned, ts));
+        }
+    }
+
+    @Test
+    void fallsBackToJSONTransactionSerializer() {
+        final AllTypesAsset asset = new AllTypesAsset();
+        asset.setTheDouble(Double.NaN);
+        final TypeSchema ts = TypeSchema.typeConvert(AllTypesAsset.class);
+
+        assertThatThrownBy(() -> streaming.toBuffer(asset, ts)).isInstanceOf(JSONException.class);
+    }
+
+    @Test
+    void fromBuffer() {
+        final TypeSchema ts = TypeSchema.typeConvert(AllTypesAsset.class);
+        final AllTypesAsset all = new AllTypesAsset();
+        final byte[] bytes = streaming.toBuffer(all, ts);
+
+        final AllTypesAsset returned = (AllTypesAsset) streaming.fromBuffer(bytes, ts);
+
+        assertThat(returned).isEqualTo(all);
+        assertThat(returned.getTheCustomObject().getValue()).isEqualTo("Hello World");
+    }
+
+    @Test
+    void fromBufferArrays() {
+        final TypeSchema ts = TypeSchema.typeConvert(MyType[].class);
+        final byte[] bytes = json.toBuffer(new MyType[] {new MyType().setValue("hello")}, ts);
+
+        final MyType[] returned = (MyType[]) streaming.fromBuffer(bytes, ts);
+
+        assertThat(returned).hasSize(1);
+        assertThat(returned[0].getValue()).isEqualTo("hello");
+
+        final TypeSchema ints = TypeSchema.typeConvert(int[][].class);
+        assertThat(streaming.fromBuffer("[[1,2],[3]]".getBytes(UTF_8), ints))
+                .isEqualTo(json.fromBuffer("[[1,2],[3]]".getBytes(UTF_8), ints));
+    }
+
+    @Test
+    void fromBufferMissingProperty() {
+        final TypeSchema ts = TypeSchema.typeConvert(MyType.class);
+
+        assertThatThrownBy(() -> streaming.fromBuffer("{}".getBytes(UTF_8), ts))
+                .hasMessage("Unable to convert JSON to object");
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.contract.execution;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.hyperledger.fabric.contract.AllTypesAsset;
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.contract.ContractRuntimeException;
+import org.hyperledger.fabric.contract.MyType;
+import org.hyperledger.fabric.contract.metadata.MetadataBuilder;
+import org.hyperledger.fabric.contract.metadata.TypeSchema;
+import org.hyperledger.fabric.contract.routing.ParameterDefinition;
+import org.hyperledger.fabric.contract.routing.TypeRegistry;
+import org.hyperledger.fabric.contract.routing.impl.ParameterDefinitionImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+final class TxConvertersTest {
+    private final JSONTransactionSerializer json = new JSONTransactionSerializer();
+
+    @SuppressWarnings("unused")
+    private static void boxed(
+            final Context ctx,
+            final String string,
+            final char character,
+            final int number,
+            final Integer[] numbers,
+            final String[][] strings,
+            final MyType[] types,
+            final AllTypesAsset asset) {}
+
+    @SuppressWarnings("unused")
+    private static void primitives(
+            final Context ctx, final int[] ints, final long[][] longs, final double[] doubles, final float[] floats) {}
+
+    @BeforeEach
+    void registerTypes() {
+        final TypeRegistry tr = TypeRegistry.getRegistry();
+        tr.addDataType(MyType.class);
+        tr.addDataType(AllTypesAsset.class);
+        MetadataBuilder.addComponent(tr.getDataType("MyType"));
+        MetadataBuilder.addComponent(tr.getDataType("AllTypesAsset"));
+    }
+
+    private static List<ParameterDefinition> params(final String name) {
+        final Method method = Arrays.stream(TxConvertersTest.class.getDeclaredMethods())
+                .filter(m -> m.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+        final List<ParameterDefinition> params = new ArrayList<>();
+        for (final Parameter parameter : method.getParameters()) {
+            if (parameter.getType() != Context.class) {
+                params.add(new ParameterDefinitionImpl(
+                        parameter.getName(),
+                        parameter.getType(),
+                        TypeSchema.typeConvert(parameter.getType()),
+                        parameter));
+            }
+        }
+        return params;
+    }
+
+    private static List<byte[]> buffers(final String... values) {
+        final List<byte[]> buffers = new ArrayList<>();
+        for (final String value : values) {
+            buffers.add(value.getBytes(UTF_8));
+        }
+        return buffers;
+    }
+
+    @Test
+    void sameArgumentsAsJSONTransactionSerializer() {
+        final List<ParameterDefinition> params = params("boxed");
+        final List<byte[]> buffers = buffers(
+                "hello world",
+                "xyz",
+                "42",
+                "[1,2,3]",
+                "[[\"a\",\"b\"],[]]",
+                "[{\"value\":\"one\"},{\"value\":\"two\"}]",
+                new String(json.toBuffer(new AllTypesAsset(), TypeSchema.typeConvert(AllTypesAsset.class)), UTF_8));
+
+        final Object[] args = new TxConverters(json, params, null).fromBuffers(buffers);
+
+        assertThat(args).hasSameSizeAs(params);
+        for (int i = 0; i < args.length; i++) {
+            final Object expected = json.fromBuffer(buffers.get(i), params.get(i).getSchema());
+            assertThat(args[i]).hasSameClassAs(expected).usingRecursiveComparison().isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void primitiveArrays() {
+        final Object[] args = new TxConverters(json, params("primitives"), null)
+                .fromBuffers(buffers("[42,-83]", "[[1,9223372036854775807],[]]", "[42.5,1,1e-20]", "[1.5]"));
+
+        assertThat(args[0]).isEqualTo(new int[] {42, -83});
+        assertThat(args[1]).isEqualTo(new long[][] {{1L, Long.MAX_VALUE}, {}});
+        assertThat(args[2]).isEqualTo(new double[] {42.5, 1, 1e-20});
+        assertThat(args[3]).isEqualTo(new float[] {1.5f});
+    }
+
+    @Test
+    void cborArguments() {
+        final CBORTransactionSerializer cbor = new CBORTransactionSerializer();
+        final List<ParameterDefinition> params = params("boxed");
+        final Integer[] numbers = {1, 2};
+
+        final Object[] args = new TxConverters(cbor, params.subList(3, 4), null)
+                .fromBuffers(List.of(cbor.toBuffer(numbers, params.get(3).getSchema())));
+
+        assertThat(args).containsExactly((Object) numbers);
+    }
+
+    @Test
+    void invalidArguments() {
+        final TxConverters converters = new TxConverters(json, params("primitives"), null);
+
+        assertThatThrownBy(() -> converters.fromBuffers(buffers("[\"a\"]", "[]", "[]", "[]")))
+                .isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> new TxConverters(json, params("boxed"), null)
+                        .fromBuffers(buffers("", "x", "1", "[]", "[]", "[{}]", "{}")))
+                .isInstanceOf(ContractRuntimeException.class);
+    }
+
+    @Test
+    void sameReturnValueAsJSONTransactionSerializer() {
+        final TypeSchema asset = TypeSchema.typeConvert(AllTypesAsset.class);
+        final TypeSchema types = TypeSchema.typeConvert(MyType[].class);
+        final TypeSchema number = TypeSchema.typeConvert(long.class);
+        final TypeSchema string = TypeSchema.typeConvert(String.class);
+        final MyType[] array = {new MyType().setValue("hello")};
+
+        assertThat(new TxConverters(json, List.of(), asset).toBuffer(new AllTypesAsset()))
+                .isEqualTo(json.toBuffer(new AllTypesAsset(), asset));
+        assertThat(new TxConverters(json, List.of(), types).toBuffer(array)).isEqualTo(json.toBuffer(array, types));
+        assertThat(new TxConverters(json, List.of(), number).toBuffer(42L)).isEqualTo(json.toBuffer(42L, number));
+        assertThat(new TxConverters(json, List.of(), string).toBuffer("hello"))
+                .isEqualTo(json.toBuffer("hello", string));
+        assertThat(new TxConverters(json, List.of(), string).toBuffer(null)).isNull();
+    }
+
+    @Test
+    void overriddenConversions() {
+        final JSONTransactionSerializer custom = new JSONTransactionSerializer() {
+            @Override
+            public Object fromBuffer(final byte[] buffer, final TypeSchema ts) {
+                return "custom";
+            }
+        };
+
+        final Object[] args = new TxConverters(custom, params("boxed").subList(0, 1), null)
+                .fromBuffers(buffers("hello world"));
+
+        assertThat(args).containsExactly("custom");
+    }
+}
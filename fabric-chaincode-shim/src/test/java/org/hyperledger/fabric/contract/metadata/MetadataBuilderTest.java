@@ -5,6 +5,9 @@
  */
 package org.hyperledger.fabric.contract.metadata;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.protobuf.ByteString;
 import contract.SampleContract;
 import java.io.InputStream;
 import java.lang.reflect.Field;
@@ -38,6 +41,7 @@ final class MetadataBuilderTest {
         setMetadataBuilderField("contractMap", new HashMap<>());
         setMetadataBuilderField("overallInfoMap", new HashMap<>());
         setMetadataBuilderField("schemaClient", new DefaultSchemaClient());
+        setMetadataBuilderField("rendered", null);
     }
 
     @Test
@@ -61,4 +65,20 @@ final class MetadataBuilderTest {
         });
         MetadataBuilder.validate();
     }
+
+    @Test
+    void metadataRenderedOnce() {
+        final ByteString empty = MetadataBuilder.getMetadataBytes();
+        assertThat(MetadataBuilder.getMetadataBytes()).isSameAs(empty);
+
+        MetadataBuilder.addContract(new ContractDefinitionImpl(SampleContract.class));
+
+        final ByteString bytes = MetadataBuilder.getMetadataBytes();
+        assertThat(bytes).isNotEqualTo(empty);
+        assertThat(bytes.toStringUtf8())
+                .isEqualTo(MetadataBuilder.getMetadata())
+                .contains("samplecontract")
+                .contains("\"encoding\":\"application/json\"");
+        assertThat(MetadataBuilder.getMetadataBytes()).isSameAs(bytes);
+    }
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.contract.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+final class ContractIndexProcessorTest {
+
+    @TempDir
+    Path output;
+
+    private static JavaFileObject source(final String className, final String code) {
+        return new SimpleJavaFileObject(
+                URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension),
+                JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    private List<Diagnostic<? extends JavaFileObject>> compile(final JavaFileObject... sources) {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        final List<String> options = List.of(
+                "-proc:only", "-d", output.toString(), "-classpath", System.getProperty("java.class.path"));
+        final JavaCompiler.CompilationTask task =
+                compiler.getTask(null, null, diagnostics, options, null, List.of(sources));
+        task.setProcessors(List.of(new ContractIndexProcessor()));
+        task.call();
+        return diagnostics.getDiagnostics();
+    }
+
+    private List<String> errors(final List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+        return diagnostics.stream()
+                .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                .map(d -> d.getMessage(Locale.ROOT))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void writesIndex() throws IOException {
+        final List<Diagnostic<? extends JavaFileObject>> diagnostics = compile(
+                source(
+                        "sample.MyContract",
+                        "package sample;\n"
+                                + "import org.hyperledger.fabric.contract.*;\n"
+                                + "import org.hyperledger.fabric.contract.annotation.*;\n"
+                                + "@Contract public class MyContract implements ContractInterface {\n"
+                                + "  @Transaction public String read(Context ctx, String key) { return key; }\n"
+                                + "  @DataType public static class Asset { @Property String id; }\n"
+                                + "}\n"),
+                source(
+                        "sample.MySerializer",
+                        "package sample;\n"
+                                + "@org.hyperledger.fabric.contract.annotation.Serializer\n"
+                                + "public class MySerializer {}\n"));
+
+        assertThat(errors(diagnostics)).isEmpty();
+        assertThat(Files.readAllLines(output.resolve(ContractIndexProcessor.INDEX_RESOURCE)))
+                .containsExactly(
+                        "contract sample.MyContract",
+                        "datatype sample.MyContract$Asset",
+                        "serializer sample.MySerializer");
+    }
+
+    @Test
+    void transactionWithoutContext() {
+        final List<Diagnostic<? extends JavaFileObject>> diagnostics = compile(source(
+                "sample.BadContract",
+                "package sample;\n"
+                        + "import org.hyperledger.fabric.contract.*;\n"
+                        + "import org.hyperledger.fabric.contract.annotation.*;\n"
+                        + "@Contract public class BadContract implements ContractInterface {\n"
+                        + "  @Transaction public String read(String key) { return key; }\n"
+                        + "}\n"));
+
+        assertThat(errors(diagnostics))
+                .containsExactly("First argument of transaction function should be of type Context");
+    }
+
+    @Test
+    void noAnnotatedClasses() {
+        compile(source("sample.Plain", "package sample;\npublic class Plain {}\n"));
+
+        assertThat(output.resolve(ContractIndexProcessor.INDEX_RESOURCE)).doesNotExist();
+    }
+}
@@ -10,13 +10,23 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import contract.SampleContract;
 import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
 import org.hyperledger.fabric.contract.Context;
 import org.hyperledger.fabric.contract.ContractInterface;
 import org.hyperledger.fabric.contract.ContractRuntimeException;
+import org.hyperledger.fabric.contract.annotation.Contract;
 import org.hyperledger.fabric.contract.routing.impl.ContractDefinitionImpl;
 import org.junit.jupiter.api.Test;
 
 final class ContractDefinitionTest {
+
+    @Contract(lifecycle = Contract.Lifecycle.PER_CALL)
+    public static final class PerCallContract implements ContractInterface {}
+
+    private static TxFunction.Routing routing(final ContractDefinition cf, final String method) throws Exception {
+        return cf.addTxFunction(SampleContract.class.getMethod(method, Context.class)).getRouting();
+    }
+
     @Test
     void constructor() throws SecurityException {
 
@@ -36,4 +46,49 @@ final class ContractDefinitionTest {
                 .isInstanceOf(ContractRuntimeException.class)
                 .hasMessage("Duplicate transaction method t2");
     }
+
+    @Test
+    void newInstancePerCallByDefault() throws Exception {
+        final ContractDefinition cf = new ContractDefinitionImpl(SampleContract.class);
+        final TxFunction.Routing routing = routing(cf, "t2");
+
+        assertThat(routing.getContractInstance()).isNotSameAs(routing.getContractInstance());
+    }
+
+    @Test
+    void singletonSharedByAllTransactions() throws Exception {
+        final ContractDefinition cf = new ContractDefinitionImpl(SampleContract.class, Contract.Lifecycle.SINGLETON);
+        final ContractInterface instance = routing(cf, "t2").getContractInstance();
+
+        assertThat(routing(cf, "t5").getContractInstance()).isSameAs(instance);
+        assertThat(cf.getUnknownRoute().getRouting().getContractInstance()).isSameAs(instance);
+        assertThat(CompletableFuture.supplyAsync(() -> getInstance(cf)).get()).isSameAs(instance);
+    }
+
+    @Test
+    void instancePerThread() throws Exception {
+        final ContractDefinition cf = new ContractDefinitionImpl(SampleContract.class, Contract.Lifecycle.PER_THREAD);
+        final TxFunction.Routing routing = routing(cf, "t2");
+        final ContractInterface instance = routing.getContractInstance();
+
+        assertThat(routing.getContractInstance()).isSameAs(instance);
+        assertThat(CompletableFuture.supplyAsync(() -> getInstance(cf)).get()).isNotSameAs(instance);
+    }
+
+    @Test
+    void annotationOverridesDefaultLifecycle() throws Exception {
+        final ContractDefinition cf = new ContractDefinitionImpl(PerCallContract.class, Contract.Lifecycle.SINGLETON);
+        final TxFunction.Routing routing = cf.getUnknownRoute().getRouting();
+
+        assertThat(routing.getContractInstance()).isNotSameAs(routing.getContractInstance());
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private static ContractInterface getInstance(final ContractDefinition cf) {
+        try {
+            return cf.getUnknownRoute().getRouting().getContractInstance();
+        } catch (final Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
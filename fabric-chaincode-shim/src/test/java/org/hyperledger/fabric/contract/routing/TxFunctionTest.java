@@ -10,9 +10,13 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 
+import contract.SampleContract;
+import java.lang.reflect.InvocationTargetException;
+import org.hyperledger.fabric.contract.ChaincodeStubNaiveImpl;
 import org.hyperledger.fabric.contract.Context;
 import org.hyperledger.fabric.contract.ContractInterface;
 import org.hyperledger.fabric.contract.ContractRuntimeException;
@@ -20,7 +24,9 @@ import org.hyperledger.fabric.contract.annotation.Contract;
 import org.hyperledger.fabric.contract.annotation.Property;
 import org.hyperledger.fabric.contract.annotation.Transaction;
 import org.hyperledger.fabric.contract.metadata.TypeSchema;
+import org.hyperledger.fabric.contract.routing.impl.ContractDefinitionImpl;
 import org.hyperledger.fabric.contract.routing.impl.TxFunctionImpl;
+import org.hyperledger.fabric.shim.ChaincodeException;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
@@ -82,4 +88,30 @@ final class TxFunctionTest {
         assertThatThrownBy(() -> new TxFunctionImpl(test.getClass().getMethod("wibble", String.class), cd))
                 .isInstanceOf(ContractRuntimeException.class);
     }
+
+    @Test
+    void invoke() throws Exception {
+        final ContractDefinition cd = new ContractDefinitionImpl(SampleContract.class);
+        final ContractInterface contract = new SampleContract();
+        final Context ctx = new Context(new ChaincodeStubNaiveImpl());
+
+        final TxFunction t4 = new TxFunctionImpl(SampleContract.class.getMethod("tFour", Context.class), cd);
+        assertEquals("Transaction 4", t4.getRouting().invoke(contract, ctx, new Object[0]));
+
+        final TxFunction noReturn = new TxFunctionImpl(SampleContract.class.getMethod("noReturn", Context.class), cd);
+        assertNull(noReturn.getRouting().invoke(contract, ctx, new Object[0]));
+    }
+
+    @Test
+    void invokeWrapsException() throws Exception {
+        final ContractDefinition cd = new ContractDefinitionImpl(SampleContract.class);
+        final TxFunction t3 = new TxFunctionImpl(
+                SampleContract.class.getMethod("t3", Context.class, String.class, String.class), cd);
+        final Context ctx = new Context(new ChaincodeStubNaiveImpl());
+
+        assertThatThrownBy(() -> t3.getRouting()
+                        .invoke(new SampleContract(), ctx, new Object[] {"TransactionException", "Failed"}))
+                .isInstanceOf(InvocationTargetException.class)
+                .hasCauseInstanceOf(ChaincodeException.class);
+    }
 }
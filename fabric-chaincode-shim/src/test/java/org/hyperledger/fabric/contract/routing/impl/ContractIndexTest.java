@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.contract.routing.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import contract.Greeting;
+import contract.SampleContract;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.hyperledger.fabric.contract.execution.CBORTransactionSerializer;
+import org.hyperledger.fabric.contract.execution.JSONTransactionSerializer;
+import org.hyperledger.fabric.contract.execution.StreamingJSONTransactionSerializer;
+import org.hyperledger.fabric.contract.processor.ContractIndexProcessor;
+import org.hyperledger.fabric.contract.systemcontract.SystemContract;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+final class ContractIndexTest {
+
+    @TempDir
+    Path root;
+
+    private ContractIndex loadWith(final Path dir) throws IOException {
+        final Thread thread = Thread.currentThread();
+        final ClassLoader original = thread.getContextClassLoader();
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {dir.toUri().toURL()}, original)) {
+            thread.setContextClassLoader(loader);
+            return ContractIndex.load();
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+    }
+
+    @Test
+    void indexedClasses() throws IOException {
+        final Path index = root.resolve(ContractIndexProcessor.INDEX_RESOURCE);
+        Files.createDirectories(index.getParent());
+        Files.write(
+                index,
+                List.of(
+                        "contract contract.SampleContract",
+                        "datatype contract.Greeting",
+                        "contract missing.Contract",
+                        "unknown contract.Greeting"));
+
+        final ContractIndex contractIndex = loadWith(root);
+
+        assertThat(contractIndex.getIndexedElements()).containsExactly(root.toString());
+        assertThat(contractIndex.getContracts()).containsExactly(SystemContract.class, SampleContract.class);
+        assertThat(contractIndex.getDataTypes()).containsExactly(Greeting.class);
+        assertThat(contractIndex.getSerializers())
+                .containsExactly(
+                        JSONTransactionSerializer.class,
+                        StreamingJSONTransactionSerializer.class,
+                        CBORTransactionSerializer.class);
+    }
+
+    @Test
+    void noIndex() throws IOException {
+        assertThat(loadWith(root)).isNull();
+    }
+
+    @Test
+    void classpathElements() throws IOException {
+        final Path jar = root.resolve("contracts.jar");
+        assertThat(ContractIndex.classpathElement(
+                        new URL("jar:" + jar.toUri() + "!/" + ContractIndexProcessor.INDEX_RESOURCE)))
+                .isEqualTo(jar.toString());
+        assertThat(ContractIndex.classpathElement(new URL(root.toUri() + ContractIndexProcessor.INDEX_RESOURCE)))
+                .isEqualTo(root.toString());
+        assertThat(ContractIndex.normalize(root + "/")).isEqualTo(root.toString());
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.contract.routing.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import contract.Greeting;
+import contract.SampleContract;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import org.hyperledger.fabric.contract.MyType;
+import org.hyperledger.fabric.contract.execution.CBORTransactionSerializer;
+import org.hyperledger.fabric.contract.execution.JSONTransactionSerializer;
+import org.hyperledger.fabric.contract.execution.StreamingJSONTransactionSerializer;
+import org.hyperledger.fabric.contract.processor.ContractIndexProcessor;
+import org.hyperledger.fabric.contract.systemcontract.SystemContract;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+final class ContractScannerTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void scansOnce() {
+        final ContractScanner scanner = new ContractScanner();
+
+        final ContractIndex classes = scanner.getClasses();
+
+        assertThat(scanner.getClasses()).isSameAs(classes);
+        assertThat(classes.getContracts()).contains(SystemContract.class, SampleContract.class);
+        assertThat(classes.getContracts()).containsOnlyOnce(SystemContract.class);
+        assertThat(classes.getDataTypes()).contains(Greeting.class, MyType.class);
+        assertThat(classes.getSerializers()).containsOnlyOnce(JSONTransactionSerializer.class);
+    }
+
+    @Test
+    void acceptedPackages() {
+        final Properties props = new Properties();
+        props.setProperty(ContractScanner.CHAINCODE_SCAN_PACKAGES, " contract ,");
+
+        final ContractIndex classes = new ContractScanner(props).getClasses();
+
+        assertThat(classes.getContracts()).containsExactlyInAnyOrder(SystemContract.class, SampleContract.class);
+        assertThat(classes.getDataTypes()).contains(Greeting.class).doesNotContain(MyType.class);
+        assertThat(classes.getSerializers())
+                .containsExactly(
+                        JSONTransactionSerializer.class,
+                        StreamingJSONTransactionSerializer.class,
+                        CBORTransactionSerializer.class);
+    }
+
+    /** Classes found with an index on the classpath listing only the Greeting data type. */
+    private ContractIndex getClassesWithIndex(final Properties props) throws IOException {
+        final Path index = root.resolve(ContractIndexProcessor.INDEX_RESOURCE);
+        Files.createDirectories(index.getParent());
+        Files.write(index, List.of("datatype contract.Greeting"));
+        props.setProperty(ContractScanner.CHAINCODE_SCAN_PACKAGES, "contract");
+
+        final Thread thread = Thread.currentThread();
+        final ClassLoader original = thread.getContextClassLoader();
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {root.toUri().toURL()}, original)) {
+            thread.setContextClassLoader(loader);
+            return new ContractScanner(props).getClasses();
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+    }
+
+    @Test
+    void scansClassesWithoutAnIndex() throws IOException {
+        final ContractIndex classes = getClassesWithIndex(new Properties());
+
+        // the test classes have no index, so are scanned
+        assertThat(classes.getContracts()).containsExactlyInAnyOrder(SystemContract.class, SampleContract.class);
+        assertThat(classes.getDataTypes()).containsOnlyOnce(Greeting.class);
+    }
+
+    @Test
+    void indexAlone() throws IOException {
+        final Properties props = new Properties();
+        props.setProperty(ContractScanner.CHAINCODE_SCAN_UNINDEXED, "false");
+
+        final ContractIndex classes = getClassesWithIndex(props);
+
+        assertThat(classes.getContracts()).containsExactly(SystemContract.class);
+        assertThat(classes.getDataTypes()).containsExactly(Greeting.class);
+    }
+}
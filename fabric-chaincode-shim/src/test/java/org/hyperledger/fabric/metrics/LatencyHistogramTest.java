@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+final class LatencyHistogramTest {
+
+    @Test
+    void empty() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getMaxNanos()).isZero();
+        assertThat(histogram.getMeanNanos()).isZero();
+        assertThat(histogram.getValueAtPercentile(99)).isZero();
+    }
+
+    @Test
+    void bucketsCoverEveryValue() {
+        long previous = -1;
+        for (int bucket = 0; LatencyHistogram.highestValue(bucket) != Long.MAX_VALUE; bucket++) {
+            final long highest = LatencyHistogram.highestValue(bucket);
+            assertThat(LatencyHistogram.bucket(previous + 1)).isEqualTo(bucket);
+            assertThat(LatencyHistogram.bucket(highest)).isEqualTo(bucket);
+            assertThat(highest).isGreaterThan(previous);
+            previous = highest;
+        }
+        assertThat(LatencyHistogram.bucket(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.bucket(previous + 1));
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 50; value++) {
+            histogram.record(value);
+        }
+
+        assertThat(histogram.getCount()).isEqualTo(50);
+        assertThat(histogram.getTotalNanos()).isEqualTo(1275);
+        assertThat(histogram.getMeanNanos()).isEqualTo(25);
+        assertThat(histogram.getValueAtPercentile(50)).isEqualTo(25);
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(50);
+        assertThat(histogram.getMaxNanos()).isEqualTo(50);
+    }
+
+    @Test
+    void percentilesWithinThreePercent() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final long[] values = new Random(42).longs(100_000, 1_000, 1_000_000_000).sorted().toArray();
+        for (final long value : values) {
+            histogram.record(value);
+        }
+
+        for (final double percentile : new double[] {50, 90, 99, 99.9}) {
+            final long expected = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            assertThat((double) histogram.getValueAtPercentile(percentile))
+                    .as("p%s", percentile)
+                    .isCloseTo(expected, within(expected * 0.03));
+        }
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(values[values.length - 1]);
+    }
+
+    @Test
+    void negativeValuesRecordedAsZero() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+
+        assertThat(histogram.getCount()).isEqualTo(1);
+        assertThat(histogram.getValueAtPercentile(50)).isZero();
+        assertThat(histogram.getTotalNanos()).isZero();
+    }
+}
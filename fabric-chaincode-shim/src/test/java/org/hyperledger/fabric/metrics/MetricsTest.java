@@ -37,6 +37,7 @@ final class MetricsTest {
         void metricsDisabled() {
             final MetricsProvider provider = Metrics.initialize(new Properties());
             assertThat(provider).isExactlyInstanceOf(NullProvider.class);
+            assertThat(Metrics.getTransactionMetrics().isEnabled()).isFalse();
         }
 
         @Test
@@ -60,6 +61,7 @@ final class MetricsTest {
 
             final MetricsProvider provider = Metrics.initialize(props);
             assertTrue(provider instanceof DefaultProvider);
+            assertThat(Metrics.getTransactionMetrics().isEnabled()).isTrue();
         }
 
         @Test
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.protobuf.ByteString;
+import java.util.Set;
+import org.hyperledger.fabric.protos.peer.ChaincodeMessage;
+import org.junit.jupiter.api.Test;
+
+final class TransactionMetricsTest {
+    private static final Set<ByteString> FUNCTIONS = Set.of(ByteString.copyFromUtf8("create"));
+
+    @Test
+    void functions() {
+        final TransactionMetrics metrics = new TransactionMetrics(true, FUNCTIONS);
+        final ChannelMetrics channel = metrics.channel("mychannel");
+        final FunctionMetrics function = channel.function(ByteString.copyFromUtf8("create"));
+
+        function.record(10, 20, 40, true);
+        function.record(10, 20, 40, false);
+
+        assertThat(metrics.channel("mychannel")).isSameAs(channel);
+        assertThat(channel.function(ByteString.copyFromUtf8("create"))).isSameAs(function);
+        assertThat(function.getChannelId()).isEqualTo("mychannel");
+        assertThat(function.getFunction()).isEqualTo("create");
+        assertThat(function.getSuccessCount()).isEqualTo(1);
+        assertThat(function.getErrorCount()).isEqualTo(1);
+        assertThat(function.getQueueWait().getCount()).isEqualTo(2);
+        assertThat(function.getExecution().getMaxNanos()).isEqualTo(20);
+        assertThat(function.getTotal().getMaxNanos()).isEqualTo(40);
+        assertThat(metrics.getChannelMetrics()).containsExactly(channel);
+        assertThat(channel.getFunctionMetrics()).containsExactly(function);
+    }
+
+    @Test
+    void unknownFunctions() {
+        final ChannelMetrics channel = new TransactionMetrics(true, FUNCTIONS).channel("mychannel");
+        final FunctionMetrics create = channel.function(ByteString.copyFromUtf8("create"));
+
+        final FunctionMetrics unknown = channel.function(ByteString.copyFromUtf8("fn0"));
+        assertThat(unknown.getFunction()).isEqualTo(ChannelMetrics.UNKNOWN_FUNCTIONS);
+        assertThat(channel.function(ByteString.copyFromUtf8("fn1"))).isSameAs(unknown);
+        // looked up by the encoded name, which may be a view of a larger message
+        assertThat(channel.function(ByteString.copyFromUtf8("xcreate").substring(1))).isSameAs(create);
+        assertThat(channel.getFunctionMetrics()).containsExactly(create);
+
+        unknown.record(1, 1, 1, true);
+        assertThat(channel.getFunctionMetrics()).containsExactlyInAnyOrder(create, unknown);
+    }
+
+    @Test
+    void ledgerCallsAndRejections() {
+        final ChannelMetrics channel = new TransactionMetrics(true, FUNCTIONS).channel("mychannel");
+        channel.recordLedgerCall(ChaincodeMessage.Type.GET_STATE, 100, true);
+        channel.recordLedgerCall(ChaincodeMessage.Type.GET_STATE, 300, false);
+        channel.recordLedgerCall(ChaincodeMessage.Type.PUT_STATE, 200, true);
+        channel.recordRejection();
+
+        assertThat(channel.getLedgerCallMetrics())
+                .extracting(LedgerCallMetrics::getType)
+                .containsExactlyInAnyOrder("GET_STATE", "PUT_STATE");
+        final LedgerCallMetrics getState = channel.getLedgerCallMetrics().stream()
+                .filter(m -> m.getType().equals("GET_STATE"))
+                .findFirst()
+                .get();
+        assertThat(getState.getChannelId()).isEqualTo("mychannel");
+        assertThat(getState.getRoundTrip().getCount()).isEqualTo(2);
+        assertThat(getState.getRoundTrip().getMaxNanos()).isEqualTo(300);
+        assertThat(getState.getErrorCount()).isEqualTo(1);
+        assertThat(channel.getRejectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void contractExecutionOfCurrentFunction() {
+        final TransactionMetrics metrics = new TransactionMetrics(true, FUNCTIONS);
+        final FunctionMetrics function = metrics.channel("mychannel").function(ByteString.copyFromUtf8("create"));
+
+        metrics.recordContractExecution(5);
+        assertThat(function.getContractExecution().getCount()).isZero();
+
+        metrics.setCurrentFunction(function);
+        metrics.recordContractExecution(5);
+        metrics.setCurrentFunction(null);
+        metrics.recordContractExecution(5);
+
+        assertThat(function.getContractExecution().getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void disabled() {
+        final TransactionMetrics metrics = TransactionMetrics.disabled();
+        final FunctionMetrics function = new TransactionMetrics(true, FUNCTIONS)
+                .channel("mychannel")
+                .function(ByteString.copyFromUtf8("create"));
+
+        metrics.setCurrentFunction(function);
+        metrics.recordContractExecution(5);
+        metrics.setCurrentFunction(null);
+
+        assertThat(metrics.isEnabled()).isFalse();
+        assertThat(function.getContractExecution().getCount()).isZero();
+    }
+}
@@ -7,13 +7,21 @@ package org.hyperledger.fabric.metrics.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.google.protobuf.ByteString;
+import java.util.List;
 import java.util.Properties;
 import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.LogRecord;
 import java.util.logging.Logger;
+import org.hyperledger.fabric.metrics.ChannelMetrics;
+import org.hyperledger.fabric.metrics.IdentityCacheMetricsCollector;
+import org.hyperledger.fabric.metrics.Metrics;
+import org.hyperledger.fabric.metrics.StateCacheMetricsCollector;
+import org.hyperledger.fabric.metrics.StreamMetricsCollector;
 import org.hyperledger.fabric.metrics.TaskMetricsCollector;
+import org.hyperledger.fabric.protos.peer.ChaincodeMessage;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
@@ -75,13 +83,92 @@ final class DefaultProviderTest {
             provider.logMetrics();
             Thread.sleep(6000);
             Mockito.verify(mockHandler, Mockito.atLeast(1)).publish(argumentCaptor.capture());
-            LogRecord lr = argumentCaptor.getValue();
-            String msg = lr.getMessage();
-            assertThat(msg)
-                    .contains(
-                            "{ \"active_count\":0 , \"pool_size\":0 , \"core_pool_size\":0 , \"current_task_count\":0 , \"current_queue_depth\":0 ");
+            // providers left running by other tests log to the same logger, so look for this provider's message
+            assertThat(argumentCaptor.getAllValues())
+                    .extracting(LogRecord::getMessage)
+                    .anySatisfy(msg -> assertThat(msg)
+                            .contains(
+                                    "{ \"active_count\":0 , \"pool_size\":0 , \"core_pool_size\":0 , \"current_task_count\":0 , \"current_queue_depth\":0 "));
         } finally {
             perfLogger.setLevel(original);
         }
     }
+
+    @Test
+    void streamAndCacheMetrics() {
+        DefaultProvider provider = new DefaultProvider();
+        provider.setTaskMetricsCollector(Mockito.mock(TaskMetricsCollector.class));
+        StreamMetricsCollector streamService = Mockito.mock(StreamMetricsCollector.class);
+        Mockito.when(streamService.getOutboundQueueCount()).thenReturn(3);
+        Mockito.when(streamService.getOutboundMessageCount()).thenReturn(4L);
+        Mockito.when(streamService.getOutboundDrainTimeNanos()).thenReturn(1000L);
+        provider.setStreamMetricsCollector(streamService);
+        StateCacheMetricsCollector cacheService = Mockito.mock(StateCacheMetricsCollector.class);
+        Mockito.when(cacheService.getStateCacheHitCount()).thenReturn(7L);
+        Mockito.when(cacheService.getStateCacheMissCount()).thenReturn(2L);
+        provider.setStateCacheMetricsCollector(cacheService);
+        IdentityCacheMetricsCollector identityCache = Mockito.mock(IdentityCacheMetricsCollector.class);
+        Mockito.when(identityCache.getIdentityCacheHitCount()).thenReturn(5L);
+        Mockito.when(identityCache.getIdentityCacheMissCount()).thenReturn(1L);
+        Mockito.when(identityCache.getIdentityCacheEvictionCount()).thenReturn(0L);
+        provider.setIdentityCacheMetricsCollector(identityCache);
+
+        Logger perfLogger = LogManager.getLogManager().getLogger("org.hyperledger.Performance");
+        Level original = perfLogger.getLevel();
+        Handler mockHandler = Mockito.mock(Handler.class);
+        try {
+            perfLogger.setLevel(Level.ALL);
+            ArgumentCaptor<LogRecord> argumentCaptor = ArgumentCaptor.forClass(LogRecord.class);
+            perfLogger.addHandler(mockHandler);
+
+            provider.logMetrics();
+            Mockito.verify(mockHandler, Mockito.atLeast(1)).publish(argumentCaptor.capture());
+            assertThat(argumentCaptor.getValue().getMessage())
+                    .contains("\"outbound_queue_depth\":3 , \"outbound_drain_latency_ns\":250 ,")
+                    .contains("\"state_cache_hits\":7 , \"state_cache_misses\":2 ,")
+                    .contains("\"identity_cache_hits\":5 , \"identity_cache_misses\":1 ,")
+                    .contains("\"identity_cache_evictions\":0 }");
+        } finally {
+            perfLogger.removeHandler(mockHandler);
+            perfLogger.setLevel(original);
+        }
+    }
+
+    @Test
+    void transactionMetrics() {
+        // a provider that does not itself log to the performance logger
+        Metrics.initialize(OpenTelemetryMetricsProviderTest.withoutExporters());
+        Metrics.addFunctions(List.of("create"));
+        final ChannelMetrics channel = Metrics.getTransactionMetrics().channel("mychannel");
+        channel.function(ByteString.copyFromUtf8("create")).record(1000, 2000, 4000, true);
+        channel.recordLedgerCall(ChaincodeMessage.Type.GET_STATE, 500, false);
+
+        DefaultProvider provider = new DefaultProvider();
+        provider.setTaskMetricsCollector(Mockito.mock(TaskMetricsCollector.class));
+        provider.setTransactionMetricsCollector(Metrics.getTransactionMetrics());
+
+        Logger perfLogger = LogManager.getLogManager().getLogger("org.hyperledger.Performance");
+        Level original = perfLogger.getLevel();
+        Handler mockHandler = Mockito.mock(Handler.class);
+        try {
+            perfLogger.setLevel(Level.ALL);
+            ArgumentCaptor<LogRecord> argumentCaptor = ArgumentCaptor.forClass(LogRecord.class);
+            perfLogger.addHandler(mockHandler);
+
+            provider.logMetrics();
+            Mockito.verify(mockHandler, Mockito.times(3)).publish(argumentCaptor.capture());
+            assertThat(argumentCaptor.getAllValues().get(1).getMessage())
+                    .contains("\"channel\":\"mychannel\" , \"function\":\"create\" ,")
+                    .contains("\"successes\":1 , \"errors\":0 ,")
+                    .contains("\"total_ns\":{ \"p50\":4000 , \"p99\":4000 , \"p999\":4000 , \"max\":4000 }")
+                    .doesNotContain("contract_execution");
+            assertThat(argumentCaptor.getAllValues().get(2).getMessage())
+                    .contains("\"ledger_call\":\"GET_STATE\" , \"count\":1 , \"errors\":1 ,")
+                    .contains("\"round_trip_ns\":{ \"p50\":500 ,");
+        } finally {
+            perfLogger.removeHandler(mockHandler);
+            perfLogger.setLevel(original);
+            Metrics.initialize(new Properties());
+        }
+    }
 }
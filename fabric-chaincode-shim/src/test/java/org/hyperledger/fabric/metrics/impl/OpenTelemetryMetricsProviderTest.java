@@ -0,0 +1,146 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.metrics.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.protobuf.ByteString;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.LongPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.CollectionRegistration;
+import io.opentelemetry.sdk.metrics.export.MetricReader;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import org.hyperledger.fabric.metrics.ChannelMetrics;
+import org.hyperledger.fabric.metrics.Metrics;
+import org.hyperledger.fabric.metrics.MetricsProvider;
+import org.hyperledger.fabric.protos.peer.ChaincodeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+final class OpenTelemetryMetricsProviderTest {
+
+    private static final class TestReader implements MetricReader {
+        private CollectionRegistration registration = CollectionRegistration.noop();
+
+        @Override
+        public void register(final CollectionRegistration registration) {
+            this.registration = registration;
+        }
+
+        @Override
+        public AggregationTemporality getAggregationTemporality(final InstrumentType instrumentType) {
+            return AggregationTemporality.CUMULATIVE;
+        }
+
+        @Override
+        public CompletableResultCode forceFlush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        Collection<MetricData> collect() {
+            return registration.collectAllMetrics();
+        }
+    }
+
+    private final TestReader reader = new TestReader();
+    private SdkMeterProvider meterProvider;
+
+    @BeforeEach
+    void setup() {
+        meterProvider = SdkMeterProvider.builder().registerMetricReader(reader).build();
+    }
+
+    @AfterEach
+    void teardown() {
+        meterProvider.close();
+        Metrics.initialize(new Properties());
+    }
+
+    static Properties withoutExporters() {
+        final Properties props = new Properties();
+        props.setProperty("CHAINCODE_METRICS_ENABLED", "true");
+        props.setProperty("CHAINCODE_METRICS_PROVIDER", OpenTelemetryMetricsProvider.class.getName());
+        props.setProperty("otel.metrics.exporter", "none");
+        props.setProperty("otel.traces.exporter", "none");
+        props.setProperty("otel.logs.exporter", "none");
+        return props;
+    }
+
+    @Test
+    void initialize() {
+        final MetricsProvider provider = Metrics.initialize(withoutExporters());
+
+        assertThat(provider).isExactlyInstanceOf(OpenTelemetryMetricsProvider.class);
+        assertThat(Metrics.getTransactionMetrics().isEnabled()).isTrue();
+    }
+
+    @Test
+    void transactionMetrics() {
+        Metrics.initialize(withoutExporters());
+        Metrics.addFunctions(List.of("create"));
+        final ChannelMetrics channel = Metrics.getTransactionMetrics().channel("mychannel");
+        channel.function(ByteString.copyFromUtf8("create")).record(1_000, 2_000, 4_000, true);
+        channel.recordLedgerCall(ChaincodeMessage.Type.GET_STATE, 500, true);
+        channel.recordRejection();
+
+        final OpenTelemetryMetricsProvider provider = new OpenTelemetryMetricsProvider();
+        provider.setTransactionMetricsCollector(Metrics.getTransactionMetrics());
+        provider.registerInstruments(meterProvider.get("test"));
+
+        final Collection<MetricData> metrics = reader.collect();
+
+        final List<LongPointData> transactions = points(metrics, "chaincode.transactions");
+        assertThat(transactions)
+                .filteredOn(p -> "success".equals(p.getAttributes().get(AttributeKey.stringKey("outcome"))))
+                .singleElement()
+                .satisfies(p -> {
+                    assertThat(p.getValue()).isEqualTo(1);
+                    assertThat(p.getAttributes().get(AttributeKey.stringKey("channel")))
+                            .isEqualTo("mychannel");
+                    assertThat(p.getAttributes().get(AttributeKey.stringKey("function")))
+                            .isEqualTo("create");
+                });
+
+        assertThat(points(metrics, "chaincode.transaction.duration"))
+                .filteredOn(p -> "total".equals(p.getAttributes().get(AttributeKey.stringKey("phase"))))
+                .filteredOn(p -> "1".equals(p.getAttributes().get(AttributeKey.stringKey("quantile"))))
+                .singleElement()
+                .extracting(LongPointData::getValue)
+                .isEqualTo(4_000L);
+
+        assertThat(points(metrics, "chaincode.ledger.call.duration"))
+                .allSatisfy(p -> assertThat(p.getAttributes().get(AttributeKey.stringKey("ledger_call")))
+                        .isEqualTo("GET_STATE"))
+                .hasSize(4);
+
+        assertThat(points(metrics, "chaincode.transactions.rejected"))
+                .singleElement()
+                .extracting(LongPointData::getValue)
+                .isEqualTo(1L);
+    }
+
+    private static List<LongPointData> points(final Collection<MetricData> metrics, final String name) {
+        return metrics.stream()
+                .filter(m -> m.getName().equals(name))
+                .flatMap(m -> m.getData().getPoints().stream())
+                .map(LongPointData.class::cast)
+                .collect(Collectors.toList());
+    }
+}
@@ -6,7 +6,10 @@
 package org.hyperledger.fabric.shim;
 
 import java.time.Instant;
+import static org.assertj.core.api.Assertions.assertThat;
+
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import org.hyperledger.fabric.protos.peer.ChaincodeEvent;
@@ -23,6 +26,9 @@ final class ChaincodeStubTest {
 
     @SuppressWarnings("PMD.ReturnEmptyCollectionRatherThanNull")
     private static final class FakeStub implements ChaincodeStub {
+        // returned by getStateByPartialCompositeKey(CompositeKey), in key order
+        private final List<KeyValue> keys = new ArrayList<>();
+        private boolean closed;
 
         @Override
         public List<byte[]> getArgs() {
@@ -123,8 +129,19 @@ final class ChaincodeStubTest {
 
         @Override
         public QueryResultsIterator<KeyValue> getStateByPartialCompositeKey(final CompositeKey compositeKey) {
-            // TODO Auto-generated method stub
-            return null;
+            return new QueryResultsIterator<KeyValue>() {
+                @Override
+                public Iterator<KeyValue> iterator() {
+                    return keys.stream()
+                            .filter(kv -> kv.getKey().startsWith(compositeKey.toString()))
+                            .iterator();
+                }
+
+                @Override
+                public void close() {
+                    closed = true;
+                }
+            };
         }
 
         @Override
@@ -304,4 +321,57 @@ final class ChaincodeStubTest {
         stub.getPrivateDataUTF8("collection", "key");
         stub.putStringState("key", "value");
     }
+
+    private static KeyValue keyValue(final CompositeKey key) {
+        return new KeyValue() {
+            @Override
+            public String getKey() {
+                return key.toString();
+            }
+
+            @Override
+            public byte[] getValue() {
+                return new byte[0];
+            }
+
+            @Override
+            public String getStringValue() {
+                return "";
+            }
+        };
+    }
+
+    @Test
+    void compositeKeyRangeFiltersPartialCompositeKeyResults() {
+        final FakeStub stub = new FakeStub();
+        for (final String amount : new String[] {"05", "10", "15", "20", "25"}) {
+            stub.keys.add(keyValue(new CompositeKey("payment", "alice", amount, "tx" + amount)));
+        }
+        stub.keys.add(keyValue(new CompositeKey("payment", "bob", "15", "tx")));
+        final CompositeKey alice = new CompositeKey("payment", "alice");
+
+        final List<String> inRange = new ArrayList<>();
+        try (QueryResultsIterator<KeyValue> results = stub.getStateByCompositeKeyRange(alice, "10", "20")) {
+            results.forEach(kv -> inRange.add(
+                    CompositeKey.parseCompositeKey(kv.getKey()).getAttributes().get(1)));
+        }
+        assertThat(inRange).containsExactly("10", "15", "20");
+        assertThat(stub.closed).isTrue();
+
+        final List<String> unbounded = new ArrayList<>();
+        stub.getStateByCompositeKeyRange(alice, null, null).forEach(kv -> unbounded.add(kv.getKey()));
+        assertThat(unbounded).hasSize(5);
+
+        final List<String> fromStart = new ArrayList<>();
+        stub.getStateByCompositeKeyRange(alice, null, "05").forEach(kv -> fromStart.add(kv.getKey()));
+        assertThat(fromStart).hasSize(1);
+    }
+
+    @Test
+    void compositeKeyAttributesCompareInLedgerOrder() {
+        // U+FF5E sorts before U+1F600 in UTF-8, but after its surrogates in UTF-16
+        assertThat(CompositeKeyRangeIterator.compare("\uFF5E", "\uD83D\uDE00")).isNegative();
+        assertThat(CompositeKeyRangeIterator.compare("a", "ab")).isNegative();
+        assertThat(CompositeKeyRangeIterator.compare("b", "b")).isZero();
+    }
 }
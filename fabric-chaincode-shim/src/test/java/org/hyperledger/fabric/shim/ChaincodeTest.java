@@ -8,6 +8,7 @@ package org.hyperledger.fabric.shim;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import com.google.protobuf.ByteString;
 import java.nio.charset.StandardCharsets;
 import org.junit.jupiter.api.Test;
 
@@ -45,6 +46,27 @@ final class ChaincodeTest {
         assertThat("no payload").as("Incorrect payload").isEqualTo(resp.getStringPayload());
     }
 
+    @Test
+    void testResponseWithPayloadBytes() {
+        final ByteString payload = ByteString.copyFromUtf8("payload");
+        final Chaincode.Response resp = Chaincode.Response.withPayloadBytes(200, "No message", payload);
+        assertThat(resp.getStatus()).isEqualTo(Chaincode.Response.Status.SUCCESS);
+        assertThat(resp.getMessage()).isEqualTo("No message");
+        assertThat(resp.getPayloadBytes()).isSameAs(payload);
+        assertThat(resp.getPayload()).isEqualTo("payload".getBytes(StandardCharsets.UTF_8));
+        assertThat(resp.getStringPayload()).isEqualTo("payload");
+    }
+
+    @Test
+    void testPayloadBytesFromArray() {
+        final Chaincode.Response resp =
+                new Chaincode.Response(200, "No message", "payload".getBytes(StandardCharsets.UTF_8));
+        assertThat(resp.getPayloadBytes()).isEqualTo(ByteString.copyFromUtf8("payload"));
+
+        assertThat(new Chaincode.Response(200, "No message", null).getPayloadBytes()).isNull();
+        assertThat(Chaincode.Response.withPayloadBytes(200, "No message", null).getPayload()).isNull();
+    }
+
     @Test
     void testStatus() {
         assertThat(Chaincode.Response.Status.SUCCESS)
@@ -17,13 +17,20 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import com.google.protobuf.ByteString;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.trace.data.SpanData;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Properties;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.hyperledger.fabric.metrics.ChannelMetrics;
+import org.hyperledger.fabric.metrics.FunctionMetrics;
+import org.hyperledger.fabric.metrics.LedgerCallMetrics;
+import org.hyperledger.fabric.metrics.Metrics;
 import org.hyperledger.fabric.protos.peer.ChaincodeInput;
 import org.hyperledger.fabric.protos.peer.ChaincodeMessage;
 import org.hyperledger.fabric.protos.peer.Response;
@@ -53,6 +60,7 @@ import org.hyperledger.fabric.shim.mock.peer.QueryNextStep;
 import org.hyperledger.fabric.shim.mock.peer.RegisterStep;
 import org.hyperledger.fabric.shim.mock.peer.ScenarioStep;
 import org.hyperledger.fabric.shim.utils.MessageUtil;
+import org.hyperledger.fabric.traces.impl.TestSpanExporterProvider;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -652,6 +660,145 @@ final class ChaincodeFVTest {
                 "Wrong debug level for " + cb.getClass().getPackage().getName());
     }
 
+    @Test
+    void testTransactionMetrics() throws Exception {
+        final ChaincodeBase cb = new ChaincodeBase() {
+            @Override
+            public Response init(final ChaincodeStub stub) {
+                return ResponseUtils.newSuccessResponse();
+            }
+
+            @Override
+            public Response invoke(final ChaincodeStub stub) {
+                stub.getStringState("a");
+                return ResponseUtils.newSuccessResponse();
+            }
+
+            @Override
+            public Properties getChaincodeConfig() {
+                final Properties props = super.getChaincodeConfig();
+                props.setProperty("CHAINCODE_METRICS_ENABLED", "true");
+                props.setProperty(
+                        "CHAINCODE_METRICS_PROVIDER",
+                        "org.hyperledger.fabric.metrics.impl.OpenTelemetryMetricsProvider");
+                props.setProperty("otel.metrics.exporter", "none");
+                props.setProperty("otel.traces.exporter", "none");
+                props.setProperty("otel.logs.exporter", "none");
+                return props;
+            }
+        };
+
+        final ByteString invokePayload = ChaincodeInput.newBuilder()
+                .addArgs(ByteString.copyFromUtf8("invoke"))
+                .addArgs(ByteString.copyFromUtf8("a"))
+                .build()
+                .toByteString();
+        final ChaincodeMessage invokeMsg =
+                MessageUtil.newEventMessage(TRANSACTION, "metricsChannel", "0", invokePayload, null);
+
+        final List<ScenarioStep> scenario = new ArrayList<>();
+        scenario.add(new RegisterStep());
+        scenario.add(new GetValueStep("100"));
+        scenario.add(new CompleteStep());
+
+        // chaincode that is not a contract names the functions whose metrics are kept separately
+        Metrics.addFunctions(List.of("invoke"));
+        server = ChaincodeMockPeer.startServer(scenario);
+
+        cb.start(new String[] {"-a", "127.0.0.1:7052", "-i", "testId"});
+        ChaincodeMockPeer.checkScenarioStepEnded(server, 1, 5000, TimeUnit.MILLISECONDS);
+
+        server.send(invokeMsg);
+        ChaincodeMockPeer.checkScenarioStepEnded(server, 3, 5000, TimeUnit.MILLISECONDS);
+
+        final ChannelMetrics channel = Metrics.getTransactionMetrics().channel("metricsChannel");
+        final FunctionMetrics function = channel.function(ByteString.copyFromUtf8("invoke"));
+        // the transaction is recorded once its response has been sent
+        for (int i = 0; i < 50 && function.getSuccessCount() == 0; i++) {
+            Thread.sleep(100);
+        }
+        assertThat(function.getSuccessCount(), is(1L));
+        assertThat(function.getErrorCount(), is(0L));
+        assertThat(function.getTotal().getCount(), is(1L));
+
+        final List<LedgerCallMetrics> ledgerCalls = new ArrayList<>(channel.getLedgerCallMetrics());
+        assertThat(ledgerCalls.size(), is(1));
+        assertThat(ledgerCalls.get(0).getType(), is("GET_STATE"));
+        assertThat(ledgerCalls.get(0).getRoundTrip().getCount(), is(1L));
+        assertThat(
+                ledgerCalls.get(0).getRoundTrip().getMaxNanos() <= function.getExecution().getMaxNanos(), is(true));
+    }
+
+    @Test
+    void testLedgerCallTraces() throws Exception {
+        final ChaincodeBase cb = new ChaincodeBase() {
+            @Override
+            public Response init(final ChaincodeStub stub) {
+                return ResponseUtils.newSuccessResponse();
+            }
+
+            @Override
+            public Response invoke(final ChaincodeStub stub) {
+                stub.getStringState("a");
+                return ResponseUtils.newSuccessResponse();
+            }
+
+            @Override
+            public Properties getChaincodeConfig() {
+                final Properties props = super.getChaincodeConfig();
+                props.setProperty("CHAINCODE_TRACES_ENABLED", "true");
+                props.setProperty(
+                        "CHAINCODE_TRACES_PROVIDER", "org.hyperledger.fabric.traces.impl.OpenTelemetryTracesProvider");
+                props.setProperty("CHAINCODE_TRACES_LEDGER_CALLS", "spans");
+                props.setProperty("OTEL_TRACES_SAMPLER", "always_on");
+                props.setProperty("OTEL_BSP_SCHEDULE_DELAY", "100");
+                props.setProperty("otel.traces.exporter", "TestSpanExporterProvider");
+                props.setProperty("otel.metrics.exporter", "none");
+                props.setProperty("otel.logs.exporter", "none");
+                return props;
+            }
+        };
+
+        final ByteString invokePayload = ChaincodeInput.newBuilder()
+                .addArgs(ByteString.copyFromUtf8("tracedInvoke"))
+                .addArgs(ByteString.copyFromUtf8("a"))
+                .build()
+                .toByteString();
+        final ChaincodeMessage invokeMsg =
+                MessageUtil.newEventMessage(TRANSACTION, "testChannel", "0", invokePayload, null);
+
+        final List<ScenarioStep> scenario = new ArrayList<>();
+        scenario.add(new RegisterStep());
+        scenario.add(new GetValueStep("100"));
+        scenario.add(new CompleteStep());
+
+        server = ChaincodeMockPeer.startServer(scenario);
+
+        cb.start(new String[] {"-a", "127.0.0.1:7052", "-i", "testId"});
+        ChaincodeMockPeer.checkScenarioStepEnded(server, 1, 5000, TimeUnit.MILLISECONDS);
+
+        server.send(invokeMsg);
+        ChaincodeMockPeer.checkScenarioStepEnded(server, 3, 5000, TimeUnit.MILLISECONDS);
+
+        SpanData transaction = null;
+        SpanData ledgerCall = null;
+        for (int i = 0; i < 50 && (transaction == null || ledgerCall == null); i++) {
+            Thread.sleep(100);
+            synchronized (TestSpanExporterProvider.SPANS) {
+                for (final SpanData span : TestSpanExporterProvider.SPANS) {
+                    if (span.getName().equals("tracedInvoke")) {
+                        transaction = span;
+                    } else if (span.getName().equals("GET_STATE")) {
+                        ledgerCall = span;
+                    }
+                }
+            }
+        }
+        assertThat(transaction != null && ledgerCall != null, is(true));
+        assertThat(ledgerCall.getParentSpanId(), is(transaction.getSpanId()));
+        assertThat(transaction.getAttributes().get(AttributeKey.longKey("queue_wait_ns")) != null, is(true));
+    }
+
     private void setLogLevel(final String logLevel) {
         environmentVariables.set("CORE_CHAINCODE_LOGGING_SHIM", logLevel);
         environmentVariables.set("CORE_CHAINCODE_LOGGING_LEVEL", logLevel);
@@ -6,7 +6,10 @@
 
 package org.hyperledger.fabric.shim.impl;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import com.google.protobuf.ByteString;
+import java.util.Arrays;
 import org.hyperledger.fabric.protos.peer.ChaincodeEvent;
 import org.hyperledger.fabric.protos.peer.ChaincodeID;
 import org.hyperledger.fabric.protos.peer.ChaincodeMessage;
@@ -42,6 +45,37 @@ final class ChaincodeMessageFactoryTest {
         ChaincodeMessageFactory.newGetStateEventMessage(channelId, txId, collection, key);
     }
 
+    @Test
+    void testNewGetStateMultipleEventMessage() {
+        ChaincodeMessageFactory.newGetStateMultipleEventMessage(channelId, txId, collection, Arrays.asList(key, key));
+    }
+
+    @Test
+    void testNewWriteEventMessage() {
+        assertThat(ChaincodeMessageFactory.newWriteEventMessage(
+                        channelId, txId, ChaincodeMessageFactory.newPutStateRecord(collection, key, value)))
+                .isEqualTo(ChaincodeMessageFactory.newPutStateEventMessage(channelId, txId, collection, key, value));
+        assertThat(ChaincodeMessageFactory.newWriteEventMessage(
+                        channelId,
+                        txId,
+                        ChaincodeMessageFactory.newPutStateMetadataRecord(collection, key, metakey, value)))
+                .isEqualTo(ChaincodeMessageFactory.newPutStateMetadataEventMessage(
+                        channelId, txId, collection, key, metakey, value));
+        assertThat(ChaincodeMessageFactory.newWriteEventMessage(
+                        channelId, txId, ChaincodeMessageFactory.newDeleteStateRecord(collection, key)))
+                .isEqualTo(ChaincodeMessageFactory.newDeleteStateEventMessage(channelId, txId, collection, key));
+        assertThat(ChaincodeMessageFactory.newWriteEventMessage(
+                        channelId, txId, ChaincodeMessageFactory.newPurgeStateRecord(collection, key)))
+                .isEqualTo(ChaincodeMessageFactory.newPurgeStateEventMessage(channelId, txId, collection, key));
+    }
+
+    @Test
+    void testNewWriteBatchStateEventMessage() {
+        final ChaincodeMessage msg = ChaincodeMessageFactory.newWriteBatchStateEventMessage(
+                channelId, txId, Arrays.asList(ChaincodeMessageFactory.newDeleteStateRecord(collection, key)));
+        assertThat(msg.getType()).isEqualTo(Type.WRITE_BATCH_STATE);
+    }
+
     @Test
     void testNewGetStateMetadataEventMessage() {
         ChaincodeMessageFactory.newGetStateMetadataEventMessage(channelId, txId, collection, key);
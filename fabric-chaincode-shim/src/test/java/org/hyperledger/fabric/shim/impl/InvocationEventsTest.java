@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.shim.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.protobuf.ByteString;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.hyperledger.fabric.metrics.Metrics;
+import org.hyperledger.fabric.protos.peer.ChaincodeInput;
+import org.hyperledger.fabric.protos.peer.ChaincodeMessage;
+import org.hyperledger.fabric.shim.Chaincode;
+import org.hyperledger.fabric.shim.ResponseUtils;
+import org.hyperledger.fabric.traces.Traces;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+final class InvocationEventsTest {
+
+    private static final String PREFIX = "org.hyperledger.fabric.chaincode.";
+
+    private final ChaincodeMessage transaction = ChaincodeMessageFactory.newEventMessage(
+            ChaincodeMessage.Type.TRANSACTION,
+            "mychannel",
+            "txid",
+            ChaincodeInput.newBuilder()
+                    .addArgs(ByteString.copyFromUtf8("create"))
+                    .addArgs(ByteString.copyFromUtf8("asset1"))
+                    .build()
+                    .toByteString());
+
+    @BeforeEach
+    void setup() {
+        Metrics.initialize(new Properties());
+        Traces.initialize(new Properties());
+    }
+
+    private static List<RecordedEvent> record(final Runnable runnable) throws Exception {
+        final Path file = Files.createTempFile("invocation-events", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (final String name : new String[] {
+                "TaskQueued", "TaskRejected", "TaskStarted", "TaskCompleted", "StubRequestSent", "ResponseReceived"
+            }) {
+                recording.enable(PREFIX + name);
+            }
+            recording.start();
+            runnable.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().startsWith(PREFIX))
+                    .collect(Collectors.toList());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void taskQueued() throws Exception {
+        final List<RecordedEvent> events = record(() -> InvocationEvents.taskQueued(transaction));
+
+        assertThat(events).singleElement().satisfies(event -> {
+            assertThat(event.getEventType().getName()).isEqualTo(PREFIX + "TaskQueued");
+            assertThat(event.getString("txId")).isEqualTo("txid");
+            assertThat(event.getString("channelId")).isEqualTo("mychannel");
+            assertThat(event.getString("function")).isEqualTo("create");
+            assertThat(event.getString("messageType")).isEqualTo("TRANSACTION");
+            assertThat(event.getLong("payloadSize")).isEqualTo(transaction.getPayload().size());
+        });
+    }
+
+    @Test
+    void responseReceived() throws Exception {
+        final ChaincodeMessage request = ChaincodeMessageFactory.newGetStateEventMessage("mychannel", "txid", "", "a");
+        final ChaincodeMessage response = ChaincodeMessageFactory.newEventMessage(
+                ChaincodeMessage.Type.RESPONSE, "mychannel", "txid", ByteString.copyFromUtf8("value"));
+
+        final List<RecordedEvent> events = record(() -> {
+            InvocationEvents.stubRequestSent(request, ByteString.copyFromUtf8("create"));
+            InvocationEvents.responseReceived(request, response, ByteString.copyFromUtf8("create"), 1_500);
+        });
+
+        assertThat(events).hasSize(2);
+        assertThat(events.get(0).getString("messageType")).isEqualTo("GET_STATE");
+        assertThat(events.get(1).getString("messageType")).isEqualTo("RESPONSE");
+        assertThat(events.get(1).getString("requestType")).isEqualTo("GET_STATE");
+        assertThat(events.get(1).getString("function")).isEqualTo("create");
+        assertThat(events.get(1).getLong("payloadSize")).isEqualTo(5);
+        assertThat(events.get(1).getDuration("roundTrip")).isEqualTo(Duration.ofNanos(1_500));
+    }
+
+    @Test
+    void taskLifecycle() throws Exception {
+        final Chaincode chaincode = mock(Chaincode.class);
+        when(chaincode.invoke(any())).thenReturn(ResponseUtils.newSuccessResponse("done"));
+        final ChaincodeInvocationTask task =
+                new ChaincodeInvocationTask(transaction, ChaincodeMessage.Type.TRANSACTION, m -> {}, chaincode);
+
+        final List<RecordedEvent> events = record(task::call);
+
+        assertThat(events)
+                .extracting(e -> e.getEventType().getName())
+                .containsExactly(PREFIX + "TaskStarted", PREFIX + "TaskCompleted");
+        assertThat(events.get(0).getString("function")).isEqualTo("create");
+        assertThat(events.get(1).getString("messageType")).isEqualTo("COMPLETED");
+        assertThat(events.get(1).getBoolean("success")).isTrue();
+    }
+
+    @Test
+    void disabled() throws Exception {
+        try (Recording recording = new Recording()) {
+            recording.disable(PREFIX + "TaskQueued");
+            recording.start();
+            // nothing is decoded or recorded for events not enabled in the recording
+            InvocationEvents.taskQueued(ChaincodeMessageFactory.newEventMessage(
+                    ChaincodeMessage.Type.TRANSACTION, "mychannel", "txid", ByteString.copyFromUtf8("not input")));
+            recording.stop();
+            final Path file = Files.createTempFile("invocation-events", ".jfr");
+            try {
+                recording.dump(file);
+                assertThat(RecordingFile.readAllEvents(file))
+                        .noneMatch(e -> e.getEventType().getName().startsWith(PREFIX));
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -5,19 +5,49 @@
  */
 package org.hyperledger.fabric.shim.impl;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.GET_STATE;
 import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.GET_STATE_BY_RANGE;
+import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.GET_STATE_MULTIPLE;
+import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.PUT_STATE;
+import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.WRITE_BATCH_STATE;
+import static org.hyperledger.fabric.shim.ledger.SortableAttributes.INT;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Timestamp;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import org.hyperledger.fabric.protos.common.ChannelHeader;
+import org.hyperledger.fabric.protos.common.Header;
+import org.hyperledger.fabric.protos.common.HeaderType;
+import org.hyperledger.fabric.protos.common.SignatureHeader;
+import org.hyperledger.fabric.protos.peer.ChaincodeInput;
 import org.hyperledger.fabric.protos.peer.ChaincodeMessage;
+import org.hyperledger.fabric.protos.peer.ChaincodeProposalPayload;
+import org.hyperledger.fabric.protos.peer.GetState;
 import org.hyperledger.fabric.protos.peer.GetStateByRange;
+import org.hyperledger.fabric.protos.peer.GetStateMultiple;
+import org.hyperledger.fabric.protos.peer.GetStateMultipleResult;
+import org.hyperledger.fabric.protos.peer.Proposal;
+import org.hyperledger.fabric.protos.peer.PutState;
 import org.hyperledger.fabric.protos.peer.QueryResponse;
+import org.hyperledger.fabric.protos.peer.SignedProposal;
+import org.hyperledger.fabric.protos.peer.WriteBatchState;
+import org.hyperledger.fabric.protos.peer.WriteRecord;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
 import org.hyperledger.fabric.shim.ledger.KeyValue;
 import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
 import org.junit.jupiter.api.BeforeEach;
@@ -109,5 +139,458 @@ final class InvocationStubImplTest {
                     })
                     .hasMessageContaining("not allowed");
         }
+
+        @Test
+        void compositeKeyRange() throws InvalidProtocolBufferException {
+            final CompositeKey prefix = new CompositeKey("payment", "alice");
+            stubImpl.getStateByCompositeKeyRange(prefix, INT.encode(10), INT.encode(20));
+            stubImpl.getStateByCompositeKeyRange(prefix, null, null);
+
+            verify(mockHandler, times(2)).invoke(chaincodeMessageCaptor.capture());
+            final List<ChaincodeMessage> msgs = chaincodeMessageCaptor.getAllValues();
+            assertThat(msgs.get(0).getType()).isEqualTo(GET_STATE_BY_RANGE);
+
+            final GetStateByRange range = GetStateByRange.parseFrom(msgs.get(0).getPayload());
+            assertThat(range.getStartKey()).isEqualTo("\u0000payment\u0000alice\u00008000000a");
+            assertThat(range.getEndKey()).isEqualTo("\u0000payment\u0000alice\u000080000014\u0000\udbff\udfff");
+
+            final GetStateByRange all = GetStateByRange.parseFrom(msgs.get(1).getPayload());
+            assertThat(all.getStartKey()).isEqualTo(prefix.toString());
+            assertThat(all.getEndKey()).isEqualTo(prefix + "\udbff\udfff");
+        }
+    }
+
+    @Nested
+    final class GetStatesTests {
+
+        private ArgumentCaptor<ChaincodeMessage> chaincodeMessageCaptor;
+        private ChaincodeInvocationTask mockHandler;
+        private final List<String> keys = Arrays.asList("key1", "key2", "key3");
+
+        @BeforeEach
+        void beforeEach() {
+            mockHandler = mock(ChaincodeInvocationTask.class);
+            chaincodeMessageCaptor = ArgumentCaptor.forClass(ChaincodeMessage.class);
+        }
+
+        private InvocationStubImpl newStub(final PeerCapabilities capabilities) throws Exception {
+            when(mockHandler.getPeerCapabilities()).thenReturn(capabilities);
+            final ChaincodeMessage mockMessage =
+                    ChaincodeMessageFactory.newGetStateEventMessage(channelId, txId, "", "key");
+            return new InvocationStubImpl(mockMessage, mockHandler);
+        }
+
+        private ByteString result(final String... values) {
+            final GetStateMultipleResult.Builder builder = GetStateMultipleResult.newBuilder();
+            for (final String value : values) {
+                builder.addValues(ByteString.copyFromUtf8(value));
+            }
+            return builder.build().toByteString();
+        }
+
+        @Test
+        void singleRequestWhenSupported() throws Exception {
+            final InvocationStubImpl stubImpl = newStub(new PeerCapabilities(true, 0, false, 0));
+            when(mockHandler.invoke(any())).thenReturn(result("one", "", "three"));
+
+            final List<byte[]> values = stubImpl.getStates(keys);
+
+            verify(mockHandler).invoke(chaincodeMessageCaptor.capture());
+            final ChaincodeMessage msg = chaincodeMessageCaptor.getValue();
+            assertThat(msg.getType()).isEqualTo(GET_STATE_MULTIPLE);
+            final GetStateMultiple request = GetStateMultiple.parseFrom(msg.getPayload());
+            assertThat(request.getKeysList()).containsExactlyElementsOf(keys);
+            assertThat(request.getCollection()).isEmpty();
+
+            assertThat(values).extracting(value -> new String(value, UTF_8)).containsExactly("one", "", "three");
+        }
+
+        @Test
+        void splitIntoBatches() throws Exception {
+            final InvocationStubImpl stubImpl = newStub(new PeerCapabilities(true, 2, false, 0));
+            when(mockHandler.invoke(any())).thenReturn(result("one", "two"), result("three"));
+
+            final List<byte[]> values = stubImpl.getPrivateDataMultiple("collection", keys);
+
+            verify(mockHandler, times(2)).invoke(chaincodeMessageCaptor.capture());
+            final List<ChaincodeMessage> messages = chaincodeMessageCaptor.getAllValues();
+            assertThat(GetStateMultiple.parseFrom(messages.get(0).getPayload()).getKeysList())
+                    .containsExactly("key1", "key2");
+            final GetStateMultiple second = GetStateMultiple.parseFrom(messages.get(1).getPayload());
+            assertThat(second.getKeysList()).containsExactly("key3");
+            assertThat(second.getCollection()).isEqualTo("collection");
+
+            assertThat(values).extracting(value -> new String(value, UTF_8)).containsExactly("one", "two", "three");
+        }
+
+        @Test
+        void individualRequestsWhenNotSupported() throws Exception {
+            final InvocationStubImpl stubImpl = newStub(null);
+            when(mockHandler.invoke(any()))
+                    .thenReturn(
+                            ByteString.copyFromUtf8("one"),
+                            ByteString.copyFromUtf8("two"),
+                            ByteString.copyFromUtf8("three"));
+
+            final List<byte[]> values = stubImpl.getStates(keys);
+
+            verify(mockHandler, times(3)).invoke(chaincodeMessageCaptor.capture());
+            final List<ChaincodeMessage> messages = chaincodeMessageCaptor.getAllValues();
+            for (int i = 0; i < keys.size(); i++) {
+                assertThat(messages.get(i).getType()).isEqualTo(GET_STATE);
+                assertThat(GetState.parseFrom(messages.get(i).getPayload()).getKey())
+                        .isEqualTo(keys.get(i));
+            }
+            assertThat(values).extracting(value -> new String(value, UTF_8)).containsExactly("one", "two", "three");
+        }
+
+        @Test
+        void wrongNumberOfValues() throws Exception {
+            final InvocationStubImpl stubImpl = newStub(new PeerCapabilities(true, 0, false, 0));
+            when(mockHandler.invoke(any())).thenReturn(result("one"));
+
+            assertThatThrownBy(() -> stubImpl.getStates(keys))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("Expected 3 values");
+        }
+
+        @Test
+        void invalidCollection() throws Exception {
+            final InvocationStubImpl stubImpl = newStub(new PeerCapabilities(true, 0, false, 0));
+
+            assertThatThrownBy(() -> stubImpl.getPrivateDataMultiple("", keys))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    final class WriteBatchingTests {
+
+        private ArgumentCaptor<ChaincodeMessage> chaincodeMessageCaptor;
+        private ChaincodeInvocationTask mockHandler;
+
+        @BeforeEach
+        void beforeEach() {
+            mockHandler = mock(ChaincodeInvocationTask.class);
+            chaincodeMessageCaptor = ArgumentCaptor.forClass(ChaincodeMessage.class);
+            when(mockHandler.invoke(any())).thenReturn(ByteString.EMPTY);
+        }
+
+        private InvocationStubImpl newStub(final PeerCapabilities capabilities, final boolean bufferWrites)
+                throws Exception {
+            when(mockHandler.getPeerCapabilities()).thenReturn(capabilities);
+            when(mockHandler.getStubOptions()).thenReturn(new StubOptions(bufferWrites, null));
+            final ChaincodeMessage mockMessage =
+                    ChaincodeMessageFactory.newGetStateEventMessage(channelId, txId, "", "key");
+            return new InvocationStubImpl(mockMessage, mockHandler);
+        }
+
+        private void writeSomeKeys(final InvocationStubImpl stubImpl) {
+            stubImpl.putStringState("key1", "one");
+            stubImpl.putStringState("key2", "two");
+            stubImpl.delState("key1");
+            stubImpl.putPrivateData("collection", "key1", "three");
+        }
+
+        @Test
+        void writesSentImmediatelyByDefault() throws Exception {
+            final InvocationStubImpl stubImpl = newStub(new PeerCapabilities(false, 0, true, 0), false);
+
+            stubImpl.putStringState("key1", "one");
+
+            verify(mockHandler).invoke(chaincodeMessageCaptor.capture());
+            final ChaincodeMessage msg = chaincodeMessageCaptor.getValue();
+            assertThat(msg.getType()).isEqualTo(PUT_STATE);
+            assertThat(PutState.parseFrom(msg.getPayload()).getKey()).isEqualTo("key1");
+        }
+
+        @Test
+        void singleBatchWhenSupported() throws Exception {
+            final InvocationStubImpl stubImpl = newStub(new PeerCapabilities(false, 0, true, 0), true);
+
+            writeSomeKeys(stubImpl);
+            verify(mockHandler, never()).invoke(any());
+
+            stubImpl.flushWrites();
+            verify(mockHandler).invoke(chaincodeMessageCaptor.capture());
+            final ChaincodeMessage msg = chaincodeMessageCaptor.getValue();
+            assertThat(msg.getType()).isEqualTo(WRITE_BATCH_STATE);
+
+            final List<WriteRecord> records = WriteBatchState.parseFrom(msg.getPayload()).getRecList();
+            assertThat(records).extracting(WriteRecord::getType)
+                    .containsExactly(
+                            WriteRecord.Type.PUT_STATE, WriteRecord.Type.DEL_STATE, WriteRecord.Type.PUT_STATE);
+            assertThat(records).extracting(WriteRecord::getKey).containsExactly("key2", "key1", "key1");
+            assertThat(records).extracting(WriteRecord::getCollection).containsExactly("", "", "collection");
+
+            // nothing left to send
+            stubImpl.flushWrites();
+            verify(mockHandler).invoke(any());
+        }
+
+        @Test
+        void splitIntoBatches() throws Exception {
+            final InvocationStubImpl stubImpl = newStub(new PeerCapabilities(false, 0, true, 2), true);
+
+            writeSomeKeys(stubImpl);
+            stubImpl.flushWrites();
+
+            verify(mockHandler, times(2)).invoke(chaincodeMessageCaptor.capture());
+            final List<ChaincodeMessage> messages = chaincodeMessageCaptor.getAllValues();
+            assertThat(WriteBatchState.parseFrom(messages.get(0).getPayload()).getRecCount())
+                    .isEqualTo(2);
+            assertThat(WriteBatchState.parseFrom(messages.get(1).getPayload()).getRecCount())
+                    .isEqualTo(1);
+        }
+
+        @Test
+        void individualWritesWhenBatchNotSupported() throws Exception {
+            final InvocationStubImpl stubImpl = newStub(PeerCapabilities.NONE, true);
+
+            writeSomeKeys(stubImpl);
+            stubImpl.flushWrites();
+
+            verify(mockHandler, times(3)).invoke(chaincodeMessageCaptor.capture());
+            assertThat(chaincodeMessageCaptor.getAllValues())
+                    .extracting(ChaincodeMessage::getType)
+                    .containsExactly(PUT_STATE, ChaincodeMessage.Type.DEL_STATE, PUT_STATE);
+        }
+    }
+
+    @Nested
+    final class StateCacheTests {
+
+        private ChaincodeInvocationTask mockHandler;
+        private StateCacheStats stats;
+        private InvocationStubImpl stubImpl;
+
+        @BeforeEach
+        void beforeEach() throws Exception {
+            mockHandler = mock(ChaincodeInvocationTask.class);
+            stats = new StateCacheStats();
+            when(mockHandler.getStubOptions()).thenReturn(new StubOptions(false, stats));
+            when(mockHandler.invoke(any())).thenReturn(ByteString.copyFromUtf8("ledger"));
+            final ChaincodeMessage mockMessage =
+                    ChaincodeMessageFactory.newGetStateEventMessage(channelId, txId, "", "key");
+            stubImpl = new InvocationStubImpl(mockMessage, mockHandler);
+        }
+
+        @Test
+        void repeatedReadsAnsweredLocally() {
+            assertThat(stubImpl.getStringState("key1")).isEqualTo("ledger");
+            assertThat(stubImpl.getStringState("key1")).isEqualTo("ledger");
+            assertThat(stubImpl.getPrivateDataUTF8("collection", "key1")).isEqualTo("ledger");
+
+            // once for world state, once for the collection
+            verify(mockHandler, times(2)).invoke(any());
+            assertThat(stats.getStateCacheHitCount()).isEqualTo(1);
+            assertThat(stats.getStateCacheMissCount()).isEqualTo(2);
+        }
+
+        @Test
+        void readsReflectWrites() {
+            stubImpl.putStringState("key1", "written");
+
+            // the first read still goes to the peer, for the read set
+            assertThat(stubImpl.getStringState("key1")).isEqualTo("written");
+            verify(mockHandler, times(2)).invoke(any());
+
+            stubImpl.delState("key1");
+            assertThat(stubImpl.getState("key1")).isEmpty();
+            verify(mockHandler, times(3)).invoke(any());
+        }
+
+        @Test
+        void multipleReadsOnlyFetchMissingKeys() {
+            stubImpl.getState("key1");
+
+            final List<byte[]> values = stubImpl.getStates(Arrays.asList("key1", "key2", "key2"));
+
+            assertThat(values)
+                    .extracting(value -> new String(value, UTF_8))
+                    .containsExactly("ledger", "ledger", "ledger");
+            final ArgumentCaptor<ChaincodeMessage> captor = ArgumentCaptor.forClass(ChaincodeMessage.class);
+            verify(mockHandler, times(2)).invoke(captor.capture());
+            assertThat(captor.getAllValues())
+                    .extracting(msg -> GetState.parseFrom(msg.getPayload()).getKey())
+                    .containsExactly("key1", "key2");
+            assertThat(stats.getStateCacheHitCount()).isEqualTo(2);
+            assertThat(stats.getStateCacheMissCount()).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    final class ByteStringTests {
+
+        private final ByteString value = ByteString.copyFromUtf8("value");
+        private ChaincodeInvocationTask mockHandler;
+        private InvocationStubImpl stubImpl;
+
+        @BeforeEach
+        void beforeEach() throws Exception {
+            mockHandler = mock(ChaincodeInvocationTask.class);
+            when(mockHandler.invoke(any())).thenReturn(value);
+            final ChaincodeMessage mockMessage =
+                    ChaincodeMessageFactory.newGetStateEventMessage(channelId, txId, "", "key");
+            stubImpl = new InvocationStubImpl(mockMessage, mockHandler);
+        }
+
+        @Test
+        void readsReturnPeerValue() {
+            assertThat(stubImpl.getStateBytes("key1")).isSameAs(value);
+            assertThat(stubImpl.getPrivateDataBytes("collection", "key1")).isSameAs(value);
+        }
+
+        @Test
+        void writesSendValue() throws Exception {
+            final ArgumentCaptor<ChaincodeMessage> captor = ArgumentCaptor.forClass(ChaincodeMessage.class);
+
+            stubImpl.putStateBytes("key1", value);
+            stubImpl.putPrivateDataBytes("collection", "key2", value);
+
+            verify(mockHandler, times(2)).invoke(captor.capture());
+            assertThat(captor.getAllValues())
+                    .extracting(msg -> PutState.parseFrom(msg.getPayload()))
+                    .extracting(PutState::getCollection, PutState::getKey, PutState::getValue)
+                    .containsExactly(tuple("", "key1", value), tuple("collection", "key2", value));
+        }
+
+        @Test
+        void invalidWrites() {
+            assertThatThrownBy(() -> stubImpl.putStateBytes("", value)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> stubImpl.putPrivateDataBytes(null, "key1", value))
+                    .isInstanceOf(NullPointerException.class);
+            verify(mockHandler, never()).invoke(any());
+        }
+
+        @Test
+        void event() {
+            stubImpl.setEventBytes("event", value);
+            assertThat(stubImpl.getEvent().getPayload()).isSameAs(value);
+
+            stubImpl.setEventBytes("event", null);
+            assertThat(stubImpl.getEvent().getPayload()).isEqualTo(ByteString.EMPTY);
+
+            assertThatThrownBy(() -> stubImpl.setEventBytes("", value)).isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        void noProposal() {
+            assertThat(stubImpl.getCreatorBytes()).isNull();
+            assertThat(stubImpl.getTransientBytes()).isEmpty();
+        }
+    }
+
+    @Nested
+    final class ProposalTests {
+
+        private final ByteString creator = ByteString.copyFromUtf8("creator");
+        private final ByteString nonce = ByteString.copyFromUtf8("nonce");
+
+        private InvocationStubImpl newStub(final HeaderType type, final ByteString proposalPayload) throws Exception {
+            final ChannelHeader channelHeader = ChannelHeader.newBuilder()
+                    .setType(type.getNumber())
+                    .setEpoch(1)
+                    .setTimestamp(Timestamp.newBuilder().setSeconds(10))
+                    .build();
+            final SignatureHeader signatureHeader =
+                    SignatureHeader.newBuilder().setCreator(creator).setNonce(nonce).build();
+            final Header header = Header.newBuilder()
+                    .setChannelHeader(channelHeader.toByteString())
+                    .setSignatureHeader(signatureHeader.toByteString())
+                    .build();
+            final Proposal proposal = Proposal.newBuilder()
+                    .setHeader(header.toByteString())
+                    .setPayload(proposalPayload)
+                    .build();
+            final ChaincodeMessage message = ChaincodeMessage.newBuilder()
+                    .setType(ChaincodeMessage.Type.TRANSACTION)
+                    .setChannelId(channelId)
+                    .setTxid(txId)
+                    .setProposal(SignedProposal.newBuilder().setProposalBytes(proposal.toByteString()))
+                    .build();
+            return new InvocationStubImpl(message, mock(ChaincodeInvocationTask.class));
+        }
+
+        @Test
+        void decodesProposal() throws Exception {
+            final ChaincodeProposalPayload payload = ChaincodeProposalPayload.newBuilder()
+                    .putTransientMap("key", ByteString.copyFromUtf8("value"))
+                    .build();
+
+            final InvocationStubImpl stubImpl = newStub(HeaderType.ENDORSER_TRANSACTION, payload.toByteString());
+
+            assertThat(stubImpl.getTxTimestamp()).isEqualTo(Instant.ofEpochSecond(10));
+            assertThat(stubImpl.getCreatorBytes()).isEqualTo(creator);
+            assertThat(stubImpl.getTransient()).containsOnlyKeys("key");
+            assertThat(stubImpl.getTransientBytes()).containsEntry("key", ByteString.copyFromUtf8("value"));
+
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(nonce.toByteArray());
+            digest.update(creator.toByteArray());
+            digest.update(new byte[] {1, 0, 0, 0, 0, 0, 0, 0});
+            assertThat(stubImpl.getBinding()).isEqualTo(digest.digest());
+        }
+
+        @Test
+        void invalidTypeRejected() {
+            assertThatThrownBy(() -> newStub(HeaderType.MESSAGE, ByteString.EMPTY))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        void transientDecodedOnFirstUse() throws Exception {
+            final InvocationStubImpl stubImpl =
+                    newStub(HeaderType.ENDORSER_TRANSACTION, ByteString.copyFrom(new byte[] {(byte) 0xFF}));
+
+            assertThat(stubImpl.getCreatorBytes()).isEqualTo(creator);
+            assertThatThrownBy(stubImpl::getTransient).isInstanceOf(UncheckedIOException.class);
+        }
+
+        @Test
+        void releaseProposal() throws Exception {
+            final InvocationStubImpl stubImpl = newStub(HeaderType.ENDORSER_TRANSACTION, ByteString.EMPTY);
+            assertThat(stubImpl.getSignedProposal()).isNotNull();
+
+            stubImpl.releaseProposal();
+
+            assertThat(stubImpl.getSignedProposal()).isNull();
+            assertThat(stubImpl.getCreatorBytes()).isEqualTo(creator);
+        }
+    }
+
+    @Nested
+    final class ArgsTests {
+
+        private InvocationStubImpl stubImpl;
+
+        @BeforeEach
+        void beforeEach() throws Exception {
+            final ByteString input = ChaincodeInput.newBuilder()
+                    .addArgs(ByteString.copyFromUtf8("function"))
+                    .addArgs(ByteString.copyFromUtf8("a"))
+                    .addArgs(ByteString.copyFromUtf8("b"))
+                    .build()
+                    .toByteString();
+            final ChaincodeMessage message = ChaincodeMessageFactory.newEventMessage(
+                    ChaincodeMessage.Type.TRANSACTION, channelId, txId, input);
+            stubImpl = new InvocationStubImpl(message, mock(ChaincodeInvocationTask.class));
+        }
+
+        @Test
+        void decoded() {
+            assertThat(stubImpl.getFunction()).isEqualTo("function");
+            assertThat(stubImpl.getParameters()).containsExactly("a", "b");
+            assertThat(stubImpl.getStringArgs()).containsExactly("function", "a", "b");
+        }
+
+        @Test
+        void listsCanBeChangedByTheCaller() {
+            stubImpl.getStringArgs().clear();
+            stubImpl.getParameters().remove(0);
+
+            assertThat(stubImpl.getStringArgs()).containsExactly("function", "a", "b");
+            assertThat(stubImpl.getParameters()).containsExactly("a", "b");
+        }
     }
 }
@@ -5,18 +5,29 @@
  */
 package org.hyperledger.fabric.shim.impl;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 
 import com.google.protobuf.ByteString;
+import io.grpc.stub.StreamObserver;
 import java.io.UnsupportedEncodingException;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
 import org.hyperledger.fabric.metrics.Metrics;
 import org.hyperledger.fabric.protos.peer.ChaincodeID;
+import org.hyperledger.fabric.protos.peer.ChaincodeInput;
 import org.hyperledger.fabric.protos.peer.ChaincodeMessage;
 import org.hyperledger.fabric.shim.ChaincodeBase;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ResponseUtils;
 import org.hyperledger.fabric.traces.Traces;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -25,6 +36,16 @@ import org.mockito.Mockito;
 
 final class InvocationTaskManagerTest {
 
+    private static final AtomicBoolean FACTORY_CALLED = new AtomicBoolean();
+
+    public static final class TestExecutorFactory implements InvocationTaskExecutorFactory {
+        @Override
+        public InvocationTaskExecutorService createExecutor(final Properties props) {
+            FACTORY_CALLED.set(true);
+            return new VirtualThreadTaskExecutor(10, Executors.defaultThreadFactory());
+        }
+    }
+
     private InvocationTaskManager itm;
     private ChaincodeBase chaincode;
     private Logger perfLogger;
@@ -102,4 +123,75 @@ final class InvocationTaskManagerTest {
 
         itm.onChaincodeMessage(msg);
     }
+
+    @Test
+    void customExecutorFactory() {
+        final Properties props = new Properties();
+        props.setProperty("TP_EXECUTOR", TestExecutorFactory.class.getName());
+        final ChaincodeBase cc = Mockito.mock(ChaincodeBase.class);
+        when(cc.getChaincodeConfig()).thenReturn(props);
+
+        FACTORY_CALLED.set(false);
+        final InvocationTaskManager customItm = InvocationTaskManager.getManager(
+                cc, ChaincodeID.newBuilder().setName("randomname").build());
+        assertThat(FACTORY_CALLED).isTrue();
+        customItm.shutdown();
+    }
+
+    @Test
+    void unknownExecutorFactory() {
+        final Properties props = new Properties();
+        props.setProperty("TP_EXECUTOR", "org.example.UnknownFactory");
+        final ChaincodeBase cc = Mockito.mock(ChaincodeBase.class);
+        when(cc.getChaincodeConfig()).thenReturn(props);
+
+        assertThatThrownBy(() -> InvocationTaskManager.getManager(
+                        cc, ChaincodeID.newBuilder().setName("randomname").build()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void failsTransactionWhenRequestCannotBeSent() throws Exception {
+        final CompletableFuture<ChaincodeMessage> completion = new CompletableFuture<>();
+        final OutboundMessageWriter writer = new OutboundMessageWriter(
+                new StreamObserver<ChaincodeMessage>() {
+                    @Override
+                    public void onNext(final ChaincodeMessage value) {
+                        if (value.getType() == ChaincodeMessage.Type.GET_STATE) {
+                            throw new IllegalStateException("stream closed");
+                        }
+                        completion.complete(value);
+                    }
+
+                    @Override
+                    public void onError(final Throwable t) {}
+
+                    @Override
+                    public void onCompleted() {}
+                },
+                false);
+        writer.setSendFailureHandler(itm::sendFailed);
+        itm.setResponseConsumer(writer);
+
+        when(chaincode.getState()).thenReturn(ChaincodeBase.CCState.READY);
+        when(chaincode.invoke(any())).thenAnswer(invocation -> {
+            invocation.getArgument(0, ChaincodeStub.class).getState("key");
+            return ResponseUtils.newSuccessResponse();
+        });
+
+        final ChaincodeMessage msg = ChaincodeMessageFactory.newEventMessage(
+                ChaincodeMessage.Type.TRANSACTION,
+                "mychannel",
+                "txid",
+                ChaincodeInput.newBuilder()
+                        .addArgs(ByteString.copyFromUtf8("function"))
+                        .build()
+                        .toByteString());
+        itm.onChaincodeMessage(msg);
+
+        // the transaction fails, rather than waiting for a response that will not come
+        final ChaincodeMessage response = completion.get(10, TimeUnit.SECONDS);
+        assertThat(response.getType()).isEqualTo(ChaincodeMessage.Type.ERROR);
+        assertThat(response.getTxid()).isEqualTo("txid");
+    }
 }
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.shim.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.grpc.stub.CallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.hyperledger.fabric.protos.peer.ChaincodeMessage;
+import org.junit.jupiter.api.Test;
+
+final class OutboundMessageWriterTest {
+
+    private static ChaincodeMessage message(final String txId) {
+        return ChaincodeMessage.newBuilder()
+                .setType(ChaincodeMessage.Type.PUT_STATE)
+                .setTxid(txId)
+                .build();
+    }
+
+    private static final class RecordingObserver implements StreamObserver<ChaincodeMessage> {
+        private final List<ChaincodeMessage> messages = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void onNext(final ChaincodeMessage value) {
+            messages.add(value);
+        }
+
+        @Override
+        public void onError(final Throwable t) {}
+
+        @Override
+        public void onCompleted() {}
+    }
+
+    @Test
+    void writesMessagesInOrder() {
+        final RecordingObserver observer = new RecordingObserver();
+        final OutboundMessageWriter writer = new OutboundMessageWriter(observer, false);
+
+        writer.accept(message("tx1"));
+        writer.accept(message("tx2"));
+        writer.accept(message("tx3"));
+
+        assertThat(writer.isFlowControlled()).isFalse();
+        assertThat(observer.messages).extracting(ChaincodeMessage::getTxid).containsExactly("tx1", "tx2", "tx3");
+        assertThat(writer.getOutboundMessageCount()).isEqualTo(3);
+        assertThat(writer.getOutboundQueueCount()).isZero();
+        assertThat(writer.getOutboundDrainTimeNanos()).isNotNegative();
+    }
+
+    @Test
+    void writesAllMessagesFromConcurrentThreads() throws InterruptedException {
+        final RecordingObserver observer = new RecordingObserver();
+        final OutboundMessageWriter writer = new OutboundMessageWriter(observer, false);
+        final int threads = 8;
+        final int perThread = 500;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        for (int t = 0; t < threads; t++) {
+            final String prefix = "thread" + t + ':';
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < perThread; i++) {
+                    writer.accept(message(prefix + i));
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(observer.messages).hasSize(threads * perThread);
+        assertThat(writer.getOutboundMessageCount()).isEqualTo(threads * perThread);
+        assertThat(writer.getOutboundQueueCount()).isZero();
+
+        // messages from any one thread keep their order
+        final List<String> fromFirst = new ArrayList<>();
+        observer.messages.stream()
+                .map(ChaincodeMessage::getTxid)
+                .filter(txId -> txId.startsWith("thread0:"))
+                .forEach(fromFirst::add);
+        for (int i = 0; i < perThread; i++) {
+            assertThat(fromFirst.get(i)).isEqualTo("thread0:" + i);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void waitsUntilStreamIsReady() {
+        final CallStreamObserver<ChaincodeMessage> observer = mock(CallStreamObserver.class);
+        when(observer.isReady()).thenReturn(false);
+        final OutboundMessageWriter writer = new OutboundMessageWriter(observer, false);
+
+        assertThat(writer.isFlowControlled()).isTrue();
+        verify(observer).setOnReadyHandler(any());
+
+        writer.accept(message("tx1"));
+        writer.accept(message("tx2"));
+        verify(observer, never()).onNext(any());
+        assertThat(writer.getOutboundQueueCount()).isEqualTo(2);
+
+        when(observer.isReady()).thenReturn(true);
+        writer.onReady();
+        verify(observer).onNext(message("tx1"));
+        verify(observer).onNext(message("tx2"));
+        assertThat(writer.getOutboundQueueCount()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void noFlowControlWhenHandlerCannotBeSet() {
+        final CallStreamObserver<ChaincodeMessage> observer = mock(CallStreamObserver.class);
+        doThrow(new IllegalStateException("call already started"))
+                .when(observer)
+                .setOnReadyHandler(any());
+        final OutboundMessageWriter writer = new OutboundMessageWriter(observer, false);
+
+        assertThat(writer.isFlowControlled()).isFalse();
+        assertThat(writer.isFor(observer)).isTrue();
+        writer.accept(message("tx1"));
+        verify(observer).onNext(message("tx1"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void carriesOnAfterFailedWrite() {
+        final StreamObserver<ChaincodeMessage> observer = mock(StreamObserver.class);
+        doThrow(new IllegalStateException("stream closed")).when(observer).onNext(message("tx1"));
+        final OutboundMessageWriter writer = new OutboundMessageWriter(observer, false);
+        final List<ChaincodeMessage> failed = new ArrayList<>();
+        writer.setSendFailureHandler((message, e) -> failed.add(message));
+
+        writer.accept(message("tx1"));
+        writer.accept(message("tx2"));
+
+        verify(observer).onNext(message("tx2"));
+        assertThat(writer.getOutboundMessageCount()).isEqualTo(2);
+        assertThat(failed).containsExactly(message("tx1"));
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.shim.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.protobuf.ByteString;
+import org.hyperledger.fabric.protos.peer.ChaincodeAdditionalParams;
+import org.hyperledger.fabric.protos.peer.ChaincodeMessage;
+import org.junit.jupiter.api.Test;
+
+final class PeerCapabilitiesTest {
+
+    private static ChaincodeMessage registered(final ByteString payload) {
+        return ChaincodeMessage.newBuilder()
+                .setType(ChaincodeMessage.Type.REGISTERED)
+                .setPayload(payload)
+                .build();
+    }
+
+    @Test
+    void emptyPayload() {
+        assertThat(PeerCapabilities.fromRegistered(registered(ByteString.EMPTY)))
+                .isSameAs(PeerCapabilities.NONE);
+    }
+
+    @Test
+    void additionalParams() {
+        final ChaincodeAdditionalParams params = ChaincodeAdditionalParams.newBuilder()
+                .setUseGetMultipleKeys(true)
+                .setMaxSizeGetMultipleKeys(100)
+                .setUseWriteBatch(true)
+                .setMaxSizeWriteBatch(1000)
+                .build();
+
+        final PeerCapabilities capabilities = PeerCapabilities.fromRegistered(registered(params.toByteString()));
+
+        assertThat(capabilities.isGetMultipleKeys()).isTrue();
+        assertThat(capabilities.getMaxGetMultipleKeys()).isEqualTo(100);
+        assertThat(capabilities.isWriteBatch()).isTrue();
+        assertThat(capabilities.getMaxWriteBatch()).isEqualTo(1000);
+    }
+
+    @Test
+    void invalidPayload() {
+        final PeerCapabilities capabilities =
+                PeerCapabilities.fromRegistered(registered(ByteString.copyFrom(new byte[] {(byte) 0xFF})));
+
+        assertThat(capabilities).isSameAs(PeerCapabilities.NONE);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.shim.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.GET_STATE;
+import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.QUERY_STATE_CLOSE;
+import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.QUERY_STATE_NEXT;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.hyperledger.fabric.protos.peer.ChaincodeMessage;
+import org.hyperledger.fabric.protos.peer.QueryResponse;
+import org.hyperledger.fabric.protos.peer.QueryResultBytes;
+import org.junit.jupiter.api.Test;
+
+final class QueryResultsIteratorImplTest {
+
+    private final String channelId = "mychannel";
+    private final String txId = "0xCAFEBABE";
+
+    // messages sent to the peer
+    private final List<ChaincodeMessage> sent = new ArrayList<>();
+
+    private static ByteString page(final boolean hasMore, final String... results) {
+        final QueryResponse.Builder builder = QueryResponse.newBuilder().setId("query").setHasMore(hasMore);
+        for (final String result : results) {
+            builder.addResults(QueryResultBytes.newBuilder().setResultBytes(ByteString.copyFromUtf8(result)));
+        }
+        return builder.build().toByteString();
+    }
+
+    /** Task whose peer answers QUERY_STATE_NEXT with a final page, and anything else with "value". */
+    private ChaincodeInvocationTask newTask(final int prefetchThreshold) {
+        final ChaincodeMessage message = ChaincodeMessage.newBuilder()
+                .setType(ChaincodeMessage.Type.TRANSACTION)
+                .setChannelId(channelId)
+                .setTxid(txId)
+                .build();
+        final ChaincodeInvocationTask[] task = new ChaincodeInvocationTask[1];
+        task[0] = new ChaincodeInvocationTask(
+                message,
+                ChaincodeMessage.Type.TRANSACTION,
+                request -> {
+                    sent.add(request);
+                    final ByteString payload = request.getType() == QUERY_STATE_NEXT
+                            ? page(false, "d", "e")
+                            : ByteString.copyFromUtf8("value");
+                    try {
+                        task[0].postMessage(ChaincodeMessageFactory.newEventMessage(
+                                ChaincodeMessage.Type.RESPONSE, channelId, txId, payload));
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                },
+                null,
+                PeerCapabilities.NONE,
+                new StubOptions(false, null, prefetchThreshold));
+        return task[0];
+    }
+
+    private QueryResultsIteratorImpl<String> newIterator(final ChaincodeInvocationTask task) {
+        return new QueryResultsIteratorImpl<>(
+                task,
+                channelId,
+                txId,
+                page(true, "a", "b", "c"),
+                result -> result.getResultBytes().toStringUtf8());
+    }
+
+    @Test
+    void fetchesNextPageWhenExhausted() {
+        final QueryResultsIteratorImpl<String> results = newIterator(newTask(0));
+        final Iterator<String> iterator = results.iterator();
+
+        assertThat(iterator.next()).isEqualTo("a");
+        assertThat(iterator.next()).isEqualTo("b");
+        assertThat(iterator.next()).isEqualTo("c");
+        assertThat(sent).isEmpty();
+
+        final List<String> rest = new ArrayList<>();
+        iterator.forEachRemaining(rest::add);
+        assertThat(rest).containsExactly("d", "e");
+        assertThat(sent).extracting(ChaincodeMessage::getType).containsExactly(QUERY_STATE_NEXT);
+    }
+
+    @Test
+    void prefetchesAtThreshold() {
+        final QueryResultsIteratorImpl<String> results = newIterator(newTask(1));
+        final Iterator<String> iterator = results.iterator();
+
+        assertThat(iterator.next()).isEqualTo("a");
+        assertThat(sent).isEmpty();
+        assertThat(iterator.next()).isEqualTo("b");
+        assertThat(sent).extracting(ChaincodeMessage::getType).containsExactly(QUERY_STATE_NEXT);
+
+        final List<String> rest = new ArrayList<>();
+        iterator.forEachRemaining(rest::add);
+        assertThat(rest).containsExactly("c", "d", "e");
+        assertThat(sent).hasSize(1);
+    }
+
+    @Test
+    void otherRequestsWaitForPrefetch() {
+        final ChaincodeInvocationTask task = newTask(3);
+        final Iterator<String> iterator = newIterator(task).iterator();
+
+        assertThat(iterator.next()).isEqualTo("a");
+        assertThat(task.invoke(ChaincodeMessageFactory.newGetStateEventMessage(channelId, txId, "", "key")))
+                .isEqualTo(ByteString.copyFromUtf8("value"));
+
+        final List<String> rest = new ArrayList<>();
+        iterator.forEachRemaining(rest::add);
+        assertThat(rest).containsExactly("b", "c", "d", "e");
+        assertThat(sent).extracting(ChaincodeMessage::getType).containsExactly(QUERY_STATE_NEXT, GET_STATE);
+    }
+
+    @Test
+    void closeWithPrefetchOutstanding() {
+        final QueryResultsIteratorImpl<String> results = newIterator(newTask(3));
+        final Iterator<String> iterator = results.iterator();
+
+        assertThat(iterator.next()).isEqualTo("a");
+        results.close();
+
+        assertThat(iterator.hasNext()).isFalse();
+        assertThat(sent).extracting(ChaincodeMessage::getType).containsExactly(QUERY_STATE_NEXT, QUERY_STATE_CLOSE);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.shim.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+final class VirtualThreadTaskExecutorTest {
+
+    // platform threads stand in for virtual threads, so that this runs on any JVM
+    private final ThreadFactory factory = Executors.defaultThreadFactory();
+
+    @Test
+    void runsTasksAndReportsCounts() throws InterruptedException {
+        final VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor(10, factory);
+        final CountDownLatch started = new CountDownLatch(2);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        for (int i = 0; i < 2; i++) {
+            executor.execute(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.getCurrentTaskCount()).isEqualTo(2);
+        assertThat(executor.getActiveCount()).isEqualTo(2);
+        assertThat(executor.getCurrentQueueCount()).isZero();
+        assertThat(executor.getMaximumPoolSize()).isEqualTo(10);
+
+        release.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.isTerminated()).isTrue();
+        assertThat(executor.getCurrentTaskCount()).isZero();
+        assertThat(executor.getLargestPoolSize()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsTasksOverTheLimit() throws InterruptedException {
+        final VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor(1, factory);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertThatThrownBy(() -> executor.execute(() -> {})).isInstanceOf(RejectedExecutionException.class);
+
+        release.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void rejectsTasksAfterShutdown() {
+        final VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor(1, factory);
+        executor.shutdown();
+
+        assertThat(executor.isShutdown()).isTrue();
+        assertThat(executor.isTerminated()).isTrue();
+        assertThatThrownBy(() -> executor.execute(() -> {})).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void shutdownNowInterruptsRunningTasks() throws InterruptedException {
+        final VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor(1, factory);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(60_000);
+            } catch (final InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.shutdownNow()).isEmpty();
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void createsVirtualThreads() throws InterruptedException {
+        assumeTrue(Runtime.version().feature() >= 21, "Virtual threads require Java 21");
+
+        final VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        final String[] name = new String[1];
+        executor.execute(() -> {
+            name[0] = Thread.currentThread().getName();
+            done.countDown();
+        });
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(name[0]).startsWith("fabric-txinvoke:");
+        executor.shutdown();
+    }
+
+    @Test
+    void invalidMaximumTasks() {
+        assertThatThrownBy(() -> new VirtualThreadTaskExecutor(0, factory))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.fabric.shim.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.protobuf.ByteString;
+import java.util.List;
+import org.hyperledger.fabric.protos.peer.WriteRecord;
+import org.junit.jupiter.api.Test;
+
+final class WriteBatchTest {
+
+    private static ByteString value(final String value) {
+        return ByteString.copyFromUtf8(value);
+    }
+
+    @Test
+    void keepsWritesInOrder() {
+        final WriteBatch batch = new WriteBatch();
+        batch.add(ChaincodeMessageFactory.newPutStateRecord("", "key1", value("one")));
+        batch.add(ChaincodeMessageFactory.newPutStateRecord("", "key2", value("two")));
+        batch.add(ChaincodeMessageFactory.newPutStateRecord("collection", "key1", value("three")));
+
+        final List<WriteRecord> records = batch.drain();
+
+        assertThat(records).extracting(WriteRecord::getKey).containsExactly("key1", "key2", "key1");
+        assertThat(records).extracting(WriteRecord::getCollection).containsExactly("", "", "collection");
+        assertThat(batch.isEmpty()).isTrue();
+    }
+
+    @Test
+    void laterWriteReplacesEarlier() {
+        final WriteBatch batch = new WriteBatch();
+        batch.add(ChaincodeMessageFactory.newPutStateRecord("", "key1", value("one")));
+        batch.add(ChaincodeMessageFactory.newPutStateRecord("", "key2", value("two")));
+        batch.add(ChaincodeMessageFactory.newPutStateRecord("", "key1", value("updated")));
+
+        final List<WriteRecord> records = batch.drain();
+
+        assertThat(records).extracting(WriteRecord::getKey).containsExactly("key2", "key1");
+        assertThat(records.get(1).getValue()).isEqualTo(value("updated"));
+    }
+
+    @Test
+    void deleteReplacesPut() {
+        final WriteBatch batch = new WriteBatch();
+        batch.add(ChaincodeMessageFactory.newPutStateRecord("", "key1", value("one")));
+        batch.add(ChaincodeMessageFactory.newDeleteStateRecord("", "key1"));
+
+        final List<WriteRecord> records = batch.drain();
+
+        assertThat(records).singleElement().satisfies(record -> {
+            assertThat(record.getType()).isEqualTo(WriteRecord.Type.DEL_STATE);
+            assertThat(record.getKey()).isEqualTo("key1");
+        });
+    }
+
+    @Test
+    void metadataAndPurgeKeptSeparately() {
+        final WriteBatch batch = new WriteBatch();
+        batch.add(ChaincodeMessageFactory.newPutStateRecord("collection", "key1", value("one")));
+        batch.add(ChaincodeMessageFactory.newPutStateMetadataRecord(
+                "collection", "key1", "VALIDATION_PARAMETER", value("ep")));
+        batch.add(ChaincodeMessageFactory.newPurgeStateRecord("collection", "key1"));
+
+        assertThat(batch.size()).isEqualTo(3);
+        assertThat(batch.drain())
+                .extracting(WriteRecord::getType)
+                .containsExactly(
+                        WriteRecord.Type.PUT_STATE,
+                        WriteRecord.Type.PUT_STATE_METADATA,
+                        WriteRecord.Type.PURGE_PRIVATE_DATA);
+    }
+}
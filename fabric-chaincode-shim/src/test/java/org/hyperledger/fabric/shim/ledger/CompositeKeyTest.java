@@ -6,6 +6,7 @@
 
 package org.hyperledger.fabric.shim.ledger;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
@@ -118,4 +119,49 @@ final class CompositeKeyTest {
                         CompositeKey.parseCompositeKey("abc\u0000def\u0000ghi\u0000jk\udbff\udfffl\u0000mno\u0000"))
                 .isInstanceOf(CompositeKeyFormatException.class);
     }
+
+    @Test
+    void testParseCompositeKeyEmptyAttributes() {
+        final CompositeKey key = CompositeKey.parseCompositeKey("\u0000abc\u0000\u0000ghi\u0000\u0000");
+        assertThat(key.getObjectType(), is(equalTo("abc")));
+        assertThat(key.getAttributes(), contains("", "ghi"));
+
+        assertThat(CompositeKey.parseCompositeKey("\u0000\u0000").getObjectType(), is(equalTo("")));
+        assertThat(CompositeKey.parseCompositeKey("\u0000abc").getAttributes(), hasSize(0));
+    }
+
+    @Test
+    void testInvalidSegmentMessage() {
+        assertThatThrownBy(() -> new CompositeKey("abc", "de\u0000f"))
+                .hasMessage("For input string 'de\u0000f', found 'U+000000' at index 2.");
+        assertThatThrownBy(() -> new CompositeKey("a\udbff\udfffbc"))
+                .hasMessage("For input string 'a\udbff\udfffbc', found 'U+10FFFF' at index 1.");
+        new CompositeKey("a\udbffb\udfff");
+    }
+
+    @Test
+    void testBuilder() {
+        final CompositeKey.Builder builder = CompositeKey.builder("abc").attribute("def");
+        final CompositeKey partial = builder.build();
+        final CompositeKey key = builder.attributes("ghi", "jkl").build();
+
+        assertThat(partial.toString(), is(equalTo(new CompositeKey("abc", "def").toString())));
+        assertThat(partial.getAttributes(), contains("def"));
+        assertThat(key.toString(), is(equalTo(new CompositeKey("abc", "def", "ghi", "jkl").toString())));
+        assertThat(key.getObjectType(), is(equalTo("abc")));
+        assertThat(key.getAttributes(), contains("def", "ghi", "jkl"));
+        assertThatThrownBy(() -> builder.attribute("m\u0000no")).isInstanceOf(CompositeKeyFormatException.class);
+        assertThatThrownBy(() -> CompositeKey.builder("a\u0000bc")).isInstanceOf(CompositeKeyFormatException.class);
+    }
+
+    @Test
+    void testRangeKeys() {
+        final CompositeKey key = new CompositeKey("abc", "def");
+        assertThat(key.getRangeStartKey(), is(equalTo("\u0000abc\u0000def\u0000")));
+        assertThat(key.getRangeEndKey(), is(equalTo("\u0000abc\u0000def\u0000\udbff\udfff")));
+
+        // the ledger orders keys by their UTF-8 bytes
+        final byte[] last = new CompositeKey("abc", "def", "\uffff").toString().getBytes(UTF_8);
+        assertThat(Arrays.compareUnsigned(last, key.getRangeEndKey().getBytes(UTF_8)) < 0, is(true));
+    }
 }
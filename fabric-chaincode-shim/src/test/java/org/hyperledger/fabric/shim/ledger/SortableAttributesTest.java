@@ -0,0 +1,145 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.shim.ledger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hyperledger.fabric.shim.ledger.SortableAttributes.DECIMAL;
+import static org.hyperledger.fabric.shim.ledger.SortableAttributes.DECIMAL_DESCENDING;
+import static org.hyperledger.fabric.shim.ledger.SortableAttributes.INSTANT;
+import static org.hyperledger.fabric.shim.ledger.SortableAttributes.INSTANT_DESCENDING;
+import static org.hyperledger.fabric.shim.ledger.SortableAttributes.INT;
+import static org.hyperledger.fabric.shim.ledger.SortableAttributes.INT_DESCENDING;
+import static org.hyperledger.fabric.shim.ledger.SortableAttributes.LONG;
+import static org.hyperledger.fabric.shim.ledger.SortableAttributes.LONG_DESCENDING;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+final class SortableAttributesTest {
+    private static final Comparator<String> LEDGER_ORDER =
+            Comparator.comparing(key -> key.getBytes(UTF_8), Arrays::compareUnsigned);
+
+    private static final List<Integer> INTS = List.of(Integer.MIN_VALUE, -65_536, -1, 0, 1, 15, 16, Integer.MAX_VALUE);
+    private static final List<Long> LONGS = List.of(Long.MIN_VALUE, -4_294_967_296L, -1L, 0L, 1L, Long.MAX_VALUE);
+    private static final List<Instant> INSTANTS = List.of(
+            Instant.MIN,
+            Instant.ofEpochSecond(-1, 999_999_999),
+            Instant.EPOCH,
+            Instant.ofEpochSecond(0, 1),
+            Instant.parse("2019-11-27T10:15:30Z"),
+            Instant.parse("2019-11-27T10:15:30.000000001Z"),
+            Instant.MAX);
+    private static final List<BigDecimal> DECIMALS = decimals(
+            "-1e100", "-12345.6", "-100", "-99.99", "-1", "-0.123", "-0.12", "-0.0001", "0", "0.0001", "0.12", "0.123",
+            "1", "99.99", "100", "12345.6", "1e100");
+
+    private static List<BigDecimal> decimals(final String... values) {
+        return Arrays.stream(values).map(BigDecimal::new).collect(Collectors.toList());
+    }
+
+    private static <T> void assertSorted(
+            final AttributeCodec<T> codec, final List<T> ascending, final boolean reverse) {
+        final List<String> expected = ascending.stream().map(codec::encode).collect(Collectors.toList());
+        if (reverse) {
+            Collections.reverse(expected);
+        }
+        final List<String> sorted = new ArrayList<>(expected);
+        Collections.shuffle(sorted);
+        sorted.sort(LEDGER_ORDER);
+
+        assertThat(sorted).containsExactlyElementsOf(expected);
+    }
+
+    private static <T> void assertRoundTrip(final AttributeCodec<T> codec, final List<T> values) {
+        for (final T value : values) {
+            assertThat(codec.decode(codec.encode(value))).isEqualTo(value);
+        }
+    }
+
+    @Test
+    void integers() {
+        assertThat(INT.encode(0)).isEqualTo("80000000");
+        assertThat(INT.encode(-1)).isEqualTo("7fffffff");
+        assertThat(INT_DESCENDING.encode(0)).isEqualTo("7fffffff");
+        assertThat(LONG.encode(1L)).isEqualTo("8000000000000001");
+
+        assertSorted(INT, INTS, false);
+        assertSorted(INT_DESCENDING, INTS, true);
+        assertSorted(LONG, LONGS, false);
+        assertSorted(LONG_DESCENDING, LONGS, true);
+
+        assertRoundTrip(INT, INTS);
+        assertRoundTrip(INT_DESCENDING, INTS);
+        assertRoundTrip(LONG, LONGS);
+        assertRoundTrip(LONG_DESCENDING, LONGS);
+    }
+
+    @Test
+    void instants() {
+        assertSorted(INSTANT, INSTANTS, false);
+        assertSorted(INSTANT_DESCENDING, INSTANTS, true);
+
+        assertRoundTrip(INSTANT, INSTANTS);
+        assertRoundTrip(INSTANT_DESCENDING, INSTANTS);
+    }
+
+    @Test
+    void decimals() {
+        assertSorted(DECIMAL, DECIMALS, false);
+        assertSorted(DECIMAL_DESCENDING, DECIMALS, true);
+
+        for (final BigDecimal value : DECIMALS) {
+            assertThat(DECIMAL.decode(DECIMAL.encode(value))).isEqualByComparingTo(value);
+            assertThat(DECIMAL_DESCENDING.decode(DECIMAL_DESCENDING.encode(value)))
+                    .isEqualByComparingTo(value);
+        }
+        assertThat(DECIMAL.encode(new BigDecimal("1.00"))).isEqualTo(DECIMAL.encode(BigDecimal.ONE));
+        assertThat(DECIMAL.encode(new BigDecimal("0.00"))).isEqualTo(DECIMAL.encode(BigDecimal.ZERO));
+    }
+
+    @Test
+    void invalidAttributes() {
+        assertThatThrownBy(() -> INT.decode("8000000"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Attribute is not a sortable encoding: 8000000");
+        assertThatThrownBy(() -> INT.decode("8000000A")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LONG.decode("80000000")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> INSTANT.decode("80000000000000003b9aca00"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DECIMAL.decode("")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DECIMAL.decode("280000001")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DECIMAL.decode("28000000110")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DECIMAL.decode("07fffffe8")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void compositeKeyRange() {
+        final CompositeKey prefix = new CompositeKey("payment", "alice");
+        final String start = prefix.getRangeStartKey(DECIMAL.encode(new BigDecimal("0.12")));
+        final String end = prefix.getRangeEndKey(DECIMAL.encode(new BigDecimal("100")));
+
+        for (final BigDecimal amount : DECIMALS) {
+            final String key = new CompositeKey("payment", "alice", DECIMAL.encode(amount), "tx1").toString();
+            final boolean inRange = LEDGER_ORDER.compare(key, start) >= 0 && LEDGER_ORDER.compare(key, end) < 0;
+            final boolean between =
+                    amount.compareTo(new BigDecimal("0.12")) >= 0 && amount.compareTo(new BigDecimal("100")) <= 0;
+            assertThat(inRange).as(amount.toString()).isEqualTo(between);
+        }
+
+        assertThat(LEDGER_ORDER.compare(new CompositeKey("payment", "bob", "0").toString(), end))
+                .isPositive();
+    }
+}
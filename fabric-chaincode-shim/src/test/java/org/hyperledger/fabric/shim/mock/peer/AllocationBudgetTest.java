@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.shim.mock.peer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.protobuf.ByteString;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.hyperledger.fabric.contract.ContractRouter;
+import org.hyperledger.fabric.protos.peer.ChaincodeAdditionalParams;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fails if a transaction of the {@link ReferenceContract}, through the full chaincode stack, allocates more than the
+ * budget in <code>allocation-budget.properties</code>.
+ *
+ * <p>Run on its own JVM by the <code>allocationTest</code> task, so that nothing else is allocating, as a separate CI
+ * step rather than part of <code>check</code>. The bytes are
+ * those allocated by every thread, including the mock peer's, divided by the number of transactions.
+ */
+@Tag("allocation")
+final class AllocationBudgetTest {
+    private static final int WARMUP = 20_000;
+    private static final int TRANSACTIONS = 20_000;
+
+    private LoadPeer peer;
+
+    @AfterEach
+    void afterTest() {
+        if (peer != null) {
+            peer.stop();
+        }
+    }
+
+    @Test
+    void contractTransaction() throws Exception {
+        final long budget = budget("contract.transaction.bytes");
+
+        peer = new LoadPeer(
+                Duration.ZERO, ChaincodeAdditionalParams.getDefaultInstance(), ByteString.copyFromUtf8("alice"));
+        peer.start();
+        ContractRouter.main(new String[] {"-a", "127.0.0.1:" + peer.getPort(), "-i", "allocation"});
+        peer.awaitRegistered(30, TimeUnit.SECONDS);
+
+        final LoadGenerator generator =
+                new LoadGenerator(peer, "allocationchannel", List.of("reference:transferAsset", "asset1", "bob"));
+        assertThat(generator.run(1, WARMUP).getSuccesses()).isEqualTo(WARMUP);
+        final LoadReport report = generator.run(1, TRANSACTIONS);
+        assertThat(report.getSuccesses()).isEqualTo(TRANSACTIONS);
+        assertThat(report.getAllocatedBytes()).as("allocation is measurable").isPositive();
+
+        final long bytesPerTransaction = report.getAllocatedBytes() / TRANSACTIONS;
+        assertThat(bytesPerTransaction)
+                .as(
+                        "allocated %d bytes per transaction, budget %d; if an increase is intended, raise the budget"
+                                + " in allocation-budget.properties",
+                        bytesPerTransaction,
+                        budget)
+                .isLessThanOrEqualTo(budget);
+    }
+
+    // the budget for this Java version, such as name.java21, if there is one
+    private static long budget(final String name) throws IOException {
+        final Properties budgets = new Properties();
+        try (InputStream in = AllocationBudgetTest.class.getResourceAsStream("/allocation-budget.properties")) {
+            budgets.load(in);
+        }
+        final String javaBudget = budgets.getProperty(name + ".java" + Runtime.version().feature());
+        return Long.parseLong(javaBudget == null ? budgets.getProperty(name) : javaBudget);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.shim.mock.peer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import org.hyperledger.fabric.shim.ChaincodeBase;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ResponseUtils;
+
+/**
+ * Chaincode for load testing, which reads and writes a number of keys in each transaction.
+ *
+ * <p>The keys are read one at a time with <code>getState</code>, or together with <code>getStates</code>, so that the
+ * two can be compared.
+ */
+public final class LoadChaincode extends ChaincodeBase {
+    private final Properties config;
+    private final int reads;
+    private final int writes;
+    private final boolean getStates;
+
+    /**
+     * @param config chaincode properties, such as the <code>TP_</code> thread pool settings, added to the defaults
+     * @param reads number of keys read by each transaction
+     * @param writes number of keys written by each transaction
+     * @param getStates true to read the keys with one <code>getStates</code> call, rather than one call per key
+     */
+    public LoadChaincode(final Properties config, final int reads, final int writes, final boolean getStates) {
+        super();
+        this.config = config;
+        this.reads = reads;
+        this.writes = writes;
+        this.getStates = getStates;
+    }
+
+    @Override
+    public Response init(final ChaincodeStub stub) {
+        return ResponseUtils.newSuccessResponse();
+    }
+
+    @Override
+    public Response invoke(final ChaincodeStub stub) {
+        final String txId = stub.getTxId();
+        if (getStates) {
+            final List<String> keys = new ArrayList<>(reads);
+            for (int i = 0; i < reads; i++) {
+                keys.add("read" + i);
+            }
+            stub.getStates(keys);
+        } else {
+            for (int i = 0; i < reads; i++) {
+                stub.getState("read" + i);
+            }
+        }
+        for (int i = 0; i < writes; i++) {
+            stub.putStringState(txId + i, txId);
+        }
+        return ResponseUtils.newSuccessResponse();
+    }
+
+    @Override
+    public Properties getChaincodeConfig() {
+        final Properties props = super.getChaincodeConfig();
+        props.putAll(config);
+        return props;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.shim.mock.peer;
+
+import static org.hyperledger.fabric.protos.peer.ChaincodeMessage.Type.TRANSACTION;
+
+import com.google.protobuf.ByteString;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.hyperledger.fabric.TestUtil;
+import org.hyperledger.fabric.metrics.LatencyHistogram;
+import org.hyperledger.fabric.protos.common.ChannelHeader;
+import org.hyperledger.fabric.protos.common.Header;
+import org.hyperledger.fabric.protos.common.HeaderType;
+import org.hyperledger.fabric.protos.common.SignatureHeader;
+import org.hyperledger.fabric.protos.msp.SerializedIdentity;
+import org.hyperledger.fabric.protos.peer.ChaincodeInput;
+import org.hyperledger.fabric.protos.peer.ChaincodeMessage;
+import org.hyperledger.fabric.protos.peer.Proposal;
+import org.hyperledger.fabric.protos.peer.SignedProposal;
+
+/**
+ * Sends transactions to a chaincode through a {@link LoadPeer}, keeping a fixed number in progress, and reports the
+ * throughput, latency, rejections and allocation rate.
+ *
+ * <p>The chaincode and peer run in the same JVM, so the allocation rate includes the peer's; compare runs with the same
+ * peer settings.
+ */
+public final class LoadGenerator {
+    // the payload of the ERROR message sent when the chaincode has no room to queue a transaction
+    private static final String REJECTED = "Failed to submit task for processing";
+
+    private final LoadPeer peer;
+    private final String channelId;
+    private final ByteString payload;
+    private final SignedProposal proposal;
+    private final AtomicLong txIds = new AtomicLong();
+
+    /**
+     * @param peer peer the chaincode has registered with
+     * @param channelId channel the transactions are sent on
+     * @param args function name and parameters of each transaction
+     */
+    public LoadGenerator(final LoadPeer peer, final String channelId, final List<String> args) {
+        this.peer = peer;
+        this.channelId = channelId;
+        final ChaincodeInput.Builder input = ChaincodeInput.newBuilder();
+        args.forEach(arg -> input.addArgs(ByteString.copyFromUtf8(arg)));
+        this.payload = input.build().toByteString();
+        this.proposal = proposal(channelId);
+    }
+
+    // a proposal from the same client for every transaction, as contracts need the creator's identity
+    private static SignedProposal proposal(final String channelId) {
+        final SerializedIdentity creator = SerializedIdentity.newBuilder()
+                .setMspid("loadMSP")
+                .setIdBytes(ByteString.copyFrom(Base64.getDecoder().decode(TestUtil.CERT_WITHOUT_ATTRS)))
+                .build();
+        final Header header = Header.newBuilder()
+                .setChannelHeader(ChannelHeader.newBuilder()
+                        .setType(HeaderType.ENDORSER_TRANSACTION.getNumber())
+                        .setChannelId(channelId)
+                        .build()
+                        .toByteString())
+                .setSignatureHeader(SignatureHeader.newBuilder()
+                        .setCreator(creator.toByteString())
+                        .build()
+                        .toByteString())
+                .build();
+        final Proposal proposal =
+                Proposal.newBuilder().setHeader(header.toByteString()).build();
+        return SignedProposal.newBuilder()
+                .setProposalBytes(proposal.toByteString())
+                .build();
+    }
+
+    /**
+     * Send transactions, and wait for them all to complete.
+     *
+     * @param concurrency number of transactions to keep in progress
+     * @param transactions number of transactions to send
+     * @return LoadReport
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public LoadReport run(final int concurrency, final int transactions) throws InterruptedException {
+        final Semaphore inProgress = new Semaphore(concurrency);
+        final CountDownLatch completed = new CountDownLatch(transactions);
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder successes = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder rejections = new LongAdder();
+
+        final long allocatedAtStart = allocatedBytes();
+        final long start = System.nanoTime();
+        for (int i = 0; i < transactions; i++) {
+            inProgress.acquire();
+            final long sent = System.nanoTime();
+            peer.send(transaction()).whenComplete((response, t) -> {
+                if (response == null || response.getType() != ChaincodeMessage.Type.COMPLETED) {
+                    if (response != null && REJECTED.equals(response.getPayload().toStringUtf8())) {
+                        rejections.increment();
+                    } else {
+                        errors.increment();
+                        latency.record(System.nanoTime() - sent);
+                    }
+                } else {
+                    successes.increment();
+                    latency.record(System.nanoTime() - sent);
+                }
+                inProgress.release();
+                completed.countDown();
+            });
+        }
+        completed.await();
+        final long elapsed = System.nanoTime() - start;
+        final long allocatedAtEnd = allocatedBytes();
+
+        return new LoadReport(
+                successes.sum(),
+                errors.sum(),
+                rejections.sum(),
+                elapsed,
+                allocatedAtStart < 0 ? -1 : allocatedAtEnd - allocatedAtStart,
+                latency);
+    }
+
+    private ChaincodeMessage transaction() {
+        return ChaincodeMessage.newBuilder()
+                .setType(TRANSACTION)
+                .setChannelId(channelId)
+                .setTxid("load" + txIds.incrementAndGet())
+                .setPayload(payload)
+                .setProposal(proposal)
+                .build();
+    }
+
+    /**
+     * Bytes allocated by the threads that are running; those of threads that end during a run are not counted.
+     *
+     * @return bytes allocated, or -1 if the JVM cannot measure this
+     */
+    private static long allocatedBytes() {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        final com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+        if (!allocation.isThreadAllocatedMemorySupported() || !allocation.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (final long allocated : allocation.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (allocated > 0) {
+                total += allocated;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.shim.mock.peer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.protobuf.ByteString;
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.hyperledger.fabric.protos.peer.ChaincodeAdditionalParams;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+final class LoadGeneratorTest {
+    private LoadPeer peer;
+
+    @AfterEach
+    void afterTest() {
+        if (peer != null) {
+            peer.stop();
+            peer = null;
+        }
+    }
+
+    private LoadGenerator start(
+            final Duration latency,
+            final ChaincodeAdditionalParams capabilities,
+            final LoadChaincode chaincode)
+            throws Exception {
+        peer = new LoadPeer(latency, capabilities, ByteString.copyFromUtf8("value"));
+        peer.start();
+        chaincode.start(new String[] {"-a", "127.0.0.1:" + peer.getPort(), "-i", "loadtest"});
+        peer.awaitRegistered(10, TimeUnit.SECONDS);
+        return new LoadGenerator(peer, "loadchannel", List.of("invoke"));
+    }
+
+    @Test
+    void reportsTransactionsAndLatency() throws Exception {
+        final LoadGenerator generator = start(
+                Duration.ofMillis(1),
+                ChaincodeAdditionalParams.getDefaultInstance(),
+                new LoadChaincode(new Properties(), 2, 1, false));
+
+        final LoadReport report = generator.run(10, 200);
+
+        assertThat(report.getTransactions()).isEqualTo(200);
+        assertThat(report.getSuccesses()).isEqualTo(200);
+        assertThat(report.getErrors()).isZero();
+        assertThat(report.getRejections()).isZero();
+        assertThat(peer.getLedgerCallCount()).isEqualTo(600);
+        assertThat(report.getLatency().getCount()).isEqualTo(200);
+        // each transaction waits for three requests to the ledger in turn
+        assertThat(report.getLatency().getValueAtPercentile(50)).isGreaterThanOrEqualTo(3_000_000L);
+        assertThat(report.getThroughput()).isPositive();
+        assertThat(report.toString()).contains("transactions=200", "successes=200", "p999=");
+    }
+
+    @Test
+    void usesPeerCapabilities() throws Exception {
+        final Properties config = new Properties();
+        config.setProperty("CHAINCODE_WRITE_BATCH_ENABLED", "true");
+        final LoadGenerator generator = start(
+                Duration.ZERO,
+                ChaincodeAdditionalParams.newBuilder()
+                        .setUseGetMultipleKeys(true)
+                        .setUseWriteBatch(true)
+                        .build(),
+                new LoadChaincode(config, 4, 2, true));
+
+        final LoadReport report = generator.run(5, 50);
+
+        assertThat(report.getSuccesses()).isEqualTo(50);
+        // one GET_STATE_MULTIPLE and one WRITE_BATCH_STATE for each transaction
+        assertThat(peer.getLedgerCallCount()).isEqualTo(100);
+    }
+
+    @Test
+    void reportsRejections() throws Exception {
+        final Properties config = new Properties();
+        config.setProperty("TP_CORE_POOL_SIZE", "1");
+        config.setProperty("TP_MAX_POOL_SIZE", "1");
+        config.setProperty("TP_QUEUE_SIZE", "1");
+        final LoadGenerator generator = start(
+                Duration.ofMillis(20),
+                ChaincodeAdditionalParams.getDefaultInstance(),
+                new LoadChaincode(config, 1, 0, false));
+
+        final LoadReport report = generator.run(20, 40);
+
+        assertThat(report.getTransactions()).isEqualTo(40);
+        assertThat(report.getRejections()).isPositive();
+        assertThat(report.getSuccesses() + report.getRejections()).isEqualTo(40);
+        assertThat(report.getLatency().getCount()).isEqualTo(report.getSuccesses());
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.shim.mock.peer;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.stub.StreamObserver;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import org.hyperledger.fabric.protos.peer.ChaincodeAdditionalParams;
+import org.hyperledger.fabric.protos.peer.ChaincodeMessage;
+import org.hyperledger.fabric.protos.peer.ChaincodeSupportGrpc;
+import org.hyperledger.fabric.protos.peer.GetStateMultiple;
+import org.hyperledger.fabric.protos.peer.GetStateMultipleResult;
+import org.hyperledger.fabric.protos.peer.QueryResponse;
+
+/**
+ * Mock peer for load testing.
+ *
+ * <p>Unlike {@link ChaincodeMockPeer}, which follows a script one message at a time, this answers any number of
+ * concurrent transactions. Every request the chaincode makes to the ledger is answered after a simulated latency, and
+ * each transaction sent to the chaincode completes when the chaincode sends its COMPLETED or ERROR message.
+ */
+public final class LoadPeer {
+    private static final Logger LOGGER = Logger.getLogger(LoadPeer.class.getName());
+
+    private final Server server;
+    private final LoadPeerService service;
+
+    /**
+     * @param ledgerCallLatency time taken to answer each request to the ledger
+     * @param capabilities optional features to offer the chaincode when it registers
+     * @param value value returned for each key read
+     */
+    public LoadPeer(
+            final Duration ledgerCallLatency, final ChaincodeAdditionalParams capabilities, final ByteString value) {
+        this.service = new LoadPeerService(ledgerCallLatency.toNanos(), capabilities, value);
+        this.server = ServerBuilder.forPort(0).addService(service).build();
+    }
+
+    /** Start serving requests, on a free port. */
+    public void start() throws IOException {
+        server.start();
+        LOGGER.info(() -> "Load peer started, listening on " + server.getPort());
+    }
+
+    /** @return port the peer is listening on */
+    public int getPort() {
+        return server.getPort();
+    }
+
+    /**
+     * Wait for the chaincode to register.
+     *
+     * @param timeout maximum time to wait
+     * @param unit unit of the timeout
+     * @throws InterruptedException if interrupted while waiting
+     * @throws TimeoutException if the chaincode did not register in time
+     */
+    public void awaitRegistered(final long timeout, final TimeUnit unit)
+            throws InterruptedException, TimeoutException {
+        if (!service.registered.await(timeout, unit)) {
+            throw new TimeoutException("Chaincode did not register with the load peer");
+        }
+    }
+
+    /**
+     * Send a transaction to the chaincode.
+     *
+     * @param transaction TRANSACTION message, with a transaction ID not used by any other in progress
+     * @return completed with the chaincode's COMPLETED or ERROR message for the transaction
+     */
+    public CompletableFuture<ChaincodeMessage> send(final ChaincodeMessage transaction) {
+        final CompletableFuture<ChaincodeMessage> result = new CompletableFuture<>();
+        service.pending.put(key(transaction), result);
+        service.send(transaction);
+        return result;
+    }
+
+    /** @return number of requests to the ledger answered */
+    public long getLedgerCallCount() {
+        return service.ledgerCalls.sum();
+    }
+
+    /** Stop serving requests; the chaincode shuts down when its stream to the peer closes. */
+    public void stop() {
+        service.scheduler.shutdownNow();
+        server.shutdownNow();
+        try {
+            server.awaitTermination();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String key(final ChaincodeMessage message) {
+        return message.getChannelId() + message.getTxid();
+    }
+
+    private static final class LoadPeerService extends ChaincodeSupportGrpc.ChaincodeSupportImplBase {
+        private final long latencyNanos;
+        private final ChaincodeAdditionalParams capabilities;
+        private final ByteString value;
+        private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread thread = new Thread(r, "load-peer-ledger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        private final Map<String, CompletableFuture<ChaincodeMessage>> pending = new ConcurrentHashMap<>();
+        private final CountDownLatch registered = new CountDownLatch(1);
+        private final LongAdder ledgerCalls = new LongAdder();
+        private StreamObserver<ChaincodeMessage> observer;
+
+        LoadPeerService(
+                final long latencyNanos, final ChaincodeAdditionalParams capabilities, final ByteString value) {
+            this.latencyNanos = latencyNanos;
+            this.capabilities = capabilities;
+            this.value = value;
+        }
+
+        void send(final ChaincodeMessage message) {
+            // the stream may only be written by one thread at a time
+            synchronized (this) {
+                observer.onNext(message);
+            }
+        }
+
+        @Override
+        public StreamObserver<ChaincodeMessage> register(final StreamObserver<ChaincodeMessage> responseObserver) {
+            synchronized (this) {
+                observer = responseObserver;
+            }
+            return new StreamObserver<>() {
+                @Override
+                public void onNext(final ChaincodeMessage message) {
+                    receive(message);
+                }
+
+                @Override
+                public void onError(final Throwable t) {
+                    LOGGER.warning(() -> "Load peer stream failed: " + t);
+                }
+
+                @Override
+                public void onCompleted() {}
+            };
+        }
+
+        private void receive(final ChaincodeMessage message) {
+            switch (message.getType()) {
+                case REGISTER:
+                    send(ChaincodeMessage.newBuilder()
+                            .setType(ChaincodeMessage.Type.REGISTERED)
+                            .setPayload(capabilities.toByteString())
+                            .build());
+                    send(ChaincodeMessage.newBuilder()
+                            .setType(ChaincodeMessage.Type.READY)
+                            .build());
+                    registered.countDown();
+                    break;
+                case COMPLETED:
+                case ERROR:
+                    final CompletableFuture<ChaincodeMessage> result = pending.remove(key(message));
+                    if (result != null) {
+                        result.complete(message);
+                    }
+                    break;
+                case KEEPALIVE:
+                    break;
+                default:
+                    ledgerCalls.increment();
+                    final ChaincodeMessage response = respond(message);
+                    if (latencyNanos > 0) {
+                        scheduler.schedule(() -> send(response), latencyNanos, TimeUnit.NANOSECONDS);
+                    } else {
+                        send(response);
+                    }
+            }
+        }
+
+        private ChaincodeMessage respond(final ChaincodeMessage request) {
+            final ChaincodeMessage.Builder response = ChaincodeMessage.newBuilder()
+                    .setType(ChaincodeMessage.Type.RESPONSE)
+                    .setChannelId(request.getChannelId())
+                    .setTxid(request.getTxid());
+            switch (request.getType()) {
+                case GET_STATE:
+                case GET_PRIVATE_DATA_HASH:
+                    response.setPayload(value);
+                    break;
+                case GET_STATE_MULTIPLE:
+                    response.setPayload(getStateMultiple(request));
+                    break;
+                case GET_STATE_BY_RANGE:
+                case GET_QUERY_RESULT:
+                case GET_HISTORY_FOR_KEY:
+                case QUERY_STATE_NEXT:
+                case QUERY_STATE_CLOSE:
+                    response.setPayload(QueryResponse.newBuilder()
+                            .setHasMore(false)
+                            .setId(request.getTxid())
+                            .build()
+                            .toByteString());
+                    break;
+                case INVOKE_CHAINCODE:
+                    response.setType(ChaincodeMessage.Type.ERROR)
+                            .setPayload(ByteString.copyFromUtf8("Not supported by the load peer"));
+                    break;
+                default:
+                    // writes, and anything else, succeed with no payload
+                    break;
+            }
+            return response.build();
+        }
+
+        private ByteString getStateMultiple(final ChaincodeMessage request) {
+            try {
+                final int keys = GetStateMultiple.parseFrom(request.getPayload()).getKeysCount();
+                return GetStateMultipleResult.newBuilder()
+                        .addAllValues(Collections.nCopies(keys, value))
+                        .build()
+                        .toByteString();
+            } catch (final InvalidProtocolBufferException e) {
+                throw new IllegalArgumentException("Invalid GET_STATE_MULTIPLE request", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.shim.mock.peer;
+
+import java.util.Locale;
+import org.hyperledger.fabric.metrics.LatencyHistogram;
+
+/** Results of a run of the {@link LoadGenerator}. */
+public final class LoadReport {
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final long successes;
+    private final long errors;
+    private final long rejections;
+    private final long elapsedNanos;
+    private final long allocatedBytes;
+    private final LatencyHistogram latency;
+
+    LoadReport(
+            final long successes,
+            final long errors,
+            final long rejections,
+            final long elapsedNanos,
+            final long allocatedBytes,
+            final LatencyHistogram latency) {
+        this.successes = successes;
+        this.errors = errors;
+        this.rejections = rejections;
+        this.elapsedNanos = elapsedNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.latency = latency;
+    }
+
+    /** @return number of transactions sent */
+    public long getTransactions() {
+        return successes + errors + rejections;
+    }
+
+    /** @return number of transactions that completed successfully */
+    public long getSuccesses() {
+        return successes;
+    }
+
+    /** @return number of transactions that failed, other than those rejected */
+    public long getErrors() {
+        return errors;
+    }
+
+    /** @return number of transactions rejected, as there was no room to queue them */
+    public long getRejections() {
+        return rejections;
+    }
+
+    /** @return time from the first transaction being sent to the last completing */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /** @return transactions completed per second, successfully or not, excluding those rejected */
+    public double getThroughput() {
+        return (successes + errors) * NANOS_PER_SECOND / elapsedNanos;
+    }
+
+    /**
+     * Latency from the peer sending each transaction to receiving its response; rejected transactions are not
+     * included.
+     *
+     * @return LatencyHistogram
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /** @return bytes allocated by all threads during the run, or -1 if the JVM cannot measure this */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /** @return bytes allocated per second, or -1 if the JVM cannot measure this */
+    public double getAllocationRate() {
+        return allocatedBytes < 0 ? -1 : allocatedBytes * NANOS_PER_SECOND / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        final long transactions = getTransactions();
+        return String.format(
+                Locale.ROOT,
+                "transactions=%d successes=%d errors=%d rejections=%d tx/s=%.1f"
+                        + " latency_ms={ p50=%.3f p99=%.3f p999=%.3f max=%.3f }"
+                        + " allocation={ MB/s=%.1f bytes/tx=%d }",
+                transactions,
+                successes,
+                errors,
+                rejections,
+                getThroughput(),
+                latency.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                latency.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                latency.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                latency.getMaxNanos() / NANOS_PER_MILLI,
+                getAllocationRate() / (1024 * 1024),
+                transactions == 0 || allocatedBytes < 0 ? -1 : allocatedBytes / transactions);
+    }
+}
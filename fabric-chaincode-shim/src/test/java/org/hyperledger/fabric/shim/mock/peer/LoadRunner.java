@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.shim.mock.peer;
+
+import com.google.protobuf.ByteString;
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.hyperledger.fabric.protos.peer.ChaincodeAdditionalParams;
+
+/**
+ * Runs a {@link LoadChaincode} against a {@link LoadPeer}, through the full chaincode stack, and prints the results.
+ *
+ * <p>Run with <code>./gradlew :fabric-chaincode-shim:loadTest</code>, setting any of these system properties to compare
+ * settings:
+ *
+ * <ul>
+ *   <li><code>load.concurrency</code> transactions in progress, default 100
+ *   <li><code>load.transactions</code> transactions measured, default 20000
+ *   <li><code>load.warmup</code> transactions sent before those measured, default 5000
+ *   <li><code>load.latencyMicros</code> simulated latency of each request to the ledger, default 500
+ *   <li><code>load.reads</code> and <code>load.writes</code> keys read and written by each transaction, defaults 2
+ *       and 1
+ *   <li><code>load.getStates</code> read the keys with one <code>getStates</code> call, default false
+ *   <li><code>load.getMultipleKeys</code> and <code>load.writeBatch</code> offer the chaincode GET_STATE_MULTIPLE and
+ *       write batching, default false
+ * </ul>
+ *
+ * <p>System properties starting <code>TP_</code> or <code>CHAINCODE_</code>, such as <code>TP_MAX_POOL_SIZE</code>,
+ * <code>TP_QUEUE_SIZE</code>, <code>TP_EXECUTOR</code> and <code>CHAINCODE_WRITE_BATCH_ENABLED</code>, are passed to
+ * the chaincode.
+ */
+public final class LoadRunner {
+    private static final String CHANNEL = "loadchannel";
+
+    private LoadRunner() {}
+
+    @SuppressWarnings("PMD.SystemPrintln")
+    public static void main(final String[] args) throws Exception {
+        final int concurrency = Integer.getInteger("load.concurrency", 100);
+        final int transactions = Integer.getInteger("load.transactions", 20_000);
+        final int warmup = Integer.getInteger("load.warmup", 5_000);
+        final Duration latency = Duration.ofNanos(
+                TimeUnit.MICROSECONDS.toNanos(Long.getLong("load.latencyMicros", 500)));
+        final int reads = Integer.getInteger("load.reads", 2);
+        final int writes = Integer.getInteger("load.writes", 1);
+        final boolean getStates = Boolean.getBoolean("load.getStates");
+        final ChaincodeAdditionalParams capabilities = ChaincodeAdditionalParams.newBuilder()
+                .setUseGetMultipleKeys(Boolean.getBoolean("load.getMultipleKeys"))
+                .setUseWriteBatch(Boolean.getBoolean("load.writeBatch"))
+                .build();
+
+        final Properties config = new Properties();
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith("TP_") || name.startsWith("CHAINCODE_"))
+                .forEach(name -> config.setProperty(name, System.getProperty(name)));
+
+        final LoadPeer peer = new LoadPeer(latency, capabilities, ByteString.copyFromUtf8("value"));
+        peer.start();
+        try {
+            final LoadChaincode chaincode = new LoadChaincode(config, reads, writes, getStates);
+            chaincode.start(new String[] {"-a", "127.0.0.1:" + peer.getPort(), "-i", "loadtest"});
+            peer.awaitRegistered(30, TimeUnit.SECONDS);
+
+            System.out.println("Settings: concurrency=" + concurrency + " latency=" + latency + " reads=" + reads
+                    + " writes=" + writes + " getStates=" + getStates + " getMultipleKeys="
+                    + capabilities.getUseGetMultipleKeys() + " writeBatch=" + capabilities.getUseWriteBatch()
+                    + " chaincode=" + config);
+            final LoadGenerator generator = new LoadGenerator(peer, CHANNEL, List.of("invoke"));
+            if (warmup > 0) {
+                System.out.println("Warm up: " + generator.run(concurrency, warmup));
+            }
+            System.out.println("Measured: " + generator.run(concurrency, transactions));
+        } finally {
+            peer.stop();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2019 IBM All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.shim.mock.peer;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.contract.ContractInterface;
+import org.hyperledger.fabric.contract.annotation.Contract;
+import org.hyperledger.fabric.contract.annotation.Transaction;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+
+/** Contract whose transaction reads and writes a key, as a typical transaction would, for the allocation budget. */
+@Contract(name = "reference")
+public final class ReferenceContract implements ContractInterface {
+
+    /**
+     * @param ctx
+     * @param assetId key of the asset
+     * @param newOwner value written to the key
+     * @return the previous value
+     */
+    @Transaction
+    public String transferAsset(final Context ctx, final String assetId, final String newOwner) {
+        final ChaincodeStub stub = ctx.getStub();
+        final String previous = stub.getStringState(assetId);
+        stub.putStringState(assetId, newOwner);
+        return previous;
+    }
+}
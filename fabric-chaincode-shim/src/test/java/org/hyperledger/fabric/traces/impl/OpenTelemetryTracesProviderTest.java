@@ -6,6 +6,7 @@
 package org.hyperledger.fabric.traces.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import io.grpc.ManagedChannelBuilder;
 import io.grpc.Server;
@@ -17,8 +18,14 @@ import io.grpc.Status;
 import io.grpc.inprocess.InProcessChannelBuilder;
 import io.grpc.inprocess.InProcessServerBuilder;
 import io.grpc.stub.StreamObserver;
+import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.data.EventData;
 import io.opentelemetry.sdk.trace.data.SpanData;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.CompletableFuture;
@@ -67,6 +74,96 @@ final class OpenTelemetryTracesProviderTest {
         assertThat(provider.createInterceptor()).isNotNull();
     }
 
+    private static Properties ledgerCallProperties(final String ledgerCalls) {
+        Properties props = new Properties();
+        props.put("OTEL_TRACES_SAMPLER", "always_on");
+        props.put("OTEL_BSP_SCHEDULE_DELAY", "100");
+        props.put("otel.traces.exporter", "TestSpanExporterProvider");
+        props.put("otel.metrics.exporter", "none");
+        props.put("otel.logs.exporter", "none");
+        props.put("CHAINCODE_TRACES_LEDGER_CALLS", ledgerCalls);
+        return props;
+    }
+
+    @Test
+    void ledgerCallsNotTracedByDefault() {
+        OpenTelemetryTracesProvider provider = new OpenTelemetryTracesProvider();
+        provider.initialize(ledgerCallProperties("none"));
+        Span span = provider.createSpan(new ChaincodeStubNaiveImpl());
+
+        provider.recordLedgerCall(span, "GET_STATE", 1_000_000, true);
+        span.end();
+
+        assertThat(((ReadableSpan) span).toSpanData().getEvents()).isEmpty();
+    }
+
+    @Test
+    void ledgerCallEvents() {
+        OpenTelemetryTracesProvider provider = new OpenTelemetryTracesProvider();
+        provider.initialize(ledgerCallProperties("events"));
+        Span span = provider.createSpan(new ChaincodeStubNaiveImpl());
+
+        provider.recordLedgerCall(span, "GET_STATE", 1_000_000, true);
+        provider.recordLedgerCall(span, "PUT_STATE", 2_000_000, false);
+        span.end();
+
+        List<EventData> events = ((ReadableSpan) span).toSpanData().getEvents();
+        assertThat(events).extracting(EventData::getName).containsExactly("GET_STATE", "PUT_STATE");
+        assertThat(events.get(0).getAttributes().get(AttributeKey.longKey("duration_ns"))).isEqualTo(1_000_000L);
+        assertThat(events.get(1).getAttributes().get(AttributeKey.booleanKey("success"))).isFalse();
+    }
+
+    @Test
+    void ledgerCallSpans() throws InterruptedException {
+        OpenTelemetryTracesProvider provider = new OpenTelemetryTracesProvider();
+        provider.initialize(ledgerCallProperties("spans"));
+        Span span = provider.createSpan(new ChaincodeStubNaiveImpl());
+
+        provider.recordLedgerCall(span, "GET_STATE", 1_000_000, false);
+        span.end();
+
+        String parentSpanId = span.getSpanContext().getSpanId();
+        List<SpanData> children = new ArrayList<>();
+        for (int i = 0; i < 50 && children.isEmpty(); i++) {
+            Thread.sleep(100);
+            synchronized (TestSpanExporterProvider.SPANS) {
+                TestSpanExporterProvider.SPANS.stream()
+                        .filter(s -> parentSpanId.equals(s.getParentSpanId()))
+                        .forEach(children::add);
+            }
+        }
+        assertThat(children).singleElement().satisfies(child -> {
+            assertThat(child.getName()).isEqualTo("GET_STATE");
+            assertThat(child.getKind()).isEqualTo(SpanKind.CLIENT);
+            assertThat(child.getStatus().getStatusCode()).isEqualTo(StatusCode.ERROR);
+            assertThat(child.getEndEpochNanos() - child.getStartEpochNanos()).isEqualTo(1_000_000L);
+            assertThat(child.getTraceId()).isEqualTo(span.getSpanContext().getTraceId());
+        });
+    }
+
+    @Test
+    void ledgerCallsRatio() {
+        Properties props = ledgerCallProperties("events");
+        props.put("CHAINCODE_TRACES_LEDGER_CALLS_RATIO", "0");
+        OpenTelemetryTracesProvider provider = new OpenTelemetryTracesProvider();
+        provider.initialize(props);
+        Span span = provider.createSpan(new ChaincodeStubNaiveImpl());
+
+        provider.recordLedgerCall(span, "GET_STATE", 1_000_000, true);
+        span.end();
+
+        assertThat(((ReadableSpan) span).toSpanData().getEvents()).isEmpty();
+    }
+
+    @Test
+    void unknownLedgerCallsSetting() {
+        OpenTelemetryTracesProvider provider = new OpenTelemetryTracesProvider();
+
+        assertThatThrownBy(() -> provider.initialize(ledgerCallProperties("everything")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("CHAINCODE_TRACES_LEDGER_CALLS must be none, events or spans: everything");
+    }
+
     @Test
     void testTracing() throws Exception {
 
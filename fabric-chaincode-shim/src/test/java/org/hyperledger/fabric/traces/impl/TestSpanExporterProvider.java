@@ -12,11 +12,12 @@ import io.opentelemetry.sdk.trace.data.SpanData;
 import io.opentelemetry.sdk.trace.export.SpanExporter;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 public final class TestSpanExporterProvider implements ConfigurableSpanExporterProvider {
 
-    public static final List<SpanData> SPANS = new ArrayList<>();
+    public static final List<SpanData> SPANS = Collections.synchronizedList(new ArrayList<>());
     public static final SpanExporter EXPORTER = new SpanExporter() {
 
         @Override